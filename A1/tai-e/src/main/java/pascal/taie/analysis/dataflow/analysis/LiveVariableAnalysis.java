@@ -18,6 +18,7 @@
 
 package pascal.taie.analysis.dataflow.analysis;
 
+import pascal.taie.analysis.dataflow.fact.BitSetFact;
 import pascal.taie.analysis.dataflow.fact.SetFact;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.config.AnalysisConfig;
@@ -47,7 +48,7 @@ public class LiveVariableAnalysis extends AbstractDataflowAnalysis<Stmt, SetFact
     @Override
     public SetFact<Var> newBoundaryFact(CFG<Stmt> cfg) {
         // TODO - finish me
-        return new SetFact<>();
+        return BitSetFact.forVars(cfg.getIR());
     }
 
     @Override
@@ -56,6 +57,11 @@ public class LiveVariableAnalysis extends AbstractDataflowAnalysis<Stmt, SetFact
         return new SetFact<>();
     }
 
+    @Override
+    public SetFact<Var> newInitialFact(CFG<Stmt> cfg) {
+        return BitSetFact.forVars(cfg.getIR());
+    }
+
     @Override
     public void meetInto(SetFact<Var> fact, SetFact<Var> target) {
         // TODO - finish me
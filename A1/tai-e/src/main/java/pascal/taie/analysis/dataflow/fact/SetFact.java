@@ -26,13 +26,18 @@ import pascal.taie.util.collection.CollectionUtils;
 import pascal.taie.util.collection.Sets;
 
 import java.util.Collection;
-import java.util.Collections;
+import java.util.Iterator;
 import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 /**
  * Represents set-like data-flow facts.
+ * <p>
+ * Subclasses may keep their elements in other forms, e.g., bit vectors.
+ * So the operations of this class access other facts only through
+ * {@link #contains(Object)}, {@link #stream()} and {@link #size()},
+ * and different kinds of facts can be mixed.
  *
  * @param <E> type of elements
  */
@@ -45,7 +50,16 @@ public class SetFact<E> {
     }
 
     public SetFact() {
-        this(Collections.emptySet());
+        set = Sets.newHybridSet();
+    }
+
+    /**
+     * Constructs a fact which uses given set as is. Subclasses which keep
+     * their elements in other forms pass an empty immutable set, and
+     * override all operations which access {@link #set}.
+     */
+    protected SetFact(Set<E> set) {
+        this.set = set;
     }
 
     /**
@@ -89,7 +103,11 @@ public class SetFact<E> {
      * @return true if this fact changed as a result of the call, otherwise false.
      */
     public boolean union(SetFact<E> other) {
-        return set.addAll(other.set);
+        boolean changed = false;
+        for (Iterator<E> it = other.stream().iterator(); it.hasNext(); ) {
+            changed |= set.add(it.next());
+        }
+        return changed;
     }
 
     /**
@@ -107,7 +125,7 @@ public class SetFact<E> {
      * @return true if this fact changed as a result of the call, otherwise false.
      */
     public boolean intersect(SetFact<E> other) {
-        return set.retainAll(other.set);
+        return set.removeIf(e -> !other.contains(e));
     }
 
     /**
@@ -119,6 +137,15 @@ public class SetFact<E> {
         return result;
     }
 
+    /**
+     * Removes all elements of other fact from this fact.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean removeAll(SetFact<E> other) {
+        return set.removeIf(other::contains);
+    }
+
     /**
      * Sets the content of this set to the same as other set.
      */
@@ -131,7 +158,7 @@ public class SetFact<E> {
      * Creates and returns a copy of this fact.
      */
     public SetFact<E> copy() {
-        return new SetFact<>(this.set);
+        return new SetFact<>(Sets.newHybridSet(set));
     }
 
     /**
@@ -161,7 +188,7 @@ public class SetFact<E> {
         if (!(o instanceof SetFact<?> that)) {
             return false;
         }
-        return set.equals(that.set);
+        return size() == that.size() && that.stream().allMatch(set::contains);
     }
 
     @Override
@@ -79,7 +79,7 @@ public abstract class Solver<Node, Fact> {
 
         /// memory allocation
         for(Node node :cfg){
-            result.setOutFact(node, analysis.newInitialFact());
+            result.setOutFact(node, analysis.newInitialFact(cfg));
         }
 
         result.setInFact(cfg.getExit(), analysis.newBoundaryFact(cfg));
@@ -89,7 +89,7 @@ public abstract class Solver<Node, Fact> {
                 continue;
             }
 
-            result.setInFact(node, analysis.newInitialFact());
+            result.setInFact(node, analysis.newInitialFact(cfg));
         }
     }
 
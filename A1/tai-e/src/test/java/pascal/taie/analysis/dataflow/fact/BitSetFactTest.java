@@ -0,0 +1,144 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import org.junit.Test;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.type.PrimitiveType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BitSetFactTest {
+
+    private static final int N = 100;
+
+    private final List<Var> vars = new ArrayList<>();
+
+    public BitSetFactTest() {
+        for (int i = 0; i < N; ++i) {
+            vars.add(new Var(null, "v" + i, PrimitiveType.INT, i));
+        }
+    }
+
+    private BitSetFact<Var> bits(int... indexes) {
+        BitSetFact<Var> fact = new BitSetFact<>(vars::get, N);
+        for (int i : indexes) {
+            fact.add(vars.get(i));
+        }
+        return fact;
+    }
+
+    private SetFact<Var> plain(int... indexes) {
+        SetFact<Var> fact = new SetFact<>();
+        for (int i : indexes) {
+            fact.add(vars.get(i));
+        }
+        return fact;
+    }
+
+    @Test
+    public void testBitOperations() {
+        BitSetFact<Var> fact = bits(1, 64, 99);
+        assertTrue(fact.union(bits(2, 64)));
+        assertFalse(fact.union(bits(1, 2)));
+        assertEquals(bits(1, 2, 64, 99), fact);
+        assertTrue(fact.intersect(bits(2, 64, 70)));
+        assertEquals(bits(2, 64), fact);
+        assertTrue(fact.removeAll(bits(64)));
+        assertEquals(bits(2), fact);
+        assertEquals(1, fact.size());
+    }
+
+    @Test
+    public void testBitSetAndRemoveIf() {
+        BitSetFact<Var> fact = bits(1, 2, 64, 99);
+        fact.set(bits(3, 65));
+        assertEquals(bits(3, 65), fact);
+        assertTrue(fact.removeIf(v -> v.getIndex() > 64));
+        assertFalse(fact.removeIf(v -> v.getIndex() > 64));
+        assertEquals(bits(3), fact);
+        BitSetFact<Var> copy = fact.copy();
+        copy.add(vars.get(4));
+        assertEquals(bits(3), fact);
+    }
+
+    @Test
+    public void testPlainUnionBits() {
+        SetFact<Var> fact = plain(1);
+        assertTrue(fact.union(bits(2, 65)));
+        assertEquals(plain(1, 2, 65), fact);
+        assertFalse(fact.union(bits(65)));
+    }
+
+    @Test
+    public void testPlainIntersectAndRemoveBits() {
+        SetFact<Var> fact = plain(1, 2, 65);
+        assertTrue(fact.intersect(bits(2, 65, 70)));
+        assertEquals(plain(2, 65), fact);
+        assertTrue(fact.removeAll(bits(65)));
+        assertEquals(plain(2), fact);
+        assertFalse(fact.removeAll(bits(1)));
+    }
+
+    @Test
+    public void testBitsWithPlain() {
+        BitSetFact<Var> fact = bits(1);
+        assertTrue(fact.union(plain(2, 65)));
+        assertTrue(fact.intersect(plain(1, 65)));
+        assertEquals(bits(1, 65), fact);
+        fact.set(plain(3));
+        assertEquals(bits(3), fact);
+    }
+
+    @Test
+    public void testMixedEquals() {
+        SetFact<Var> plain = plain(1, 64, 99);
+        BitSetFact<Var> bits = bits(1, 64, 99);
+        assertEquals(plain, bits);
+        assertEquals(bits, plain);
+        assertEquals(plain.hashCode(), bits.hashCode());
+        assertFalse(plain.equals(bits(1, 64)));
+        assertFalse(bits(1, 64).equals(plain));
+        assertFalse(plain(1, 64).equals(bits));
+    }
+
+    @Test
+    public void testPlainSetBits() {
+        SetFact<Var> fact = plain(1, 2);
+        fact.set(bits(3, 65));
+        assertEquals(plain(3, 65), fact);
+    }
+
+    @Test
+    public void testPlainCopyIsIndependent() {
+        SetFact<Var> fact = plain(1);
+        SetFact<Var> copy = fact.copy();
+        copy.add(vars.get(2));
+        assertEquals(plain(1), fact);
+    }
+}
@@ -1,6 +1,7 @@
 plugins {
     id("java")
     id("application")
+    id("me.champeau.jmh") version "0.6.8"
 }
 
 repositories {
@@ -25,6 +26,13 @@ tasks.test {
     maxHeapSize = "4G"
 }
 
+jmh {
+    jmhVersion.set("1.36")
+    // report allocation rate (gc.alloc.rate.norm) next to throughput
+    profilers.add("gc")
+    resultFormat.set("JSON")
+}
+
 java {
     toolchain {
         languageVersion.set(JavaLanguageVersion.of(17))
@@ -0,0 +1,99 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pascal.taie.analysis.dataflow.analysis.availexp.AvailableExpressionAnalysis;
+import pascal.taie.analysis.dataflow.analysis.availexp.NumberedExp;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+/**
+ * Gen/kill analyses on word-packed bit vectors ({@code fact=bitset})
+ * versus hash sets ({@code fact=hybrid}) on the synthetic methods of
+ * {@link DataflowBenchmark}.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class BitVectorBenchmark {
+
+    @Param({"straight", "loops", "switch"})
+    public String shape;
+
+    @Param({"10000"})
+    public int size;
+
+    @Param({"8"})
+    public int param;
+
+    @Param({"bitset", "hybrid"})
+    public String fact;
+
+    private IR ir;
+
+    private ReachingDefinitionAnalysis reachdef;
+
+    private AvailableExpressionAnalysis availexp;
+
+    private LiveVariableAnalysis livevar;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ir = SyntheticIRs.build(shape, size, param);
+        reachdef = new ReachingDefinitionAnalysis(new AnalysisConfig(
+                ReachingDefinitionAnalysis.ID, "fact", fact));
+        availexp = new AvailableExpressionAnalysis(new AnalysisConfig(
+                AvailableExpressionAnalysis.ID, "fact", fact));
+        livevar = new LiveVariableAnalysis(new AnalysisConfig(
+                LiveVariableAnalysis.ID, "strongly", false, "fact", fact));
+    }
+
+    @Benchmark
+    public DataflowResult<Stmt, SetFact<Stmt>> reachingDefinitions() {
+        return reachdef.analyze(ir);
+    }
+
+    @Benchmark
+    public DataflowResult<Stmt, SetFact<NumberedExp>> availableExpressions() {
+        return availexp.analyze(ir);
+    }
+
+    @Benchmark
+    public DataflowResult<Stmt, SetFact<Var>> liveVariables() {
+        return livevar.analyze(ir);
+    }
+}
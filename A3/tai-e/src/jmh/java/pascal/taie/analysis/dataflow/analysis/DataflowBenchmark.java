@@ -0,0 +1,111 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.CompactCFG;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.Set;
+
+/**
+ * Throughput of the intraprocedural analyses on synthetic methods:
+ * long straight-line code, deep loop nests and wide switches.
+ * Run with {@code gradlew jmh}; the {@code gc} profiler configured in
+ * the build reports the allocation rate of each benchmark.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class DataflowBenchmark {
+
+    @Param({"straight", "loops", "switch"})
+    public String shape;
+
+    @Param({"10000"})
+    public int size;
+
+    /**
+     * Depth of loop nests, or width of switches.
+     */
+    @Param({"8"})
+    public int param;
+
+    @Param({"worklist", "priority"})
+    public String solver;
+
+    private IR ir;
+
+    private LiveVariableAnalysis livevar;
+
+    private ConstantPropagation constprop;
+
+    private CompactCFG cfg;
+
+    private DataflowResult<Stmt, CPFact> constants;
+
+    private DataflowResult<Stmt, SetFact<Var>> liveVars;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ir = SyntheticIRs.build(shape, size, param);
+        livevar = new LiveVariableAnalysis(new AnalysisConfig(
+                LiveVariableAnalysis.ID, "strongly", false, "solver", solver));
+        constprop = new ConstantPropagation(new AnalysisConfig(
+                ConstantPropagation.ID, "edge-refine", false, "solver", solver));
+        cfg = CompactCFG.of(ir);
+        constants = constprop.analyze(ir);
+        liveVars = livevar.analyze(ir);
+    }
+
+    @Benchmark
+    public DataflowResult<Stmt, SetFact<Var>> liveVariables() {
+        return livevar.analyze(ir);
+    }
+
+    @Benchmark
+    public DataflowResult<Stmt, CPFact> constantPropagation() {
+        return constprop.analyze(ir);
+    }
+
+    @Benchmark
+    public Set<Stmt> deadCode() {
+        return DeadCodeDetection.detect(cfg, constants, liveVars);
+    }
+}
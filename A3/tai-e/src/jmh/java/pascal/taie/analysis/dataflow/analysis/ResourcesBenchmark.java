@@ -0,0 +1,114 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.List;
+
+/**
+ * Throughput of the intraprocedural analyses on all application methods
+ * of the test cases bundled in {@code src/test/resources}.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ResourcesBenchmark {
+
+    @Param({"ControlFlowUnreachable", "DeadAssignment", "Loops",
+            "UnreachableIfBranch", "UnreachableSwitchBranch"})
+    public String main;
+
+    @Param({"worklist", "priority"})
+    public String solver;
+
+    private List<IR> irs;
+
+    private LiveVariableAnalysis livevar;
+
+    private ConstantPropagation constprop;
+
+    private DeadCodeDetection deadcode;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Main.buildWorld("-pp", "-cp", "src/test/resources/dataflow/deadcode/",
+                "-m", main);
+        irs = World.get().getClassHierarchy()
+                .applicationClasses()
+                .flatMap(c -> c.getDeclaredMethods().stream())
+                .filter(m -> !m.isAbstract() && !m.isNative())
+                .map(JMethod::getIR)
+                .toList();
+        CFGBuilder cfgBuilder = new CFGBuilder(new AnalysisConfig(
+                CFGBuilder.ID, "exception", "none", "dump", false));
+        livevar = new LiveVariableAnalysis(new AnalysisConfig(
+                LiveVariableAnalysis.ID, "strongly", false, "solver", solver));
+        constprop = new ConstantPropagation(new AnalysisConfig(
+                ConstantPropagation.ID, "edge-refine", false, "solver", solver));
+        deadcode = new DeadCodeDetection(new AnalysisConfig(DeadCodeDetection.ID));
+        for (IR ir : irs) {
+            ir.storeResult(CFGBuilder.ID, cfgBuilder.analyze(ir));
+            ir.storeResult(LiveVariableAnalysis.ID, livevar.analyze(ir));
+            ir.storeResult(ConstantPropagation.ID, constprop.analyze(ir));
+        }
+    }
+
+    @Benchmark
+    public void liveVariables(Blackhole bh) {
+        for (IR ir : irs) {
+            bh.consume(livevar.analyze(ir));
+        }
+    }
+
+    @Benchmark
+    public void constantPropagation(Blackhole bh) {
+        for (IR ir : irs) {
+            bh.consume(constprop.analyze(ir));
+        }
+    }
+
+    @Benchmark
+    public void deadCode(Blackhole bh) {
+        for (IR ir : irs) {
+            bh.consume(deadcode.analyze(ir));
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.DefaultIR;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.LookupSwitch;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.type.PrimitiveType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Builds synthetic methods of given shapes and sizes, with their CFGs
+ * stored in the IRs, for benchmarking intraprocedural analyses.
+ */
+final class SyntheticIRs {
+
+    private static final CFGBuilder CFG_BUILDER = new CFGBuilder(
+            new AnalysisConfig(CFGBuilder.ID, "exception", "none", "dump", false));
+
+    private SyntheticIRs() {
+    }
+
+    /**
+     * @param shape either "straight" (long straight-line code), "loops"
+     *              (loop nests of given depth), "switch" (switches of
+     *              given width) or "deadcode" (unreachable code and dead
+     *              assignments, see {@link Builder#deadCode()})
+     * @param size  the approximate number of statements
+     * @param param the depth of loop nests or the width of switches
+     */
+    static IR build(String shape, int size, int param) {
+        Builder builder = new Builder(param);
+        Consumer<Builder> chunk = switch (shape) {
+            case "straight" -> Builder::straight;
+            case "loops" -> b -> b.loopNest(param);
+            case "switch" -> b -> b.wideSwitch(param);
+            case "deadcode" -> Builder::deadCode;
+            default -> throw new IllegalArgumentException("Unknown shape: " + shape);
+        };
+        while (builder.stmts.size() < size) {
+            chunk.accept(builder);
+        }
+        IR ir = builder.finish();
+        ir.storeResult(CFGBuilder.ID, CFG_BUILDER.analyze(ir));
+        return ir;
+    }
+
+    private static class Builder {
+
+        private final List<Var> vars = new ArrayList<>();
+
+        private final List<Stmt> stmts = new ArrayList<>();
+
+        /**
+         * Jumps whose targets are the next statement to be added.
+         */
+        private final List<Consumer<Stmt>> pending = new ArrayList<>();
+
+        private final Var a, b, c, one, limit;
+
+        /**
+         * Loop counters, one per nesting level.
+         */
+        private final Var[] counters;
+
+        private Builder(int param) {
+            a = newVar("a");
+            b = newVar("b");
+            c = newVar("c");
+            one = newVar("one");
+            limit = newVar("limit");
+            counters = IntStream.range(0, Math.max(param, 1))
+                    .mapToObj(i -> newVar("i" + i))
+                    .toArray(Var[]::new);
+            add(new AssignLiteral(one, IntLiteral.get(1)));
+            add(new AssignLiteral(limit, IntLiteral.get(100)));
+        }
+
+        private Var newVar(String name) {
+            Var var = new Var(null, name, PrimitiveType.INT, vars.size());
+            vars.add(var);
+            return var;
+        }
+
+        private <S extends Stmt> S add(S stmt) {
+            stmts.add(stmt);
+            pending.forEach(jump -> jump.accept(stmt));
+            pending.clear();
+            return stmt;
+        }
+
+        private void straight() {
+            add(new AssignLiteral(a, IntLiteral.get(stmts.size() & 7)));
+            add(new Binary(b, new ArithmeticExp(ArithmeticExp.Op.ADD, a, one)));
+            add(new Copy(c, b));
+            add(new Binary(a, new ArithmeticExp(ArithmeticExp.Op.MUL, b, c)));
+        }
+
+        private void loopNest(int depth) {
+            Var i = counters[depth - 1];
+            add(new AssignLiteral(i, IntLiteral.get(0)));
+            If head = add(new If(new ConditionExp(ConditionExp.Op.GE, i, limit)));
+            if (depth > 1) {
+                loopNest(depth - 1);
+            } else {
+                straight();
+            }
+            add(new Binary(i, new ArithmeticExp(ArithmeticExp.Op.ADD, i, one)));
+            Goto back = add(new Goto());
+            back.setTarget(head);
+            pending.add(head::setTarget);
+        }
+
+        private void wideSwitch(int width) {
+            List<Integer> values = IntStream.range(0, width).boxed().toList();
+            LookupSwitch switchStmt = add(new LookupSwitch(a, values));
+            List<Stmt> targets = new ArrayList<>(width);
+            List<Goto> exits = new ArrayList<>(width);
+            for (int k = 0; k < width; ++k) {
+                targets.add(add(new AssignLiteral(b, IntLiteral.get(k))));
+                exits.add(add(new Goto()));
+            }
+            switchStmt.setTargets(targets);
+            switchStmt.setDefaultTarget(add(new Copy(b, a)));
+            exits.forEach(exit -> pending.add(exit::setTarget));
+            add(new Binary(a, new ArithmeticExp(ArithmeticExp.Op.ADD, b, one)));
+        }
+
+        /**
+         * Adds the chunk
+         * <pre>
+         *   a = 1;
+         *   if (a == a) goto L;
+         *   b = a + a;    // unreachable
+         * L:c = a + a;    // dead assignment
+         *   b = a;        // dead assignment
+         * </pre>
+         */
+        private void deadCode() {
+            add(new AssignLiteral(a, IntLiteral.get(1)));
+            If ifStmt = add(new If(new ConditionExp(ConditionExp.Op.EQ, a, a)));
+            add(new Binary(b, new ArithmeticExp(ArithmeticExp.Op.ADD, a, a)));
+            ifStmt.setTarget(add(new Binary(c,
+                    new ArithmeticExp(ArithmeticExp.Op.ADD, a, a))));
+            add(new Copy(b, a));
+        }
+
+        private IR finish() {
+            add(new Return());
+            for (int i = 0; i < stmts.size(); ++i) {
+                stmts.get(i).setIndex(i);
+            }
+            return new DefaultIR(null, null, List.of(), Set.of(),
+                    vars, stmts, List.of());
+        }
+    }
+}
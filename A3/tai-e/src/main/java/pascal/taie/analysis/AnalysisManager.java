@@ -0,0 +1,308 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.IR;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.Timer;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Collectors;
+
+/**
+ * Creates and executes analyses based on given analysis plan.
+ * <p>
+ * By default, the analyses are executed one after another, and each method
+ * (class) analysis runs on the methods (classes) in scope in parallel.
+ * <p>
+ * If system property {@code taie.fused-stages} is {@code true}, consecutive
+ * method analyses in the plan form a <i>stage</i>, which is executed in one
+ * parallel pass: methods are fanned out over a {@link ForkJoinPool}, and
+ * each task runs all analyses of the stage on its method in plan order.
+ * As the plan is sorted by the requirements of the analyses (e.g., deadcode
+ * after constprop and livevar), the results required by an analysis are
+ * always available in the {@link IR} when it starts, without a global
+ * barrier after each analysis. The parallelism follows
+ * {@link ForkJoinPool#commonPool()}, i.e., it can be set by system property
+ * {@code java.util.concurrent.ForkJoinPool.common.parallelism}.
+ */
+public class AnalysisManager {
+
+    private static final Logger logger = LogManager.getLogger(AnalysisManager.class);
+
+    /**
+     * System property which enables fused stages of method analyses.
+     */
+    private static final String FUSED_STAGES = "taie.fused-stages";
+
+    /**
+     * Methods processed by a leaf task of a stage.
+     */
+    private static final int BATCH_SIZE = 8;
+
+    private List<JClass> classScope;
+
+    private List<JMethod> methodScope;
+
+    public AnalysisManager() {
+    }
+
+    /**
+     * Creates an analysis manager which runs method analyses
+     * on given methods instead of the scope given by the options.
+     */
+    AnalysisManager(List<JMethod> methodScope) {
+        this.methodScope = methodScope;
+    }
+
+    public void execute(List<AnalysisConfig> analysisConfigs) {
+        if (Boolean.getBoolean(FUSED_STAGES)) {
+            executeStages(analysisConfigs);
+        } else {
+            analysisConfigs.forEach(config ->
+                    Timer.runAndCount(() -> runAnalysis(config), config.getId()));
+        }
+    }
+
+    private void executeStages(List<AnalysisConfig> analysisConfigs) {
+        List<MethodAnalysis> stage = new ArrayList<>();
+        for (AnalysisConfig config : analysisConfigs) {
+            if (MethodAnalysis.class.isAssignableFrom(getClass(config))) {
+                stage.add((MethodAnalysis) newAnalysis(config));
+            } else {
+                runStage(stage);
+                stage.clear();
+                Timer.runAndCount(() -> runAnalysis(config), config.getId());
+            }
+        }
+        runStage(stage);
+    }
+
+    private static Class<?> getClass(AnalysisConfig config) {
+        try {
+            return Class.forName(config.getAnalysisClass());
+        } catch (ClassNotFoundException e) {
+            throw new AnalysisException("Failed to initialize " +
+                    config.getAnalysisClass(), e);
+        }
+    }
+
+    private static Object newAnalysis(AnalysisConfig config) {
+        try {
+            return getClass(config)
+                    .getConstructor(AnalysisConfig.class)
+                    .newInstance(config);
+        } catch (NoSuchMethodException | InstantiationException |
+                 IllegalAccessException | InvocationTargetException e) {
+            throw new AnalysisException("Failed to initialize " +
+                    config.getAnalysisClass(), e);
+        }
+    }
+
+    private void runAnalysis(AnalysisConfig config) {
+        Object analysis = newAnalysis(config);
+        if (analysis instanceof ProgramAnalysis pa) {
+            runProgramAnalysis(pa);
+        } else if (analysis instanceof ClassAnalysis ca) {
+            runClassAnalysis(ca);
+        } else if (analysis instanceof MethodAnalysis ma) {
+            runMethodAnalysis(ma);
+        } else {
+            logger.warn(analysis.getClass() + " is not an analysis class");
+        }
+    }
+
+    private void runProgramAnalysis(ProgramAnalysis analysis) {
+        Object result = analysis.analyze();
+        if (result != null) {
+            World.get().storeResult(analysis.getId(), result);
+        }
+    }
+
+    private void runClassAnalysis(ClassAnalysis analysis) {
+        getClassScope().parallelStream().forEach(c -> {
+            Object result = analysis.analyze(c);
+            if (result != null) {
+                c.storeResult(analysis.getId(), result);
+            }
+        });
+    }
+
+    private List<JClass> getClassScope() {
+        if (classScope == null) {
+            String scope = World.get().getOptions().getScope();
+            classScope = switch (scope) {
+                case "app" -> World.get().getClassHierarchy()
+                        .applicationClasses().toList();
+                case "all" -> World.get().getClassHierarchy()
+                        .allClasses().toList();
+                case "reachable" -> throw reachableScope();
+                default -> throw new ConfigException(
+                        "Unexpected scope option: " + scope);
+            };
+            logger.info("{} classes in scope ({}) of class analyses",
+                    classScope.size(), scope);
+        }
+        return classScope;
+    }
+
+    private void runMethodAnalysis(MethodAnalysis analysis) {
+        getMethodScope().parallelStream().forEach(m -> {
+            IR ir = m.getIR();
+            Object result = analysis.analyze(ir);
+            if (result != null) {
+                ir.storeResult(analysis.getId(), result);
+            }
+        });
+    }
+
+    /**
+     * Runs the method analyses of a stage on all methods in scope.
+     */
+    private void runStage(List<MethodAnalysis> stage) {
+        if (stage.isEmpty()) {
+            return;
+        }
+        String ids = stage.stream()
+                .map(MethodAnalysis::getId)
+                .collect(Collectors.joining(","));
+        List<MethodAnalysis> analyses = List.copyOf(stage);
+        Timer.runAndCount(() -> {
+            List<JMethod> methods = getMethodScope();
+            // accumulated running time (in nanoseconds) of each analysis
+            AtomicLongArray times = new AtomicLongArray(analyses.size());
+            ForkJoinPool pool = ForkJoinPool.commonPool();
+            long start = System.nanoTime();
+            pool.invoke(new StageTask(analyses, methods, 0, methods.size(), times));
+            long elapsed = System.nanoTime() - start;
+            long total = 0;
+            for (int i = 0; i < analyses.size(); ++i) {
+                total += times.get(i);
+                logger.info("[{}] {} methods, {}s in total over threads",
+                        analyses.get(i).getId(), methods.size(),
+                        String.format("%.2f", times.get(i) / 1e9));
+            }
+            logger.info("[{}] {} methods on {} threads, {} methods/s, speedup {}",
+                    ids, methods.size(), pool.getParallelism(),
+                    String.format("%.0f", methods.size() / (elapsed / 1e9)),
+                    String.format("%.2f", (double) total / elapsed));
+        }, ids);
+    }
+
+    /**
+     * Runs all analyses of a stage on methods[from, to).
+     */
+    private static class StageTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<MethodAnalysis> analyses;
+
+        private final List<JMethod> methods;
+
+        private final int from;
+
+        private final int to;
+
+        private final AtomicLongArray times;
+
+        private StageTask(List<MethodAnalysis> analyses, List<JMethod> methods,
+                          int from, int to, AtomicLongArray times) {
+            this.analyses = analyses;
+            this.methods = methods;
+            this.from = from;
+            this.to = to;
+            this.times = times;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_SIZE) {
+                for (int i = from; i < to; ++i) {
+                    analyze(methods.get(i).getIR());
+                }
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new StageTask(analyses, methods, from, mid, times),
+                        new StageTask(analyses, methods, mid, to, times));
+            }
+        }
+
+        private void analyze(IR ir) {
+            for (int i = 0; i < analyses.size(); ++i) {
+                MethodAnalysis analysis = analyses.get(i);
+                long start = System.nanoTime();
+                Object result = analysis.analyze(ir);
+                times.addAndGet(i, System.nanoTime() - start);
+                if (result != null) {
+                    // the result holder of IR is not thread-safe
+                    synchronized (ir) {
+                        ir.storeResult(analysis.getId(), result);
+                    }
+                }
+            }
+        }
+    }
+
+    private List<JMethod> getMethodScope() {
+        if (methodScope == null) {
+            String scope = World.get().getOptions().getScope();
+            methodScope = switch (scope) {
+                case "app", "all" -> getClassScope()
+                        .stream()
+                        .map(JClass::getDeclaredMethods)
+                        .flatMap(Collection::stream)
+                        .filter(m -> !m.isAbstract() && !m.isNative())
+                        .toList();
+                case "reachable" -> throw reachableScope();
+                default -> throw new ConfigException(
+                        "Unexpected scope option: " + scope);
+            };
+            logger.info("{} methods in scope ({}) of method analyses",
+                    methodScope.size(), scope);
+        }
+        return methodScope;
+    }
+
+    /**
+     * Scope {@code reachable} is given by the call graph, which is not
+     * built in this assignment.
+     */
+    private static ConfigException reachableScope() {
+        return new ConfigException("Scope option 'reachable' requires" +
+                " a call graph, which is not available in this assignment");
+    }
+}
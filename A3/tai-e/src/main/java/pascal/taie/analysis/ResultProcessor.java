@@ -25,6 +25,7 @@ package pascal.taie.analysis;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
+import pascal.taie.analysis.dataflow.solver.SolverStats;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.IRPrinter;
@@ -97,6 +98,12 @@ public class ResultProcessor extends ProgramAnalysis {
                 .collect(Collectors.groupingBy(id -> World.get().getResult(id) != null));
         if (groups.containsKey(false)) {
             processIntraResults(groups.get(false));
+            if (getOptions().get("top-methods") != null) {
+                int n = getOptions().getInt("top-methods");
+                if (n > 0) {
+                    logHottestMethods(groups.get(false), n);
+                }
+            }
         }
         if (getOptions().getBoolean("log-mismatches")) {
             mismatches.forEach(logger::info);
@@ -164,6 +171,46 @@ public class ResultProcessor extends ProgramAnalysis {
         processResults(methods, analyses, (m, id) -> m.getIR().getResult(id));
     }
 
+    /**
+     * Logs the {@code n} methods on which the solver of each given analysis
+     * spent the most time, from the {@link SolverStats} stored in the IRs.
+     * Analyses without statistics (i.e., without option {@code stats})
+     * are skipped.
+     */
+    private static void logHottestMethods(List<String> analyses, int n) {
+        analyses.forEach(id -> {
+            String key = SolverStats.getKey(id);
+            List<Pair<JMethod, SolverStats>> hottest = World.get()
+                    .getClassHierarchy()
+                    .applicationClasses()
+                    .map(JClass::getDeclaredMethods)
+                    .flatMap(Collection::stream)
+                    .filter(m -> !m.isAbstract() && !m.isNative())
+                    .filter(m -> m.getIR().getResult(key) != null)
+                    .map(m -> new Pair<>(m, m.getIR().<SolverStats>getResult(key)))
+                    .sorted(Comparator.comparingLong(
+                            (Pair<JMethod, SolverStats> p) -> p.second().getTime())
+                            .reversed())
+                    .limit(n)
+                    .toList();
+            if (hottest.isEmpty()) {
+                return;
+            }
+            logger.info("Top {} hottest methods of {}:", hottest.size(), id);
+            logger.info(String.format("%10s %10s %10s %10s %10s %10s %10s  %s",
+                    "time(ms)", "pops", "transfers", "meets", "max-fact",
+                    "passes", "saved", "method"));
+            hottest.forEach(p -> {
+                SolverStats stats = p.second();
+                logger.info(String.format("%10.3f %10d %10d %10d %10d %10d %10d  %s",
+                        stats.getTime() / 1e6, stats.getPops(),
+                        stats.getTransfers(), stats.getMeets(),
+                        stats.getMaxFactSize(), stats.getPasses(),
+                        stats.getSavedPops(), p.first()));
+            });
+        });
+    }
+
     private void processResults(Stream<JMethod> methods, List<String> analyses,
                                 BiFunction<JMethod, String, ?> resultGetter) {
         methods.forEach(method ->
@@ -24,12 +24,27 @@ package pascal.taie.analysis.dataflow.analysis;
 
 import pascal.taie.analysis.MethodAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.solver.Budget;
 import pascal.taie.analysis.dataflow.solver.Solver;
+import pascal.taie.analysis.dataflow.solver.SolverStats;
+import pascal.taie.analysis.graph.cfg.BasicBlock;
+import pascal.taie.analysis.graph.cfg.BlockCFG;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.CompactCFG;
 import pascal.taie.analysis.graph.cfg.Edge;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.JumpStmt;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.AnalysisException;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 public abstract class AbstractDataflowAnalysis<Node, Fact>
         extends MethodAnalysis
@@ -37,15 +52,150 @@ public abstract class AbstractDataflowAnalysis<Node, Fact>
 
     private final Solver<Node, Fact> solver;
 
+    private final DataflowOptions options;
+
     protected AbstractDataflowAnalysis(AnalysisConfig config) {
         super(config);
-        solver = Solver.makeSolver(this);
+        options = new DataflowOptions(getOptions());
+        solver = Solver.makeSolver(this, options.getSolver());
+    }
+
+    /**
+     * @return the parsed options of this analysis which are shared by
+     * the intra-procedural data-flow analyses.
+     */
+    protected DataflowOptions getDataflowOptions() {
+        return options;
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public DataflowResult<Node, Fact> analyze(IR ir) {
-        CFG<Node> cfg = ir.getResult(CFGBuilder.ID);
-        return solver.solve(cfg);
+        CFG<Node> cfg = options.isCompactCFG()
+                ? (CFG<Node>) CompactCFG.of(ir)
+                : ir.getResult(CFGBuilder.ID);
+        DataflowAnalysis<Node, Fact> analysis = bind(cfg);
+        SolverStats stats = options.isRecordStats() ? new SolverStats() : null;
+        DataflowResult<Node, Fact> result = options.isOnBlocks()
+                ? analyzeBlocks(ir, analysis, stats)
+                : getSolver(analysis, stats).solve(cfg);
+        storeStats(ir, stats);
+        return result;
+    }
+
+    /**
+     * Re-analyzes given IR after the statements in {@code changed} have
+     * been edited, by updating the previous result of this analysis
+     * (see {@link Solver#solve(CFG, DataflowResult, Collection)}).
+     * If the edits change control flow, e.g., the targets of jumps,
+     * the CFG rebuilt after the edits must be stored in the IR before
+     * calling this method; the jumps in {@code changed} are checked
+     * against it. With option {@code node:block}, the blocks may change
+     * with the edits, thus the IR is analyzed from scratch instead.
+     *
+     * @return the updated result; {@code previous} is not modified.
+     * @throws AnalysisException if the CFG stored in the IR does not
+     *                           reflect the targets of the changed jumps
+     */
+    @SuppressWarnings("unchecked")
+    public DataflowResult<Node, Fact> analyze(
+            IR ir, DataflowResult<Node, Fact> previous,
+            Collection<Node> changed) {
+        if (options.isOnBlocks()) {
+            return analyze(ir);
+        }
+        CFG<Stmt> stmtCFG = ir.getResult(CFGBuilder.ID);
+        checkJumps(stmtCFG, changed);
+        CFG<Node> cfg = options.isCompactCFG()
+                ? (CFG<Node>) CompactCFG.of(ir)
+                : (CFG<Node>) stmtCFG;
+        DataflowAnalysis<Node, Fact> analysis = bind(cfg);
+        SolverStats stats = options.isRecordStats() ? new SolverStats() : null;
+        DataflowResult<Node, Fact> result = getSolver(analysis, stats)
+                .solve(cfg, previous, changed);
+        storeStats(ir, stats);
+        return result;
+    }
+
+    /**
+     * Checks that the successors of the changed jumps in given CFG are
+     * their current targets (and the next statements if they can fall
+     * through), i.e., that the CFG is not built before the jumps were
+     * edited. Exceptional edges are not checked.
+     */
+    private static void checkJumps(CFG<Stmt> cfg, Collection<?> changed) {
+        List<Stmt> stmts = cfg.getIR().getStmts();
+        for (Object node : changed) {
+            if (node instanceof JumpStmt jump) {
+                Set<Stmt> expected = new HashSet<>(jump.getTargets());
+                int next = jump.getIndex() + 1;
+                if (jump.canFallThrough() && next < stmts.size()) {
+                    expected.add(stmts.get(next));
+                }
+                Set<Stmt> actual = cfg.getOutEdgesOf(jump)
+                        .stream()
+                        .filter(edge -> !edge.isExceptional())
+                        .map(Edge::getTarget)
+                        .collect(Collectors.toSet());
+                if (!expected.equals(actual)) {
+                    throw new AnalysisException("CFG of " + cfg.getMethod()
+                            + " is not rebuilt after " + jump + " was edited");
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the solver for given (bound) analysis. The shared solver
+     * of this analysis is reused unless statistics are recorded or
+     * a budget is set, as the statistics and budget state are per method.
+     */
+    private Solver<Node, Fact> getSolver(
+            DataflowAnalysis<Node, Fact> analysis, @Nullable SolverStats stats) {
+        Budget budget = options.getBudget();
+        return analysis == this && stats == null && budget == null ? solver
+                : Solver.makeSolver(analysis, options.getSolver(), stats, budget);
+    }
+
+    private void storeStats(IR ir, @Nullable SolverStats stats) {
+        if (stats != null) {
+            // the result holder of IR is not thread-safe
+            synchronized (ir) {
+                ir.storeResult(SolverStats.getKey(getId()), stats);
+            }
+        }
+    }
+
+    /**
+     * Analyses which precompute information of each CFG, e.g.,
+     * {@link GenKillAnalysis}, override this method to return an analysis
+     * bound to that information.
+     *
+     * @return the analysis which solves given CFG on behalf of this analysis.
+     */
+    protected DataflowAnalysis<Node, Fact> bind(CFG<Node> cfg) {
+        return this;
+    }
+
+    /**
+     * Solves this analysis on the blocks of given IR, and then
+     * reconstructs the facts of statements, either at once or lazily.
+     * This requires the nodes of this analysis to be {@link Stmt}s.
+     */
+    @SuppressWarnings("unchecked")
+    private DataflowResult<Node, Fact> analyzeBlocks(
+            IR ir, DataflowAnalysis<Node, Fact> analysis,
+            @Nullable SolverStats stats) {
+        BlockDataflowAnalysis<Fact> blockAnalysis = new BlockDataflowAnalysis<>(
+                (DataflowAnalysis<Stmt, Fact>) analysis, BlockCFG.of(ir));
+        Solver<BasicBlock, Fact> blockSolver =
+                Solver.makeSolver(blockAnalysis, options.getSolver(),
+                        stats, options.getBudget());
+        DataflowResult<BasicBlock, Fact> blockResult =
+                blockSolver.solve(BlockCFG.of(ir));
+        return (DataflowResult<Node, Fact>) (options.isLazyResult()
+                ? blockAnalysis.expandLazily(blockResult, options.getResultCache())
+                : blockAnalysis.expand(blockResult));
     }
 
     /**
@@ -0,0 +1,155 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.analysis.dataflow.fact.BitSetFact;
+import pascal.taie.analysis.dataflow.fact.GenKill;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.Indexable;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Solves a {@link GenKillAnalysis} on {@link BitSetFact}s of one CFG.
+ * The gen and kill sets of all statements are precomputed as
+ * {@link GenKill}s at construction, and each transfer is a single pass
+ * over the words of the facts. Both initial and boundary facts of the
+ * analysis must be {@link BitSetFact}s.
+ *
+ * @param <E> type of elements of the facts
+ */
+class BitVectorTransfer<E extends Indexable>
+        implements DataflowAnalysis<Stmt, SetFact<E>> {
+
+    private final GenKillAnalysis<E> analysis;
+
+    private final CFG<Stmt> cfg;
+
+    /**
+     * Number of statements in the IR, which is also the slot of the entry.
+     */
+    private final int size;
+
+    /**
+     * Transfer functions of statements, indexed in the same way as
+     * {@link pascal.taie.analysis.dataflow.fact.IndexedDataflowResult}.
+     */
+    private final GenKill[] genKills;
+
+    BitVectorTransfer(GenKillAnalysis<E> analysis, CFG<Stmt> cfg) {
+        this.analysis = analysis;
+        this.cfg = cfg;
+        size = cfg.getIR().getStmts().size();
+        genKills = new GenKill[size + 2];
+        for (Stmt stmt : cfg) {
+            BitSet gen = new BitSet();
+            analysis.gen(cfg, stmt).forEach(e -> gen.set(e.getIndex()));
+            genKills[slotOf(stmt)] = GenKill.of(gen,
+                    analysis.killIndexes(cfg, stmt));
+        }
+    }
+
+    private int slotOf(Stmt stmt) {
+        if (cfg.isEntry(stmt)) {
+            return size;
+        } else if (cfg.isExit(stmt)) {
+            return size + 1;
+        } else {
+            return stmt.getIndex();
+        }
+    }
+
+    /**
+     * @return the transfer function of given statements, which are
+     * listed in execution order.
+     */
+    GenKill summarize(List<Stmt> stmts) {
+        GenKill summary = GenKill.of(new BitSet(), new BitSet());
+        if (isForward()) {
+            for (Stmt stmt : stmts) {
+                summary = summary.andThen(genKills[slotOf(stmt)]);
+            }
+        } else {
+            for (int i = stmts.size() - 1; i >= 0; --i) {
+                summary = summary.andThen(genKills[slotOf(stmts.get(i))]);
+            }
+        }
+        return summary;
+    }
+
+    /**
+     * Applies given transfer function in the direction of the analysis.
+     *
+     * @return true if the out (in) fact changed in forward (backward)
+     * analysis, otherwise false.
+     */
+    boolean transfer(GenKill genKill, SetFact<E> in, SetFact<E> out) {
+        return isForward()
+                ? ((BitSetFact<E>) out).transfer((BitSetFact<E>) in, genKill)
+                : ((BitSetFact<E>) in).transfer((BitSetFact<E>) out, genKill);
+    }
+
+    @Override
+    public boolean isForward() {
+        return analysis.isForward();
+    }
+
+    @Override
+    public SetFact<E> newBoundaryFact(CFG<Stmt> cfg) {
+        return analysis.newBoundaryFact(cfg);
+    }
+
+    @Override
+    public SetFact<E> newInitialFact(CFG<Stmt> cfg) {
+        return analysis.newInitialFact(cfg);
+    }
+
+    @Override
+    public SetFact<E> newSafeFact(CFG<Stmt> cfg) {
+        return analysis.newSafeFact(cfg);
+    }
+
+    @Override
+    public void meetInto(SetFact<E> fact, SetFact<E> target) {
+        analysis.meetInto(fact, target);
+    }
+
+    @Override
+    public boolean transferNode(Stmt stmt, SetFact<E> in, SetFact<E> out) {
+        return transfer(genKills[slotOf(stmt)], in, out);
+    }
+
+    @Override
+    public boolean needTransferEdge(Edge<Stmt> edge) {
+        return analysis.needTransferEdge(edge);
+    }
+
+    @Override
+    public SetFact<E> transferEdge(Edge<Stmt> edge, SetFact<E> nodeFact) {
+        return analysis.transferEdge(edge, nodeFact);
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.GenKill;
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.BasicBlock;
+import pascal.taie.analysis.graph.cfg.BlockCFG;
+import pascal.taie.analysis.graph.cfg.BlockEdge;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.Indexable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Lifts a statement-level data-flow analysis to the blocks of a
+ * {@link BlockCFG}, so that solvers only iterate over blocks.
+ * <p>
+ * The transfer of a block composes the transfers of its statements, with
+ * the intermediate facts kept local to the transfer. For gen/kill analyses
+ * ({@link BitVectorTransfer}), the gen and kill sets of the statements are
+ * composed once per block instead. After the solver
+ * converges, {@link #expand(DataflowResult)} reconstructs the facts
+ * of the statements from the facts at block boundaries, or
+ * {@link #expandLazily(DataflowResult, int)} does so on demand.
+ * <p>
+ * An instance is bound to one {@link BlockCFG}, thus it should be created
+ * for every CFG to be analyzed.
+ *
+ * @param <Fact> type of data-flow facts
+ */
+class BlockDataflowAnalysis<Fact> implements DataflowAnalysis<BasicBlock, Fact> {
+
+    private final DataflowAnalysis<Stmt, Fact> analysis;
+
+    private final BlockCFG blockCFG;
+
+    private final CFG<Stmt> stmtCFG;
+
+    /**
+     * Composed transfer functions of blocks, computed on demand,
+     * if the analysis is a {@link BitVectorTransfer}; otherwise null.
+     */
+    private final GenKill[] summaries;
+
+    BlockDataflowAnalysis(DataflowAnalysis<Stmt, Fact> analysis, BlockCFG blockCFG) {
+        this.analysis = analysis;
+        this.blockCFG = blockCFG;
+        this.stmtCFG = blockCFG.getStmtCFG();
+        this.summaries = analysis instanceof BitVectorTransfer<?>
+                ? new GenKill[blockCFG.getNumberOfNodes()] : null;
+    }
+
+    @Override
+    public boolean isForward() {
+        return analysis.isForward();
+    }
+
+    @Override
+    public Fact newBoundaryFact(CFG<BasicBlock> cfg) {
+        return analysis.newBoundaryFact(stmtCFG);
+    }
+
+    @Override
+    public Fact newInitialFact(CFG<BasicBlock> cfg) {
+        return analysis.newInitialFact(stmtCFG);
+    }
+
+    @Override
+    public Fact newSafeFact(CFG<BasicBlock> cfg) {
+        return analysis.newSafeFact(stmtCFG);
+    }
+
+    @Override
+    public void meetInto(Fact fact, Fact target) {
+        analysis.meetInto(fact, target);
+    }
+
+    @Override
+    public boolean transferNode(BasicBlock block, Fact in, Fact out) {
+        if (summaries != null) {
+            return transferSummary(block, in, out);
+        }
+        List<Stmt> stmts = block.getStmts();
+        int last = stmts.size() - 1;
+        if (isForward()) {
+            Fact fact = in;
+            for (int i = 0; i < last; ++i) {
+                Fact next = analysis.newInitialFact(stmtCFG);
+                analysis.transferNode(stmts.get(i), fact, next);
+                fact = next;
+            }
+            return analysis.transferNode(stmts.get(last), fact, out);
+        } else {
+            Fact fact = out;
+            for (int i = last; i > 0; --i) {
+                Fact prev = analysis.newInitialFact(stmtCFG);
+                analysis.transferNode(stmts.get(i), prev, fact);
+                fact = prev;
+            }
+            return analysis.transferNode(stmts.get(0), in, fact);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean transferSummary(BasicBlock block, Fact in, Fact out) {
+        BitVectorTransfer<Indexable> bitVectors =
+                (BitVectorTransfer<Indexable>) analysis;
+        GenKill summary = summaries[block.getIndex()];
+        if (summary == null) {
+            summary = bitVectors.summarize(block.getStmts());
+            summaries[block.getIndex()] = summary;
+        }
+        return bitVectors.transfer(summary,
+                (SetFact<Indexable>) in, (SetFact<Indexable>) out);
+    }
+
+    @Override
+    public boolean needTransferEdge(Edge<BasicBlock> edge) {
+        return analysis.needTransferEdge(((BlockEdge) edge).getStmtEdge());
+    }
+
+    @Override
+    public Fact transferEdge(Edge<BasicBlock> edge, Fact nodeFact) {
+        return analysis.transferEdge(((BlockEdge) edge).getStmtEdge(), nodeFact);
+    }
+
+    /**
+     * Reconstructs the facts of statements from the result of blocks.
+     * The in (out) fact of the first (last) statement of a block is the
+     * fact of the block, and the out fact of a statement is shared with
+     * the in fact of the next statement in the same block.
+     */
+    DataflowResult<Stmt, Fact> expand(DataflowResult<BasicBlock, Fact> blockResult) {
+        IndexedDataflowResult<Fact> result = new IndexedDataflowResult<>(stmtCFG);
+        for (BasicBlock block : blockCFG.getBlocks()) {
+            List<Fact> facts = replay(block, blockResult.getInFact(block),
+                    blockResult.getOutFact(block));
+            List<Stmt> stmts = block.getStmts();
+            for (int i = 0; i < stmts.size(); ++i) {
+                result.setInFact(stmts.get(i), facts.get(i));
+                result.setOutFact(stmts.get(i), facts.get(i + 1));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Like {@link #expand(DataflowResult)}, but only keeps the facts of
+     * blocks, and reconstructs the facts of statements on demand.
+     *
+     * @param cacheSize maximum number of blocks whose statement facts
+     *                  are kept after reconstruction
+     */
+    DataflowResult<Stmt, Fact> expandLazily(
+            DataflowResult<BasicBlock, Fact> blockResult, int cacheSize) {
+        return new LazyDataflowResult<>(this, blockCFG, blockResult, cacheSize);
+    }
+
+    /**
+     * Replays the statement transfers of given block.
+     *
+     * @return the facts at the n + 1 program points of the block, where
+     * n is the number of its statements, i.e., the in and out facts of
+     * the i-th statement are the i-th and (i+1)-th facts respectively.
+     * The first and last facts are the given in and out facts.
+     */
+    List<Fact> replay(BasicBlock block, Fact in, Fact out) {
+        List<Stmt> stmts = block.getStmts();
+        int last = stmts.size() - 1;
+        List<Fact> facts = new ArrayList<>(Collections.nCopies(last + 2, null));
+        facts.set(0, in);
+        facts.set(last + 1, out);
+        if (isForward()) {
+            Fact fact = in;
+            for (int i = 0; i < last; ++i) {
+                Fact next = analysis.newInitialFact(stmtCFG);
+                analysis.transferNode(stmts.get(i), fact, next);
+                facts.set(i + 1, next);
+                fact = next;
+            }
+        } else {
+            Fact fact = out;
+            for (int i = last; i > 0; --i) {
+                Fact prev = analysis.newInitialFact(stmtCFG);
+                analysis.transferNode(stmts.get(i), prev, fact);
+                facts.set(i, prev);
+                fact = prev;
+            }
+        }
+        return facts;
+    }
+}
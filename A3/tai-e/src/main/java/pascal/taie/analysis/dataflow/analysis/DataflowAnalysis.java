@@ -45,9 +45,29 @@ public interface DataflowAnalysis<Node, Fact> {
     Fact newBoundaryFact(CFG<Node> cfg);
 
     /**
-     * @return new initial fact for non-boundary nodes.
+     * The initial fact may depend on the method being analyzed, e.g.,
+     * dense bit vectors sized to its variables, or all expressions of
+     * the method in a must analysis.
+     *
+     * @return new initial fact for non-boundary nodes of given CFG.
+     */
+    Fact newInitialFact(CFG<Node> cfg);
+
+    /**
+     * Used by solvers which stop before reaching the fixed point, e.g.,
+     * when they run out of budget ({@link pascal.taie.analysis.dataflow.solver.Budget}).
+     * Meeting the returned fact into any fact of given CFG must make
+     * that fact sound, i.e., the returned fact is the bottom of the
+     * lattice (restricted to the elements relevant to the CFG).
+     *
+     * @return the fact which is sound at every node of given CFG.
+     * @throws UnsupportedOperationException if this analysis
+     *                                       does not support it
      */
-    Fact newInitialFact();
+    default Fact newSafeFact(CFG<Node> cfg) {
+        throw new UnsupportedOperationException(
+                getClass().getName() + " does not support solver budgets");
+    }
 
     /**
      * Meets a fact into another (target) fact.
@@ -0,0 +1,180 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.analysis.dataflow.solver.Budget;
+import pascal.taie.analysis.dataflow.solver.SolverStats;
+import pascal.taie.analysis.graph.cfg.BlockCFG;
+import pascal.taie.analysis.graph.cfg.CompactCFG;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.IR;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * Options shared by the intra-procedural data-flow analyses, which are
+ * parsed and checked when an analysis is created.
+ * <p>
+ * The defaults of the options are declared in {@code tai-e-analyses.yml}.
+ * The same defaults are used here when an option is absent, e.g., for
+ * the configs which are created in code.
+ */
+public final class DataflowOptions {
+
+    /**
+     * Kind of the solver, see
+     * {@link pascal.taie.analysis.dataflow.solver.Solver#makeSolver}.
+     */
+    private final String solver;
+
+    /**
+     * Whether the solver iterates over the blocks of {@link BlockCFG}
+     * instead of the statements of the CFG.
+     */
+    private final boolean onBlocks;
+
+    /**
+     * Whether the solver iterates over the slots of {@link CompactCFG}
+     * instead of the node and edge sets of the CFG.
+     */
+    private final boolean compactCFG;
+
+    /**
+     * Whether the facts of statements are reconstructed on demand from
+     * the facts of blocks, see {@link LazyDataflowResult}.
+     */
+    private final boolean lazyResult;
+
+    /**
+     * Maximum number of blocks whose statement facts are cached
+     * by lazy results.
+     */
+    private final int resultCache;
+
+    /**
+     * Whether the {@link SolverStats} of each method are recorded
+     * and stored in its {@link IR}.
+     */
+    private final boolean recordStats;
+
+    /**
+     * Budget of the solver for each method, or null if unlimited.
+     */
+    @Nullable
+    private final Budget budget;
+
+    DataflowOptions(AnalysisOptions options) {
+        solver = getString(options, "solver", "worklist", "worklist", "priority");
+        onBlocks = getString(options, "node", "stmt", "stmt", "block")
+                .equals("block");
+        compactCFG = getString(options, "cfg", "default", "default", "compact")
+                .equals("compact");
+        if (onBlocks && compactCFG) {
+            throw new ConfigException("cfg:compact cannot be used with node:block");
+        }
+        lazyResult = getString(options, "result", "eager", "eager", "lazy")
+                .equals("lazy");
+        if (lazyResult && !onBlocks) {
+            throw new ConfigException("result:lazy requires node:block");
+        }
+        resultCache = getInt(options, "result-cache", 256);
+        recordStats = getBoolean(options, "stats", false);
+        int maxIterations = getInt(options, "max-iterations", 0);
+        int timeBudget = getInt(options, "time-budget", 0);
+        if (resultCache < 0 || maxIterations < 0 || timeBudget < 0) {
+            throw new ConfigException("result-cache, max-iterations and"
+                    + " time-budget must be non-negative");
+        }
+        Budget b = new Budget(maxIterations, timeBudget);
+        budget = b.isUnlimited() ? null : b;
+    }
+
+    public String getSolver() {
+        return solver;
+    }
+
+    public boolean isOnBlocks() {
+        return onBlocks;
+    }
+
+    public boolean isCompactCFG() {
+        return compactCFG;
+    }
+
+    public boolean isLazyResult() {
+        return lazyResult;
+    }
+
+    public int getResultCache() {
+        return resultCache;
+    }
+
+    public boolean isRecordStats() {
+        return recordStats;
+    }
+
+    @Nullable
+    public Budget getBudget() {
+        return budget;
+    }
+
+    /**
+     * @return the string option of given key, or {@code defaultValue}
+     * if it is absent.
+     * @throws ConfigException if the option is not one of {@code choices}
+     */
+    public static String getString(AnalysisOptions options, String key,
+                                   String defaultValue, String... choices) {
+        String value = options.getString(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (!Arrays.asList(choices).contains(value)) {
+            throw new ConfigException("Unknown value of option " + key
+                    + ": " + value + ", expected one of "
+                    + Arrays.toString(choices));
+        }
+        return value;
+    }
+
+    /**
+     * @return the boolean option of given key, or {@code defaultValue}
+     * if it is absent.
+     */
+    public static boolean getBoolean(AnalysisOptions options, String key,
+                                     boolean defaultValue) {
+        return options.getBooleanOrDefault(key, defaultValue);
+    }
+
+    /**
+     * @return the int option of given key, or {@code defaultValue}
+     * if it is absent.
+     */
+    public static int getInt(AnalysisOptions options, String key,
+                             int defaultValue) {
+        return options.get(key) != null ? options.getInt(key) : defaultValue;
+    }
+}
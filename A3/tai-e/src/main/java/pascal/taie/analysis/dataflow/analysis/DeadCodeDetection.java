@@ -27,169 +27,237 @@ import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
 import pascal.taie.analysis.dataflow.analysis.constprop.Value;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.NodeResult;
 import pascal.taie.analysis.dataflow.fact.SetFact;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.CompactCFG;
 import pascal.taie.analysis.graph.cfg.Edge;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.*;
 import pascal.taie.ir.stmt.*;
 
-import java.util.Comparator;
+import java.util.BitSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
-import java.util.TreeSet;
-import java.util.Vector;
-import java.util.function.Consumer;
-import java.util.function.Function;
 
 public class DeadCodeDetection extends MethodAnalysis {
 
     public static final String ID = "deadcode";
 
+    /**
+     * Whether the reachable statements are found on the {@link CompactCFG}
+     * of the IR instead of its CFG.
+     */
+    private final boolean compactCFG;
+
     public DeadCodeDetection(AnalysisConfig config) {
         super(config);
+        compactCFG = DataflowOptions.getString(getOptions(), "cfg",
+                "default", "default", "compact").equals("compact");
     }
 
     @Override
     public Set<Stmt> analyze(IR ir) {
-        // obtain CFG
-        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
         // obtain result of constant propagation
         DataflowResult<Stmt, CPFact> constants =
                 ir.getResult(ConstantPropagation.ID);
         // obtain result of live variable analysis
         DataflowResult<Stmt, SetFact<Var>> liveVars =
                 ir.getResult(LiveVariableAnalysis.ID);
-        // keep statements (dead code) sorted in the resulting set
-        Set<Stmt> deadCode = new TreeSet<>(Comparator.comparing(Stmt::getIndex));
         // TODO - finish me
+        if (compactCFG) {
+            return detect(CompactCFG.of(ir), constants, liveVars);
+        } else {
+            CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+            return detect(cfg, constants, liveVars);
+        }
+    }
 
-        Vector<Stmt> deque = new Vector<>();
-        Set<Stmt> useful = new TreeSet<>(Comparator.comparing(Stmt::getIndex));
-        deque.add(cfg.getEntry());
-
-        Consumer<Stmt> addDeque = (Stmt stmt) -> {
-            if (!useful.contains(stmt)) {
-                ((Vector<Stmt>) deque).add(stmt);
-            }
-        };
-
-        Consumer<Set<Stmt>> addAllDeque = (Set<Stmt> stmts) -> {
-            for (Stmt stmt : stmts) {
-                if (!useful.contains(stmt)) {
-                    ((Vector<Stmt>) deque).add(stmt);
-                }
-            }
-        };
-
-        while (!deque.isEmpty()) {
-            Stmt stmt = deque.remove(0);
-
-            if (stmt instanceof If if_stmt) {
-                // assume if_stmt is usefully even if with constant cond
-                useful.add(stmt);
-                /// branch unreachable
-
-                ConditionExp cond = if_stmt.getCondition();
-                Value cond_value = evaluateCondExpr(cond, constants.getInFact(if_stmt));
-
-                if (cond_value.isNAC()) {
-                    addAllDeque.accept(cfg.getSuccsOf(stmt));
-                } else {
-                    for (Edge<Stmt> edge : cfg.getOutEdgesOf(stmt)) {
-                        if (cond_value.getConstant() == 0 && edge.getKind() == Edge.Kind.IF_FALSE
-                                || cond_value.getConstant() == 1 && edge.getKind() == Edge.Kind.IF_TRUE) {
-                            addDeque.accept(edge.getTarget());
-                        }
-                    }
-                }
-            } else if (stmt instanceof SwitchStmt switch_stmt) {
-                /// branch unreachable
-
-                useful.add(stmt);
-
-                Var cond = switch_stmt.getVar();
-                Value cond_value = constants.getInFact(switch_stmt).get(cond);
-
-                if (cond_value.isConstant()) {
-                    for (Edge<Stmt> edge : cfg.getOutEdgesOf(stmt)) {
-                        if (edge.getKind() == Edge.Kind.SWITCH_CASE && edge.getCaseValue() == cond_value.getConstant()) {
-                            addDeque.accept(edge.getTarget());
-                            break;
-                        } else if(edge.getKind() == Edge.Kind.SWITCH_DEFAULT) {
-                            // assume this is the last edge to be iterated
-                            // Edge.Kind.SWITCH_CASE
-                            addDeque.accept(edge.getTarget());
-                        }
-                    }
-                } else {
-                    addAllDeque.accept(cfg.getSuccsOf(stmt));
-                }
-            } else if (stmt instanceof AssignStmt<?, ?> assign_stmt) {
-                // check if side effect
-                boolean sideEffect = false;
-                for (RValue rvalue : assign_stmt.getUses()) {
-                    sideEffect |= !hasNoSideEffect(rvalue);
-                }
-                if (sideEffect) {
-                    useful.add(assign_stmt);
-                    addAllDeque.accept(cfg.getSuccsOf(stmt));
+    /**
+     * Detects dead code in one pass over the statements reachable from
+     * the entry of the CFG, in the same way as
+     * {@link #detect(CompactCFG, NodeResult, NodeResult)}, i.e., the
+     * condition of each branch statement is evaluated once. The statements
+     * are numbered by their indexes, and the entry and exit by the number
+     * of statements and that plus 1.
+     */
+    static Set<Stmt> detect(CFG<Stmt> cfg,
+                            NodeResult<Stmt, CPFact> constants,
+                            NodeResult<Stmt, SetFact<Var>> liveVars) {
+        int size = cfg.getIR().getStmts().size();
+        Stmt[] queue = new Stmt[size + 2];
+        BitSet visited = new BitSet(size + 2);
+        int head = 0, tail = 0;
+        queue[tail++] = cfg.getEntry();
+        visited.set(size);
+        while (head < tail) {
+            Stmt stmt = queue[head++];
+            Branch branch = getTakenBranch(stmt, constants);
+            Edge<Stmt> taken = branch == null ? null : getTakenEdge(cfg, stmt, branch);
+            for (Edge<Stmt> edge : cfg.getOutEdgesOf(stmt)) {
+                if (taken != null && edge != taken) {
                     continue;
                 }
+                Stmt succ = edge.getTarget();
+                int slot = cfg.isExit(succ) ? size + 1 : succ.getIndex();
+                if (!visited.get(slot)) {
+                    visited.set(slot);
+                    queue[tail++] = succ;
+                }
+            }
+        }
+        return collectDeadCode(cfg.getIR(), visited, liveVars);
+    }
 
-                // the def of assignment won't be empty
-                if (liveVars.getOutFact(assign_stmt).contains((Var) assign_stmt.getDef().get())) {
-                    useful.add(assign_stmt);
+    /**
+     * Detects dead code in one pass over the statements reachable from
+     * the entry of the CFG. The work-list is a plain array of the slots
+     * of the compact CFG, and visited slots are tracked in a bitmap.
+     * Each statement is enqueued at most once, and the condition of each
+     * {@link If} and {@link SwitchStmt} is evaluated once on its CP in-fact.
+     *
+     * @return the dead code of the CFG, i.e., the unreachable statements
+     * and the dead assignments, in the order of their indexes.
+     */
+    static Set<Stmt> detect(CompactCFG cfg,
+                            NodeResult<Stmt, CPFact> constants,
+                            NodeResult<Stmt, SetFact<Var>> liveVars) {
+        int slots = cfg.getNumberOfSlots();
+        int[] queue = new int[slots];
+        BitSet visited = new BitSet(slots);
+        int head = 0, tail = 0;
+        queue[tail++] = cfg.getEntrySlot();
+        visited.set(cfg.getEntrySlot());
+        while (head < tail) {
+            int s = queue[head++];
+            Branch branch = getTakenBranch(cfg.getNode(s), constants);
+            int taken = branch == null ? -1 : getTakenEdge(cfg, s, branch);
+            int start = taken == -1 ? cfg.getOutStart(s) : taken;
+            int end = taken == -1 ? cfg.getOutEnd(s) : taken + 1;
+            for (int e = start; e < end; ++e) {
+                int succ = cfg.getTarget(e);
+                if (!visited.get(succ)) {
+                    visited.set(succ);
+                    queue[tail++] = succ;
                 }
-                addAllDeque.accept(cfg.getSuccsOf(stmt));
+            }
+        }
+        return collectDeadCode(cfg.getIR(), visited, liveVars);
+    }
 
-            } else if (stmt instanceof Return) {
-                useful.add(stmt);
-            } else {
-                useful.add(stmt);
-                addAllDeque.accept(cfg.getSuccsOf(stmt));
+    /**
+     * @param visited the reachable statements, by their indexes
+     * @return the unreachable statements and the dead assignments of
+     * given IR, in the order of their indexes.
+     */
+    private static Set<Stmt> collectDeadCode(
+            IR ir, BitSet visited, NodeResult<Stmt, SetFact<Var>> liveVars) {
+        // statements are visited in index order, thus
+        // dead code is kept sorted in the resulting set
+        Set<Stmt> deadCode = new LinkedHashSet<>();
+        for (Stmt stmt : ir.getStmts()) {
+            if (!visited.get(stmt.getIndex())
+                    || isDeadAssignment(stmt, liveVars)) {
+                deadCode.add(stmt);
             }
         }
+        return deadCode;
+    }
 
-        useful.add(cfg.getExit());
+    /**
+     * The out-edges of a branch statement which may be taken: the edges of
+     * given kind, and for {@link Edge.Kind#SWITCH_CASE}, the case edge of
+     * given value, or the default edge if no case has the value.
+     */
+    private record Branch(Edge.Kind kind, int caseValue) {
+    }
 
-        /// control unreachable
-        for (Stmt stmt : cfg) {
-            if (!useful.contains(stmt)) {
-                deadCode.add(stmt);
+    /**
+     * Evaluates the condition of given statement, if it is an {@link If}
+     * or a {@link SwitchStmt}, once on the constants of its in-fact.
+     *
+     * @return the branch which is taken, or null if all out-edges may be taken.
+     */
+    private static Branch getTakenBranch(
+            Stmt stmt, NodeResult<Stmt, CPFact> constants) {
+        if (stmt instanceof If ifStmt) {
+            Value cond = ConstantPropagation.evaluate(
+                    ifStmt.getCondition(), constants.getInFact(stmt));
+            if (cond.isConstant()) {
+                return new Branch(cond.getConstant() != 0
+                        ? Edge.Kind.IF_TRUE : Edge.Kind.IF_FALSE, 0);
+            }
+        } else if (stmt instanceof SwitchStmt switchStmt) {
+            Value cond = constants.getInFact(stmt).get(switchStmt.getVar());
+            if (cond.isConstant()) {
+                return new Branch(Edge.Kind.SWITCH_CASE, cond.getConstant());
             }
         }
+        return null;
+    }
 
-        // Your task is to recognize dead code in ir and add it to deadCode
-        return deadCode;
+    /**
+     * @return whether an edge of given kind and case value is the one
+     * of given branch; default edges are handled by the callers.
+     */
+    private static boolean isTaken(Branch branch, Edge.Kind kind, int caseValue) {
+        return kind == branch.kind() && (kind != Edge.Kind.SWITCH_CASE
+                || caseValue == branch.caseValue());
     }
 
     /**
-     * @return Value after evaluate a CondExpr
+     * @return the out-edge of given statement which is taken by given
+     * branch, or null if there is no such edge.
      */
-    private static Value evaluateCondExpr(ConditionExp cond, CPFact in) {
-        ConditionExp.Op op = cond.getOperator();
-
-        Value rhs = in.get(cond.getOperand1());
-        Value lhs = in.get(cond.getOperand2());
-
-        boolean res = false;
-        if (rhs.isConstant() || lhs.isConstant()) {
-            switch (op) {
-                case EQ -> res = rhs.getConstant() == lhs.getConstant();
-                case NE -> res = rhs.getConstant() != lhs.getConstant();
-                case LT -> res = rhs.getConstant() < lhs.getConstant();
-                case GT -> res = rhs.getConstant() > lhs.getConstant();
-                case LE -> res = rhs.getConstant() <= lhs.getConstant();
-                case GE -> res = rhs.getConstant() >= lhs.getConstant();
+    private static Edge<Stmt> getTakenEdge(CFG<Stmt> cfg, Stmt stmt, Branch branch) {
+        Edge<Stmt> defaultEdge = null;
+        for (Edge<Stmt> edge : cfg.getOutEdgesOf(stmt)) {
+            if (isTaken(branch, edge.getKind(),
+                    edge.isSwitchCase() ? edge.getCaseValue() : 0)) {
+                return edge;
+            } else if (edge.getKind() == Edge.Kind.SWITCH_DEFAULT) {
+                defaultEdge = edge;
             }
+        }
+        return defaultEdge;
+    }
 
-            return Value.makeConstant(res ? 1 : 0);
+    /**
+     * @return the out-edge of given slot which is taken by given branch,
+     * or -1 if there is no such edge.
+     */
+    private static int getTakenEdge(CompactCFG cfg, int slot, Branch branch) {
+        int defaultEdge = -1;
+        for (int e = cfg.getOutStart(slot); e < cfg.getOutEnd(slot); ++e) {
+            Edge.Kind kind = cfg.getKind(e);
+            if (isTaken(branch, kind,
+                    kind == Edge.Kind.SWITCH_CASE ? cfg.getCaseValue(e) : 0)) {
+                return e;
+            } else if (kind == Edge.Kind.SWITCH_DEFAULT) {
+                defaultEdge = e;
+            }
         }
+        return defaultEdge;
+    }
 
-        /// never mind is NAC or UNDEF
-        return Value.getNAC();
+    /**
+     * @return true if given statement is an assignment without side effect
+     * whose defined variable is not live after it, otherwise false.
+     */
+    private static boolean isDeadAssignment(
+            Stmt stmt, NodeResult<Stmt, SetFact<Var>> liveVars) {
+        if (stmt instanceof AssignStmt<?, ?> assign
+                && assign.getLValue() instanceof Var def) {
+            for (RValue rvalue : assign.getUses()) {
+                if (!hasNoSideEffect(rvalue)) {
+                    return false;
+                }
+            }
+            return !liveVars.getOutFact(stmt).contains(def);
+        }
+        return false;
     }
 
     /**
@@ -0,0 +1,367 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.analysis.graph.cfg.BasicBlock;
+import pascal.taie.analysis.graph.cfg.BlockCFG;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Def-use chains of the variables of an {@link IR}, computed from
+ * reaching definitions on the blocks of its {@link BlockCFG}.
+ * <p>
+ * Definitions are numbered densely from 0: first the parameters, which
+ * are defined by the entry of the CFG, then the statements which define
+ * a variable, in the order of their indexes. The uses of a statement are
+ * the distinct variables in {@link Stmt#getUses()}, and each use is
+ * chained to the definitions of its variable which reach the statement.
+ * <p>
+ * Only the reaching definitions at the start of each block are kept;
+ * those at other statements are recomputed on demand
+ * (see {@link #getReachingDefs(Stmt)}).
+ */
+public class DefUseChains {
+
+    /**
+     * Key of the def-use chains in the result holder of {@link IR}.
+     */
+    public static final String ID = "def-use";
+
+    private static final int[] NO_DEFS = new int[0];
+
+    private final BlockCFG cfg;
+
+    /**
+     * Number of statements in the IR.
+     */
+    private final int size;
+
+    /**
+     * Statement of each definition.
+     */
+    private final Stmt[] defStmts;
+
+    /**
+     * Variable of each definition.
+     */
+    private final Var[] defVars;
+
+    /**
+     * Definition of each statement, or -1 if it defines no variable.
+     */
+    private final int[] defOf;
+
+    /**
+     * Definitions of each variable, indexed by {@link Var#getIndex()}.
+     */
+    private final int[][] defsOfVar;
+
+    /**
+     * Reaching definitions at the start of each block.
+     */
+    private final BitSet[] blockIns;
+
+    /**
+     * Used variables of each statement.
+     */
+    private final Var[][] usesOf;
+
+    /**
+     * Reaching definitions of each use of each statement.
+     */
+    private final int[][][] useDefsOf;
+
+    /**
+     * Statements which use each definition.
+     */
+    private final int[][] usersOf;
+
+    public DefUseChains(BlockCFG cfg) {
+        this.cfg = cfg;
+        IR ir = cfg.getIR();
+        List<Stmt> stmts = ir.getStmts();
+        size = stmts.size();
+        // number the definitions
+        Stmt entry = cfg.getStmtCFG().getEntry();
+        List<Var> params = ir.getParams();
+        int nDefs = params.size();
+        defOf = new int[size];
+        for (Stmt stmt : stmts) {
+            defOf[stmt.getIndex()] = definedVar(stmt) != null ? nDefs++ : -1;
+        }
+        defStmts = new Stmt[nDefs];
+        defVars = new Var[nDefs];
+        for (int i = 0; i < params.size(); ++i) {
+            defStmts[i] = entry;
+            defVars[i] = params.get(i);
+        }
+        int[] counts = new int[ir.getVars().size()];
+        for (Stmt stmt : stmts) {
+            int def = defOf[stmt.getIndex()];
+            if (def != -1) {
+                defStmts[def] = stmt;
+                defVars[def] = definedVar(stmt);
+            }
+        }
+        for (Var var : defVars) {
+            ++counts[var.getIndex()];
+        }
+        defsOfVar = new int[counts.length][];
+        for (int v = 0; v < counts.length; ++v) {
+            defsOfVar[v] = counts[v] == 0 ? NO_DEFS : new int[counts[v]];
+            counts[v] = 0;
+        }
+        for (int def = 0; def < nDefs; ++def) {
+            int v = defVars[def].getIndex();
+            defsOfVar[v][counts[v]++] = def;
+        }
+        blockIns = solveReachingDefs();
+        // chain the uses of each statement to their reaching definitions
+        usesOf = new Var[size][];
+        useDefsOf = new int[size][][];
+        int[] nUsers = new int[nDefs];
+        for (BasicBlock block : cfg.getBlocks()) {
+            BitSet reaching = (BitSet) blockIns[block.getIndex()].clone();
+            for (Stmt stmt : block.getStmts()) {
+                if (isInIR(stmt)) {
+                    Var[] uses = collectUsedVars(stmt);
+                    int[][] useDefs = new int[uses.length][];
+                    for (int u = 0; u < uses.length; ++u) {
+                        useDefs[u] = filter(defsOfVar[uses[u].getIndex()], reaching);
+                        for (int def : useDefs[u]) {
+                            ++nUsers[def];
+                        }
+                    }
+                    usesOf[stmt.getIndex()] = uses;
+                    useDefsOf[stmt.getIndex()] = useDefs;
+                }
+                applyDefs(stmt, reaching, null);
+            }
+        }
+        usersOf = new int[nDefs][];
+        for (int def = 0; def < nDefs; ++def) {
+            usersOf[def] = nUsers[def] == 0 ? NO_DEFS : new int[nUsers[def]];
+            nUsers[def] = 0;
+        }
+        for (int s = 0; s < size; ++s) {
+            for (int[] useDefs : useDefsOf[s]) {
+                for (int def : useDefs) {
+                    usersOf[def][nUsers[def]++] = s;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the def-use chains of given IR, which are built on first
+     * request and then cached in the IR.
+     */
+    public static DefUseChains of(IR ir) {
+        return ir.getResult(ID, () -> new DefUseChains(BlockCFG.of(ir)));
+    }
+
+    private static Var definedVar(Stmt stmt) {
+        return stmt.getDef().orElse(null) instanceof Var var ? var : null;
+    }
+
+    private static Var[] collectUsedVars(Stmt stmt) {
+        List<Var> uses = new ArrayList<>(2);
+        for (RValue use : stmt.getUses()) {
+            if (use instanceof Var var && !uses.contains(var)) {
+                uses.add(var);
+            }
+        }
+        return uses.toArray(new Var[0]);
+    }
+
+    /**
+     * @return the elements of defs which are in given set.
+     */
+    private static int[] filter(int[] defs, BitSet set) {
+        int[] result = new int[defs.length];
+        int n = 0;
+        for (int def : defs) {
+            if (set.get(def)) {
+                result[n++] = def;
+            }
+        }
+        return n == 0 ? NO_DEFS : Arrays.copyOf(result, n);
+    }
+
+    private boolean isInIR(Stmt stmt) {
+        return !cfg.getStmtCFG().isEntry(stmt) && !cfg.getStmtCFG().isExit(stmt);
+    }
+
+    /**
+     * Applies the definitions of given statement to the reaching
+     * definitions after it, and records them in kill if it is not null.
+     */
+    private void applyDefs(Stmt stmt, BitSet reaching, BitSet kill) {
+        if (cfg.getStmtCFG().isEntry(stmt)) {
+            for (int def = 0; def < defStmts.length && defStmts[def] == stmt; ++def) {
+                applyDef(def, reaching, kill);
+            }
+        } else if (isInIR(stmt) && defOf[stmt.getIndex()] != -1) {
+            applyDef(defOf[stmt.getIndex()], reaching, kill);
+        }
+    }
+
+    private void applyDef(int def, BitSet reaching, BitSet kill) {
+        for (int other : defsOfVar[defVars[def].getIndex()]) {
+            reaching.clear(other);
+            if (kill != null) {
+                kill.set(other);
+            }
+        }
+        reaching.set(def);
+    }
+
+    /**
+     * Solves reaching definitions on the blocks, with the blocks in
+     * the work-list processed in the order of their indexes.
+     *
+     * @return the reaching definitions at the start of each block.
+     */
+    private BitSet[] solveReachingDefs() {
+        int nBlocks = cfg.getBlocks().size();
+        BitSet[] gens = new BitSet[nBlocks];
+        BitSet[] kills = new BitSet[nBlocks];
+        BitSet[] ins = new BitSet[nBlocks];
+        BitSet[] outs = new BitSet[nBlocks];
+        for (BasicBlock block : cfg.getBlocks()) {
+            int b = block.getIndex();
+            gens[b] = new BitSet();
+            kills[b] = new BitSet();
+            for (Stmt stmt : block.getStmts()) {
+                applyDefs(stmt, gens[b], kills[b]);
+            }
+            ins[b] = new BitSet();
+            outs[b] = (BitSet) gens[b].clone();
+        }
+        BitSet workList = new BitSet(nBlocks);
+        workList.set(0, nBlocks);
+        while (!workList.isEmpty()) {
+            int b = workList.nextSetBit(0);
+            workList.clear(b);
+            BasicBlock block = cfg.getBlocks().get(b);
+            BitSet in = ins[b];
+            for (BasicBlock pred : cfg.getPredsOf(block)) {
+                in.or(outs[pred.getIndex()]);
+            }
+            BitSet out = (BitSet) in.clone();
+            out.andNot(kills[b]);
+            out.or(gens[b]);
+            if (!out.equals(outs[b])) {
+                outs[b] = out;
+                for (BasicBlock succ : cfg.getSuccsOf(block)) {
+                    workList.set(succ.getIndex());
+                }
+            }
+        }
+        return ins;
+    }
+
+    /**
+     * @return the number of definitions.
+     */
+    public int getNumberOfDefs() {
+        return defStmts.length;
+    }
+
+    /**
+     * @return the statement of given definition, which is the entry
+     * of the CFG for the definitions of parameters.
+     */
+    public Stmt getDefStmt(int def) {
+        return defStmts[def];
+    }
+
+    /**
+     * @return the variable of given definition.
+     */
+    public Var getDefVar(int def) {
+        return defVars[def];
+    }
+
+    /**
+     * @return the definition of given statement of the IR,
+     * or -1 if it does not define a variable.
+     */
+    public int getDefOf(Stmt stmt) {
+        return defOf[stmt.getIndex()];
+    }
+
+    /**
+     * @return the definitions of given variable.
+     * The returned array must not be modified.
+     */
+    public int[] getDefsOf(Var var) {
+        return defsOfVar[var.getIndex()];
+    }
+
+    /**
+     * @return the distinct variables used by given statement of the IR.
+     */
+    public List<Var> getUsedVars(Stmt stmt) {
+        return Arrays.asList(usesOf[stmt.getIndex()]);
+    }
+
+    /**
+     * @return the definitions which reach the i-th use of given statement,
+     * where uses are ordered as in {@link #getUsedVars(Stmt)}.
+     * The returned array must not be modified.
+     */
+    public int[] getReachingDefs(Stmt stmt, int i) {
+        return useDefsOf[stmt.getIndex()][i];
+    }
+
+    /**
+     * @return the indexes of the statements which use given definition.
+     * The returned array must not be modified.
+     */
+    public int[] getUsers(int def) {
+        return usersOf[def];
+    }
+
+    /**
+     * @return all definitions which reach the start of given statement
+     * (including the entry and exit of the CFG).
+     */
+    public BitSet getReachingDefs(Stmt stmt) {
+        BasicBlock block = cfg.getBlockOf(stmt);
+        BitSet reaching = (BitSet) blockIns[block.getIndex()].clone();
+        List<Stmt> stmts = block.getStmts();
+        for (int i = 0, pos = cfg.getPositionInBlock(stmt); i < pos; ++i) {
+            applyDefs(stmts.get(i), reaching, null);
+        }
+        return reaching;
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.analysis.dataflow.fact.BitSetFact;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.Indexable;
+
+import java.util.BitSet;
+import java.util.Collection;
+
+/**
+ * Base class for gen/kill (bit-vector) data-flow analyses, whose transfer
+ * function of each statement is {@code gen ∪ (fact - kill)}.
+ * <p>
+ * Subclasses only declare the gen and kill sets of the statements of
+ * a CFG, which may depend on the other statements of the method, e.g.,
+ * the definitions killed by a definition in reaching definitions.
+ * The analysis is bound to each CFG it solves (see {@link #bind(CFG)}):
+ * when the facts are {@link BitSetFact}s, the sets are precomputed once
+ * per CFG as bit masks and applied with word operations (and composed
+ * per block when solving on blocks). For other kinds of facts, they are
+ * applied element by element, which is also how the statements are
+ * transferred by the unbound analysis when the sets do not depend on
+ * the CFG (see {@link #dependsOnCFG()}).
+ *
+ * @param <E> type of elements of the facts
+ */
+public abstract class GenKillAnalysis<E extends Indexable>
+        extends AbstractDataflowAnalysis<Stmt, SetFact<E>> {
+
+    /**
+     * Transfers statements of analyses which do not depend on the CFG.
+     */
+    private final ElementTransfer unbound = new ElementTransfer(null);
+
+    protected GenKillAnalysis(AnalysisConfig config) {
+        super(config);
+    }
+
+    /**
+     * @return true if facts are merged by union at control-flow confluences
+     * (may analysis), or false if they are merged by intersection
+     * (must analysis).
+     */
+    protected abstract boolean isMay();
+
+    /**
+     * @param cfg the CFG of the statement, or null if the statement is
+     *            transferred without a CFG (see {@link #dependsOnCFG()})
+     * @return the elements generated by given statement of given CFG.
+     */
+    protected abstract Collection<E> gen(CFG<Stmt> cfg, Stmt stmt);
+
+    /**
+     * @param cfg the CFG of the statement, or null if the statement is
+     *            transferred without a CFG (see {@link #dependsOnCFG()})
+     * @return the elements killed by given statement of given CFG.
+     */
+    protected abstract Collection<E> kill(CFG<Stmt> cfg, Stmt stmt);
+
+    /**
+     * Used to precompute the bit masks of {@link BitSetFact}s. Analyses
+     * whose statements share large kill sets, e.g., all definitions of
+     * a variable in reaching definitions, override this method to compute
+     * the shared sets once instead of for every statement.
+     *
+     * @return a new bit set of the indexes of the elements killed by
+     * given statement of given CFG.
+     */
+    protected BitSet killIndexes(CFG<Stmt> cfg, Stmt stmt) {
+        BitSet kill = new BitSet();
+        kill(cfg, stmt).forEach(e -> kill.set(e.getIndex()));
+        return kill;
+    }
+
+    @Override
+    public void meetInto(SetFact<E> fact, SetFact<E> target) {
+        if (isMay()) {
+            target.union(fact);
+        } else {
+            target.intersect(fact);
+        }
+    }
+
+    /**
+     * Analyses whose gen and kill sets only depend on the statement itself,
+     * e.g., live variable analysis, override this method to return false,
+     * so that statements can also be transferred by this analysis without
+     * binding it to a CFG (see {@link #transferNode(Stmt, SetFact, SetFact)}).
+     *
+     * @return true if the gen and kill sets depend on the other statements
+     * of the CFG, e.g., the numbering of its definitions or expressions.
+     */
+    protected boolean dependsOnCFG() {
+        return true;
+    }
+
+    /**
+     * Transfers given statement element by element without a CFG, i.e.,
+     * {@link #gen(CFG, Stmt)} and {@link #kill(CFG, Stmt)} are given null
+     * as the CFG. Solvers which are given the analysis bound to the CFG
+     * (see {@link #bind(CFG)}) do not call this method.
+     *
+     * @throws UnsupportedOperationException if the gen and kill sets
+     *                                       depend on the CFG
+     */
+    @Override
+    public boolean transferNode(Stmt stmt, SetFact<E> in, SetFact<E> out) {
+        if (dependsOnCFG()) {
+            throw new UnsupportedOperationException(
+                    "Gen/kill sets of " + stmt + " depend on its CFG, see bind(CFG)");
+        }
+        return unbound.transferNode(stmt, in, out);
+    }
+
+    /**
+     * Applies given gen and kill sets element by element.
+     *
+     * @return true if the out (in) fact changed in forward (backward)
+     * analysis, otherwise false.
+     */
+    private boolean transfer(Collection<E> gen, Collection<E> kill,
+                             SetFact<E> in, SetFact<E> out) {
+        SetFact<E> source = isForward() ? in : out;
+        SetFact<E> target = isForward() ? out : in;
+        // Updates target in place and detects the change by its
+        // modification count. Only the elements not in the result are
+        // removed and only the missing ones are added, so the count
+        // changes exactly when the content does.
+        int modCount = target.getModCount();
+        target.removeIf(e -> !gen.contains(e)
+                && (kill.contains(e) || !source.contains(e)));
+        source.stream()
+                .filter(e -> !kill.contains(e))
+                .forEach(target::add);
+        gen.forEach(target::add);
+        return target.getModCount() != modCount;
+    }
+
+    @Override
+    protected DataflowAnalysis<Stmt, SetFact<E>> bind(CFG<Stmt> cfg) {
+        return newInitialFact(cfg) instanceof BitSetFact<E>
+                && newBoundaryFact(cfg) instanceof BitSetFact<E>
+                ? new BitVectorTransfer<>(this, cfg) : new ElementTransfer(cfg);
+    }
+
+    /**
+     * Applies the gen and kill sets of the statements of one CFG
+     * element by element.
+     */
+    private class ElementTransfer implements DataflowAnalysis<Stmt, SetFact<E>> {
+
+        private final CFG<Stmt> cfg;
+
+        private ElementTransfer(CFG<Stmt> cfg) {
+            this.cfg = cfg;
+        }
+
+        @Override
+        public boolean isForward() {
+            return GenKillAnalysis.this.isForward();
+        }
+
+        @Override
+        public SetFact<E> newBoundaryFact(CFG<Stmt> cfg) {
+            return GenKillAnalysis.this.newBoundaryFact(cfg);
+        }
+
+        @Override
+        public SetFact<E> newInitialFact(CFG<Stmt> cfg) {
+            return GenKillAnalysis.this.newInitialFact(cfg);
+        }
+
+        @Override
+        public SetFact<E> newSafeFact(CFG<Stmt> cfg) {
+            return GenKillAnalysis.this.newSafeFact(cfg);
+        }
+
+        @Override
+        public void meetInto(SetFact<E> fact, SetFact<E> target) {
+            GenKillAnalysis.this.meetInto(fact, target);
+        }
+
+        @Override
+        public boolean transferNode(Stmt stmt, SetFact<E> in, SetFact<E> out) {
+            return transfer(gen(cfg, stmt), kill(cfg, stmt), in, out);
+        }
+
+        @Override
+        public boolean needTransferEdge(Edge<Stmt> edge) {
+            return GenKillAnalysis.this.needTransferEdge(edge);
+        }
+
+        @Override
+        public SetFact<E> transferEdge(Edge<Stmt> edge, SetFact<E> nodeFact) {
+            return GenKillAnalysis.this.transferEdge(edge, nodeFact);
+        }
+    }
+}
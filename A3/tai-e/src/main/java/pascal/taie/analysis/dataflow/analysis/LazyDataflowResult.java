@@ -0,0 +1,123 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.BasicBlock;
+import pascal.taie.analysis.graph.cfg.BlockCFG;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link DataflowResult} of statements which only retains the facts
+ * of blocks, i.e., the facts at block boundaries and join points.
+ * <p>
+ * The in (out) fact of the first (last) statement of a block is the fact
+ * of the block. Other facts are reconstructed on request by replaying
+ * the transfers of the block, and the facts of the most recently used
+ * blocks are kept in a bounded LRU cache, so that clients which query
+ * the statements of a block one after another replay it only once.
+ * <p>
+ * This result is read-only.
+ *
+ * @param <Fact> type of data-flow facts
+ */
+class LazyDataflowResult<Fact> extends DataflowResult<Stmt, Fact> {
+
+    private final BlockDataflowAnalysis<Fact> analysis;
+
+    private final BlockCFG blockCFG;
+
+    private final DataflowResult<BasicBlock, Fact> blockResult;
+
+    /**
+     * Facts at the program points of recently used blocks,
+     * see {@link BlockDataflowAnalysis#replay}.
+     */
+    private final Map<BasicBlock, List<Fact>> cache;
+
+    LazyDataflowResult(BlockDataflowAnalysis<Fact> analysis, BlockCFG blockCFG,
+                       DataflowResult<BasicBlock, Fact> blockResult,
+                       int cacheSize) {
+        super(Map.of(), Map.of());
+        this.analysis = analysis;
+        this.blockCFG = blockCFG;
+        this.blockResult = blockResult;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<BasicBlock, List<Fact>> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    @Override
+    public Fact getInFact(Stmt stmt) {
+        BasicBlock block = getBlockOf(stmt);
+        if (block == null) {
+            return null;
+        }
+        int pos = blockCFG.getPositionInBlock(stmt);
+        return pos == 0 ? blockResult.getInFact(block) : getFact(block, pos);
+    }
+
+    @Override
+    public Fact getOutFact(Stmt stmt) {
+        BasicBlock block = getBlockOf(stmt);
+        if (block == null) {
+            return null;
+        }
+        int pos = blockCFG.getPositionInBlock(stmt) + 1;
+        return pos == block.size() ? blockResult.getOutFact(block) : getFact(block, pos);
+    }
+
+    private BasicBlock getBlockOf(Stmt stmt) {
+        return blockCFG.getStmtCFG().hasNode(stmt) ? blockCFG.getBlockOf(stmt) : null;
+    }
+
+    /**
+     * @return the fact at the given program point of given block.
+     */
+    private synchronized Fact getFact(BasicBlock block, int point) {
+        List<Fact> facts = cache.get(block);
+        if (facts == null) {
+            facts = analysis.replay(block, blockResult.getInFact(block),
+                    blockResult.getOutFact(block));
+            cache.put(block, facts);
+        }
+        return facts.get(point);
+    }
+
+    @Override
+    public void setInFact(Stmt stmt, Fact fact) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setOutFact(Stmt stmt, Fact fact) {
+        throw new UnsupportedOperationException();
+    }
+}
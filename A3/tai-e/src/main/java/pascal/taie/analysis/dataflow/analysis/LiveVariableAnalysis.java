@@ -22,26 +22,39 @@
 
 package pascal.taie.analysis.dataflow.analysis;
 
+import pascal.taie.analysis.dataflow.fact.BitSetFact;
+import pascal.taie.analysis.dataflow.fact.PersistentSetFact;
 import pascal.taie.analysis.dataflow.fact.SetFact;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.config.AnalysisConfig;
-import pascal.taie.ir.exp.LValue;
+import pascal.taie.config.ConfigException;
 import pascal.taie.ir.exp.RValue;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Stmt;
 
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 /**
- * Implementation of classic live variable analysis.
+ * Implementation of classic live variable analysis, i.e., a backward
+ * may analysis whose statements generate the variables they use
+ * and kill the variable they define.
  */
-public class LiveVariableAnalysis extends
-        AbstractDataflowAnalysis<Stmt, SetFact<Var>> {
+public class LiveVariableAnalysis extends GenKillAnalysis<Var> {
 
     public static final String ID = "livevar";
 
+    /**
+     * Kind of the facts of this analysis, either "bitset" ({@link BitSetFact}),
+     * "hybrid" ({@link SetFact}) or "persistent" ({@link PersistentSetFact}).
+     */
+    private final String factKind;
+
     public LiveVariableAnalysis(AnalysisConfig config) {
         super(config);
+        factKind = DataflowOptions.getString(getOptions(), "fact",
+                "bitset", "bitset", "hybrid", "persistent");
     }
 
     @Override
@@ -52,42 +65,67 @@ public class LiveVariableAnalysis extends
     @Override
     public SetFact<Var> newBoundaryFact(CFG<Stmt> cfg) {
         // TODO - finish me
-        return new SetFact<>();
+        return newInitialFact(cfg);
     }
 
-    @Override
+    /**
+     * @return new initial fact of kind "hybrid".
+     */
     public SetFact<Var> newInitialFact() {
         // TODO - finish me
         return new SetFact<>();
     }
 
     @Override
-    public void meetInto(SetFact<Var> fact, SetFact<Var> target) {
-        // TODO - finish me
-        target.union(fact);
+    public SetFact<Var> newInitialFact(CFG<Stmt> cfg) {
+        return switch (factKind) {
+            case "bitset" -> BitSetFact.forVars(cfg.getIR());
+            case "hybrid" -> newInitialFact();
+            case "persistent" -> new PersistentSetFact<>();
+            default -> throw new ConfigException("Unknown fact kind: " + factKind);
+        };
     }
 
+    /**
+     * @return the fact which contains all variables of the method,
+     * i.e., every variable may be live.
+     */
     @Override
-    public boolean transferNode(Stmt stmt, SetFact<Var> in, SetFact<Var> out) {
-        // TODO - finish me
-        Optional<LValue> def = stmt.getDef();
-
-        SetFact<Var> old_in = in.copy();
+    public SetFact<Var> newSafeFact(CFG<Stmt> cfg) {
+        SetFact<Var> fact = newInitialFact(cfg);
+        cfg.getIR().getVars().forEach(fact::add);
+        return fact;
+    }
 
-        in.union(out);
+    @Override
+    protected boolean isMay() {
+        return true;
+    }
 
-        def.ifPresent(lValue -> {
-            if (lValue instanceof Var) {
-                in.remove((Var) lValue);
-            }
-        });
+    /**
+     * The used and defined variables only depend on the statement.
+     */
+    @Override
+    protected boolean dependsOnCFG() {
+        return false;
+    }
 
-        for (RValue rValue : stmt.getUses()) {
-            if (rValue instanceof Var) {
-                in.add((Var) rValue);
+    @Override
+    protected Collection<Var> gen(CFG<Stmt> cfg, Stmt stmt) {
+        List<Var> uses = new ArrayList<>();
+        for (RValue use : stmt.getUses()) {
+            if (use instanceof Var var) {
+                uses.add(var);
             }
         }
+        return uses;
+    }
 
-        return !in.equals(old_in);
+    @Override
+    protected Collection<Var> kill(CFG<Stmt> cfg, Stmt stmt) {
+        return stmt.getDef()
+                .filter(Var.class::isInstance)
+                .map(def -> List.of((Var) def))
+                .orElse(List.of());
     }
 }
@@ -0,0 +1,195 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.analysis.dataflow.fact.BitSetFact;
+import pascal.taie.analysis.dataflow.fact.PersistentSetFact;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementation of classic reaching definition analysis, i.e., a forward
+ * may analysis whose facts are the statements defining variables. Each
+ * definition generates itself and kills the other definitions of the
+ * variable it defines.
+ * <p>
+ * Definitions are numbered by their statement indexes, so that facts can
+ * be {@link BitSetFact}s over the statements of the {@link IR}.
+ */
+public class ReachingDefinitionAnalysis extends GenKillAnalysis<Stmt> {
+
+    public static final String ID = "reachdef";
+
+    /**
+     * Key of the {@link Definitions} in the {@link IR}.
+     */
+    private static final String DEFS = ID + "-defs";
+
+    /**
+     * Kind of the facts of this analysis, either "bitset" ({@link BitSetFact}),
+     * "hybrid" ({@link SetFact}) or "persistent" ({@link PersistentSetFact}).
+     */
+    private final String factKind;
+
+    public ReachingDefinitionAnalysis(AnalysisConfig config) {
+        super(config);
+        factKind = DataflowOptions.getString(getOptions(), "fact",
+                "bitset", "bitset", "hybrid", "persistent");
+    }
+
+    @Override
+    public boolean isForward() {
+        return true;
+    }
+
+    @Override
+    public SetFact<Stmt> newBoundaryFact(CFG<Stmt> cfg) {
+        return newInitialFact(cfg);
+    }
+
+    @Override
+    public SetFact<Stmt> newInitialFact(CFG<Stmt> cfg) {
+        return switch (factKind) {
+            case "bitset" -> BitSetFact.forStmts(cfg.getIR());
+            case "hybrid" -> new SetFact<>();
+            case "persistent" -> new PersistentSetFact<>();
+            default -> throw new ConfigException("Unknown fact kind: " + factKind);
+        };
+    }
+
+    /**
+     * @return the fact which contains all definitions of the method,
+     * i.e., every definition may reach.
+     */
+    @Override
+    public SetFact<Stmt> newSafeFact(CFG<Stmt> cfg) {
+        SetFact<Stmt> fact = newInitialFact(cfg);
+        for (Stmt stmt : cfg.getIR()) {
+            if (getDefinedVar(stmt) != null) {
+                fact.add(stmt);
+            }
+        }
+        return fact;
+    }
+
+    @Override
+    protected boolean isMay() {
+        return true;
+    }
+
+    @Override
+    protected Collection<Stmt> gen(CFG<Stmt> cfg, Stmt stmt) {
+        return getDefinedVar(stmt) != null ? List.of(stmt) : List.of();
+    }
+
+    /**
+     * @return all definitions of the variable defined by given statement.
+     * The statement itself is also killed, but it is generated again.
+     */
+    @Override
+    protected Collection<Stmt> kill(CFG<Stmt> cfg, Stmt stmt) {
+        Var var = getDefinedVar(stmt);
+        return var != null
+                ? Definitions.of(cfg.getIR()).getDefs(var)
+                : List.of();
+    }
+
+    /**
+     * All definitions of a variable are killed by each of them,
+     * thus their indexes are computed once per variable.
+     */
+    @Override
+    protected BitSet killIndexes(CFG<Stmt> cfg, Stmt stmt) {
+        Var var = getDefinedVar(stmt);
+        return var != null
+                ? Definitions.of(cfg.getIR()).getIndexes(var)
+                : new BitSet();
+    }
+
+    private static Var getDefinedVar(Stmt stmt) {
+        return stmt.getDef().orElse(null) instanceof Var var ? var : null;
+    }
+
+    /**
+     * Definitions of each variable of an IR, cached in the IR. They are
+     * computed at construction and not modified afterwards, and only
+     * copies are returned, so they can be shared by threads analyzing
+     * the same IR.
+     */
+    private static class Definitions {
+
+        private final Map<Var, List<Stmt>> defs = Maps.newMap();
+
+        /**
+         * Statement indexes of the definitions of each variable.
+         */
+        private final Map<Var, BitSet> indexes = Maps.newMap();
+
+        private Definitions(IR ir) {
+            for (Stmt stmt : ir) {
+                Var var = getDefinedVar(stmt);
+                if (var != null) {
+                    defs.computeIfAbsent(var, v -> new ArrayList<>()).add(stmt);
+                    indexes.computeIfAbsent(var, v -> new BitSet())
+                            .set(stmt.getIndex());
+                }
+            }
+            defs.replaceAll((var, stmts) -> List.copyOf(stmts));
+        }
+
+        private static Definitions of(IR ir) {
+            // the result holder of IR is not thread-safe
+            synchronized (ir) {
+                return ir.getResult(DEFS, () -> new Definitions(ir));
+            }
+        }
+
+        /**
+         * @return the (unmodifiable) definitions of given variable.
+         */
+        private List<Stmt> getDefs(Var var) {
+            return defs.getOrDefault(var, List.of());
+        }
+
+        /**
+         * @return a new bit set of the indexes of the definitions
+         * of given variable.
+         */
+        private BitSet getIndexes(Var var) {
+            BitSet bits = indexes.get(var);
+            return bits != null ? (BitSet) bits.clone() : new BitSet();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.availexp;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowOptions;
+import pascal.taie.analysis.dataflow.analysis.GenKillAnalysis;
+import pascal.taie.analysis.dataflow.fact.BitSetFact;
+import pascal.taie.analysis.dataflow.fact.PersistentSetFact;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Implementation of classic available expression analysis, i.e., a forward
+ * must analysis whose facts are the expressions numbered by
+ * {@link ExpNumbering}. Each statement generates the expressions it
+ * evaluates, and kills the expressions which use the variable it defines.
+ */
+public class AvailableExpressionAnalysis extends GenKillAnalysis<NumberedExp> {
+
+    public static final String ID = "availexp";
+
+    /**
+     * Kind of the facts of this analysis, either "bitset" ({@link BitSetFact}),
+     * "hybrid" ({@link SetFact}) or "persistent" ({@link PersistentSetFact}).
+     */
+    private final String factKind;
+
+    public AvailableExpressionAnalysis(AnalysisConfig config) {
+        super(config);
+        factKind = DataflowOptions.getString(getOptions(), "fact",
+                "bitset", "bitset", "hybrid", "persistent");
+    }
+
+    @Override
+    public boolean isForward() {
+        return true;
+    }
+
+    /**
+     * No expressions are available at the entry of the method.
+     */
+    @Override
+    public SetFact<NumberedExp> newBoundaryFact(CFG<Stmt> cfg) {
+        ExpNumbering numbering = ExpNumbering.of(cfg.getIR());
+        return switch (factKind) {
+            case "bitset" -> new BitSetFact<>(numbering::getExp, numbering.size());
+            case "hybrid" -> new SetFact<>();
+            case "persistent" -> new PersistentSetFact<>();
+            default -> throw new ConfigException("Unknown fact kind: " + factKind);
+        };
+    }
+
+    /**
+     * The initial fact of this must analysis contains all expressions
+     * of the method.
+     */
+    @Override
+    public SetFact<NumberedExp> newInitialFact(CFG<Stmt> cfg) {
+        ExpNumbering numbering = ExpNumbering.of(cfg.getIR());
+        SetFact<NumberedExp> fact = newBoundaryFact(cfg);
+        if (fact instanceof BitSetFact<NumberedExp> bitSet) {
+            bitSet.fill(numbering.size());
+        } else {
+            numbering.getExps().forEach(fact::add);
+        }
+        return fact;
+    }
+
+    /**
+     * @return the empty fact, i.e., no expression is available.
+     */
+    @Override
+    public SetFact<NumberedExp> newSafeFact(CFG<Stmt> cfg) {
+        return newBoundaryFact(cfg);
+    }
+
+    @Override
+    protected boolean isMay() {
+        return false;
+    }
+
+    /**
+     * @return the expressions evaluated by given statement, except the ones
+     * using the variable it defines, e.g., {@code x + 1} in {@code x = x + 1}.
+     */
+    @Override
+    protected Collection<NumberedExp> gen(CFG<Stmt> cfg, Stmt stmt) {
+        List<NumberedExp> exps = ExpNumbering.of(cfg.getIR()).getExpsOf(stmt);
+        Var def = getDefinedVar(stmt);
+        if (def == null || exps.isEmpty()) {
+            return exps;
+        }
+        return exps.stream()
+                .filter(exp -> !exp.getExp().getUses().contains(def))
+                .toList();
+    }
+
+    /**
+     * @return the expressions which use the variable defined by given statement.
+     */
+    @Override
+    protected Collection<NumberedExp> kill(CFG<Stmt> cfg, Stmt stmt) {
+        Var def = getDefinedVar(stmt);
+        return def != null
+                ? ExpNumbering.of(cfg.getIR()).getUsersOf(def)
+                : List.of();
+    }
+
+    private static Var getDefinedVar(Stmt stmt) {
+        return stmt.getDef().orElse(null) instanceof Var var ? var : null;
+    }
+}
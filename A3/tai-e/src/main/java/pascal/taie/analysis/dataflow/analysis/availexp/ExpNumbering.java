@@ -0,0 +1,161 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.availexp;
+
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.BinaryExp;
+import pascal.taie.ir.exp.CastExp;
+import pascal.taie.ir.exp.Exp;
+import pascal.taie.ir.exp.InstanceOfExp;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.UnaryExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dense numbering of the expressions of an {@link IR} whose values only
+ * depend on the variables they use, i.e., binary, unary, cast and
+ * instance-of expressions. Structurally equal expressions share a number.
+ * <p>
+ * The numbering is built once per IR and cached in it, see {@link #of(IR)}.
+ */
+public class ExpNumbering {
+
+    public static final String ID = "exp-numbering";
+
+    private final List<NumberedExp> exps = new ArrayList<>();
+
+    /**
+     * Expressions evaluated by each statement, indexed by statement index.
+     */
+    private final List<List<NumberedExp>> stmtExps;
+
+    /**
+     * Expressions using each variable.
+     */
+    private final MultiMap<Var, NumberedExp> users = Maps.newMultiMap();
+
+    private ExpNumbering(IR ir) {
+        Map<List<Object>, NumberedExp> numbers = Maps.newMap();
+        stmtExps = new ArrayList<>(ir.getStmts().size());
+        for (Stmt stmt : ir) {
+            List<NumberedExp> evaluated = List.of();
+            for (RValue use : stmt.getUses()) {
+                List<Object> key = keyOf(use);
+                if (key == null) {
+                    continue;
+                }
+                NumberedExp exp = numbers.get(key);
+                if (exp == null) {
+                    exp = new NumberedExp(use, exps.size());
+                    numbers.put(key, exp);
+                    exps.add(exp);
+                    for (RValue operand : use.getUses()) {
+                        users.put((Var) operand, exp);
+                    }
+                }
+                if (evaluated.isEmpty()) {
+                    evaluated = new ArrayList<>(1);
+                }
+                evaluated.add(exp);
+            }
+            stmtExps.add(evaluated);
+        }
+    }
+
+    /**
+     * @return the numbering of the expressions of given IR.
+     */
+    public static ExpNumbering of(IR ir) {
+        // the result holder of IR is not thread-safe
+        synchronized (ir) {
+            return ir.getResult(ID, () -> new ExpNumbering(ir));
+        }
+    }
+
+    /**
+     * @return the key identifying the structure of given expression,
+     * or null if the expression is not numbered.
+     */
+    private static List<Object> keyOf(Exp exp) {
+        if (exp instanceof BinaryExp binary) {
+            return List.of(exp.getClass(), binary.getOperator(),
+                    binary.getOperand1(), binary.getOperand2());
+        } else if (exp instanceof UnaryExp unary) {
+            return List.of(exp.getClass(), unary.getOperand());
+        } else if (exp instanceof CastExp cast) {
+            return List.of(exp.getClass(), cast.getCastType(), cast.getValue());
+        } else if (exp instanceof InstanceOfExp instanceOf) {
+            return List.of(exp.getClass(), instanceOf.getCheckedType(),
+                    instanceOf.getValue());
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * @return the number of numbered expressions.
+     */
+    public int size() {
+        return exps.size();
+    }
+
+    /**
+     * @return the expression of given number.
+     */
+    public NumberedExp getExp(int index) {
+        return exps.get(index);
+    }
+
+    /**
+     * @return all numbered expressions, in ascending order of their numbers.
+     */
+    public List<NumberedExp> getExps() {
+        return Collections.unmodifiableList(exps);
+    }
+
+    /**
+     * @return the numbered expressions evaluated by given statement
+     * of the IR. Statements outside the IR, e.g., the entry and exit
+     * of CFGs, evaluate no expressions.
+     */
+    public List<NumberedExp> getExpsOf(Stmt stmt) {
+        int index = stmt.getIndex();
+        return index < stmtExps.size() ? stmtExps.get(index) : List.of();
+    }
+
+    /**
+     * @return the numbered expressions which use given variable.
+     */
+    public Collection<NumberedExp> getUsersOf(Var var) {
+        return users.get(var);
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.availexp;
+
+import pascal.taie.ir.exp.Exp;
+import pascal.taie.util.Indexable;
+
+/**
+ * An expression of a method, numbered by {@link ExpNumbering}.
+ * All occurrences of structurally equal expressions in the method,
+ * e.g., {@code a + b} in two statements, share one numbered expression.
+ */
+public final class NumberedExp implements Indexable {
+
+    private final Exp exp;
+
+    private final int index;
+
+    NumberedExp(Exp exp, int index) {
+        this.exp = exp;
+        this.index = index;
+    }
+
+    /**
+     * @return the first occurrence of this expression in the method.
+     */
+    public Exp getExp() {
+        return exp;
+    }
+
+    @Override
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return exp.toString();
+    }
+}
@@ -25,6 +25,7 @@ package pascal.taie.analysis.dataflow.analysis.constprop;
 import pascal.taie.analysis.dataflow.fact.MapFact;
 import pascal.taie.ir.exp.Var;
 
+import javax.annotation.Nullable;
 import java.util.Collections;
 import java.util.Map;
 
@@ -48,6 +49,17 @@ public class CPFact extends MapFact<Var, Value> {
         super(map);
     }
 
+    /**
+     * Constructs a fact without a backing map, for subclasses which keep
+     * their mappings in other forms (see {@link MapFact#MapFact()}).
+     *
+     * @param noMap unused, only distinguishes this constructor
+     *              from {@link #CPFact()}
+     */
+    protected CPFact(@Nullable Void noMap) {
+        super();
+    }
+
     /**
      * @return the value of given variable in this fact,
      * or UNDEF the variable is absent in this fact.
@@ -69,6 +81,22 @@ public class CPFact extends MapFact<Var, Value> {
         }
     }
 
+    /**
+     * Copies the content from given fact to this fact, except the value
+     * of variable {@code except}, which is left as it is.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean copyFrom(CPFact fact, @Nullable Var except) {
+        int modCount = getModCount();
+        fact.forEach((var, value) -> {
+            if (var != except) {
+                update(var, value);
+            }
+        });
+        return getModCount() != modCount;
+    }
+
     @Override
     public CPFact copy() {
         return new CPFact(this.map);
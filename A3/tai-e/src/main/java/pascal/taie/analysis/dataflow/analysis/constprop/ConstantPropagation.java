@@ -23,8 +23,14 @@
 package pascal.taie.analysis.dataflow.analysis.constprop;
 
 import pascal.taie.analysis.dataflow.analysis.AbstractDataflowAnalysis;
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.analysis.DataflowOptions;
+import pascal.taie.analysis.dataflow.analysis.DefUseChains;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.*;
 import pascal.taie.ir.stmt.DefinitionStmt;
@@ -33,6 +39,10 @@ import pascal.taie.language.type.PrimitiveType;
 import pascal.taie.language.type.Type;
 import pascal.taie.util.AnalysisException;
 
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.List;
+
 import static pascal.taie.ir.exp.ArithmeticExp.Op.*;
 import static pascal.taie.ir.exp.ArithmeticExp.Op.DIV;
 import static pascal.taie.ir.exp.ArithmeticExp.Op.REM;
@@ -46,8 +56,46 @@ public class ConstantPropagation extends
 
     public static final String ID = "constprop";
 
+    /**
+     * Kind of the facts of this analysis, either "hybrid" ({@link CPFact}),
+     * "packed" ({@link PackedCPFact}) or "persistent" ({@link PersistentCPFact}).
+     */
+    private final String factKind;
+
+    /**
+     * Whether values are propagated along {@link DefUseChains}
+     * instead of solving {@link CPFact}s at every statement.
+     */
+    private final boolean sparse;
+
+    /**
+     * Whether the evaluation of binary expressions is memoized
+     * per statement by {@link EvaluationCache}.
+     */
+    private final boolean evalCache;
+
     public ConstantPropagation(AnalysisConfig config) {
         super(config);
+        factKind = DataflowOptions.getString(getOptions(), "fact",
+                "hybrid", "hybrid", "packed", "persistent");
+        sparse = DataflowOptions.getBoolean(getOptions(), "sparse", false);
+        evalCache = DataflowOptions.getBoolean(getOptions(), "eval-cache", false);
+    }
+
+    @Override
+    public DataflowResult<Stmt, CPFact> analyze(IR ir) {
+        return sparse ? SparseCPResult.solve(this, ir) : super.analyze(ir);
+    }
+
+    /**
+     * Sparse results are read-only, thus they are recomputed
+     * from scratch instead of being updated.
+     */
+    @Override
+    public DataflowResult<Stmt, CPFact> analyze(
+            IR ir, DataflowResult<Stmt, CPFact> previous,
+            Collection<Stmt> changed) {
+        return sparse ? analyze(ir) : super.analyze(ir, previous, changed);
     }
 
     @Override
@@ -58,25 +106,60 @@ public class ConstantPropagation extends
     @Override
     public CPFact newBoundaryFact(CFG<Stmt> cfg) {
         // TODO - finish me
-        CPFact fact = new CPFact();
+        CPFact fact = newInitialFact(cfg);
         for (Var var : cfg.getIR().getParams()) {
             fact.update(var, Value.getNAC());
         }
         return fact;
     }
 
-    @Override
+    /**
+     * @return new initial fact of kind "hybrid".
+     */
     public CPFact newInitialFact() {
         // TODO - finish me
         return new CPFact();
     }
 
+    @Override
+    public CPFact newInitialFact(CFG<Stmt> cfg) {
+        return switch (factKind) {
+            case "hybrid" -> newInitialFact();
+            case "packed" -> PackedCPFact.forVars(cfg.getIR());
+            case "persistent" -> new PersistentCPFact();
+            default -> throw new ConfigException("Unknown fact kind: " + factKind);
+        };
+    }
+
+    /**
+     * @return the fact which maps the parameters and all variables
+     * defined in the method to NAC.
+     */
+    @Override
+    public CPFact newSafeFact(CFG<Stmt> cfg) {
+        CPFact fact = newInitialFact(cfg);
+        IR ir = cfg.getIR();
+        for (Var param : ir.getParams()) {
+            fact.update(param, Value.getNAC());
+        }
+        for (Stmt stmt : ir) {
+            if (stmt.getDef().orElse(null) instanceof Var var) {
+                fact.update(var, Value.getNAC());
+            }
+        }
+        return fact;
+    }
+
     @Override
     public void meetInto(CPFact fact, CPFact target) {
         // TODO - finish me
-        for (Var var : fact.keySet()) {
-            target.update(var, meetValue(fact.get(var), target.get(var)));
+        if (fact instanceof PackedCPFact packed &&
+                target instanceof PackedCPFact packedTarget) {
+            packedTarget.meet(packed);
+            return;
         }
+        fact.forEach((var, value) ->
+                target.update(var, meetValue(value, target.get(var))));
     }
 
     /**
@@ -101,21 +184,95 @@ public class ConstantPropagation extends
 
     @Override
     public boolean transferNode(Stmt stmt, CPFact in, CPFact out) {
+        return transferNode(stmt, in, out, null);
+    }
+
+    /**
+     * Transfers given statement, evaluating its binary expression
+     * with given cache if it is not null.
+     */
+    private boolean transferNode(Stmt stmt, CPFact in, CPFact out,
+                                 @Nullable EvaluationCache cache) {
         // TODO - finish me
-        CPFact old_out = out.copy();
+        // Updates out in place and detects the change by its modification
+        // count, so neither a copy of out nor a comparison is needed.
+        // The value of the defined variable is only written once, after
+        // the other variables are copied, so that it is not counted as
+        // a change when it ends up as it was.
+        int modCount = out.getModCount();
+        Var def = stmt.getDef().orElse(null) instanceof Var var ? var : null;
+        out.copyFrom(in, def);
+        if (def != null) {
+            List<RValue> uses = stmt.getUses();
+            Value value;
+            if (uses.isEmpty()) {
+                value = Value.getUndef();
+            } else if (cache != null
+                    && uses.get(uses.size() - 1) instanceof BinaryExp binary) {
+                value = cache.evaluate(stmt, binary, in);
+            } else {
+                value = evaluate(uses.get(uses.size() - 1), in);
+            }
+            out.update(def, value);
+        }
+        return out.getModCount() != modCount;
+    }
+
+    @Override
+    protected DataflowAnalysis<Stmt, CPFact> bind(CFG<Stmt> cfg) {
+        return evalCache ? new CachedTransfer(EvaluationCache.of(cfg.getIR())) : this;
+    }
+
+    /**
+     * Transfers the statements of one IR with its {@link EvaluationCache}.
+     */
+    private class CachedTransfer implements DataflowAnalysis<Stmt, CPFact> {
+
+        private final EvaluationCache cache;
+
+        private CachedTransfer(EvaluationCache cache) {
+            this.cache = cache;
+        }
 
-        out.copyFrom(in);
+        @Override
+        public boolean isForward() {
+            return ConstantPropagation.this.isForward();
+        }
+
+        @Override
+        public CPFact newBoundaryFact(CFG<Stmt> cfg) {
+            return ConstantPropagation.this.newBoundaryFact(cfg);
+        }
 
-        /// canHoldInt
-        stmt.getDef().ifPresent(lValue -> out.remove((Var) lValue));
+        @Override
+        public CPFact newInitialFact(CFG<Stmt> cfg) {
+            return ConstantPropagation.this.newInitialFact(cfg);
+        }
 
-        for (RValue rvalue : stmt.getUses()) {
-            stmt.getDef().ifPresent(lValue ->
-                    out.update((Var) lValue, evaluate(rvalue, in))
-            );
+        @Override
+        public CPFact newSafeFact(CFG<Stmt> cfg) {
+            return ConstantPropagation.this.newSafeFact(cfg);
         }
 
-        return !out.equals(old_out);
+        @Override
+        public void meetInto(CPFact fact, CPFact target) {
+            ConstantPropagation.this.meetInto(fact, target);
+        }
+
+        @Override
+        public boolean transferNode(Stmt stmt, CPFact in, CPFact out) {
+            return ConstantPropagation.this.transferNode(stmt, in, out, cache);
+        }
+
+        @Override
+        public boolean needTransferEdge(Edge<Stmt> edge) {
+            return ConstantPropagation.this.needTransferEdge(edge);
+        }
+
+        @Override
+        public CPFact transferEdge(Edge<Stmt> edge, CPFact nodeFact) {
+            return ConstantPropagation.this.transferEdge(edge, nodeFact);
+        }
     }
 
     /**
@@ -0,0 +1,119 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.BinaryExp;
+import pascal.taie.ir.stmt.Stmt;
+
+/**
+ * Memoizes the evaluation of the {@link BinaryExp}s of an {@link IR},
+ * one entry per statement. An entry holds the values of the operands it
+ * was computed from, and is reused as long as the operands keep these
+ * values; it is recomputed as soon as one of them changes.
+ * <p>
+ * The cache of an IR is created on demand and kept in the IR, see
+ * {@link #of(IR)}, so that its hit and miss counters can be inspected
+ * after the analysis. It is not thread-safe, as each IR is analyzed
+ * by one thread.
+ */
+public class EvaluationCache {
+
+    public static final String ID = "eval-cache";
+
+    /**
+     * Expression of each entry, which tells whether the entry belongs
+     * to the current expression of the statement.
+     */
+    private final BinaryExp[] exps;
+
+    private final Value[] operands1;
+
+    private final Value[] operands2;
+
+    private final Value[] results;
+
+    private long hits;
+
+    private long misses;
+
+    private EvaluationCache(int size) {
+        exps = new BinaryExp[size];
+        operands1 = new Value[size];
+        operands2 = new Value[size];
+        results = new Value[size];
+    }
+
+    /**
+     * @return the evaluation cache of given IR.
+     */
+    public static EvaluationCache of(IR ir) {
+        return ir.getResult(ID, () -> new EvaluationCache(ir.getStmts().size()));
+    }
+
+    /**
+     * Evaluates given expression of given statement as
+     * {@link ConstantPropagation#evaluate(pascal.taie.ir.exp.Exp, CPFact)}
+     * does, reusing the previous result if the operands did not change.
+     */
+    Value evaluate(Stmt stmt, BinaryExp exp, CPFact in) {
+        int i = stmt.getIndex();
+        if (i >= exps.length) {
+            // statements added to the IR after the cache was created
+            ++misses;
+            return ConstantPropagation.evaluate(exp, in);
+        }
+        Value v1 = in.get(exp.getOperand1());
+        Value v2 = in.get(exp.getOperand2());
+        if (exps[i] == exp && operands1[i].equals(v1) && operands2[i].equals(v2)) {
+            ++hits;
+            return results[i];
+        }
+        ++misses;
+        Value result = ConstantPropagation.evaluate(exp, in);
+        exps[i] = exp;
+        operands1[i] = v1;
+        operands2[i] = v2;
+        results[i] = result;
+        return result;
+    }
+
+    /**
+     * @return the number of evaluations answered by the cache.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of evaluations which were computed.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    @Override
+    public String toString() {
+        return "EvaluationCache{hits=" + hits + ", misses=" + misses + "}";
+    }
+}
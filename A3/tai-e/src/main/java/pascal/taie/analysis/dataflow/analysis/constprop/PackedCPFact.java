@@ -0,0 +1,349 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.fact.MapFact;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * A {@link CPFact} specialized for primitive values, which stores its
+ * mappings in an open-addressed hash table keyed by {@link Var#getIndex()},
+ * with each lattice value packed into a {@code long}: the kind in the high
+ * word and the integer constant in the low word.
+ * <p>
+ * {@link #update(Var, Value)}, {@link #copyFrom(MapFact)} and
+ * {@link #meet(PackedCPFact)} work on the packed values without
+ * allocation. {@link #get(Var)} still returns {@link Value}s, so that
+ * transfer functions written against {@link CPFact} work unchanged.
+ * <p>
+ * As in {@link CPFact}, absence represents UNDEF. These facts have no map
+ * inherited from {@link MapFact}, and all operations work on the table.
+ */
+public class PackedCPFact extends CPFact {
+
+    private static final long CONSTANT = 1L << 32;
+
+    private static final long NAC = 2L << 32;
+
+    private static final long KIND_MASK = 0xffffffffL << 32;
+
+    private static final int DEFAULT_CAPACITY = 8;
+
+    /**
+     * Maps a variable index back to the variable.
+     */
+    private final IntFunction<Var> vars;
+
+    /**
+     * Variable index plus one of each slot, or 0 if the slot is empty.
+     */
+    private int[] keys;
+
+    private long[] values;
+
+    private int size;
+
+    public PackedCPFact(IntFunction<Var> vars) {
+        this(vars, new int[DEFAULT_CAPACITY], new long[DEFAULT_CAPACITY], 0);
+    }
+
+    private PackedCPFact(IntFunction<Var> vars, int[] keys, long[] values, int size) {
+        super(null);
+        this.vars = vars;
+        this.keys = keys;
+        this.values = values;
+        this.size = size;
+    }
+
+    /**
+     * @return a new empty fact for the variables of given IR.
+     */
+    public static PackedCPFact forVars(IR ir) {
+        return new PackedCPFact(ir::getVar);
+    }
+
+    private static long pack(Value value) {
+        return value.isNAC() ? NAC :
+                CONSTANT | (value.getConstant() & 0xffffffffL);
+    }
+
+    private static Value unpack(long packed) {
+        return (packed & KIND_MASK) == NAC ? Value.getNAC() :
+                Value.makeConstant((int) packed);
+    }
+
+    /**
+     * Meets two packed (non-UNDEF) values, in the same way
+     * as {@link ConstantPropagation#meetValue(Value, Value)}.
+     */
+    private static long meet(long v1, long v2) {
+        return v1 == v2 ? v1 : NAC;
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @return the slot holding given key, or the empty slot where
+     * the key should be inserted.
+     */
+    private int slotOf(int key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Associates given key with given packed value.
+     *
+     * @return true if this fact changed as a result of the call.
+     */
+    private boolean put(int key, long packed) {
+        int slot = slotOf(key);
+        if (keys[slot] == key) {
+            if (values[slot] == packed) {
+                return false;
+            }
+            values[slot] = packed;
+            return track(true);
+        }
+        if (2 * (size + 1) > keys.length) {
+            rehash(2 * keys.length);
+            slot = slotOf(key);
+        }
+        keys[slot] = key;
+        values[slot] = packed;
+        ++size;
+        return track(true);
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new int[capacity];
+        values = new long[capacity];
+        for (int i = 0; i < oldKeys.length; ++i) {
+            if (oldKeys[i] != 0) {
+                int slot = slotOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Removes given key with backward-shift deletion, so that
+     * the table never needs tombstones.
+     *
+     * @return true if the key was present, otherwise false.
+     */
+    private boolean removeKey(int key) {
+        int slot = slotOf(key);
+        if (keys[slot] == 0) {
+            return false;
+        }
+        int mask = keys.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (keys[next] != 0) {
+            int home = hash(keys[next]) & mask;
+            // move the entry at next into the hole if its home slot
+            // is not cyclically within (hole, next]
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = 0;
+        --size;
+        return track(true);
+    }
+
+    @Override
+    public Value get(Var key) {
+        int slot = slotOf(key.getIndex() + 1);
+        return keys[slot] != 0 ? unpack(values[slot]) : Value.getUndef();
+    }
+
+    @Override
+    public boolean update(Var key, Value value) {
+        if (value.isUndef()) {
+            return removeKey(key.getIndex() + 1);
+        } else {
+            return put(key.getIndex() + 1, pack(value));
+        }
+    }
+
+    @Override
+    public Value remove(Var key) {
+        int k = key.getIndex() + 1;
+        int slot = slotOf(k);
+        if (keys[slot] == 0) {
+            return null;
+        }
+        Value old = unpack(values[slot]);
+        removeKey(k);
+        return old;
+    }
+
+    @Override
+    public boolean copyFrom(MapFact<Var, Value> fact) {
+        if (fact instanceof PackedCPFact that) {
+            boolean changed = false;
+            for (int i = 0; i < that.keys.length; ++i) {
+                if (that.keys[i] != 0) {
+                    changed |= put(that.keys[i], that.values[i]);
+                }
+            }
+            return changed;
+        }
+        return super.copyFrom(fact);
+    }
+
+    @Override
+    public boolean copyFrom(CPFact fact, @Nullable Var except) {
+        if (fact instanceof PackedCPFact that) {
+            int exceptKey = except != null ? except.getIndex() + 1 : 0;
+            boolean changed = false;
+            for (int i = 0; i < that.keys.length; ++i) {
+                if (that.keys[i] != 0 && that.keys[i] != exceptKey) {
+                    changed |= put(that.keys[i], that.values[i]);
+                }
+            }
+            return changed;
+        }
+        return super.copyFrom(fact, except);
+    }
+
+    /**
+     * Meets given fact into this fact.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean meet(PackedCPFact fact) {
+        boolean changed = false;
+        for (int i = 0; i < fact.keys.length; ++i) {
+            int key = fact.keys[i];
+            if (key != 0) {
+                int slot = slotOf(key);
+                long packed = keys[slot] != 0 ?
+                        meet(values[slot], fact.values[i]) : fact.values[i];
+                changed |= put(key, packed);
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public PackedCPFact copy() {
+        return new PackedCPFact(vars, keys.clone(), values.clone(), size);
+    }
+
+    @Override
+    public void clear() {
+        track(size != 0);
+        Arrays.fill(keys, 0);
+        size = 0;
+    }
+
+    private IntStream slots() {
+        return IntStream.range(0, keys.length).filter(i -> keys[i] != 0);
+    }
+
+    @Override
+    public Set<Var> keySet() {
+        return Collections.unmodifiableSet(slots()
+                .mapToObj(i -> vars.apply(keys[i] - 1))
+                .collect(Collectors.toSet()));
+    }
+
+    @Override
+    public Stream<Map.Entry<Var, Value>> entries() {
+        return slots().mapToObj(i ->
+                Map.entry(vars.apply(keys[i] - 1), unpack(values[i])));
+    }
+
+    @Override
+    public void forEach(BiConsumer<Var, Value> action) {
+        for (int i = 0; i < keys.length; ++i) {
+            if (keys[i] != 0) {
+                action.accept(vars.apply(keys[i] - 1), unpack(values[i]));
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PackedCPFact that)) {
+            return super.equals(o);
+        }
+        if (size != that.size) {
+            return false;
+        }
+        for (int i = 0; i < keys.length; ++i) {
+            if (keys[i] != 0) {
+                int slot = that.slotOf(keys[i]);
+                if (that.keys[slot] == 0 || that.values[slot] != values[i]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        // consistent with Map.hashCode() over the unpacked entries
+        int h = 0;
+        for (int i = 0; i < keys.length; ++i) {
+            if (keys[i] != 0) {
+                int valueHash = (values[i] & KIND_MASK) == NAC ?
+                        0 : (int) values[i];
+                h += vars.apply(keys[i] - 1).hashCode() ^ valueHash;
+            }
+        }
+        return h;
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.fact.MapFact;
+import pascal.taie.analysis.dataflow.fact.PersistentMapFact;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.util.collection.PersistentMap;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A {@link CPFact} backed by a {@link PersistentMap}, so that
+ * {@link #copy()} is O(1) and copies share structure with each other,
+ * as in {@link PersistentMapFact}.
+ * <p>
+ * As in {@link CPFact}, absence represents UNDEF. These facts have no map
+ * inherited from {@link MapFact}, and all operations work on the
+ * persistent map.
+ */
+public class PersistentCPFact extends CPFact {
+
+    private PersistentMap<Var, Value> values;
+
+    public PersistentCPFact() {
+        this(PersistentMap.empty());
+    }
+
+    private PersistentCPFact(PersistentMap<Var, Value> values) {
+        super(null);
+        this.values = values;
+    }
+
+    @Override
+    public Value get(Var key) {
+        Value value = values.get(key);
+        return value != null ? value : Value.getUndef();
+    }
+
+    @Override
+    public boolean update(Var key, Value value) {
+        PersistentMap<Var, Value> old = values;
+        values = value.isUndef() ? values.remove(key) : values.put(key, value);
+        return track(values != old);
+    }
+
+    @Override
+    public Value remove(Var key) {
+        Value old = values.get(key);
+        values = values.remove(key);
+        track(old != null);
+        return old;
+    }
+
+    @Override
+    public boolean copyFrom(MapFact<Var, Value> fact) {
+        if (fact instanceof PersistentCPFact that && values.isEmpty()) {
+            // share the whole structure of given fact
+            boolean changed = !that.values.isEmpty();
+            values = that.values;
+            return track(changed);
+        }
+        PersistentMap<Var, Value> old = values;
+        fact.forEach((k, v) -> values = values.put(k, v));
+        return track(values != old);
+    }
+
+    @Override
+    public PersistentCPFact copy() {
+        return new PersistentCPFact(values);
+    }
+
+    @Override
+    public void clear() {
+        track(!values.isEmpty());
+        values = PersistentMap.empty();
+    }
+
+    @Override
+    public Set<Var> keySet() {
+        return values.entryList()
+                .stream()
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public Stream<Map.Entry<Var, Value>> entries() {
+        return values.entryList().stream();
+    }
+
+    @Override
+    public void forEach(BiConsumer<Var, Value> action) {
+        values.forEach(action);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PersistentCPFact that)) {
+            return super.equals(o);
+        }
+        return values.equals(that.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return values.hashCode();
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.analysis.DefUseChains;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of sparse constant propagation, which computes one {@link Value}
+ * per definition by propagating values along {@link DefUseChains} instead
+ * of carrying a {@link CPFact} at every statement.
+ * <p>
+ * The value of a variable at a statement is the meet of the values of
+ * its definitions which reach the statement, thus the facts of each
+ * statement, which equal those of the dense analysis, are rebuilt on
+ * demand. This result is read-only.
+ */
+class SparseCPResult extends DataflowResult<Stmt, CPFact> {
+
+    private final ConstantPropagation cp;
+
+    private final IR ir;
+
+    private final CFG<Stmt> cfg;
+
+    private final DefUseChains chains;
+
+    /**
+     * Value of each definition.
+     */
+    private final Value[] values;
+
+    private SparseCPResult(ConstantPropagation cp, IR ir, DefUseChains chains) {
+        super(Map.of(), Map.of());
+        this.cp = cp;
+        this.ir = ir;
+        this.cfg = ir.getResult(CFGBuilder.ID);
+        this.chains = chains;
+        this.values = new Value[chains.getNumberOfDefs()];
+    }
+
+    /**
+     * Computes the values of all definitions of given IR. Each statement
+     * which defines a variable is evaluated once, and then again only
+     * when the value of a definition it uses changes.
+     */
+    static SparseCPResult solve(ConstantPropagation cp, IR ir) {
+        SparseCPResult result = new SparseCPResult(cp, ir, DefUseChains.of(ir));
+        DefUseChains chains = result.chains;
+        Value[] values = result.values;
+        List<Stmt> stmts = ir.getStmts();
+        int nParams = ir.getParams().size();
+        for (int def = 0; def < values.length; ++def) {
+            // parameters are NAC, as in the boundary fact
+            values[def] = def < nParams ? Value.getNAC() : Value.getUndef();
+        }
+        int[] workList = new int[stmts.size()];
+        BitSet inWorkList = new BitSet(stmts.size());
+        int head = 0, count = 0;
+        for (Stmt stmt : stmts) {
+            if (chains.getDefOf(stmt) != -1) {
+                workList[count++] = stmt.getIndex();
+                inWorkList.set(stmt.getIndex());
+            }
+        }
+        while (count > 0) {
+            int s = workList[head];
+            head = head + 1 == workList.length ? 0 : head + 1;
+            --count;
+            inWorkList.clear(s);
+            Stmt stmt = stmts.get(s);
+            int def = chains.getDefOf(stmt);
+            Value value = result.evaluate(stmt);
+            if (!value.equals(values[def])) {
+                values[def] = value;
+                for (int user : chains.getUsers(def)) {
+                    if (chains.getDefOf(stmts.get(user)) != -1
+                            && !inWorkList.get(user)) {
+                        inWorkList.set(user);
+                        workList[(head + count++) % workList.length] = user;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the value defined by given statement under the current
+     * values of the definitions it uses. As in
+     * {@link ConstantPropagation#transferNode}, this is the value of
+     * its last use, or UNDEF if it uses nothing.
+     */
+    private Value evaluate(Stmt stmt) {
+        List<RValue> uses = stmt.getUses();
+        if (uses.isEmpty()) {
+            return Value.getUndef();
+        }
+        CPFact in = new CPFact();
+        List<Var> vars = chains.getUsedVars(stmt);
+        for (int i = 0; i < vars.size(); ++i) {
+            Value value = Value.getUndef();
+            for (int def : chains.getReachingDefs(stmt, i)) {
+                value = cp.meetValue(value, values[def]);
+            }
+            in.update(vars.get(i), value);
+        }
+        return ConstantPropagation.evaluate(uses.get(uses.size() - 1), in);
+    }
+
+    @Override
+    public CPFact getInFact(Stmt stmt) {
+        if (!cfg.hasNode(stmt)) {
+            return null;
+        }
+        CPFact fact = new CPFact();
+        BitSet reaching = chains.getReachingDefs(stmt);
+        for (int def = reaching.nextSetBit(0); def >= 0;
+             def = reaching.nextSetBit(def + 1)) {
+            Var var = chains.getDefVar(def);
+            fact.update(var, cp.meetValue(fact.get(var), values[def]));
+        }
+        if (cfg.isEntry(stmt)) {
+            // the boundary fact, as in the dense analysis
+            ir.getParams().forEach(param -> fact.update(param, Value.getNAC()));
+        }
+        return fact;
+    }
+
+    @Override
+    public CPFact getOutFact(Stmt stmt) {
+        CPFact fact = getInFact(stmt);
+        if (fact != null) {
+            if (!cfg.isEntry(stmt) && !cfg.isExit(stmt)
+                    && chains.getDefOf(stmt) != -1) {
+                int def = chains.getDefOf(stmt);
+                fact.update(chains.getDefVar(def), values[def]);
+            }
+        }
+        return fact;
+    }
+
+    @Override
+    public void setInFact(Stmt stmt, CPFact fact) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setOutFact(Stmt stmt, CPFact fact) {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,352 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.Indexable;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Set-like data-flow facts backed by a dense bit vector.
+ * <p>
+ * Each element is represented by the bit at its {@link Indexable#getIndex()},
+ * so union, intersection, difference and equality work on whole words
+ * and never allocate per element. This requires the elements to be densely
+ * numbered, e.g., the variables of an {@link IR} (see {@link #forVars(IR)}).
+ * <p>
+ * The set inherited from {@link SetFact} is not used, and all operations
+ * work on the bit vector. All facts of an analysis are expected to be
+ * {@code BitSetFact}s over the same universe; operations with other kinds
+ * of {@link SetFact} fall back to element-wise processing.
+ *
+ * @param <E> type of elements
+ */
+public class BitSetFact<E extends Indexable> extends SetFact<E> {
+
+    private static final int ADDRESS_BITS_PER_WORD = 6;
+
+    private static final int BITS_PER_WORD = 1 << ADDRESS_BITS_PER_WORD;
+
+    /**
+     * Maps an index back to the element it represents.
+     */
+    private final IntFunction<E> universe;
+
+    private long[] words;
+
+    /**
+     * Constructs an empty fact.
+     *
+     * @param universe maps indexes back to the elements
+     * @param capacity the number of elements in the universe, used as the
+     *                 initial size of the bit vector
+     */
+    public BitSetFact(IntFunction<E> universe, int capacity) {
+        this(universe, new long[wordIndex(capacity + BITS_PER_WORD - 1)]);
+    }
+
+    private BitSetFact(IntFunction<E> universe, long[] words) {
+        super(Set.of());
+        this.universe = universe;
+        this.words = words;
+    }
+
+    /**
+     * @return a new empty fact whose universe is the variables of given IR.
+     */
+    public static BitSetFact<Var> forVars(IR ir) {
+        return new BitSetFact<>(ir::getVar, ir.getVars().size());
+    }
+
+    /**
+     * @return a new empty fact whose universe is the statements of given IR.
+     */
+    public static BitSetFact<Stmt> forStmts(IR ir) {
+        return new BitSetFact<>(ir::getStmt, ir.getStmts().size());
+    }
+
+    private static int wordIndex(int bitIndex) {
+        return bitIndex >>> ADDRESS_BITS_PER_WORD;
+    }
+
+    private void ensureCapacity(int wordsRequired) {
+        if (words.length < wordsRequired) {
+            words = Arrays.copyOf(words,
+                    Math.max(2 * words.length, wordsRequired));
+        }
+    }
+
+    @Override
+    public boolean contains(E e) {
+        return containsIndex(e.getIndex());
+    }
+
+    @Override
+    public boolean add(E e) {
+        int index = e.getIndex();
+        int w = wordIndex(index);
+        ensureCapacity(w + 1);
+        long old = words[w];
+        words[w] |= 1L << index;
+        return track(words[w] != old);
+    }
+
+    @Override
+    public boolean remove(E e) {
+        int index = e.getIndex();
+        int w = wordIndex(index);
+        if (w >= words.length) {
+            return false;
+        }
+        long old = words[w];
+        words[w] &= ~(1L << index);
+        return track(words[w] != old);
+    }
+
+    @Override
+    public boolean removeIf(Predicate<E> filter) {
+        boolean changed = false;
+        for (int w = 0; w < words.length; ++w) {
+            long word = words[w];
+            while (word != 0) {
+                long lowest = word & -word;
+                int index = (w << ADDRESS_BITS_PER_WORD)
+                        + Long.numberOfTrailingZeros(word);
+                if (filter.test(universe.apply(index))) {
+                    words[w] &= ~lowest;
+                    changed = true;
+                }
+                word &= ~lowest;
+            }
+        }
+        return track(changed);
+    }
+
+    @Override
+    public boolean union(SetFact<E> other) {
+        if (other instanceof BitSetFact<E> that) {
+            long[] otherWords = that.words;
+            ensureCapacity(otherWords.length);
+            long changed = 0;
+            for (int w = 0; w < otherWords.length; ++w) {
+                long old = words[w];
+                words[w] = old | otherWords[w];
+                changed |= words[w] ^ old;
+            }
+            return track(changed != 0);
+        }
+        boolean changed = false;
+        for (Iterator<E> it = other.stream().iterator(); it.hasNext(); ) {
+            changed |= add(it.next());
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean intersect(SetFact<E> other) {
+        if (other instanceof BitSetFact<E> that) {
+            long[] otherWords = that.words;
+            long changed = 0;
+            for (int w = 0; w < words.length; ++w) {
+                long old = words[w];
+                words[w] = w < otherWords.length ? old & otherWords[w] : 0;
+                changed |= words[w] ^ old;
+            }
+            return track(changed != 0);
+        }
+        return removeIf(e -> !other.contains(e));
+    }
+
+    @Override
+    public boolean removeAll(SetFact<E> other) {
+        if (other instanceof BitSetFact<E> that) {
+            long[] otherWords = that.words;
+            int n = Math.min(words.length, otherWords.length);
+            long changed = 0;
+            for (int w = 0; w < n; ++w) {
+                long old = words[w];
+                words[w] = old & ~otherWords[w];
+                changed |= words[w] ^ old;
+            }
+            return track(changed != 0);
+        }
+        return removeIf(other::contains);
+    }
+
+    @Override
+    public void set(SetFact<E> other) {
+        if (other instanceof BitSetFact<E> that) {
+            long[] otherWords = that.words;
+            ensureCapacity(otherWords.length);
+            long changed = 0;
+            for (int w = 0; w < words.length; ++w) {
+                long word = w < otherWords.length ? otherWords[w] : 0;
+                changed |= words[w] ^ word;
+                words[w] = word;
+            }
+            track(changed != 0);
+        } else {
+            super.set(other);
+        }
+    }
+
+    /**
+     * Sets this fact to the result of applying given transfer function
+     * to the source fact, i.e., {@code gen ∪ (source - kill)}, in one
+     * pass over the words.
+     *
+     * @return true if this fact changed, otherwise false.
+     */
+    public boolean transfer(BitSetFact<E> source, GenKill genKill) {
+        long[] sourceWords = source.words;
+        int[] touched = genKill.words;
+        ensureCapacity(Math.max(sourceWords.length, genKill.length()));
+        long changed = 0;
+        for (int w = 0, t = 0; w < words.length; ++w) {
+            long word = w < sourceWords.length ? sourceWords[w] : 0;
+            if (t < touched.length && touched[t] == w) {
+                word = (word & ~genKill.killMasks[t]) | genKill.genMasks[t];
+                ++t;
+            }
+            changed |= words[w] ^ word;
+            words[w] = word;
+        }
+        return track(changed != 0);
+    }
+
+    /**
+     * Adds the elements of indexes {@code [0, size)} to this fact, e.g.,
+     * to make the initial facts of must analyses, which contain all
+     * elements of the universe.
+     */
+    public void fill(int size) {
+        int n = wordIndex(size);
+        ensureCapacity(wordIndex(size + BITS_PER_WORD - 1));
+        long changed = 0;
+        for (int w = 0; w < n; ++w) {
+            changed |= ~words[w];
+            words[w] = -1L;
+        }
+        if ((size & (BITS_PER_WORD - 1)) != 0) {
+            long mask = (1L << size) - 1;
+            changed |= mask & ~words[n];
+            words[n] |= mask;
+        }
+        track(changed != 0);
+    }
+
+    @Override
+    public BitSetFact<E> copy() {
+        return new BitSetFact<>(universe, words.clone());
+    }
+
+    @Override
+    public void clear() {
+        track(!isEmpty());
+        Arrays.fill(words, 0);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Stream<E> stream() {
+        return BitSet.valueOf(words).stream().mapToObj(universe);
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (long word : words) {
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o instanceof BitSetFact<?> that) {
+            long[] longer = words, shorter = that.words;
+            if (longer.length < shorter.length) {
+                longer = that.words;
+                shorter = words;
+            }
+            for (int w = 0; w < shorter.length; ++w) {
+                if (longer[w] != shorter[w]) {
+                    return false;
+                }
+            }
+            for (int w = shorter.length; w < longer.length; ++w) {
+                if (longer[w] != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (!(o instanceof SetFact<?> that)) {
+            return false;
+        }
+        return size() == that.size() && that.stream().allMatch(e ->
+                e instanceof Indexable i && containsIndex(i.getIndex()));
+    }
+
+    private boolean containsIndex(int index) {
+        int w = wordIndex(index);
+        return w < words.length && (words[w] & (1L << index)) != 0;
+    }
+
+    @Override
+    public int hashCode() {
+        // consistent with Set.hashCode(), i.e., the sum of element hash codes
+        int h = 0;
+        for (int w = 0; w < words.length; ++w) {
+            long word = words[w];
+            while (word != 0) {
+                int index = (w << ADDRESS_BITS_PER_WORD)
+                        + Long.numberOfTrailingZeros(word);
+                h += universe.apply(index).hashCode();
+                word &= word - 1;
+            }
+        }
+        return h;
+    }
+}
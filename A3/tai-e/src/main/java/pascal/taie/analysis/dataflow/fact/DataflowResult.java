@@ -33,9 +33,22 @@ import java.util.Map;
  */
 public class DataflowResult<Node, Fact> implements NodeResult<Node, Fact> {
 
-    private final Map<Node, Fact> inFacts = new LinkedHashMap<>();
+    private final Map<Node, Fact> inFacts;
 
-    private final Map<Node, Fact> outFacts = new LinkedHashMap<>();
+    private final Map<Node, Fact> outFacts;
+
+    public DataflowResult() {
+        this(new LinkedHashMap<>(), new LinkedHashMap<>());
+    }
+
+    /**
+     * Constructs a result backed by given maps. Subclasses which store
+     * the facts in other ways can pass empty immutable maps.
+     */
+    protected DataflowResult(Map<Node, Fact> inFacts, Map<Node, Fact> outFacts) {
+        this.inFacts = inFacts;
+        this.outFacts = outFacts;
+    }
 
     /**
      * @return the flowing-in fact of given node.
@@ -0,0 +1,137 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import java.util.BitSet;
+
+/**
+ * A gen/kill transfer function over {@link BitSetFact}s, i.e.,
+ * {@code out = gen ∪ (in - kill)}.
+ * <p>
+ * Gen and kill sets are typically tiny compared to the universe, so only
+ * the words they touch are stored, as parallel arrays of word indexes
+ * (in ascending order) and the gen and kill masks of those words.
+ * See {@link BitSetFact#transfer(BitSetFact, GenKill)}.
+ */
+public final class GenKill {
+
+    private static final GenKill IDENTITY = new GenKill(new BitSet(), new BitSet());
+
+    /**
+     * Indexes of the words touched by gen or kill set.
+     */
+    final int[] words;
+
+    final long[] genMasks;
+
+    final long[] killMasks;
+
+    private GenKill(BitSet gen, BitSet kill) {
+        long[] gen64 = gen.toLongArray();
+        long[] kill64 = kill.toLongArray();
+        int n = Math.max(gen64.length, kill64.length);
+        int count = 0;
+        for (int w = 0; w < n; ++w) {
+            if (wordAt(gen64, w) != 0 || wordAt(kill64, w) != 0) {
+                ++count;
+            }
+        }
+        words = new int[count];
+        genMasks = new long[count];
+        killMasks = new long[count];
+        for (int w = 0, i = 0; w < n; ++w) {
+            long g = wordAt(gen64, w), k = wordAt(kill64, w);
+            if (g != 0 || k != 0) {
+                words[i] = w;
+                genMasks[i] = g;
+                killMasks[i] = k;
+                ++i;
+            }
+        }
+    }
+
+    private static long wordAt(long[] words, int w) {
+        return w < words.length ? words[w] : 0;
+    }
+
+    /**
+     * @param gen  indexes of the generated elements
+     * @param kill indexes of the killed elements
+     * @return the transfer function with given gen and kill sets.
+     */
+    public static GenKill of(BitSet gen, BitSet kill) {
+        return gen.isEmpty() && kill.isEmpty() ? IDENTITY : new GenKill(gen, kill);
+    }
+
+    /**
+     * @return the transfer function which applies this function
+     * and then the given one.
+     */
+    public GenKill andThen(GenKill next) {
+        if (this == IDENTITY) {
+            return next;
+        } else if (next == IDENTITY) {
+            return this;
+        }
+        BitSet gen = getGen();
+        gen.andNot(next.getKill());
+        gen.or(next.getGen());
+        BitSet kill = getKill();
+        kill.or(next.getKill());
+        return of(gen, kill);
+    }
+
+    /**
+     * @return a new bit set of the generated elements.
+     */
+    public BitSet getGen() {
+        return toBitSet(genMasks);
+    }
+
+    /**
+     * @return a new bit set of the killed elements.
+     */
+    public BitSet getKill() {
+        return toBitSet(killMasks);
+    }
+
+    /**
+     * @return the index of the last word touched by this function plus 1.
+     */
+    int length() {
+        return words.length == 0 ? 0 : words[words.length - 1] + 1;
+    }
+
+    private BitSet toBitSet(long[] masks) {
+        long[] dense = new long[length()];
+        for (int i = 0; i < words.length; ++i) {
+            dense[words[i]] = masks[i];
+        }
+        return BitSet.valueOf(dense);
+    }
+
+    @Override
+    public String toString() {
+        return "GenKill{gen=" + getGen() + ", kill=" + getKill() + "}";
+    }
+}
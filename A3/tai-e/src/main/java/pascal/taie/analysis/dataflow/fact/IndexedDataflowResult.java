@@ -0,0 +1,154 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.Map;
+
+/**
+ * A {@link DataflowResult} for CFGs of {@link Stmt}s, which stores the
+ * facts in plain arrays indexed by {@link Stmt#getIndex()} instead of maps.
+ * The arrays are sized to {@link IR#getStmts()}, plus two slots for the
+ * entry and exit nodes of the CFG.
+ * <p>
+ * Only the nodes of the CFG given at construction are supported: statements
+ * of other IRs are not in the result, even if their indexes are in range.
+ *
+ * @param <Fact> type of data-flow facts
+ */
+public class IndexedDataflowResult<Fact> extends DataflowResult<Stmt, Fact> {
+
+    private final IR ir;
+
+    private final Stmt entry;
+
+    private final Stmt exit;
+
+    /**
+     * Number of statements in the IR, which is also the slot of the entry.
+     */
+    private final int size;
+
+    private final Object[] inFacts;
+
+    private final Object[] outFacts;
+
+    public IndexedDataflowResult(CFG<Stmt> cfg) {
+        super(Map.of(), Map.of());
+        ir = cfg.getIR();
+        entry = cfg.getEntry();
+        exit = cfg.getExit();
+        size = ir.getStmts().size();
+        inFacts = new Object[size + 2];
+        outFacts = new Object[size + 2];
+    }
+
+    /**
+     * @return the array slot of given node, or -1 if the node
+     * is not a node of the CFG.
+     */
+    private int slotOf(Stmt node) {
+        if (node == entry) {
+            return size;
+        } else if (node == exit) {
+            return size + 1;
+        } else {
+            int index = node.getIndex();
+            return 0 <= index && index < size
+                    && ir.getStmt(index) == node ? index : -1;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Fact getInFact(Stmt node) {
+        int slot = slotOf(node);
+        return slot != -1 ? (Fact) inFacts[slot] : null;
+    }
+
+    @Override
+    public void setInFact(Stmt node, Fact fact) {
+        inFacts[checkedSlotOf(node)] = fact;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Fact getOutFact(Stmt node) {
+        int slot = slotOf(node);
+        return slot != -1 ? (Fact) outFacts[slot] : null;
+    }
+
+    @Override
+    public void setOutFact(Stmt node, Fact fact) {
+        outFacts[checkedSlotOf(node)] = fact;
+    }
+
+    /**
+     * @return the number of slots, i.e., the number of statements plus 2.
+     */
+    public int getNumberOfSlots() {
+        return inFacts.length;
+    }
+
+    /**
+     * @return the in-fact of the node at given slot, where slots are
+     * numbered as in {@link pascal.taie.analysis.graph.cfg.CompactCFG}.
+     */
+    @SuppressWarnings("unchecked")
+    public Fact getInFact(int slot) {
+        return (Fact) inFacts[slot];
+    }
+
+    /**
+     * @return the out-fact of the node at given slot.
+     */
+    @SuppressWarnings("unchecked")
+    public Fact getOutFact(int slot) {
+        return (Fact) outFacts[slot];
+    }
+
+    /**
+     * Sets the in-fact of the node at given slot.
+     */
+    public void setInFact(int slot, Fact fact) {
+        inFacts[slot] = fact;
+    }
+
+    /**
+     * Sets the out-fact of the node at given slot.
+     */
+    public void setOutFact(int slot, Fact fact) {
+        outFacts[slot] = fact;
+    }
+
+    private int checkedSlotOf(Stmt node) {
+        int slot = slotOf(node);
+        if (slot == -1) {
+            throw new IllegalArgumentException(node + " is not in the CFG");
+        }
+        return slot;
+    }
+}
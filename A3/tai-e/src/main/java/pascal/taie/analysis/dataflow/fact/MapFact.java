@@ -34,6 +34,11 @@ import java.util.stream.Stream;
 
 /**
  * Represents map-like data-flow facts.
+ * <p>
+ * Subclasses may keep their mappings in other forms, e.g., persistent maps.
+ * So the operations of this class access other facts only through
+ * {@link #forEach(BiConsumer)}, {@link #entries()} and {@link #keySet()},
+ * and different kinds of facts can be mixed.
  *
  * @param <K> type of keys
  * @param <V> type of values
@@ -45,6 +50,11 @@ public class MapFact<K, V> {
      */
     protected final Map<K, V> map;
 
+    /**
+     * Number of calls which changed the content of this fact.
+     */
+    private int modCount;
+
     /**
      * Constructs a new MapFact with the same mappings as specified Map.
      *
@@ -54,6 +64,16 @@ public class MapFact<K, V> {
         this.map = Maps.newHybridMap(map);
     }
 
+    /**
+     * Constructs a fact without a backing map, i.e., {@link #map} is
+     * the shared empty immutable map. Subclasses which keep their mappings
+     * in other forms use this constructor, and override all operations
+     * which access {@link #map}.
+     */
+    protected MapFact() {
+        this.map = Map.of();
+    }
+
     /**
      * @return the value to which the specified key is mapped,
      * or null if this map contains no mapping for the key.
@@ -68,7 +88,7 @@ public class MapFact<K, V> {
      * @return if the update changes this fact.
      */
     public boolean update(K key, V value) {
-        return !Objects.equals(map.put(key, value), value);
+        return track(!Objects.equals(map.put(key, value), value));
     }
 
     /**
@@ -78,7 +98,10 @@ public class MapFact<K, V> {
      * or null if there was no mapping for key.
      */
     public V remove(K key) {
-        return map.remove(key);
+        boolean present = map.containsKey(key);
+        V old = map.remove(key);
+        track(present);
+        return old;
     }
 
     /**
@@ -87,11 +110,9 @@ public class MapFact<K, V> {
      * @return true if this fact changed as a result of the call, otherwise false.
      */
     public boolean copyFrom(MapFact<K, V> fact) {
-        boolean changed = false;
-        for (Map.Entry<K, V> entry : fact.map.entrySet()) {
-            changed |= update(entry.getKey(), entry.getValue());
-        }
-        return changed;
+        int modCount = getModCount();
+        fact.forEach(this::update);
+        return getModCount() != modCount;
     }
 
     /**
@@ -105,9 +126,34 @@ public class MapFact<K, V> {
      * Clears all content in this fact.
      */
     public void clear() {
+        track(!map.isEmpty());
         map.clear();
     }
 
+    /**
+     * @return the number of calls which changed the content of this fact.
+     * Calls which leave the content as it was do not count, so a transfer
+     * function can tell whether it changed a fact in place by comparing
+     * the counts before and after, instead of comparing with a copy.
+     */
+    public int getModCount() {
+        return modCount;
+    }
+
+    /**
+     * Subclasses report the result of each modifying operation
+     * through this method.
+     *
+     * @param changed whether the operation changed this fact
+     * @return {@code changed}
+     */
+    protected boolean track(boolean changed) {
+        if (changed) {
+            ++modCount;
+        }
+        return changed;
+    }
+
     /**
      * @return a {@link Set} view of the keys contained in this fact.
      */
@@ -137,16 +183,26 @@ public class MapFact<K, V> {
         if (this == o) {
             return true;
         }
-        if (o == null || getClass() != o.getClass()) {
+        if (!(o instanceof MapFact<?, ?> that)) {
             return false;
         }
-        MapFact<?, ?> that = (MapFact<?, ?>) o;
-        return map.equals(that.map);
+        @SuppressWarnings("unchecked")
+        MapFact<K, V> other = (MapFact<K, V>) that;
+        return keySet().size() == other.keySet().size()
+                && other.entries().allMatch(e ->
+                Objects.equals(get(e.getKey()), e.getValue()));
     }
 
     @Override
     public int hashCode() {
-        return map.hashCode();
+        // computed as Map.hashCode() specifies, so that equal facts of
+        // different kinds have equal hash codes (the hybrid map hashes
+        // a single mapping differently)
+        int h = 0;
+        for (Map.Entry<K, V> e : map.entrySet()) {
+            h += Objects.hashCode(e.getKey()) ^ Objects.hashCode(e.getValue());
+        }
+        return h;
     }
 
     @Override
@@ -154,8 +210,7 @@ public class MapFact<K, V> {
         // Sort key-value pairs by key's string representation, so that the
         // fact representation is stable across executions. This is useful
         // for comparing expected results and the ones given by the analysis.
-        return "{" + map.entrySet()
-                .stream()
+        return "{" + entries()
                 .sorted(Comparator.comparing(e -> e.getKey().toString()))
                 .map(e -> e.getKey() + "=" + e.getValue())
                 .collect(Collectors.joining(", ")) + "}";
@@ -0,0 +1,135 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.util.collection.PersistentMap;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Map-like data-flow facts backed by a {@link PersistentMap}, so that
+ * {@link #copy()} is O(1) and copies share structure with each other.
+ * Since operations which do not change a fact keep its backing map,
+ * comparing a fact with an unchanged copy only takes an identity check.
+ * <p>
+ * These facts have no map inherited from {@link MapFact}, and all
+ * operations work on the persistent map. Null values are not permitted.
+ *
+ * @param <K> type of keys
+ * @param <V> type of values
+ */
+public class PersistentMapFact<K, V> extends MapFact<K, V> {
+
+    private PersistentMap<K, V> entries;
+
+    public PersistentMapFact() {
+        this(PersistentMap.empty());
+    }
+
+    private PersistentMapFact(PersistentMap<K, V> entries) {
+        super();
+        this.entries = entries;
+    }
+
+    @Override
+    public V get(K key) {
+        return entries.get(key);
+    }
+
+    @Override
+    public boolean update(K key, V value) {
+        PersistentMap<K, V> old = entries;
+        entries = entries.put(key, value);
+        return track(entries != old);
+    }
+
+    @Override
+    public V remove(K key) {
+        V old = entries.get(key);
+        entries = entries.remove(key);
+        track(old != null);
+        return old;
+    }
+
+    @Override
+    public boolean copyFrom(MapFact<K, V> fact) {
+        if (fact instanceof PersistentMapFact<K, V> that && entries.isEmpty()) {
+            // share the whole structure of given fact
+            boolean changed = !that.entries.isEmpty();
+            entries = that.entries;
+            return track(changed);
+        }
+        PersistentMap<K, V> old = entries;
+        fact.forEach((k, v) -> entries = entries.put(k, v));
+        return track(entries != old);
+    }
+
+    @Override
+    public PersistentMapFact<K, V> copy() {
+        return new PersistentMapFact<>(entries);
+    }
+
+    @Override
+    public void clear() {
+        track(!entries.isEmpty());
+        entries = PersistentMap.empty();
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return entries.entryList()
+                .stream()
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public Stream<Map.Entry<K, V>> entries() {
+        return entries.entryList().stream();
+    }
+
+    @Override
+    public void forEach(BiConsumer<K, V> action) {
+        entries.forEach(action);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PersistentMapFact<?, ?> that)) {
+            return super.equals(o);
+        }
+        return entries.equals(that.entries);
+    }
+
+    @Override
+    public int hashCode() {
+        return entries.hashCode();
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.util.collection.PersistentMap;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Set-like data-flow facts backed by a {@link PersistentMap}, so that
+ * {@link #copy()} is O(1) and copies share structure with each other.
+ * Since operations which do not change a fact keep its backing map,
+ * comparing a fact with an unchanged copy only takes an identity check.
+ * <p>
+ * The set inherited from {@link SetFact} is not used, and all operations
+ * work on the persistent map.
+ *
+ * @param <E> type of elements
+ */
+public class PersistentSetFact<E> extends SetFact<E> {
+
+    private PersistentMap<E, Boolean> elems;
+
+    public PersistentSetFact() {
+        this(PersistentMap.empty());
+    }
+
+    private PersistentSetFact(PersistentMap<E, Boolean> elems) {
+        super(Set.of());
+        this.elems = elems;
+    }
+
+    @Override
+    public boolean contains(E e) {
+        return elems.containsKey(e);
+    }
+
+    @Override
+    public boolean add(E e) {
+        PersistentMap<E, Boolean> old = elems;
+        elems = elems.put(e, Boolean.TRUE);
+        return track(elems != old);
+    }
+
+    @Override
+    public boolean remove(E e) {
+        PersistentMap<E, Boolean> old = elems;
+        elems = elems.remove(e);
+        return track(elems != old);
+    }
+
+    @Override
+    public boolean removeIf(Predicate<E> filter) {
+        PersistentMap<E, Boolean> old = elems;
+        for (E e : toList()) {
+            if (filter.test(e)) {
+                elems = elems.remove(e);
+            }
+        }
+        return track(elems != old);
+    }
+
+    @Override
+    public boolean union(SetFact<E> other) {
+        if (other instanceof PersistentSetFact<E> that && isEmpty()) {
+            // share the whole structure of other fact
+            boolean changed = !that.isEmpty();
+            elems = that.elems;
+            return track(changed);
+        }
+        PersistentMap<E, Boolean> old = elems;
+        for (Iterator<E> it = other.stream().iterator(); it.hasNext(); ) {
+            elems = elems.put(it.next(), Boolean.TRUE);
+        }
+        return track(elems != old);
+    }
+
+    @Override
+    public boolean intersect(SetFact<E> other) {
+        return removeIf(e -> !other.contains(e));
+    }
+
+    @Override
+    public boolean removeAll(SetFact<E> other) {
+        return removeIf(other::contains);
+    }
+
+    @Override
+    public void set(SetFact<E> other) {
+        if (other instanceof PersistentSetFact<E> that) {
+            track(elems != that.elems && !elems.equals(that.elems));
+            elems = that.elems;
+        } else {
+            super.set(other);
+        }
+    }
+
+    @Override
+    public PersistentSetFact<E> copy() {
+        return new PersistentSetFact<>(elems);
+    }
+
+    @Override
+    public void clear() {
+        track(!elems.isEmpty());
+        elems = PersistentMap.empty();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return elems.isEmpty();
+    }
+
+    private List<E> toList() {
+        List<E> list = new ArrayList<>(elems.size());
+        elems.forEach((e, unused) -> list.add(e));
+        return list;
+    }
+
+    @Override
+    public Stream<E> stream() {
+        return toList().stream();
+    }
+
+    @Override
+    public int size() {
+        return elems.size();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o instanceof PersistentSetFact<?> that) {
+            return elems.equals(that.elems);
+        }
+        if (!(o instanceof SetFact<?> that)) {
+            return false;
+        }
+        @SuppressWarnings("unchecked")
+        SetFact<E> other = (SetFact<E>) that;
+        return size() == other.size() && other.stream().allMatch(this::contains);
+    }
+
+    @Override
+    public int hashCode() {
+        // consistent with Set.hashCode(), i.e., the sum of element hash codes
+        return elems.entryList()
+                .stream()
+                .mapToInt(e -> e.getKey().hashCode())
+                .sum();
+    }
+}
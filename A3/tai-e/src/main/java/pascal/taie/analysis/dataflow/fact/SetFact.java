@@ -22,17 +22,22 @@
 
 package pascal.taie.analysis.dataflow.fact;
 
-import pascal.taie.util.collection.CollectionUtils;
 import pascal.taie.util.collection.Sets;
+import pascal.taie.util.collection.Streams;
 
 import java.util.Collection;
-import java.util.Collections;
+import java.util.Iterator;
 import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 /**
  * Represents set-like data-flow facts.
+ * <p>
+ * Subclasses may keep their elements in other forms, e.g., bit vectors.
+ * So the operations of this class access other facts only through
+ * {@link #contains(Object)}, {@link #stream()} and {@link #size()},
+ * and different kinds of facts can be mixed.
  *
  * @param <E> type of elements
  */
@@ -40,12 +45,26 @@ public class SetFact<E> {
 
     protected final Set<E> set;
 
+    /**
+     * Number of calls which changed the content of this fact.
+     */
+    private int modCount;
+
     public SetFact(Collection<E> c) {
         set = Sets.newHybridSet(c);
     }
 
     public SetFact() {
-        this(Collections.emptySet());
+        set = Sets.newHybridSet();
+    }
+
+    /**
+     * Constructs a fact which uses given set as is. Subclasses which keep
+     * their elements in other forms pass an empty immutable set, and
+     * override all operations which access {@link #set}.
+     */
+    protected SetFact(Set<E> set) {
+        this.set = set;
     }
 
     /**
@@ -61,7 +80,7 @@ public class SetFact<E> {
      * @return true if this fact changed as a result of the call, otherwise false.
      */
     public boolean add(E e) {
-        return set.add(e);
+        return track(set.add(e));
     }
 
     /**
@@ -70,7 +89,7 @@ public class SetFact<E> {
      * @return true if an element was removed as a result of the call, otherwise false.
      */
     public boolean remove(E e) {
-        return set.remove(e);
+        return track(set.remove(e));
     }
 
     /**
@@ -80,7 +99,7 @@ public class SetFact<E> {
      * otherwise false.
      */
     public boolean removeIf(Predicate<E> filter) {
-        return set.removeIf(filter);
+        return track(set.removeIf(filter));
     }
 
     /**
@@ -89,7 +108,11 @@ public class SetFact<E> {
      * @return true if this fact changed as a result of the call, otherwise false.
      */
     public boolean union(SetFact<E> other) {
-        return set.addAll(other.set);
+        boolean changed = false;
+        for (Iterator<E> it = other.stream().iterator(); it.hasNext(); ) {
+            changed |= set.add(it.next());
+        }
+        return track(changed);
     }
 
     /**
@@ -107,7 +130,7 @@ public class SetFact<E> {
      * @return true if this fact changed as a result of the call, otherwise false.
      */
     public boolean intersect(SetFact<E> other) {
-        return set.retainAll(other.set);
+        return track(set.removeIf(e -> !other.contains(e)));
     }
 
     /**
@@ -119,11 +142,22 @@ public class SetFact<E> {
         return result;
     }
 
+    /**
+     * Removes all elements of other fact from this fact.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean removeAll(SetFact<E> other) {
+        return track(set.removeIf(other::contains));
+    }
+
     /**
      * Sets the content of this set to the same as other set.
      */
     public void set(SetFact<E> other) {
-        clear();
+        // only remove and add the elements that differ, so that
+        // the modification count does not change if the content does not
+        removeIf(e -> !other.contains(e));
         union(other);
     }
 
@@ -131,16 +165,41 @@ public class SetFact<E> {
      * Creates and returns a copy of this fact.
      */
     public SetFact<E> copy() {
-        return new SetFact<>(this.set);
+        return new SetFact<>(Sets.newHybridSet(set));
     }
 
     /**
      * Clears all content in this fact.
      */
     public void clear() {
+        track(!set.isEmpty());
         set.clear();
     }
 
+    /**
+     * @return the number of calls which changed the content of this fact.
+     * Calls which leave the content as it was do not count, so a transfer
+     * function can tell whether it changed a fact in place by comparing
+     * the counts before and after, instead of comparing with a copy.
+     */
+    public int getModCount() {
+        return modCount;
+    }
+
+    /**
+     * Subclasses report the result of each modifying operation
+     * through this method.
+     *
+     * @param changed whether the operation changed this fact
+     * @return {@code changed}
+     */
+    protected boolean track(boolean changed) {
+        if (changed) {
+            ++modCount;
+        }
+        return changed;
+    }
+
     public boolean isEmpty() {
         return set.isEmpty();
     }
@@ -161,7 +220,7 @@ public class SetFact<E> {
         if (!(o instanceof SetFact<?> that)) {
             return false;
         }
-        return set.equals(that.set);
+        return size() == that.size() && that.stream().allMatch(set::contains);
     }
 
     @Override
@@ -171,6 +230,6 @@ public class SetFact<E> {
 
     @Override
     public String toString() {
-        return CollectionUtils.toString(set);
+        return Streams.toString(stream());
     }
 }
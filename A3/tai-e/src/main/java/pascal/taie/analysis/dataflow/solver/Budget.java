@@ -0,0 +1,67 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+/**
+ * Limits of the work of a solver on one method. When a solver exceeds
+ * its budget, it stops before reaching the fixed point and meets the
+ * safe fact of the analysis into all facts, so that the result is still
+ * sound (see {@link pascal.taie.analysis.dataflow.analysis.DataflowAnalysis#newSafeFact}).
+ */
+public final class Budget {
+
+    private final long maxIterations;
+
+    private final long maxMillis;
+
+    /**
+     * @param maxIterations maximum number of work-list pops,
+     *                      or 0 if unlimited
+     * @param maxMillis     maximum wall time in milliseconds,
+     *                      or 0 if unlimited
+     */
+    public Budget(long maxIterations, long maxMillis) {
+        this.maxIterations = maxIterations;
+        this.maxMillis = maxMillis;
+    }
+
+    public long getMaxIterations() {
+        return maxIterations;
+    }
+
+    public long getMaxMillis() {
+        return maxMillis;
+    }
+
+    /**
+     * @return true if this budget does not limit anything.
+     */
+    public boolean isUnlimited() {
+        return maxIterations <= 0 && maxMillis <= 0;
+    }
+
+    @Override
+    public String toString() {
+        return "Budget{iterations=" + maxIterations + ", ms=" + maxMillis + "}";
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CompactCFG;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Pair;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Work-list solver which numbers the CFG nodes in reverse postorder
+ * (of the CFG for forward analyses, and of the reverse CFG for backward
+ * analyses) once, and always processes the pending node with the smallest
+ * number. Hence, a node is usually transferred after all its predecessors
+ * (successors) in the flow direction, and loop-heavy methods converge in
+ * close to the minimum number of passes. A pass ends when the solver wraps
+ * around to a node whose number is not larger than the previous one.
+ */
+class PriorityWorkListSolver<Node, Fact> extends Solver<Node, Fact> {
+
+    PriorityWorkListSolver(DataflowAnalysis<Node, Fact> analysis) {
+        super(analysis);
+    }
+
+    PriorityWorkListSolver(DataflowAnalysis<Node, Fact> analysis,
+                           @Nullable SolverStats stats, @Nullable Budget budget) {
+        super(analysis, stats, budget);
+    }
+
+    @Override
+    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        List<Node> order = reversePostOrder(cfg, cfg.getEntry(), cfg::getSuccsOf);
+        Map<Node, Integer> numbers = number(order);
+        BitSet workList = new BitSet(order.size());
+        workList.set(0, order.size());
+        int last = Integer.MAX_VALUE;
+
+        while (!workList.isEmpty()) {
+            int i = workList.nextSetBit(0);
+            workList.clear(i);
+            if (i <= last) {
+                newPass(order.size());
+            }
+            last = i;
+            popped();
+            Node node = order.get(i);
+
+            for (Node prev : cfg.getPredsOf(node)) {
+                analysis.meetInto(result.getOutFact(prev), result.getInFact(node));
+            }
+            if (analysis.transferNode(node, result.getInFact(node), result.getOutFact(node))) {
+                for (Node succ : cfg.getSuccsOf(node)) {
+                    workList.set(numbers.get(succ));
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        List<Node> order = reversePostOrder(cfg, cfg.getExit(), cfg::getPredsOf);
+        Map<Node, Integer> numbers = number(order);
+        BitSet workList = new BitSet(order.size());
+        workList.set(0, order.size());
+        int last = Integer.MAX_VALUE;
+
+        while (!workList.isEmpty()) {
+            int i = workList.nextSetBit(0);
+            workList.clear(i);
+            if (i <= last) {
+                newPass(order.size());
+            }
+            last = i;
+            popped();
+            Node node = order.get(i);
+
+            for (Node succ : cfg.getSuccsOf(node)) {
+                analysis.meetInto(result.getInFact(succ), result.getOutFact(node));
+            }
+            if (analysis.transferNode(node, result.getInFact(node), result.getOutFact(node))) {
+                for (Node prev : cfg.getPredsOf(node)) {
+                    workList.set(numbers.get(prev));
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void doSolveForward(CompactCFG cfg, IndexedDataflowResult<Fact> result) {
+        int[] order = reversePostOrder(cfg, true);
+        int[] numbers = number(order);
+        BitSet workList = new BitSet(order.length);
+        workList.set(0, order.length);
+        int last = Integer.MAX_VALUE;
+
+        while (!workList.isEmpty()) {
+            int i = workList.nextSetBit(0);
+            workList.clear(i);
+            if (i <= last) {
+                newPass(order.length);
+            }
+            last = i;
+            popped();
+            int s = order[i];
+
+            Fact in = result.getInFact(s);
+            for (int p = cfg.getInStart(s); p < cfg.getInEnd(s); ++p) {
+                analysis.meetInto(result.getOutFact(
+                        cfg.getSource(cfg.getInEdge(p))), in);
+            }
+            if (analysis.transferNode(nodeAt(cfg, s), in, result.getOutFact(s))) {
+                for (int e = cfg.getOutStart(s); e < cfg.getOutEnd(s); ++e) {
+                    workList.set(numbers[cfg.getTarget(e)]);
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void doSolveBackward(CompactCFG cfg, IndexedDataflowResult<Fact> result) {
+        int[] order = reversePostOrder(cfg, false);
+        int[] numbers = number(order);
+        BitSet workList = new BitSet(order.length);
+        workList.set(0, order.length);
+        int last = Integer.MAX_VALUE;
+
+        while (!workList.isEmpty()) {
+            int i = workList.nextSetBit(0);
+            workList.clear(i);
+            if (i <= last) {
+                newPass(order.length);
+            }
+            last = i;
+            popped();
+            int s = order[i];
+
+            Fact out = result.getOutFact(s);
+            for (int e = cfg.getOutStart(s); e < cfg.getOutEnd(s); ++e) {
+                analysis.meetInto(result.getInFact(cfg.getTarget(e)), out);
+            }
+            if (analysis.transferNode(nodeAt(cfg, s), result.getInFact(s), out)) {
+                for (int p = cfg.getInStart(s); p < cfg.getInEnd(s); ++p) {
+                    workList.set(numbers[cfg.getSource(cfg.getInEdge(p))]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes reverse postorder of the nodes of given CFG by depth-first
+     * search from {@code root} along {@code next}. Nodes not reachable from
+     * {@code root} are ordered after the reachable ones.
+     */
+    private static <Node> List<Node> reversePostOrder(
+            CFG<Node> cfg, Node root, Function<Node, Set<Node>> next) {
+        List<Node> order = new ArrayList<>(cfg.getNumberOfNodes());
+        Set<Node> visited = Sets.newSet(cfg.getNumberOfNodes());
+        depthFirst(root, next, visited, order);
+        for (Node node : cfg) {
+            if (!visited.contains(node)) {
+                depthFirst(node, next, visited, order);
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Appends the reverse postorder of the nodes newly reached from
+     * {@code start} to {@code order}.
+     */
+    private static <Node> void depthFirst(
+            Node start, Function<Node, Set<Node>> next,
+            Set<Node> visited, List<Node> order) {
+        List<Node> postOrder = new ArrayList<>();
+        Deque<Pair<Node, Iterator<Node>>> stack = new ArrayDeque<>();
+        visited.add(start);
+        stack.push(new Pair<>(start, next.apply(start).iterator()));
+        while (!stack.isEmpty()) {
+            Pair<Node, Iterator<Node>> top = stack.peek();
+            if (top.second().hasNext()) {
+                Node node = top.second().next();
+                if (visited.add(node)) {
+                    stack.push(new Pair<>(node, next.apply(node).iterator()));
+                }
+            } else {
+                stack.pop();
+                postOrder.add(top.first());
+            }
+        }
+        Collections.reverse(postOrder);
+        order.addAll(postOrder);
+    }
+
+    /**
+     * Computes reverse postorder of the slots of given compact CFG, from
+     * the entry along out-edges if {@code forward}, otherwise from the exit
+     * along in-edges. Slots not reachable from the root are ordered after
+     * the reachable ones.
+     */
+    private static int[] reversePostOrder(CompactCFG cfg, boolean forward) {
+        int slots = cfg.getNumberOfSlots();
+        int[] order = new int[slots];
+        int[] postOrder = new int[slots];
+        // the stack of slots, and the position of the next edge of each
+        int[] stack = new int[slots];
+        int[] cursor = new int[slots];
+        BitSet visited = new BitSet(slots);
+        int n = 0;
+        int root = forward ? cfg.getEntrySlot() : cfg.getExitSlot();
+        for (int r = -1; r < slots; ++r) {
+            int start = r == -1 ? root : r;
+            if (visited.get(start)) {
+                continue;
+            }
+            int post = 0, top = 0;
+            visited.set(start);
+            stack[0] = start;
+            cursor[0] = forward ? cfg.getOutStart(start) : cfg.getInStart(start);
+            while (top >= 0) {
+                int s = stack[top];
+                int end = forward ? cfg.getOutEnd(s) : cfg.getInEnd(s);
+                if (cursor[top] < end) {
+                    int c = cursor[top]++;
+                    int next = forward ? cfg.getTarget(c)
+                            : cfg.getSource(cfg.getInEdge(c));
+                    if (!visited.get(next)) {
+                        visited.set(next);
+                        stack[++top] = next;
+                        cursor[top] = forward ? cfg.getOutStart(next)
+                                : cfg.getInStart(next);
+                    }
+                } else {
+                    postOrder[post++] = s;
+                    --top;
+                }
+            }
+            while (post > 0) {
+                order[n++] = postOrder[--post];
+            }
+        }
+        return order;
+    }
+
+    /**
+     * @return the number of each slot in given order.
+     */
+    private static int[] number(int[] order) {
+        int[] numbers = new int[order.length];
+        for (int i = 0; i < order.length; ++i) {
+            numbers[order[i]] = i;
+        }
+        return numbers;
+    }
+
+    private static <Node> Map<Node, Integer> number(List<Node> order) {
+        Map<Node, Integer> numbers = Maps.newMap(order.size());
+        for (int i = 0; i < order.size(); ++i) {
+            numbers.put(order.get(i), i);
+        }
+        return numbers;
+    }
+}
@@ -22,9 +22,27 @@
 
 package pascal.taie.analysis.dataflow.solver;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CompactCFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.graph.SCC;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Base class for data-flow analysis solver, which provides common
@@ -35,10 +53,45 @@ import pascal.taie.analysis.graph.cfg.CFG;
  */
 public abstract class Solver<Node, Fact> {
 
+    private static final Logger logger = LogManager.getLogger(Solver.class);
+
     protected final DataflowAnalysis<Node, Fact> analysis;
 
+    /**
+     * Statistics of the runs of this solver, or null if not recorded.
+     * Meets and transfers are counted by wrapping the analysis, and
+     * work-list pops are counted by the solvers via {@link #popped()}.
+     */
+    @Nullable
+    private final SolverStats stats;
+
+    /**
+     * Budget of each run of this solver, or null if unlimited.
+     */
+    @Nullable
+    private final Budget budget;
+
+    /**
+     * Work-list pops of the current run, checked against the budget.
+     */
+    private long pops;
+
+    /**
+     * Time (in {@link System#nanoTime()}) when the current run
+     * runs out of time, or {@link Long#MAX_VALUE} if never.
+     */
+    private long deadline;
+
     protected Solver(DataflowAnalysis<Node, Fact> analysis) {
-        this.analysis = analysis;
+        this(analysis, null, null);
+    }
+
+    protected Solver(DataflowAnalysis<Node, Fact> analysis,
+                     @Nullable SolverStats stats, @Nullable Budget budget) {
+        this.analysis = stats == null ? analysis
+                : new RecordingAnalysis<>(analysis, stats);
+        this.stats = stats;
+        this.budget = budget == null || budget.isUnlimited() ? null : budget;
     }
 
     /**
@@ -49,6 +102,56 @@ public abstract class Solver<Node, Fact> {
         return new WorkListSolver<>(analysis);
     }
 
+    /**
+     * Static factory method to create a new solver of given kind
+     * for given analysis.
+     *
+     * @param kind kind of the solver, either "worklist" (the default,
+     *             also used when kind is null) or "priority"
+     *             (see {@link PriorityWorkListSolver})
+     */
+    public static <Node, Fact> Solver<Node, Fact> makeSolver(
+            DataflowAnalysis<Node, Fact> analysis, @Nullable String kind) {
+        if (kind == null) {
+            return makeSolver(analysis);
+        }
+        return makeSolver(analysis, kind, null);
+    }
+
+    /**
+     * Static factory method to create a new solver of given kind
+     * for given analysis, which records its work into {@code stats}.
+     * As the statistics are not thread-safe, such a solver is expected
+     * to be used for one method.
+     *
+     * @param stats where the statistics are recorded, or null if
+     *              they are not recorded
+     */
+    public static <Node, Fact> Solver<Node, Fact> makeSolver(
+            DataflowAnalysis<Node, Fact> analysis, @Nullable String kind,
+            @Nullable SolverStats stats) {
+        return makeSolver(analysis, kind, stats, null);
+    }
+
+    /**
+     * Static factory method to create a new solver of given kind for
+     * given analysis, which records its work into {@code stats} and
+     * stops when it exceeds {@code budget} on a method. Such a solver
+     * keeps the state of the current run, thus it should not be shared
+     * by threads.
+     *
+     * @param budget the budget of each run, or null if unlimited
+     */
+    public static <Node, Fact> Solver<Node, Fact> makeSolver(
+            DataflowAnalysis<Node, Fact> analysis, @Nullable String kind,
+            @Nullable SolverStats stats, @Nullable Budget budget) {
+        return switch (kind == null ? "worklist" : kind) {
+            case "worklist" -> new WorkListSolver<>(analysis, stats, budget);
+            case "priority" -> new PriorityWorkListSolver<>(analysis, stats, budget);
+            default -> throw new ConfigException("Unknown solver: " + kind);
+        };
+    }
+
     /**
      * Starts this solver on the given CFG.
      *
@@ -56,18 +159,224 @@ public abstract class Solver<Node, Fact> {
      * @return the analysis result
      */
     public DataflowResult<Node, Fact> solve(CFG<Node> cfg) {
+        long start = System.nanoTime();
         DataflowResult<Node, Fact> result = initialize(cfg);
-        doSolve(cfg, result);
+        startRun(start);
+        try {
+            doSolve(cfg, result);
+        } catch (BudgetExceededException e) {
+            giveUp(cfg, result);
+        }
+        if (stats != null) {
+            stats.addTime(System.nanoTime() - start);
+        }
         return result;
     }
 
+    /**
+     * Re-solves a previous result of this solver after the statements
+     * in {@code changed} have been edited, and returns the updated result
+     * as a new result; {@code previous} is not modified.
+     * <p>
+     * The strongly connected components of the CFG are visited in
+     * topological order along the direction of the analysis. A component
+     * is re-solved only if it contains a changed node, or a node whose
+     * incoming facts (from other components) differ from the previous
+     * ones. The facts of such a component are reset, as they may become
+     * more precise (e.g., when a definition is removed from a loop), and
+     * its nodes are propagated until a local fixed point. Other facts are
+     * copied from {@code previous}, as they cannot depend on the edits.
+     * For acyclic code, this means that only the changed nodes and the
+     * nodes whose inputs actually changed are transferred.
+     * <p>
+     * The CFG must be built from the IR after the edits, and the previous
+     * result must be computed on a CFG of the same IR, i.e., with the same
+     * statements. If the edits change control flow (e.g., jump targets),
+     * then both the sources and the targets of the changed edges must be
+     * in {@code changed}.
+     *
+     * @param cfg      control-flow graph after the edits
+     * @param previous the result before the edits, which is not modified
+     * @param changed  the edited nodes
+     * @return the updated result.
+     */
+    public DataflowResult<Node, Fact> solve(
+            CFG<Node> cfg, DataflowResult<Node, Fact> previous,
+            Collection<Node> changed) {
+        long start = System.nanoTime();
+        DataflowResult<Node, Fact> result = copy(cfg, previous);
+        startRun(start);
+        try {
+            resolve(cfg, result, changed);
+        } catch (BudgetExceededException e) {
+            giveUp(cfg, result);
+        }
+        if (stats != null) {
+            stats.addTime(System.nanoTime() - start);
+        }
+        return result;
+    }
+
+    /**
+     * @return a new result of given CFG with copies of the facts in
+     * {@code previous}. The facts are copied by meeting them into new
+     * initial facts, which are the identity of meet.
+     */
+    @SuppressWarnings("unchecked")
+    private DataflowResult<Node, Fact> copy(
+            CFG<Node> cfg, DataflowResult<Node, Fact> previous) {
+        DataflowResult<Node, Fact> result = newResult(cfg);
+        if (previous instanceof IndexedDataflowResult<?> prev
+                && result instanceof IndexedDataflowResult<?> res) {
+            IndexedDataflowResult<Fact> indexed = (IndexedDataflowResult<Fact>) prev;
+            IndexedDataflowResult<Fact> copy = (IndexedDataflowResult<Fact>) res;
+            // the CFGs may differ in entry and exit nodes, thus
+            // the facts are copied by slots instead of nodes
+            if (indexed.getNumberOfSlots() != copy.getNumberOfSlots()) {
+                throw new IllegalArgumentException("Previous result of "
+                        + cfg.getMethod() + " is computed on another IR");
+            }
+            for (int s = 0; s < indexed.getNumberOfSlots(); ++s) {
+                copy.setInFact(s, copyFact(cfg, indexed.getInFact(s)));
+                copy.setOutFact(s, copyFact(cfg, indexed.getOutFact(s)));
+            }
+        } else {
+            for (Node node : cfg) {
+                Fact in = previous.getInFact(node);
+                Fact out = previous.getOutFact(node);
+                if (in == null || out == null) {
+                    throw new IllegalArgumentException("Previous result of "
+                            + cfg.getMethod() + " has no facts of " + node);
+                }
+                result.setInFact(node, copyFact(cfg, in));
+                result.setOutFact(node, copyFact(cfg, out));
+            }
+        }
+        return result;
+    }
+
+    private Fact copyFact(CFG<Node> cfg, Fact fact) {
+        Fact copy = analysis.newInitialFact(cfg);
+        analysis.meetInto(fact, copy);
+        return copy;
+    }
+
+    /**
+     * Re-solves the components of the CFG which may be affected by
+     * the changed nodes, see {@link #solve(CFG, DataflowResult, Collection)}.
+     */
+    private void resolve(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                         Collection<Node> changed) {
+        boolean forward = analysis.isForward();
+        // components are given in reverse topological order
+        List<List<Node>> components = new ArrayList<>(
+                new SCC<>(cfg).getComponents());
+        if (forward) {
+            Collections.reverse(components);
+        }
+        // nodes whose facts must be recomputed
+        Set<Node> outdated = new HashSet<>(changed);
+        for (List<Node> component : components) {
+            if (component.stream().noneMatch(outdated::contains)) {
+                continue;
+            }
+            // outgoing facts before the component is re-solved
+            List<Fact> previous = component.stream()
+                    .map(node -> getOutgoingFact(result, node))
+                    .toList();
+            component.forEach(node -> reset(cfg, result, node));
+            Set<Node> members = new HashSet<>(component);
+            Deque<Node> workList = new ArrayDeque<>(component);
+            Set<Node> inWorkList = new HashSet<>(component);
+            while (!workList.isEmpty()) {
+                Node node = workList.poll();
+                inWorkList.remove(node);
+                popped();
+                Fact in = result.getInFact(node);
+                Fact out = result.getOutFact(node);
+                if (forward) {
+                    for (Node pred : cfg.getPredsOf(node)) {
+                        analysis.meetInto(result.getOutFact(pred), in);
+                    }
+                } else {
+                    for (Node succ : cfg.getSuccsOf(node)) {
+                        analysis.meetInto(result.getInFact(succ), out);
+                    }
+                }
+                if (analysis.transferNode(node, in, out)) {
+                    for (Node next : forward
+                            ? cfg.getSuccsOf(node) : cfg.getPredsOf(node)) {
+                        if (members.contains(next) && inWorkList.add(next)) {
+                            workList.add(next);
+                        }
+                    }
+                }
+            }
+            // the nodes after a node whose outgoing fact changed
+            // must be recomputed, too
+            for (int i = 0; i < component.size(); ++i) {
+                Node node = component.get(i);
+                if (!getOutgoingFact(result, node).equals(previous.get(i))) {
+                    outdated.addAll(forward
+                            ? cfg.getSuccsOf(node) : cfg.getPredsOf(node));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the out (in) fact of given node for a forward (backward)
+     * analysis, i.e., the fact which flows to the next nodes.
+     */
+    private Fact getOutgoingFact(DataflowResult<Node, Fact> result, Node node) {
+        return analysis.isForward()
+                ? result.getOutFact(node) : result.getInFact(node);
+    }
+
+    /**
+     * Resets the budget state for a new run started at given time.
+     */
+    private void startRun(long start) {
+        pops = 0;
+        deadline = budget != null && budget.getMaxMillis() > 0
+                ? start + budget.getMaxMillis() * 1_000_000 : Long.MAX_VALUE;
+    }
+
+    /**
+     * Makes the facts of all nodes sound after the solver stopped before
+     * reaching the fixed point, by meeting the safe fact into them.
+     */
+    private void giveUp(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        logger.warn("{}: solver budget ({}) exceeded after {} iterations," +
+                " falling back to conservative facts", cfg.getMethod(), budget, pops);
+        Fact safe = analysis.newSafeFact(cfg);
+        for (Node node : cfg) {
+            analysis.meetInto(safe, result.getInFact(node));
+            analysis.meetInto(safe, result.getOutFact(node));
+        }
+    }
+
+    /**
+     * Resets the facts of given node as {@link #initialize(CFG)} does.
+     */
+    private void reset(CFG<Node> cfg, DataflowResult<Node, Fact> result, Node node) {
+        boolean boundary = analysis.isForward()
+                ? cfg.isEntry(node) : cfg.isExit(node);
+        result.setInFact(node, boundary
+                ? analysis.newBoundaryFact(cfg)
+                : analysis.newInitialFact(cfg));
+        result.setOutFact(node, boundary
+                ? analysis.newBoundaryFact(cfg)
+                : analysis.newInitialFact(cfg));
+    }
+
     /**
      * Creates and initializes a new data-flow result for given CFG.
      *
      * @return the initialized data-flow result
      */
     private DataflowResult<Node, Fact> initialize(CFG<Node> cfg) {
-        DataflowResult<Node, Fact> result = new DataflowResult<>();
+        DataflowResult<Node, Fact> result = newResult(cfg);
         if (analysis.isForward()) {
             initializeForward(cfg, result);
         } else {
@@ -76,6 +385,19 @@ public abstract class Solver<Node, Fact> {
         return result;
     }
 
+    /**
+     * @return a new empty data-flow result for given CFG. Results of
+     * CFGs of {@link Stmt}s are stored in {@link IndexedDataflowResult}.
+     */
+    @SuppressWarnings("unchecked")
+    private DataflowResult<Node, Fact> newResult(CFG<Node> cfg) {
+        if (cfg.getEntry() instanceof Stmt) {
+            return (DataflowResult<Node, Fact>)
+                    new IndexedDataflowResult<Fact>((CFG<Stmt>) cfg);
+        }
+        return new DataflowResult<>();
+    }
+
     protected void initializeForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
         // TODO - finish me
 
@@ -83,13 +405,15 @@ public abstract class Solver<Node, Fact> {
 
         for (Node node : cfg) {
             ///  memory allocation
-            result.setInFact(node, analysis.newInitialFact());
-
             if (cfg.isEntry(node)) {
+                // the entry is transferred as other nodes (by identity),
+                // thus its in fact must be the boundary fact as well
+                result.setInFact(node, analysis.newBoundaryFact(cfg));
                 continue;
             }
 
-            result.setOutFact(node, analysis.newInitialFact());
+            result.setInFact(node, analysis.newInitialFact(cfg));
+            result.setOutFact(node, analysis.newInitialFact(cfg));
         }
     }
 
@@ -99,21 +423,32 @@ public abstract class Solver<Node, Fact> {
         result.setInFact(cfg.getExit(), analysis.newBoundaryFact(cfg));
 
         for (Node node : cfg) {
-            result.setOutFact(node, analysis.newInitialFact());
-
             if (cfg.isExit(node)) {
+                // the exit is transferred as other nodes (by identity),
+                // thus its out fact must be the boundary fact as well
+                result.setOutFact(node, analysis.newBoundaryFact(cfg));
                 continue;
             }
 
-            result.setInFact(node, analysis.newInitialFact());
+            result.setOutFact(node, analysis.newInitialFact(cfg));
+            result.setInFact(node, analysis.newInitialFact(cfg));
         }
     }
 
     /**
-     * Solves the data-flow problem for given CFG.
+     * Solves the data-flow problem for given CFG. A {@link CompactCFG}
+     * is solved by the index-based methods.
      */
+    @SuppressWarnings("unchecked")
     private void doSolve(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
-        if (analysis.isForward()) {
+        if (cfg instanceof CompactCFG compact) {
+            IndexedDataflowResult<Fact> indexed = (IndexedDataflowResult<Fact>) result;
+            if (analysis.isForward()) {
+                doSolveForward(compact, indexed);
+            } else {
+                doSolveBackward(compact, indexed);
+            }
+        } else if (analysis.isForward()) {
             doSolveForward(cfg, result);
         } else {
             doSolveBackward(cfg, result);
@@ -123,4 +458,122 @@ public abstract class Solver<Node, Fact> {
     protected abstract void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result);
 
     protected abstract void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result);
+
+    /**
+     * Solves a forward problem on the slots of given compact CFG.
+     * Solvers which do not iterate over slots fall back to
+     * {@link #doSolveForward(CFG, DataflowResult)}.
+     */
+    @SuppressWarnings("unchecked")
+    protected void doSolveForward(CompactCFG cfg, IndexedDataflowResult<Fact> result) {
+        doSolveForward((CFG<Node>) cfg, (DataflowResult<Node, Fact>) result);
+    }
+
+    /**
+     * Solves a backward problem on the slots of given compact CFG.
+     */
+    @SuppressWarnings("unchecked")
+    protected void doSolveBackward(CompactCFG cfg, IndexedDataflowResult<Fact> result) {
+        doSolveBackward((CFG<Node>) cfg, (DataflowResult<Node, Fact>) result);
+    }
+
+    /**
+     * Solvers call this method each time they take a node from
+     * the work-list.
+     */
+    protected void popped() {
+        if (stats != null) {
+            stats.pop();
+        }
+        if (budget != null) {
+            ++pops;
+            if ((budget.getMaxIterations() > 0 && pops > budget.getMaxIterations())
+                    // reading the clock at every pop is too costly
+                    || ((pops & 63) == 0 && System.nanoTime() > deadline)) {
+                throw new BudgetExceededException();
+            }
+        }
+    }
+
+    /**
+     * Solvers which process the nodes in passes of a fixed order call
+     * this method each time they start a new pass over given number
+     * of nodes.
+     */
+    protected void newPass(int nodes) {
+        if (stats != null) {
+            stats.pass(nodes);
+        }
+    }
+
+    /**
+     * @return the node at given slot of given compact CFG.
+     */
+    @SuppressWarnings("unchecked")
+    protected Node nodeAt(CompactCFG cfg, int slot) {
+        return (Node) cfg.getNode(slot);
+    }
+
+    /**
+     * Delegates to an analysis, and counts its meets and transfers.
+     */
+    private record RecordingAnalysis<Node, Fact>(
+            DataflowAnalysis<Node, Fact> analysis, SolverStats stats)
+            implements DataflowAnalysis<Node, Fact> {
+
+        @Override
+        public boolean isForward() {
+            return analysis.isForward();
+        }
+
+        @Override
+        public Fact newBoundaryFact(CFG<Node> cfg) {
+            return analysis.newBoundaryFact(cfg);
+        }
+
+        @Override
+        public Fact newInitialFact(CFG<Node> cfg) {
+            return analysis.newInitialFact(cfg);
+        }
+
+        @Override
+        public void meetInto(Fact fact, Fact target) {
+            stats.meet();
+            analysis.meetInto(fact, target);
+        }
+
+        @Override
+        public boolean transferNode(Node node, Fact in, Fact out) {
+            boolean changed = analysis.transferNode(node, in, out);
+            stats.transfer(analysis.isForward() ? out : in);
+            return changed;
+        }
+
+        @Override
+        public Fact newSafeFact(CFG<Node> cfg) {
+            return analysis.newSafeFact(cfg);
+        }
+
+        @Override
+        public boolean needTransferEdge(Edge<Node> edge) {
+            return analysis.needTransferEdge(edge);
+        }
+
+        @Override
+        public Fact transferEdge(Edge<Node> edge, Fact nodeFact) {
+            return analysis.transferEdge(edge, nodeFact);
+        }
+    }
+
+    /**
+     * Thrown by {@link #popped()} to stop a run which exceeds its budget.
+     */
+    private static class BudgetExceededException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private BudgetExceededException() {
+            super(null, null, false, false);
+        }
+    }
 }
@@ -0,0 +1,144 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.fact.MapFact;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.ir.IR;
+
+/**
+ * Counters of a solver on one method: work-list pops, calls of transfer
+ * and meet functions, the maximum size of the facts produced by transfer
+ * functions, the passes over the nodes, and the wall time. The statistics
+ * of an analysis are stored in the {@link IR} with key {@link #getKey(String)}.
+ */
+public class SolverStats {
+
+    private static final String KEY_PREFIX = "solver-stats/";
+
+    private long pops;
+
+    private long transfers;
+
+    private long meets;
+
+    private int maxFactSize;
+
+    private long passes;
+
+    private long sweptNodes;
+
+    private long nanos;
+
+    /**
+     * @return the key of the statistics of given analysis in the {@link IR}.
+     */
+    public static String getKey(String analysisId) {
+        return KEY_PREFIX + analysisId;
+    }
+
+    void pop() {
+        ++pops;
+    }
+
+    void meet() {
+        ++meets;
+    }
+
+    /**
+     * Counts a transfer call which produced given fact. The size of
+     * {@link SetFact}s and {@link MapFact}s is taken into account for
+     * the maximum fact size; other facts are not measured.
+     */
+    void transfer(Object fact) {
+        ++transfers;
+        int size;
+        if (fact instanceof SetFact<?> setFact) {
+            size = setFact.size();
+        } else if (fact instanceof MapFact<?, ?> mapFact) {
+            size = mapFact.keySet().size();
+        } else {
+            return;
+        }
+        maxFactSize = Math.max(maxFactSize, size);
+    }
+
+    /**
+     * Counts a new pass of the solver over given number of nodes.
+     */
+    void pass(int nodes) {
+        ++passes;
+        sweptNodes += nodes;
+    }
+
+    void addTime(long nanos) {
+        this.nanos += nanos;
+    }
+
+    public long getPops() {
+        return pops;
+    }
+
+    public long getTransfers() {
+        return transfers;
+    }
+
+    public long getMeets() {
+        return meets;
+    }
+
+    public int getMaxFactSize() {
+        return maxFactSize;
+    }
+
+    /**
+     * @return the number of passes over the nodes, or 0 if the solver
+     * does not process the nodes in passes of a fixed order.
+     */
+    public long getPasses() {
+        return passes;
+    }
+
+    /**
+     * @return the pops saved compared to round-robin iteration with
+     * the same number of passes, which sweeps all nodes in every pass.
+     */
+    public long getSavedPops() {
+        return passes == 0 ? 0 : sweptNodes - pops;
+    }
+
+    /**
+     * @return the wall time of the solver in nanoseconds.
+     */
+    public long getTime() {
+        return nanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("pops=%d, transfers=%d, meets=%d, max-fact=%d," +
+                        " passes=%d, saved=%d, time=%.3fms",
+                pops, transfers, meets, maxFactSize,
+                passes, getSavedPops(), nanos / 1e6);
+    }
+}
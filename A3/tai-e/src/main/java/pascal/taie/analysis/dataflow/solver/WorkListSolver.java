@@ -24,8 +24,12 @@ package pascal.taie.analysis.dataflow.solver;
 
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CompactCFG;
 
+import javax.annotation.Nullable;
+import java.util.BitSet;
 import java.util.Vector;
 
 class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
@@ -34,6 +38,11 @@ class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
         super(analysis);
     }
 
+    WorkListSolver(DataflowAnalysis<Node, Fact> analysis,
+                   @Nullable SolverStats stats, @Nullable Budget budget) {
+        super(analysis, stats, budget);
+    }
+
     @Override
     protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
         // TODO - finish me
@@ -43,6 +52,7 @@ class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
         while (!WorkList.isEmpty()) {
             /// pop front
             Node node = WorkList.remove(0);
+            popped();
 
             for (Node prev : cfg.getPredsOf(node)) {
                 analysis.meetInto(result.getOutFact(prev), result.getInFact(node));
@@ -62,6 +72,7 @@ class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
         while (!WorkList.isEmpty()) {
             /// pop front
             Node node = WorkList.remove(0);
+            popped();
 
             for (Node succ : cfg.getSuccsOf(node)) {
                 analysis.meetInto(result.getInFact(succ), result.getOutFact(node));
@@ -71,4 +82,96 @@ class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
             }
         }
     }
+
+    /**
+     * Iterates over the slots of the CFG in FIFO order, see {@link SlotQueue}.
+     */
+    @Override
+    protected void doSolveForward(CompactCFG cfg, IndexedDataflowResult<Fact> result) {
+        SlotQueue workList = new SlotQueue(cfg);
+        while (!workList.isEmpty()) {
+            int s = workList.poll();
+            popped();
+            Fact in = result.getInFact(s);
+            for (int i = cfg.getInStart(s); i < cfg.getInEnd(s); ++i) {
+                analysis.meetInto(result.getOutFact(
+                        cfg.getSource(cfg.getInEdge(i))), in);
+            }
+            if (analysis.transferNode(nodeAt(cfg, s), in, result.getOutFact(s))) {
+                for (int e = cfg.getOutStart(s); e < cfg.getOutEnd(s); ++e) {
+                    workList.add(cfg.getTarget(e));
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void doSolveBackward(CompactCFG cfg, IndexedDataflowResult<Fact> result) {
+        SlotQueue workList = new SlotQueue(cfg);
+        while (!workList.isEmpty()) {
+            int s = workList.poll();
+            popped();
+            Fact out = result.getOutFact(s);
+            for (int e = cfg.getOutStart(s); e < cfg.getOutEnd(s); ++e) {
+                analysis.meetInto(result.getInFact(cfg.getTarget(e)), out);
+            }
+            if (analysis.transferNode(nodeAt(cfg, s), result.getInFact(s), out)) {
+                for (int i = cfg.getInStart(s); i < cfg.getInEnd(s); ++i) {
+                    workList.add(cfg.getSource(cfg.getInEdge(i)));
+                }
+            }
+        }
+    }
+
+    /**
+     * FIFO work-list of the slots of a {@link CompactCFG}. It is a ring
+     * buffer of slots, and a slot is not added again while it is still
+     * in the work-list, so the buffer never overflows.
+     */
+    private static class SlotQueue {
+
+        private final int[] slots;
+
+        private final BitSet inQueue;
+
+        private int head = 0;
+
+        private int count;
+
+        /**
+         * Creates a work-list of all slots of given CFG, in the same
+         * order as the nodes of the CFG: entry, statements, exit.
+         */
+        private SlotQueue(CompactCFG cfg) {
+            int n = cfg.getNumberOfSlots();
+            slots = new int[n];
+            slots[0] = cfg.getEntrySlot();
+            for (int s = 0; s < cfg.getEntrySlot(); ++s) {
+                slots[s + 1] = s;
+            }
+            slots[n - 1] = cfg.getExitSlot();
+            inQueue = new BitSet(n);
+            inQueue.set(0, n);
+            count = n;
+        }
+
+        private boolean isEmpty() {
+            return count == 0;
+        }
+
+        private int poll() {
+            int s = slots[head];
+            head = head + 1 == slots.length ? 0 : head + 1;
+            --count;
+            inQueue.clear(s);
+            return s;
+        }
+
+        private void add(int s) {
+            if (!inQueue.get(s)) {
+                inQueue.set(s);
+                slots[(head + count++) % slots.length] = s;
+            }
+        }
+    }
 }
@@ -0,0 +1,287 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.cfg;
+
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A view of a {@link CFG} of {@link Stmt}s whose nodes are
+ * {@link BasicBlock}s. The entry and exit nodes of the statement-level
+ * CFG always form blocks of their own.
+ * <p>
+ * Blocks are indexed from 0 in the order of their first statements,
+ * starting with the entry block.
+ */
+public class BlockCFG implements CFG<BasicBlock> {
+
+    /**
+     * Key of the block CFG in the result holder of {@link IR}.
+     */
+    public static final String ID = "block-cfg";
+
+    private final CFG<Stmt> stmtCFG;
+
+    /**
+     * Number of statements in the IR, which is also the slot of the entry.
+     */
+    private final int size;
+
+    /**
+     * Block of each statement, indexed in the same way as
+     * {@link pascal.taie.analysis.dataflow.fact.IndexedDataflowResult}.
+     */
+    private final BasicBlock[] blockOf;
+
+    /**
+     * Position of each statement in its block, indexed as {@link #blockOf}.
+     */
+    private final int[] positionOf;
+
+    private final List<BasicBlock> blocks = new ArrayList<>();
+
+    private final List<Set<Edge<BasicBlock>>> inEdges = new ArrayList<>();
+
+    private final List<Set<Edge<BasicBlock>>> outEdges = new ArrayList<>();
+
+    private final List<Set<BasicBlock>> preds = new ArrayList<>();
+
+    private final List<Set<BasicBlock>> succs = new ArrayList<>();
+
+    private final Set<BasicBlock> nodes;
+
+    public BlockCFG(CFG<Stmt> stmtCFG) {
+        this.stmtCFG = stmtCFG;
+        size = stmtCFG.getIR().getStmts().size();
+        blockOf = new BasicBlock[size + 2];
+        positionOf = new int[size + 2];
+        List<Stmt> stmts = new ArrayList<>(size + 2);
+        stmts.add(stmtCFG.getEntry());
+        stmts.addAll(stmtCFG.getIR().getStmts());
+        stmts.add(stmtCFG.getExit());
+        for (Stmt stmt : stmts) {
+            if (isLeader(stmt)) {
+                newBlock(stmt);
+            }
+        }
+        // statements on cycles without any leader, which are unreachable
+        for (Stmt stmt : stmts) {
+            if (blockOf[slotOf(stmt)] == null) {
+                newBlock(stmt);
+            }
+        }
+        blocks.forEach(block -> {
+            inEdges.add(new LinkedHashSet<>());
+            outEdges.add(new LinkedHashSet<>());
+            preds.add(new LinkedHashSet<>());
+            succs.add(new LinkedHashSet<>());
+        });
+        for (BasicBlock source : blocks) {
+            for (Edge<Stmt> edge : stmtCFG.getOutEdgesOf(source.getLastStmt())) {
+                BasicBlock target = getBlockOf(edge.getTarget());
+                assert target.getFirstStmt() == edge.getTarget();
+                BlockEdge blockEdge = new BlockEdge(source, target, edge);
+                outEdges.get(source.getIndex()).add(blockEdge);
+                inEdges.get(target.getIndex()).add(blockEdge);
+                succs.get(source.getIndex()).add(target);
+                preds.get(target.getIndex()).add(source);
+            }
+        }
+        nodes = Collections.unmodifiableSet(new LinkedHashSet<>(blocks));
+    }
+
+    /**
+     * @return the block CFG of given IR, which is built from
+     * its statement-level CFG on first request and then cached in the IR.
+     * It is rebuilt when another CFG (e.g., one rebuilt after edits) is
+     * stored in the IR.
+     */
+    public static BlockCFG of(IR ir) {
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        BlockCFG result = ir.getResult(ID);
+        if (result == null || result.getStmtCFG() != cfg) {
+            result = new BlockCFG(cfg);
+            ir.storeResult(ID, result);
+        }
+        return result;
+    }
+
+    private boolean isLeader(Stmt stmt) {
+        if (stmtCFG.isEntry(stmt) || stmtCFG.isExit(stmt)) {
+            return true;
+        }
+        Set<Stmt> stmtPreds = stmtCFG.getPredsOf(stmt);
+        if (stmtPreds.size() != 1) {
+            return true;
+        }
+        Stmt pred = stmtPreds.iterator().next();
+        return stmtCFG.isEntry(pred) || stmtCFG.getSuccsOf(pred).size() != 1;
+    }
+
+    /**
+     * Creates the block starting at given statement, and extends it along
+     * single successors which are not leaders of other blocks.
+     */
+    private void newBlock(Stmt leader) {
+        List<Stmt> stmts = new ArrayList<>();
+        stmts.add(leader);
+        Stmt last = leader;
+        while (!stmtCFG.isEntry(last)) {
+            Set<Stmt> stmtSuccs = stmtCFG.getSuccsOf(last);
+            if (stmtSuccs.size() != 1) {
+                break;
+            }
+            Stmt next = stmtSuccs.iterator().next();
+            if (isLeader(next) || blockOf[slotOf(next)] != null
+                    || next == leader) {
+                break;
+            }
+            stmts.add(next);
+            last = next;
+        }
+        BasicBlock block = new BasicBlock(blocks.size(), stmts);
+        blocks.add(block);
+        for (int i = 0; i < stmts.size(); ++i) {
+            int slot = slotOf(stmts.get(i));
+            blockOf[slot] = block;
+            positionOf[slot] = i;
+        }
+    }
+
+    private int slotOf(Stmt stmt) {
+        if (stmtCFG.isEntry(stmt)) {
+            return size;
+        } else if (stmtCFG.isExit(stmt)) {
+            return size + 1;
+        } else {
+            return stmt.getIndex();
+        }
+    }
+
+    /**
+     * @return the statement-level CFG this view is built from.
+     */
+    public CFG<Stmt> getStmtCFG() {
+        return stmtCFG;
+    }
+
+    /**
+     * @return the block which contains given statement.
+     */
+    public BasicBlock getBlockOf(Stmt stmt) {
+        return blockOf[slotOf(stmt)];
+    }
+
+    /**
+     * @return the position of given statement in its block, i.e.,
+     * its index in {@link BasicBlock#getStmts()}.
+     */
+    public int getPositionInBlock(Stmt stmt) {
+        return positionOf[slotOf(stmt)];
+    }
+
+    /**
+     * @return all blocks of this CFG, in the order of their indexes.
+     */
+    public List<BasicBlock> getBlocks() {
+        return Collections.unmodifiableList(blocks);
+    }
+
+    @Override
+    public IR getIR() {
+        return stmtCFG.getIR();
+    }
+
+    @Override
+    public JMethod getMethod() {
+        return stmtCFG.getMethod();
+    }
+
+    @Override
+    public BasicBlock getEntry() {
+        return blocks.get(0);
+    }
+
+    @Override
+    public BasicBlock getExit() {
+        return getBlockOf(stmtCFG.getExit());
+    }
+
+    @Override
+    public boolean isEntry(BasicBlock block) {
+        return block == getEntry();
+    }
+
+    @Override
+    public boolean isExit(BasicBlock block) {
+        return block == getExit();
+    }
+
+    @Override
+    public Set<Edge<BasicBlock>> getInEdgesOf(BasicBlock block) {
+        return Collections.unmodifiableSet(inEdges.get(block.getIndex()));
+    }
+
+    @Override
+    public Set<Edge<BasicBlock>> getOutEdgesOf(BasicBlock block) {
+        return Collections.unmodifiableSet(outEdges.get(block.getIndex()));
+    }
+
+    @Override
+    public boolean hasNode(BasicBlock block) {
+        int index = block.getIndex();
+        return 0 <= index && index < blocks.size() && blocks.get(index) == block;
+    }
+
+    @Override
+    public boolean hasEdge(BasicBlock source, BasicBlock target) {
+        return hasNode(source) && succs.get(source.getIndex()).contains(target);
+    }
+
+    @Override
+    public Set<BasicBlock> getPredsOf(BasicBlock block) {
+        return Collections.unmodifiableSet(preds.get(block.getIndex()));
+    }
+
+    @Override
+    public Set<BasicBlock> getSuccsOf(BasicBlock block) {
+        return Collections.unmodifiableSet(succs.get(block.getIndex()));
+    }
+
+    @Override
+    public Set<BasicBlock> getNodes() {
+        return nodes;
+    }
+
+    @Override
+    public int getNumberOfNodes() {
+        return blocks.size();
+    }
+}
@@ -0,0 +1,354 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.cfg;
+
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+
+import java.util.Set;
+
+/**
+ * A {@link CFG} of {@link Stmt}s in compressed sparse row (CSR) form,
+ * built once from the CFG given by {@link CFGBuilder}.
+ * <p>
+ * Nodes are numbered by <i>slots</i>: each statement by its index, the
+ * entry and exit by the two slots after the last statement, as in
+ * {@link pascal.taie.analysis.dataflow.fact.IndexedDataflowResult}.
+ * Edges are numbered from 0 and grouped by their sources, so the
+ * out-edges of slot {@code s} are the numbers in
+ * {@code [getOutStart(s), getOutEnd(s))}. Targets, sources, kinds and
+ * case values of the edges are kept in parallel primitive arrays.
+ * In-edges are stored in the same way, as numbers of out-edges, e.g.,
+ * <pre>
+ * for (int i = cfg.getInStart(s); i &lt; cfg.getInEnd(s); ++i) {
+ *     int pred = cfg.getSource(cfg.getInEdge(i));
+ * }
+ * </pre>
+ * The {@link CFG} methods which return nodes and edges are delegated
+ * to the underlying CFG.
+ */
+public class CompactCFG implements CFG<Stmt> {
+
+    /**
+     * Key of the compact CFG in the result holder of {@link IR}.
+     */
+    public static final String ID = "compact-cfg";
+
+    private static final Edge.Kind[] KINDS = Edge.Kind.values();
+
+    private final CFG<Stmt> cfg;
+
+    /**
+     * Number of statements in the IR, which is also the slot of the entry.
+     */
+    private final int size;
+
+    /**
+     * Node of each slot.
+     */
+    private final Stmt[] nodes;
+
+    /**
+     * Out-edges of slot s are the edges in [outOffsets[s], outOffsets[s+1]).
+     */
+    private final int[] outOffsets;
+
+    private final int[] sources;
+
+    private final int[] targets;
+
+    /**
+     * Ordinals of the {@link Edge.Kind}s of the edges.
+     */
+    private final byte[] kinds;
+
+    /**
+     * Case values of switch-case edges, 0 for other edges.
+     */
+    private final int[] caseValues;
+
+    /**
+     * In-edges of slot s are inEdges[inOffsets[s]] to
+     * inEdges[inOffsets[s+1] - 1].
+     */
+    private final int[] inOffsets;
+
+    private final int[] inEdges;
+
+    public CompactCFG(CFG<Stmt> cfg) {
+        this.cfg = cfg;
+        size = cfg.getIR().getStmts().size();
+        int slots = size + 2;
+        nodes = new Stmt[slots];
+        cfg.getIR().getStmts().toArray(nodes);
+        nodes[size] = cfg.getEntry();
+        nodes[size + 1] = cfg.getExit();
+        outOffsets = new int[slots + 1];
+        for (int s = 0; s < slots; ++s) {
+            outOffsets[s + 1] = outOffsets[s] + cfg.getOutEdgesOf(nodes[s]).size();
+        }
+        int edges = outOffsets[slots];
+        sources = new int[edges];
+        targets = new int[edges];
+        kinds = new byte[edges];
+        caseValues = new int[edges];
+        inOffsets = new int[slots + 1];
+        int e = 0;
+        for (int s = 0; s < slots; ++s) {
+            for (Edge<Stmt> edge : cfg.getOutEdgesOf(nodes[s])) {
+                sources[e] = s;
+                targets[e] = getSlotOf(edge.getTarget());
+                kinds[e] = (byte) edge.getKind().ordinal();
+                if (edge.isSwitchCase()) {
+                    caseValues[e] = edge.getCaseValue();
+                }
+                ++inOffsets[targets[e] + 1];
+                ++e;
+            }
+        }
+        for (int s = 0; s < slots; ++s) {
+            inOffsets[s + 1] += inOffsets[s];
+        }
+        // in-edges of each slot are filled in the order of edge numbers
+        inEdges = new int[edges];
+        int[] next = new int[slots];
+        System.arraycopy(inOffsets, 0, next, 0, slots);
+        for (e = 0; e < edges; ++e) {
+            inEdges[next[targets[e]]++] = e;
+        }
+    }
+
+    /**
+     * @return the compact CFG of given IR, which is built from
+     * its CFG on first request and then cached in the IR. It is rebuilt
+     * when another CFG (e.g., one rebuilt after edits) is stored in the IR.
+     */
+    public static CompactCFG of(IR ir) {
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        CompactCFG result = ir.getResult(ID);
+        if (result == null || result.getStmtCFG() != cfg) {
+            result = new CompactCFG(cfg);
+            ir.storeResult(ID, result);
+        }
+        return result;
+    }
+
+    /**
+     * @return the CFG this compact CFG is built from.
+     */
+    public CFG<Stmt> getStmtCFG() {
+        return cfg;
+    }
+
+    /**
+     * @return the number of slots, i.e., the number of statements plus 2.
+     */
+    public int getNumberOfSlots() {
+        return size + 2;
+    }
+
+    public int getEntrySlot() {
+        return size;
+    }
+
+    public int getExitSlot() {
+        return size + 1;
+    }
+
+    /**
+     * @return the slot of given node.
+     */
+    public int getSlotOf(Stmt node) {
+        if (node == nodes[size]) {
+            return size;
+        } else if (node == nodes[size + 1]) {
+            return size + 1;
+        } else {
+            return node.getIndex();
+        }
+    }
+
+    /**
+     * @return the node of given slot.
+     */
+    public Stmt getNode(int slot) {
+        return nodes[slot];
+    }
+
+    public int getNumberOfEdges() {
+        return targets.length;
+    }
+
+    /**
+     * @return the number of the first out-edge of given slot.
+     */
+    public int getOutStart(int slot) {
+        return outOffsets[slot];
+    }
+
+    /**
+     * @return the number after the last out-edge of given slot.
+     */
+    public int getOutEnd(int slot) {
+        return outOffsets[slot + 1];
+    }
+
+    /**
+     * @return the position of the first in-edge of given slot,
+     * see {@link #getInEdge(int)}.
+     */
+    public int getInStart(int slot) {
+        return inOffsets[slot];
+    }
+
+    /**
+     * @return the position after the last in-edge of given slot.
+     */
+    public int getInEnd(int slot) {
+        return inOffsets[slot + 1];
+    }
+
+    /**
+     * @return the number of the in-edge at given position.
+     */
+    public int getInEdge(int position) {
+        return inEdges[position];
+    }
+
+    /**
+     * @return the source slot of given edge.
+     */
+    public int getSource(int edge) {
+        return sources[edge];
+    }
+
+    /**
+     * @return the target slot of given edge.
+     */
+    public int getTarget(int edge) {
+        return targets[edge];
+    }
+
+    /**
+     * @return the kind of given edge.
+     */
+    public Edge.Kind getKind(int edge) {
+        return KINDS[kinds[edge]];
+    }
+
+    /**
+     * @return the case value of given switch-case edge.
+     * @throws AnalysisException if given edge is not a switch-case edge.
+     */
+    public int getCaseValue(int edge) {
+        if (getKind(edge) != Edge.Kind.SWITCH_CASE) {
+            throw new AnalysisException("Edge " + edge + " of " + getMethod()
+                    + " is not a switch-case edge");
+        }
+        return caseValues[edge];
+    }
+
+    @Override
+    public IR getIR() {
+        return cfg.getIR();
+    }
+
+    @Override
+    public JMethod getMethod() {
+        return cfg.getMethod();
+    }
+
+    @Override
+    public Stmt getEntry() {
+        return nodes[size];
+    }
+
+    @Override
+    public Stmt getExit() {
+        return nodes[size + 1];
+    }
+
+    @Override
+    public boolean isEntry(Stmt node) {
+        return node == nodes[size];
+    }
+
+    @Override
+    public boolean isExit(Stmt node) {
+        return node == nodes[size + 1];
+    }
+
+    @Override
+    public Set<Edge<Stmt>> getInEdgesOf(Stmt node) {
+        return cfg.getInEdgesOf(node);
+    }
+
+    @Override
+    public Set<Edge<Stmt>> getOutEdgesOf(Stmt node) {
+        return cfg.getOutEdgesOf(node);
+    }
+
+    @Override
+    public int getInDegreeOf(Stmt node) {
+        int slot = getSlotOf(node);
+        return inOffsets[slot + 1] - inOffsets[slot];
+    }
+
+    @Override
+    public int getOutDegreeOf(Stmt node) {
+        int slot = getSlotOf(node);
+        return outOffsets[slot + 1] - outOffsets[slot];
+    }
+
+    @Override
+    public boolean hasNode(Stmt node) {
+        return cfg.hasNode(node);
+    }
+
+    @Override
+    public boolean hasEdge(Stmt source, Stmt target) {
+        return cfg.hasEdge(source, target);
+    }
+
+    @Override
+    public Set<Stmt> getPredsOf(Stmt node) {
+        return cfg.getPredsOf(node);
+    }
+
+    @Override
+    public Set<Stmt> getSuccsOf(Stmt node) {
+        return cfg.getSuccsOf(node);
+    }
+
+    @Override
+    public Set<Stmt> getNodes() {
+        return cfg.getNodes();
+    }
+
+    @Override
+    public int getNumberOfNodes() {
+        return cfg.getNumberOfNodes();
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.ssa;
+
+import pascal.taie.analysis.graph.cfg.BasicBlock;
+import pascal.taie.analysis.graph.cfg.BlockCFG;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Dominator tree and dominance frontiers of a {@link BlockCFG}, computed
+ * by the iterative algorithm of Cooper, Harvey and Kennedy
+ * ("A Simple, Fast Dominance Algorithm").
+ * <p>
+ * Blocks are identified by their indexes. Blocks which are not reachable
+ * from the entry are treated as if the entry had an edge to each of them,
+ * so that every block has an immediate dominator except the entry.
+ */
+public class DominatorTree {
+
+    private static final int[] NONE = new int[0];
+
+    private final BlockCFG cfg;
+
+    /**
+     * Immediate dominator of each block, -1 for the entry.
+     */
+    private final int[] idoms;
+
+    /**
+     * Reverse postorder number of each block.
+     */
+    private final int[] numbers;
+
+    private final int[][] children;
+
+    private final int[][] frontiers;
+
+    /**
+     * Whether each block is not reachable from the entry, and starts
+     * a depth-first search of its own, i.e., has a virtual edge from
+     * the entry.
+     */
+    private final boolean[] roots;
+
+    public DominatorTree(BlockCFG cfg) {
+        this.cfg = cfg;
+        int n = cfg.getBlocks().size();
+        int entry = cfg.getEntry().getIndex();
+        roots = new boolean[n];
+        int[] order = reversePostOrder();
+        numbers = new int[n];
+        for (int i = 0; i < n; ++i) {
+            numbers[order[i]] = i;
+        }
+        idoms = new int[n];
+        Arrays.fill(idoms, -1);
+        idoms[entry] = entry;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = 1; i < n; ++i) {
+                int b = order[i];
+                int idom = roots[b] ? entry : -1;
+                for (BasicBlock pred : cfg.getPredsOf(cfg.getBlocks().get(b))) {
+                    int p = pred.getIndex();
+                    if (idoms[p] != -1) {
+                        idom = idom == -1 ? p : intersect(p, idom);
+                    }
+                }
+                if (idoms[b] != idom) {
+                    idoms[b] = idom;
+                    changed = true;
+                }
+            }
+        }
+        idoms[entry] = -1;
+        children = buildChildren();
+        frontiers = buildFrontiers();
+    }
+
+    /**
+     * @return the blocks in reverse postorder of depth-first search from
+     * the entry, followed by the blocks not reachable from the entry,
+     * each of which is searched in turn as if it was a successor of the entry.
+     */
+    private int[] reversePostOrder() {
+        int n = cfg.getBlocks().size();
+        int[] postOrder = new int[n];
+        int post = 0;
+        boolean[] visited = new boolean[n];
+        BasicBlock[] stack = new BasicBlock[n];
+        List<Iterator<BasicBlock>> cursors = new ArrayList<>(n);
+        int entry = cfg.getEntry().getIndex();
+        int[] order = new int[n];
+        int next = 0;
+        for (int i = -1; i < n; ++i) {
+            int root = i == -1 ? entry : i;
+            if (visited[root]) {
+                continue;
+            }
+            roots[root] = root != entry;
+            int start = post;
+            int top = 0;
+            visited[root] = true;
+            stack[0] = cfg.getBlocks().get(root);
+            cursors.clear();
+            cursors.add(cfg.getSuccsOf(stack[0]).iterator());
+            while (top >= 0) {
+                if (cursors.get(top).hasNext()) {
+                    BasicBlock succ = cursors.get(top).next();
+                    if (!visited[succ.getIndex()]) {
+                        visited[succ.getIndex()] = true;
+                        stack[++top] = succ;
+                        cursors.subList(top, cursors.size()).clear();
+                        cursors.add(cfg.getSuccsOf(succ).iterator());
+                    }
+                } else {
+                    postOrder[post++] = stack[top--].getIndex();
+                }
+            }
+            for (int j = post - 1; j >= start; --j) {
+                order[next++] = postOrder[j];
+            }
+        }
+        return order;
+    }
+
+    private int intersect(int b1, int b2) {
+        while (b1 != b2) {
+            while (numbers[b1] > numbers[b2]) {
+                b1 = idoms[b1];
+            }
+            while (numbers[b2] > numbers[b1]) {
+                b2 = idoms[b2];
+            }
+        }
+        return b1;
+    }
+
+    private int[][] buildChildren() {
+        int n = idoms.length;
+        int[] counts = new int[n];
+        for (int idom : idoms) {
+            if (idom != -1) {
+                ++counts[idom];
+            }
+        }
+        int[][] result = new int[n][];
+        for (int b = 0; b < n; ++b) {
+            result[b] = counts[b] == 0 ? NONE : new int[counts[b]];
+            counts[b] = 0;
+        }
+        for (int b = 0; b < n; ++b) {
+            if (idoms[b] != -1) {
+                result[idoms[b]][counts[idoms[b]]++] = b;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes dominance frontiers by walking up from the predecessors
+     * of each join block to its immediate dominator.
+     */
+    private int[][] buildFrontiers() {
+        int n = idoms.length;
+        int[][] result = new int[n][];
+        int[] sizes = new int[n];
+        Arrays.fill(result, NONE);
+        for (BasicBlock block : cfg.getBlocks()) {
+            int b = block.getIndex();
+            // roots have a virtual predecessor, i.e., the entry
+            if (cfg.getPredsOf(block).size() + (roots[b] ? 1 : 0) < 2) {
+                continue;
+            }
+            for (BasicBlock pred : cfg.getPredsOf(block)) {
+                int runner = pred.getIndex();
+                while (runner != -1 && runner != idoms[b]) {
+                    // b is added to the frontiers of its predecessors
+                    // consecutively, so duplicates are adjacent
+                    if (sizes[runner] == 0 || result[runner][sizes[runner] - 1] != b) {
+                        if (sizes[runner] == result[runner].length) {
+                            result[runner] = Arrays.copyOf(result[runner],
+                                    Math.max(4, 2 * sizes[runner]));
+                        }
+                        result[runner][sizes[runner]++] = b;
+                    }
+                    runner = idoms[runner];
+                }
+            }
+        }
+        for (int b = 0; b < n; ++b) {
+            if (sizes[b] != result[b].length) {
+                result[b] = Arrays.copyOf(result[b], sizes[b]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the CFG of this dominator tree.
+     */
+    public BlockCFG getCFG() {
+        return cfg;
+    }
+
+    /**
+     * @return the index of the immediate dominator of given block,
+     * or -1 if given block is the entry.
+     */
+    public int getImmediateDominator(BasicBlock block) {
+        return idoms[block.getIndex()];
+    }
+
+    /**
+     * @return true if block {@code a} dominates block {@code b}.
+     */
+    public boolean dominates(BasicBlock a, BasicBlock b) {
+        int target = a.getIndex();
+        for (int runner = b.getIndex(); runner != -1; runner = idoms[runner]) {
+            if (runner == target) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the indexes of the blocks immediately dominated by given block.
+     * The returned array must not be modified.
+     */
+    public int[] getChildren(BasicBlock block) {
+        return children[block.getIndex()];
+    }
+
+    /**
+     * @return the indexes of the blocks in the dominance frontier of given
+     * block. The returned array must not be modified.
+     */
+    public int[] getFrontier(BasicBlock block) {
+        return frontiers[block.getIndex()];
+    }
+}
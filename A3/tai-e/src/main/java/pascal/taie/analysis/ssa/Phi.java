@@ -0,0 +1,113 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.ssa;
+
+import pascal.taie.analysis.graph.cfg.BasicBlock;
+import pascal.taie.ir.exp.Var;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * A phi node of {@link SSA} form, which merges the versions of a variable
+ * flowing from the predecessors of a block at its start.
+ */
+public class Phi {
+
+    private final BasicBlock block;
+
+    private final Var var;
+
+    private final List<BasicBlock> preds;
+
+    private final SSAVar[] operands;
+
+    private SSAVar def;
+
+    Phi(BasicBlock block, Var var, List<BasicBlock> preds) {
+        this.block = block;
+        this.var = var;
+        this.preds = preds;
+        this.operands = new SSAVar[preds.size()];
+    }
+
+    /**
+     * @return the block at whose start this phi is placed.
+     */
+    public BasicBlock getBlock() {
+        return block;
+    }
+
+    /**
+     * @return the variable whose versions are merged by this phi.
+     */
+    public Var getVar() {
+        return var;
+    }
+
+    /**
+     * @return the version defined by this phi.
+     */
+    public SSAVar getDef() {
+        return def;
+    }
+
+    void setDef(SSAVar def) {
+        this.def = def;
+    }
+
+    /**
+     * @return the predecessors of the block, in the order of the operands.
+     */
+    public List<BasicBlock> getPreds() {
+        return preds;
+    }
+
+    /**
+     * @return the versions flowing from the predecessors.
+     */
+    public List<SSAVar> getOperands() {
+        return Arrays.asList(operands);
+    }
+
+    /**
+     * @return the version flowing from given predecessor of the block.
+     */
+    public SSAVar getOperand(BasicBlock pred) {
+        return operands[preds.indexOf(pred)];
+    }
+
+    void setOperand(BasicBlock pred, SSAVar operand) {
+        operands[preds.indexOf(pred)] = operand;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", def + " = phi(", ")");
+        for (int i = 0; i < operands.length; ++i) {
+            joiner.add(operands[i] + " from B" + preds.get(i).getIndex());
+        }
+        return joiner.toString();
+    }
+}
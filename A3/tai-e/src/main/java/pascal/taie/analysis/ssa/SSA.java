@@ -0,0 +1,331 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.ssa;
+
+import pascal.taie.analysis.graph.cfg.BasicBlock;
+import pascal.taie.analysis.graph.cfg.BlockCFG;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Static single assignment (SSA) view of an {@link IR}. The statements
+ * are not rewritten; instead, each definition and use of a variable is
+ * mapped to an {@link SSAVar}, i.e., a version of the variable with a
+ * unique definition, and {@link Phi}s are placed at the start of blocks
+ * of the {@link BlockCFG}.
+ * <p>
+ * Phis are placed at the iterated dominance frontiers of the blocks
+ * defining each variable (Cytron et al.), only for the variables which
+ * are used in some block before being defined in it (semi-pruned SSA).
+ * Versions are then numbered by a walk over the {@link DominatorTree}.
+ */
+public class SSA {
+
+    private final BlockCFG cfg;
+
+    private final DominatorTree domTree;
+
+    private final List<List<Phi>> phis;
+
+    /**
+     * Version defined by each statement.
+     */
+    private final SSAVar[] defs;
+
+    /**
+     * Distinct variables used by each statement.
+     */
+    private final Var[][] useVars;
+
+    /**
+     * Versions used by each statement, in the order of {@link #useVars}.
+     */
+    private final SSAVar[][] uses;
+
+    private final List<List<SSAVar>> versionsOf;
+
+    private final List<SSAVar> versions = new ArrayList<>();
+
+    public SSA(BlockCFG cfg) {
+        this.cfg = cfg;
+        this.domTree = new DominatorTree(cfg);
+        IR ir = cfg.getIR();
+        int size = ir.getStmts().size();
+        defs = new SSAVar[size];
+        useVars = new Var[size][];
+        uses = new SSAVar[size][];
+        versionsOf = new ArrayList<>(ir.getVars().size());
+        for (Var var : ir.getVars()) {
+            versionsOf.add(new ArrayList<>());
+            newVersion(var, null, null);
+        }
+        phis = new ArrayList<>(cfg.getBlocks().size());
+        cfg.getBlocks().forEach(b -> phis.add(new ArrayList<>()));
+        placePhis();
+        rename();
+    }
+
+    /**
+     * @return the SSA form of given IR, which is built on first request
+     * and then cached in the IR.
+     */
+    public static SSA of(IR ir) {
+        return ir.getResult(SSABuilder.ID, () -> new SSA(BlockCFG.of(ir)));
+    }
+
+    private SSAVar newVersion(Var var, @Nullable Stmt defStmt, @Nullable Phi phi) {
+        List<SSAVar> varVersions = versionsOf.get(var.getIndex());
+        SSAVar version = new SSAVar(var, varVersions.size(),
+                versions.size(), defStmt, phi);
+        varVersions.add(version);
+        versions.add(version);
+        return version;
+    }
+
+    private boolean isInIR(Stmt stmt) {
+        CFG<Stmt> stmtCFG = cfg.getStmtCFG();
+        return !stmtCFG.isEntry(stmt) && !stmtCFG.isExit(stmt);
+    }
+
+    private static Var getDefVar(Stmt stmt) {
+        return stmt.getDef().orElse(null) instanceof Var var ? var : null;
+    }
+
+    private static Var[] getUseVars(Stmt stmt) {
+        List<Var> vars = new ArrayList<>(2);
+        for (RValue use : stmt.getUses()) {
+            if (use instanceof Var var && !vars.contains(var)) {
+                vars.add(var);
+            }
+        }
+        return vars.toArray(new Var[0]);
+    }
+
+    private void placePhis() {
+        List<BasicBlock> blocks = cfg.getBlocks();
+        int nVars = versionsOf.size();
+        // blocks defining each variable, and the variables which are
+        // used in some block before being defined in it
+        List<List<BasicBlock>> defBlocks = new ArrayList<>(nVars);
+        for (int v = 0; v < nVars; ++v) {
+            defBlocks.add(new ArrayList<>(1));
+        }
+        BitSet globals = new BitSet(nVars);
+        BitSet defined = new BitSet(nVars);
+        for (BasicBlock block : blocks) {
+            defined.clear();
+            for (Stmt stmt : block.getStmts()) {
+                if (!isInIR(stmt)) {
+                    continue;
+                }
+                Var[] vars = getUseVars(stmt);
+                useVars[stmt.getIndex()] = vars;
+                for (Var use : vars) {
+                    if (!defined.get(use.getIndex())) {
+                        globals.set(use.getIndex());
+                    }
+                }
+                Var def = getDefVar(stmt);
+                if (def != null) {
+                    defined.set(def.getIndex());
+                    List<BasicBlock> varBlocks = defBlocks.get(def.getIndex());
+                    if (varBlocks.isEmpty()
+                            || varBlocks.get(varBlocks.size() - 1) != block) {
+                        varBlocks.add(block);
+                    }
+                }
+            }
+        }
+        // the last variable for which each block got a phi,
+        // or was added to the work-list
+        int[] hasPhi = new int[blocks.size()];
+        int[] added = new int[blocks.size()];
+        Arrays.fill(hasPhi, -1);
+        Arrays.fill(added, -1);
+        Deque<BasicBlock> workList = new ArrayDeque<>();
+        for (int v = globals.nextSetBit(0); v >= 0; v = globals.nextSetBit(v + 1)) {
+            Var var = versionsOf.get(v).get(0).getVar();
+            for (BasicBlock block : defBlocks.get(v)) {
+                added[block.getIndex()] = v;
+                workList.add(block);
+            }
+            while (!workList.isEmpty()) {
+                BasicBlock block = workList.poll();
+                for (int f : domTree.getFrontier(block)) {
+                    if (hasPhi[f] != v) {
+                        hasPhi[f] = v;
+                        BasicBlock frontier = blocks.get(f);
+                        phis.get(f).add(new Phi(frontier, var,
+                                List.copyOf(cfg.getPredsOf(frontier))));
+                        if (added[f] != v) {
+                            added[f] = v;
+                            workList.add(frontier);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Numbers the versions by a depth-first walk over the dominator tree,
+     * keeping the current version of each variable. The versions defined
+     * in a block are undone when the walk leaves its subtree.
+     */
+    private void rename() {
+        List<BasicBlock> blocks = cfg.getBlocks();
+        SSAVar[] current = new SSAVar[versionsOf.size()];
+        for (int v = 0; v < current.length; ++v) {
+            current[v] = versionsOf.get(v).get(0);
+        }
+        // versions replaced by the definitions seen so far
+        List<SSAVar> replaced = new ArrayList<>();
+        int[] marks = new int[blocks.size()];
+        // a block b is pushed as b when entered, and as ~b when left
+        int[] stack = new int[2 * blocks.size()];
+        int top = 0;
+        stack[top++] = cfg.getEntry().getIndex();
+        while (top > 0) {
+            int b = stack[--top];
+            if (b < 0) {
+                for (int i = replaced.size() - 1; i >= marks[~b]; --i) {
+                    SSAVar version = replaced.remove(i);
+                    current[version.getVar().getIndex()] = version;
+                }
+                continue;
+            }
+            marks[b] = replaced.size();
+            stack[top++] = ~b;
+            BasicBlock block = blocks.get(b);
+            for (Phi phi : phis.get(b)) {
+                int v = phi.getVar().getIndex();
+                replaced.add(current[v]);
+                current[v] = newVersion(phi.getVar(), null, phi);
+                phi.setDef(current[v]);
+            }
+            for (Stmt stmt : block.getStmts()) {
+                if (!isInIR(stmt)) {
+                    continue;
+                }
+                int s = stmt.getIndex();
+                Var[] vars = useVars[s];
+                uses[s] = new SSAVar[vars.length];
+                for (int i = 0; i < vars.length; ++i) {
+                    uses[s][i] = current[vars[i].getIndex()];
+                    uses[s][i].addUser(stmt);
+                }
+                Var def = getDefVar(stmt);
+                if (def != null) {
+                    replaced.add(current[def.getIndex()]);
+                    current[def.getIndex()] = defs[s] = newVersion(def, stmt, null);
+                }
+            }
+            for (BasicBlock succ : cfg.getSuccsOf(block)) {
+                for (Phi phi : phis.get(succ.getIndex())) {
+                    SSAVar operand = current[phi.getVar().getIndex()];
+                    phi.setOperand(block, operand);
+                    operand.addUser(phi);
+                }
+            }
+            for (int child : domTree.getChildren(block)) {
+                stack[top++] = child;
+            }
+        }
+    }
+
+    /**
+     * @return the block CFG this SSA form is built on.
+     */
+    public BlockCFG getCFG() {
+        return cfg;
+    }
+
+    public DominatorTree getDominatorTree() {
+        return domTree;
+    }
+
+    /**
+     * @return the phis at the start of given block.
+     */
+    public List<Phi> getPhis(BasicBlock block) {
+        return Collections.unmodifiableList(phis.get(block.getIndex()));
+    }
+
+    /**
+     * @return the version defined by given statement of the IR,
+     * or null if it does not define a variable.
+     */
+    @Nullable
+    public SSAVar getDef(Stmt stmt) {
+        return defs[stmt.getIndex()];
+    }
+
+    /**
+     * @return the version of given variable used by given statement
+     * of the IR, or null if the statement does not use the variable.
+     */
+    @Nullable
+    public SSAVar getUse(Stmt stmt, Var var) {
+        Var[] vars = useVars[stmt.getIndex()];
+        for (int i = 0; i < vars.length; ++i) {
+            if (vars[i] == var) {
+                return uses[stmt.getIndex()][i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the versions used by given statement of the IR,
+     * one for each distinct variable it uses.
+     */
+    public List<SSAVar> getUses(Stmt stmt) {
+        return Arrays.asList(uses[stmt.getIndex()]);
+    }
+
+    /**
+     * @return the versions of given variable, in the order of their numbers.
+     */
+    public List<SSAVar> getVersions(Var var) {
+        return Collections.unmodifiableList(versionsOf.get(var.getIndex()));
+    }
+
+    /**
+     * @return all versions, in the order of their indexes.
+     */
+    public List<SSAVar> getVersions() {
+        return Collections.unmodifiableList(versions);
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.ssa;
+
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.Indexable;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A version of a {@link Var} in {@link SSA} form. Each version has a unique
+ * definition: a statement, a {@link Phi}, or the entry of the method for
+ * version 0, whose value is the parameter value for parameters and
+ * undefined for other variables.
+ */
+public class SSAVar implements Indexable {
+
+    private final Var var;
+
+    private final int version;
+
+    private final int index;
+
+    @Nullable
+    private final Stmt defStmt;
+
+    @Nullable
+    private final Phi phi;
+
+    private final List<Stmt> stmtUsers = new ArrayList<>();
+
+    private final List<Phi> phiUsers = new ArrayList<>();
+
+    SSAVar(Var var, int version, int index,
+           @Nullable Stmt defStmt, @Nullable Phi phi) {
+        this.var = var;
+        this.version = version;
+        this.index = index;
+        this.defStmt = defStmt;
+        this.phi = phi;
+    }
+
+    /**
+     * @return the variable this is a version of.
+     */
+    public Var getVar() {
+        return var;
+    }
+
+    /**
+     * @return the version number, which is 0 for the value on entry.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * @return index of this version among all versions of the {@link SSA}.
+     */
+    @Override
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return the statement which defines this version, or null if it is
+     * defined by a phi or on entry.
+     */
+    @Nullable
+    public Stmt getDefStmt() {
+        return defStmt;
+    }
+
+    /**
+     * @return the phi which defines this version, or null if it is
+     * defined by a statement or on entry.
+     */
+    @Nullable
+    public Phi getPhi() {
+        return phi;
+    }
+
+    /**
+     * @return true if this is the version on entry of the method.
+     */
+    public boolean isEntryVersion() {
+        return version == 0;
+    }
+
+    /**
+     * @return the statements which use this version.
+     */
+    public List<Stmt> getStmtUsers() {
+        return Collections.unmodifiableList(stmtUsers);
+    }
+
+    /**
+     * @return the phis which use this version.
+     */
+    public List<Phi> getPhiUsers() {
+        return Collections.unmodifiableList(phiUsers);
+    }
+
+    void addUser(Stmt stmt) {
+        stmtUsers.add(stmt);
+    }
+
+    void addUser(Phi phi) {
+        phiUsers.add(phi);
+    }
+
+    @Override
+    public String toString() {
+        return var.getName() + "#" + version;
+    }
+}
@@ -0,0 +1,468 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.collection;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable hash map based on a hash array mapped trie (HAMT).
+ * <p>
+ * {@link #put(Object, Object)} and {@link #remove(Object)} return new maps
+ * which share all unchanged subtrees with this map, so keeping old versions
+ * is cheap. If an operation does not change the map, it returns this map
+ * itself, hence "changed?" can be checked by identity.
+ * <p>
+ * The trie is kept in canonical form, i.e., its shape depends only on the
+ * keys, so {@link #equals(Object)} compares the tries node by node and
+ * skips subtrees shared by the two maps.
+ * <p>
+ * Null keys and null values are not permitted.
+ *
+ * @param <K> type of keys
+ * @param <V> type of values
+ */
+public final class PersistentMap<K, V> {
+
+    private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(null, 0);
+
+    private static final int BITS = 5;
+
+    private static final int MASK = (1 << BITS) - 1;
+
+    @Nullable
+    private final Node root;
+
+    private final int size;
+
+    private PersistentMap(@Nullable Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * @return the empty map.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int bitpos(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    /**
+     * @return the value to which the specified key is mapped,
+     * or null if this map contains no mapping for the key.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        return root == null ? null : (V) root.find(0, hash(key), key);
+    }
+
+    public boolean containsKey(K key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @return a map which associates given key with given value, or this map
+     * if the key is already associated with an equal value.
+     */
+    public PersistentMap<K, V> put(K key, V value) {
+        Objects.requireNonNull(value);
+        Node oldRoot = root != null ? root : BitmapNode.EMPTY;
+        boolean[] added = new boolean[1];
+        Node newRoot = oldRoot.put(0, hash(key), key, value, added);
+        if (newRoot == oldRoot) {
+            return this;
+        }
+        return new PersistentMap<>(newRoot, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * @return a map without the mapping of given key, or this map
+     * if it contains no mapping for the key.
+     */
+    public PersistentMap<K, V> remove(K key) {
+        if (root == null) {
+            return this;
+        }
+        Node newRoot = root.remove(0, hash(key), key);
+        if (newRoot == root) {
+            return this;
+        }
+        return newRoot == null ? empty() : new PersistentMap<>(newRoot, size - 1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Performs the given action for each entry in this map.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        if (root != null) {
+            root.forEach((k, v) -> action.accept((K) k, (V) v));
+        }
+    }
+
+    /**
+     * @return a list of all entries in this map.
+     */
+    public List<Map.Entry<K, V>> entryList() {
+        List<Map.Entry<K, V>> entries = new ArrayList<>(size);
+        forEach((k, v) -> entries.add(Map.entry(k, v)));
+        return entries;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PersistentMap<?, ?> that) || size != that.size) {
+            return false;
+        }
+        return size == 0 || nodesEqual(root, that.root);
+    }
+
+    private static boolean nodesEqual(Node a, Node b) {
+        if (a == b) {
+            return true;
+        }
+        if (a instanceof BitmapNode x && b instanceof BitmapNode y) {
+            if (x.bitmap != y.bitmap) {
+                // a slot is present iff some keys have its hash prefix
+                return false;
+            }
+            for (int i = 0; i < x.array.length; i += 2) {
+                Object xk = x.array[i], yk = y.array[i];
+                Object xv = x.array[i + 1], yv = y.array[i + 1];
+                if (xk != null && yk != null) {
+                    if (!xk.equals(yk) || !xv.equals(yv)) {
+                        return false;
+                    }
+                } else if (xk == null && yk == null) {
+                    if (!nodesEqual((Node) xv, (Node) yv)) {
+                        return false;
+                    }
+                } else {
+                    return contentsEqual(a, b);
+                }
+            }
+            return true;
+        }
+        return contentsEqual(a, b);
+    }
+
+    /**
+     * Compares the entries of two subtrees regardless of their shapes.
+     */
+    private static boolean contentsEqual(Node a, Node b) {
+        Map<Object, Object> entries = new HashMap<>();
+        a.forEach(entries::put);
+        int[] count = {0};
+        boolean[] equal = {true};
+        b.forEach((k, v) -> {
+            ++count[0];
+            if (!v.equals(entries.get(k))) {
+                equal[0] = false;
+            }
+        });
+        return equal[0] && count[0] == entries.size();
+    }
+
+    @Override
+    public int hashCode() {
+        int[] h = {0};
+        forEach((k, v) -> h[0] += k.hashCode() ^ v.hashCode());
+        return h[0];
+    }
+
+    @Override
+    public String toString() {
+        return entryList().toString();
+    }
+
+    private abstract static class Node {
+
+        /**
+         * @return the value of given key, or null if the key is absent.
+         */
+        @Nullable
+        abstract Object find(int shift, int hash, Object key);
+
+        /**
+         * @return the node with given mapping, or this node if unchanged.
+         */
+        abstract Node put(int shift, int hash, Object key, Object value,
+                          boolean[] added);
+
+        /**
+         * @return the node without given key, this node if the key
+         * is absent, or null if the resulting node would be empty.
+         */
+        @Nullable
+        abstract Node remove(int shift, int hash, Object key);
+
+        abstract void forEach(BiConsumer<Object, Object> action);
+    }
+
+    /**
+     * Node whose {@link #bitmap} marks the occupied slots. Each slot
+     * takes two elements of {@link #array}: a key and its value,
+     * or null and a child node.
+     */
+    private static final class BitmapNode extends Node {
+
+        private static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        private final int bitmap;
+
+        private final Object[] array;
+
+        private BitmapNode(int bitmap, Object[] array) {
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            int bit = bitpos(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            int i = 2 * index(bit);
+            Object k = array[i];
+            if (k == null) {
+                return ((Node) array[i + 1]).find(shift + BITS, hash, key);
+            }
+            return k.equals(key) ? array[i + 1] : null;
+        }
+
+        @Override
+        Node put(int shift, int hash, Object key, Object value, boolean[] added) {
+            int bit = bitpos(hash, shift);
+            int i = 2 * index(bit);
+            if ((bitmap & bit) == 0) {
+                added[0] = true;
+                Object[] newArray = new Object[array.length + 2];
+                System.arraycopy(array, 0, newArray, 0, i);
+                newArray[i] = key;
+                newArray[i + 1] = value;
+                System.arraycopy(array, i, newArray, i + 2, array.length - i);
+                return new BitmapNode(bitmap | bit, newArray);
+            }
+            Object k = array[i];
+            Object v = array[i + 1];
+            if (k == null) {
+                Node child = (Node) v;
+                Node newChild = child.put(shift + BITS, hash, key, value, added);
+                return newChild == child ? this : with(i, null, newChild);
+            }
+            if (k.equals(key)) {
+                return v.equals(value) ? this : with(i, k, value);
+            }
+            added[0] = true;
+            return with(i, null, createNode(shift + BITS, k, v, hash, key, value));
+        }
+
+        private static Node createNode(int shift, Object k1, Object v1,
+                                       int h2, Object k2, Object v2) {
+            int h1 = hash(k1);
+            if (h1 == h2) {
+                return new CollisionNode(h1, new Object[]{ k1, v1, k2, v2 });
+            }
+            boolean[] added = new boolean[1];
+            return EMPTY.put(shift, h1, k1, v1, added)
+                    .put(shift, h2, k2, v2, added);
+        }
+
+        private BitmapNode with(int i, Object key, Object value) {
+            Object[] newArray = array.clone();
+            newArray[i] = key;
+            newArray[i + 1] = value;
+            return new BitmapNode(bitmap, newArray);
+        }
+
+        @Override
+        Node remove(int shift, int hash, Object key) {
+            int bit = bitpos(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int i = 2 * index(bit);
+            Object k = array[i];
+            if (k == null) {
+                Node child = (Node) array[i + 1];
+                Node newChild = child.remove(shift + BITS, hash, key);
+                if (newChild == child) {
+                    return this;
+                } else if (newChild == null) {
+                    return without(bit, i);
+                }
+                // keep the trie canonical: a child holds at least two
+                // entries, and a collision node is never wrapped alone
+                if (newChild instanceof BitmapNode node
+                        && node.array.length == 2) {
+                    return node.array[0] != null ?
+                            with(i, node.array[0], node.array[1]) :
+                            node.array[1] instanceof CollisionNode ?
+                                    with(i, null, node.array[1]) :
+                                    with(i, null, newChild);
+                } else if (newChild instanceof CollisionNode node
+                        && node.array.length == 2) {
+                    return with(i, node.array[0], node.array[1]);
+                }
+                return with(i, null, newChild);
+            }
+            return k.equals(key) ? without(bit, i) : this;
+        }
+
+        @Nullable
+        private BitmapNode without(int bit, int i) {
+            if (bitmap == bit) {
+                return null;
+            }
+            Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, i);
+            System.arraycopy(array, i + 2, newArray, i, newArray.length - i);
+            return new BitmapNode(bitmap ^ bit, newArray);
+        }
+
+        @Override
+        void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i] != null) {
+                    action.accept(array[i], array[i + 1]);
+                } else {
+                    ((Node) array[i + 1]).forEach(action);
+                }
+            }
+        }
+    }
+
+    /**
+     * Node holding keys whose hashes are all the same.
+     */
+    private static final class CollisionNode extends Node {
+
+        private final int hash;
+
+        /**
+         * Keys and values, interleaved.
+         */
+        private final Object[] array;
+
+        private CollisionNode(int hash, Object[] array) {
+            this.hash = hash;
+            this.array = array;
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i].equals(key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            if (hash != this.hash) {
+                return null;
+            }
+            int i = indexOf(key);
+            return i != -1 ? array[i + 1] : null;
+        }
+
+        @Override
+        Node put(int shift, int hash, Object key, Object value, boolean[] added) {
+            if (hash != this.hash) {
+                // nest this node in a bitmap node and insert there
+                return new BitmapNode(bitpos(this.hash, shift),
+                        new Object[]{ null, this })
+                        .put(shift, hash, key, value, added);
+            }
+            int i = indexOf(key);
+            if (i != -1) {
+                if (array[i + 1].equals(value)) {
+                    return this;
+                }
+                Object[] newArray = array.clone();
+                newArray[i + 1] = value;
+                return new CollisionNode(hash, newArray);
+            }
+            added[0] = true;
+            Object[] newArray = new Object[array.length + 2];
+            System.arraycopy(array, 0, newArray, 0, array.length);
+            newArray[array.length] = key;
+            newArray[array.length + 1] = value;
+            return new CollisionNode(hash, newArray);
+        }
+
+        @Override
+        Node remove(int shift, int hash, Object key) {
+            int i = hash == this.hash ? indexOf(key) : -1;
+            if (i == -1) {
+                return this;
+            } else if (array.length == 2) {
+                return null;
+            }
+            Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, i);
+            System.arraycopy(array, i + 2, newArray, i, newArray.length - i);
+            return new CollisionNode(hash, newArray);
+        }
+
+        @Override
+        void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < array.length; i += 2) {
+                action.accept(array[i], array[i + 1]);
+            }
+        }
+    }
+}
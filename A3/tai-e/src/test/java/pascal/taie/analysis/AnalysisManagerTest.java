@@ -0,0 +1,176 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis;
+
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.dataflow.analysis.DeadCodeDetection;
+import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.IRBuilder;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+public class AnalysisManagerTest {
+
+    private static final String FUSED_STAGES = "taie.fused-stages";
+
+    private static final List<Supplier<IR>> METHODS = List.of(
+            MethodBuilder::straightLine, MethodBuilder::simpleLoop,
+            MethodBuilder::invariantLoop, MethodBuilder::blockLoop,
+            AnalysisManagerTest::buildDeadCode);
+
+    private static AnalysisConfig config(
+            Class<?> analysisClass, String id, List<String> requires,
+            Map<String, Object> options) {
+        return new AnalysisConfig(id, analysisClass.getName(), id,
+                requires, new AnalysisOptions(options));
+    }
+
+    /**
+     * The plan of deadcode and the analyses it requires, which form
+     * a single stage when stages are fused.
+     */
+    private static final List<AnalysisConfig> PLAN = List.of(
+            config(ConstantPropagation.class, ConstantPropagation.ID,
+                    List.of(), Map.of("edge-refine", false)),
+            config(LiveVariableAnalysis.class, LiveVariableAnalysis.ID,
+                    List.of(), Map.of("strongly", false)),
+            config(DeadCodeDetection.class, DeadCodeDetection.ID,
+                    List.of(ConstantPropagation.ID, LiveVariableAnalysis.ID),
+                    Map.of()));
+
+    /**
+     * <pre>
+     * 0: x = 1
+     * 1: c = 2
+     * 2: y = 3
+     * 3: if (x > c) goto 5
+     * 4: return x
+     * 5: x = 4
+     * 6: return x
+     * </pre>
+     * Statement 2 is a dead assignment, and statements 5 and 6
+     * are unreachable as the condition is always false.
+     */
+    private static IR buildDeadCode() {
+        MethodBuilder builder = new MethodBuilder("dead");
+        Var x = builder.newVar("x");
+        Var y = builder.newVar("y");
+        Var c = builder.newVar("c");
+        builder.add(new AssignLiteral(x, IntLiteral.get(1)));
+        builder.add(new AssignLiteral(c, IntLiteral.get(2)));
+        builder.add(new AssignLiteral(y, IntLiteral.get(3)));
+        If branch = builder.add(new If(
+                new ConditionExp(ConditionExp.Op.GT, x, c)));
+        builder.add(new Return(x));
+        branch.setTarget(builder.add(new AssignLiteral(x, IntLiteral.get(4))));
+        builder.add(new Return(x));
+        return builder.build();
+    }
+
+    /**
+     * Builds the test methods, sets a new {@link World} whose IR builder
+     * returns their IRs, and executes {@link #PLAN} on them.
+     */
+    private static List<IR> execute(boolean fused) {
+        List<IR> irs = METHODS.stream().map(Supplier::get).toList();
+        Map<JMethod, IR> irOf = irs.stream()
+                .collect(Collectors.toMap(IR::getMethod, ir -> ir));
+        World world = new World();
+        world.setIRBuilder(new IRBuilder() {
+            @Override
+            public IR buildIR(JMethod method) {
+                return irOf.get(method);
+            }
+
+            @Override
+            public void buildAll(ClassHierarchy hierarchy) {
+            }
+        });
+        World.set(world);
+        try {
+            if (fused) {
+                System.setProperty(FUSED_STAGES, "true");
+            }
+            new AnalysisManager(irs.stream().map(IR::getMethod).toList())
+                    .execute(PLAN);
+        } finally {
+            System.clearProperty(FUSED_STAGES);
+            World.reset();
+        }
+        return irs;
+    }
+
+    private static List<Integer> deadCode(IR ir) {
+        Set<Stmt> deadCode = ir.getResult(DeadCodeDetection.ID);
+        return deadCode.stream().map(Stmt::getIndex).sorted().toList();
+    }
+
+    @Test
+    public void testFusedSameAsSequential() {
+        List<IR> sequential = execute(false);
+        List<IR> fused = execute(true);
+        for (int m = 0; m < METHODS.size(); ++m) {
+            IR expected = sequential.get(m);
+            IR actual = fused.get(m);
+            assertEquals(deadCode(expected), deadCode(actual));
+            DataflowResult<Stmt, CPFact> expectedCP = expected.getResult(ConstantPropagation.ID);
+            DataflowResult<Stmt, CPFact> actualCP = actual.getResult(ConstantPropagation.ID);
+            DataflowResult<Stmt, SetFact<Var>> expectedLV = expected.getResult(LiveVariableAnalysis.ID);
+            DataflowResult<Stmt, SetFact<Var>> actualLV = actual.getResult(LiveVariableAnalysis.ID);
+            for (int i = 0; i < expected.getStmts().size(); ++i) {
+                Stmt e = expected.getStmt(i), a = actual.getStmt(i);
+                for (int v = 0; v < expected.getVars().size(); ++v) {
+                    assertEquals(expectedCP.getOutFact(e).get(expected.getVar(v)),
+                            actualCP.getOutFact(a).get(actual.getVar(v)));
+                    assertEquals(expectedLV.getInFact(e).contains(expected.getVar(v)),
+                            actualLV.getInFact(a).contains(actual.getVar(v)));
+                }
+            }
+        }
+        assertEquals(List.of(2, 5, 6), deadCode(fused.get(METHODS.size() - 1)));
+    }
+}
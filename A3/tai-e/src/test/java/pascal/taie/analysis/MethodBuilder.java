@@ -0,0 +1,250 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis;
+
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.DefaultIR;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Modifier;
+import pascal.taie.language.type.PrimitiveType;
+import pascal.taie.language.type.Type;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Builds the IR of a small static method statement by statement,
+ * with its CFG stored in the IR, for unit tests which do not need
+ * to load classes from the class path. The methods shared by several
+ * tests are built by the static factories, e.g., {@link #simpleLoop()}.
+ */
+public final class MethodBuilder {
+
+    private static final CFGBuilder CFG_BUILDER = new CFGBuilder(
+            new AnalysisConfig(CFGBuilder.ID, "exception", "none", "dump", false));
+
+    private static final JClass CLASS = new JClass(null, "Test");
+
+    private final String name;
+
+    private final List<Var> params = new ArrayList<>();
+
+    private final List<Var> vars = new ArrayList<>();
+
+    private final List<Stmt> stmts = new ArrayList<>();
+
+    private final Set<Var> returnVars = new LinkedHashSet<>();
+
+    public MethodBuilder(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return a new int variable of the method.
+     */
+    public Var newVar(String name) {
+        Var var = new Var(null, name, PrimitiveType.INT, vars.size());
+        vars.add(var);
+        return var;
+    }
+
+    /**
+     * @return a new int parameter of the method.
+     */
+    public Var newParam(String name) {
+        Var param = newVar(name);
+        params.add(param);
+        return param;
+    }
+
+    /**
+     * Appends a statement to the method. The targets of jumps can be
+     * set after their targets are added.
+     *
+     * @return the added statement
+     */
+    public <S extends Stmt> S add(S stmt) {
+        stmt.setIndex(stmts.size());
+        stmts.add(stmt);
+        if (stmt instanceof Return ret && ret.getValue() != null) {
+            returnVars.add(ret.getValue());
+        }
+        return stmt;
+    }
+
+    /**
+     * @return the IR of the method, with its CFG (without exceptional
+     * edges) stored in it.
+     */
+    public IR build() {
+        List<Type> paramTypes = params.stream()
+                .map(Var::getType)
+                .toList();
+        JMethod method = new JMethod(CLASS, name, Set.of(Modifier.STATIC),
+                paramTypes, PrimitiveType.INT, List.of(), null, null, null);
+        IR ir = new DefaultIR(method, null, params, returnVars,
+                vars, stmts, List.of());
+        rebuildCFG(ir);
+        return ir;
+    }
+
+    /**
+     * @return a method without branches:
+     * <pre>
+     * 0: a = 1
+     * 1: b = a + p
+     * 2: c = a + b
+     * 3: return c
+     * </pre>
+     */
+    public static IR straightLine() {
+        MethodBuilder builder = new MethodBuilder("straight");
+        Var p = builder.newParam("p");
+        Var a = builder.newVar("a");
+        Var b = builder.newVar("b");
+        Var c = builder.newVar("c");
+        builder.add(new AssignLiteral(a, IntLiteral.get(1)));
+        builder.add(new Binary(b, new ArithmeticExp(ArithmeticExp.Op.ADD, a, p)));
+        builder.add(new Binary(c, new ArithmeticExp(ArithmeticExp.Op.ADD, a, b)));
+        builder.add(new Return(c));
+        return builder.build();
+    }
+
+    /**
+     * @return a method with a loop:
+     * <pre>
+     * 0: i = 0
+     * 1: if (i >= n) goto 4
+     * 2: i = i + i
+     * 3: goto 1
+     * 4: return i
+     * </pre>
+     */
+    public static IR simpleLoop() {
+        MethodBuilder builder = new MethodBuilder("loop");
+        Var n = builder.newParam("n");
+        Var i = builder.newVar("i");
+        builder.add(new AssignLiteral(i, IntLiteral.get(0)));
+        If head = builder.add(new If(
+                new ConditionExp(ConditionExp.Op.GE, i, n)));
+        builder.add(new Binary(i, new ArithmeticExp(ArithmeticExp.Op.ADD, i, i)));
+        builder.add(new Goto()).setTarget(head);
+        head.setTarget(builder.add(new Return(i)));
+        return builder.build();
+    }
+
+    /**
+     * @return a method with a loop-invariant expression:
+     * <pre>
+     * 0: i = 0
+     * 1: k = 2
+     * 2: if (i >= n) goto 6
+     * 3: j = k + k
+     * 4: i = i + k
+     * 5: goto 2
+     * 6: return i
+     * </pre>
+     * The operands of {@code k + k} are the same in every iteration,
+     * while {@code i} in {@code i + k} goes from 0 to NAC.
+     */
+    public static IR invariantLoop() {
+        MethodBuilder builder = new MethodBuilder("loop");
+        Var n = builder.newParam("n");
+        Var i = builder.newVar("i");
+        Var j = builder.newVar("j");
+        Var k = builder.newVar("k");
+        builder.add(new AssignLiteral(i, IntLiteral.get(0)));
+        builder.add(new AssignLiteral(k, IntLiteral.get(2)));
+        If head = builder.add(new If(
+                new ConditionExp(ConditionExp.Op.GE, i, n)));
+        builder.add(new Binary(j, new ArithmeticExp(ArithmeticExp.Op.ADD, k, k)));
+        builder.add(new Binary(i, new ArithmeticExp(ArithmeticExp.Op.ADD, i, k)));
+        builder.add(new Goto()).setTarget(head);
+        head.setTarget(builder.add(new Return(i)));
+        return builder.build();
+    }
+
+    /**
+     * @return the method with a loop whose body is a block of several
+     * statements:
+     * <pre>
+     * 0: i = 0
+     * 1: k = 2
+     * 2: if (i >= n) goto 7
+     * 3: j = i + k
+     * 4: k = 2
+     * 5: i = j
+     * 6: goto 2
+     * 7: return i
+     * </pre>
+     */
+    public static IR blockLoop() {
+        MethodBuilder builder = new MethodBuilder("loop");
+        Var n = builder.newParam("n");
+        Var i = builder.newVar("i");
+        Var j = builder.newVar("j");
+        Var k = builder.newVar("k");
+        builder.add(new AssignLiteral(i, IntLiteral.get(0)));
+        builder.add(new AssignLiteral(k, IntLiteral.get(2)));
+        If head = builder.add(new If(
+                new ConditionExp(ConditionExp.Op.GE, i, n)));
+        builder.add(new Binary(j, new ArithmeticExp(ArithmeticExp.Op.ADD, i, k)));
+        builder.add(new AssignLiteral(k, IntLiteral.get(2)));
+        builder.add(new Copy(i, j));
+        builder.add(new Goto()).setTarget(head);
+        head.setTarget(builder.add(new Return(i)));
+        return builder.build();
+    }
+
+    /**
+     * Builds the CFG of given IR, e.g., after the targets of its jumps
+     * are edited, and stores it in the IR.
+     */
+    public static void rebuildCFG(IR ir) {
+        ir.storeResult(CFGBuilder.ID, CFG_BUILDER.analyze(ir));
+    }
+
+    /**
+     * @return the CFG stored in given IR.
+     */
+    public static CFG<Stmt> cfgOf(IR ir) {
+        return ir.getResult(CFGBuilder.ID);
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import org.junit.Test;
+import pascal.taie.analysis.MethodBuilder;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+
+import static org.junit.Assert.assertEquals;
+
+public class BlockDataflowAnalysisTest {
+
+    static <Fact> void assertSameResult(
+            CFG<Stmt> cfg, DataflowResult<Stmt, Fact> expected,
+            DataflowResult<Stmt, Fact> actual) {
+        for (Stmt node : cfg) {
+            assertEquals(expected.getInFact(node), actual.getInFact(node));
+            assertEquals(expected.getOutFact(node), actual.getOutFact(node));
+        }
+    }
+
+    @Test
+    public void testForwardOnBlocks() {
+        IR ir = MethodBuilder.blockLoop();
+        assertSameResult(MethodBuilder.cfgOf(ir),
+                new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID,
+                        "edge-refine", false)).analyze(ir),
+                new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID,
+                        "edge-refine", false, "node", "block")).analyze(ir));
+    }
+
+    @Test
+    public void testBackwardOnBlocks() {
+        IR ir = MethodBuilder.blockLoop();
+        assertSameResult(MethodBuilder.cfgOf(ir),
+                new LiveVariableAnalysis(new AnalysisConfig(LiveVariableAnalysis.ID,
+                        "strongly", false)).analyze(ir),
+                new LiveVariableAnalysis(new AnalysisConfig(LiveVariableAnalysis.ID,
+                        "strongly", false, "node", "block")).analyze(ir));
+    }
+}
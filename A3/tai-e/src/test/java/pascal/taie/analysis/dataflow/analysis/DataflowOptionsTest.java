@@ -0,0 +1,77 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import org.junit.Test;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class DataflowOptionsTest {
+
+    private static DataflowOptions parse(Object... options) {
+        return new DataflowOptions(
+                new AnalysisConfig("test", options).getOptions());
+    }
+
+    @Test
+    public void testDefaults() {
+        DataflowOptions options = parse();
+        assertEquals("worklist", options.getSolver());
+        assertFalse(options.isOnBlocks());
+        assertFalse(options.isCompactCFG());
+        assertFalse(options.isLazyResult());
+        assertEquals(256, options.getResultCache());
+        assertFalse(options.isRecordStats());
+        assertNull(options.getBudget());
+    }
+
+    @Test
+    public void testGivenOptions() {
+        DataflowOptions options = parse("solver", "priority", "node", "block",
+                "result", "lazy", "result-cache", 4, "stats", true,
+                "max-iterations", 10);
+        assertEquals("priority", options.getSolver());
+        assertTrue(options.isOnBlocks());
+        assertTrue(options.isLazyResult());
+        assertEquals(4, options.getResultCache());
+        assertTrue(options.isRecordStats());
+        assertEquals(10, options.getBudget().getMaxIterations());
+    }
+
+    @Test
+    public void testInvalidOptions() {
+        assertThrows(ConfigException.class, () -> parse("solver", "chaotic"));
+        assertThrows(ConfigException.class, () -> parse("node", "method"));
+        assertThrows(ConfigException.class, () -> parse("result", "lazy"));
+        assertThrows(ConfigException.class, () -> parse("time-budget", -1));
+        assertThrows(ConfigException.class, () -> new LiveVariableAnalysis(
+                new AnalysisConfig(LiveVariableAnalysis.ID, "fact", "packed")));
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import org.junit.Test;
+import pascal.taie.analysis.MethodBuilder;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.fact.NodeResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.CompactCFG;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.LookupSwitch;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+
+public class DeadCodeDetectionTest {
+
+    private final Set<Stmt> expected = new LinkedHashSet<>();
+
+    /**
+     * Builds a method with a constant switch and a constant condition:
+     * <pre>
+     * 0: x = 2
+     * 1: z = x          // dead assignment
+     * 2: switch (x) { case 1: goto 3; case 2: goto 5; default: goto 7 }
+     * 3: y = 1          // unreachable
+     * 4: goto 8         // unreachable
+     * 5: y = 2
+     * 6: goto 8
+     * 7: y = 3          // unreachable
+     * 8: if (x >= x) goto 10
+     * 9: y = 4          // unreachable
+     * 10: return y
+     * </pre>
+     * The dead code is added to {@link #expected}.
+     */
+    private IR buildConstantBranches() {
+        MethodBuilder builder = new MethodBuilder("branches");
+        Var x = builder.newVar("x");
+        Var y = builder.newVar("y");
+        Var z = builder.newVar("z");
+        builder.add(new AssignLiteral(x, IntLiteral.get(2)));
+        expected.add(builder.add(new Copy(z, x)));
+        LookupSwitch switchStmt = builder.add(new LookupSwitch(x, List.of(1, 2)));
+        Stmt case1 = builder.add(new AssignLiteral(y, IntLiteral.get(1)));
+        Goto exit1 = builder.add(new Goto());
+        Stmt case2 = builder.add(new AssignLiteral(y, IntLiteral.get(2)));
+        Goto exit2 = builder.add(new Goto());
+        Stmt defaultCase = builder.add(new AssignLiteral(y, IntLiteral.get(3)));
+        If ifStmt = builder.add(new If(
+                new ConditionExp(ConditionExp.Op.GE, x, x)));
+        Stmt falseBranch = builder.add(new AssignLiteral(y, IntLiteral.get(4)));
+        ifStmt.setTarget(builder.add(new Return(y)));
+        switchStmt.setTargets(List.of(case1, case2));
+        switchStmt.setDefaultTarget(defaultCase);
+        exit1.setTarget(ifStmt);
+        exit2.setTarget(ifStmt);
+        expected.addAll(List.of(case1, exit1, defaultCase, falseBranch));
+        IR ir = builder.build();
+        ir.storeResult(ConstantPropagation.ID, new ConstantPropagation(
+                new AnalysisConfig(ConstantPropagation.ID, "edge-refine", false))
+                .analyze(ir));
+        ir.storeResult(LiveVariableAnalysis.ID, new LiveVariableAnalysis(
+                new AnalysisConfig(LiveVariableAnalysis.ID, "strongly", false))
+                .analyze(ir));
+        return ir;
+    }
+
+    @Test
+    public void testOnCFG() {
+        IR ir = buildConstantBranches();
+        Set<Stmt> deadCode = new DeadCodeDetection(
+                new AnalysisConfig(DeadCodeDetection.ID)).analyze(ir);
+        assertEquals(List.copyOf(expected), List.copyOf(deadCode));
+        assertNull(ir.getResult(CompactCFG.ID));
+    }
+
+    @Test
+    public void testOnCompactCFG() {
+        IR ir = buildConstantBranches();
+        Set<Stmt> deadCode = new DeadCodeDetection(
+                new AnalysisConfig(DeadCodeDetection.ID, "cfg", "compact")).analyze(ir);
+        assertEquals(List.copyOf(expected), List.copyOf(deadCode));
+    }
+
+    @Test
+    public void testConditionsEvaluatedOnce() {
+        IR ir = buildConstantBranches();
+        Counting constants = new Counting(ir.getResult(ConstantPropagation.ID));
+        NodeResult<Stmt, SetFact<Var>> liveVars = ir.getResult(LiveVariableAnalysis.ID);
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        assertEquals(List.copyOf(expected), List.copyOf(
+                DeadCodeDetection.detect(cfg, constants, liveVars)));
+        Map<Stmt, Integer> onCFG = Map.copyOf(constants.reads);
+        constants.reads.clear();
+        assertEquals(List.copyOf(expected), List.copyOf(
+                DeadCodeDetection.detect(CompactCFG.of(ir), constants, liveVars)));
+        assertEquals(Set.of(ir.getStmt(2), ir.getStmt(8)), onCFG.keySet());
+        assertEquals(Set.of(1), Set.copyOf(onCFG.values()));
+        assertEquals(onCFG, constants.reads);
+    }
+
+    /**
+     * Counts the reads of the in-facts of each statement.
+     */
+    private static class Counting implements NodeResult<Stmt, CPFact> {
+
+        private final NodeResult<Stmt, CPFact> result;
+
+        private final Map<Stmt, Integer> reads = new HashMap<>();
+
+        private Counting(NodeResult<Stmt, CPFact> result) {
+            this.result = result;
+        }
+
+        @Override
+        public CPFact getInFact(Stmt stmt) {
+            reads.merge(stmt, 1, Integer::sum);
+            return result.getInFact(stmt);
+        }
+
+        @Override
+        public CPFact getOutFact(Stmt stmt) {
+            return result.getOutFact(stmt);
+        }
+    }
+
+    @Test
+    public void testCompactCFGOnBlocksRejected() {
+        assertThrows(ConfigException.class,
+                () -> new LiveVariableAnalysis(new AnalysisConfig(
+                        LiveVariableAnalysis.ID, "node", "block", "cfg", "compact")));
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import org.junit.Test;
+import pascal.taie.analysis.MethodBuilder;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class LazyDataflowResultTest {
+
+    private static ConstantPropagation constprop(Object... options) {
+        List<Object> all = new ArrayList<>(List.of("edge-refine", false));
+        all.addAll(List.of(options));
+        return new ConstantPropagation(new AnalysisConfig(
+                ConstantPropagation.ID, all.toArray()));
+    }
+
+    private static LiveVariableAnalysis livevar(Object... options) {
+        List<Object> all = new ArrayList<>(List.of("strongly", false));
+        all.addAll(List.of(options));
+        return new LiveVariableAnalysis(new AnalysisConfig(
+                LiveVariableAnalysis.ID, all.toArray()));
+    }
+
+    /**
+     * Queries the statements in reverse order, so that a cache of one
+     * block is missed and refilled at each block boundary.
+     */
+    private static <Fact> void assertSameResultReversed(
+            CFG<Stmt> cfg, DataflowResult<Stmt, Fact> expected,
+            DataflowResult<Stmt, Fact> actual) {
+        List<Stmt> nodes = new ArrayList<>(cfg.getNodes());
+        Collections.reverse(nodes);
+        for (Stmt node : nodes) {
+            assertEquals(expected.getOutFact(node), actual.getOutFact(node));
+            assertEquals(expected.getInFact(node), actual.getInFact(node));
+        }
+    }
+
+    @Test
+    public void testForwardLazyResult() {
+        IR ir = MethodBuilder.blockLoop();
+        DataflowResult<Stmt, CPFact> lazy = constprop("node", "block",
+                "result", "lazy", "result-cache", 1).analyze(ir);
+        assertTrue(lazy instanceof LazyDataflowResult);
+        assertSameResultReversed(MethodBuilder.cfgOf(ir),
+                constprop().analyze(ir), lazy);
+    }
+
+    @Test
+    public void testBackwardLazyResult() {
+        IR ir = MethodBuilder.blockLoop();
+        DataflowResult<Stmt, SetFact<Var>> lazy = livevar("node", "block",
+                "result", "lazy", "result-cache", 1).analyze(ir);
+        assertTrue(lazy instanceof LazyDataflowResult);
+        assertSameResultReversed(MethodBuilder.cfgOf(ir),
+                livevar().analyze(ir), lazy);
+    }
+
+    @Test
+    public void testReadOnly() {
+        IR ir = MethodBuilder.blockLoop();
+        DataflowResult<Stmt, CPFact> lazy = constprop("node", "block",
+                "result", "lazy").analyze(ir);
+        Stmt stmt = ir.getStmt(0);
+        assertThrows(UnsupportedOperationException.class,
+                () -> lazy.setInFact(stmt, new CPFact()));
+        assertThrows(UnsupportedOperationException.class,
+                () -> lazy.setOutFact(stmt, new CPFact()));
+    }
+
+    @Test
+    public void testLazyResultRequiresBlocks() {
+        assertThrows(ConfigException.class,
+                () -> constprop("result", "lazy"));
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import org.junit.Test;
+import pascal.taie.analysis.MethodBuilder;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.dataflow.solver.Solver;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LiveVariableAnalysisTest {
+
+    private static LiveVariableAnalysis newAnalysis(String factKind) {
+        return new LiveVariableAnalysis(new AnalysisConfig(
+                LiveVariableAnalysis.ID, "strongly", false, "fact", factKind));
+    }
+
+    /**
+     * The gen and kill sets of liveness do not depend on the CFG, thus
+     * the analysis can be given to a solver without binding it.
+     */
+    @Test
+    public void testUnboundSolver() {
+        for (String kind : List.of("bitset", "hybrid", "persistent")) {
+            IR ir = MethodBuilder.blockLoop();
+            CFG<Stmt> cfg = MethodBuilder.cfgOf(ir);
+            LiveVariableAnalysis analysis = newAnalysis(kind);
+            DataflowResult<Stmt, SetFact<Var>> unbound =
+                    Solver.makeSolver(analysis).solve(cfg);
+            BlockDataflowAnalysisTest.assertSameResult(
+                    cfg, analysis.analyze(ir), unbound);
+        }
+    }
+
+    /**
+     * b = a + p kills b and generates a and p.
+     */
+    @Test
+    public void testUnboundTransfer() {
+        IR ir = MethodBuilder.straightLine();
+        LiveVariableAnalysis analysis = newAnalysis("hybrid");
+        SetFact<Var> out = analysis.newInitialFact();
+        ir.getVars().forEach(out::add);
+        SetFact<Var> in = analysis.newInitialFact();
+        assertTrue(analysis.transferNode(ir.getStmt(1), in, out));
+        assertEquals(Set.of("a", "c", "p"), names(in));
+        assertFalse(analysis.transferNode(ir.getStmt(1), in, out));
+    }
+
+    private static Set<String> names(SetFact<Var> fact) {
+        return fact.stream()
+                .map(Var::getName)
+                .collect(Collectors.toSet());
+    }
+}
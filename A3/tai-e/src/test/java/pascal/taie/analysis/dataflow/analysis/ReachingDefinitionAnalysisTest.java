@@ -0,0 +1,153 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import org.junit.Test;
+import pascal.taie.analysis.MethodBuilder;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+public class ReachingDefinitionAnalysisTest {
+
+    /**
+     * <pre>
+     * 0: zero = 0
+     * 1: x = 1
+     * 2: if (p > zero) goto 4
+     * 3: x = 2
+     * 4: y = x
+     * 5: return y
+     * </pre>
+     */
+    private static IR buildBranch() {
+        MethodBuilder builder = new MethodBuilder("branch");
+        Var p = builder.newParam("p");
+        Var zero = builder.newVar("zero");
+        Var x = builder.newVar("x");
+        Var y = builder.newVar("y");
+        builder.add(new AssignLiteral(zero, IntLiteral.get(0)));
+        builder.add(new AssignLiteral(x, IntLiteral.get(1)));
+        If ifStmt = builder.add(new If(
+                new ConditionExp(ConditionExp.Op.GT, p, zero)));
+        builder.add(new AssignLiteral(x, IntLiteral.get(2)));
+        ifStmt.setTarget(builder.add(new Copy(y, x)));
+        builder.add(new Return(y));
+        return builder.build();
+    }
+
+    private static DataflowResult<Stmt, SetFact<Stmt>> analyze(
+            IR ir, Object... options) {
+        return new ReachingDefinitionAnalysis(new AnalysisConfig(
+                ReachingDefinitionAnalysis.ID, options)).analyze(ir);
+    }
+
+    private static Set<Integer> indexes(SetFact<Stmt> fact) {
+        return fact.stream()
+                .map(Stmt::getIndex)
+                .collect(Collectors.toSet());
+    }
+
+    @Test
+    public void testBranch() {
+        for (String kind : List.of("bitset", "hybrid", "persistent")) {
+            IR ir = buildBranch();
+            CFG<Stmt> cfg = MethodBuilder.cfgOf(ir);
+            DataflowResult<Stmt, SetFact<Stmt>> result = analyze(ir, "fact", kind);
+            assertEquals(kind, Set.of(), indexes(result.getOutFact(cfg.getEntry())));
+            assertEquals(kind, Set.of(0, 1), indexes(result.getInFact(ir.getStmt(2))));
+            // x = 2 kills x = 1
+            assertEquals(kind, Set.of(0, 3), indexes(result.getOutFact(ir.getStmt(3))));
+            assertEquals(kind, Set.of(0, 1, 3), indexes(result.getInFact(ir.getStmt(4))));
+            assertEquals(kind, Set.of(0, 1, 3, 4), indexes(result.getInFact(cfg.getExit())));
+        }
+    }
+
+    /**
+     * In the loop, i = j kills i = 0 and k = 2 kills the k = 2 before
+     * the loop, while both definitions of i and of k reach the head.
+     */
+    @Test
+    public void testLoop() {
+        IR ir = MethodBuilder.blockLoop();
+        DataflowResult<Stmt, SetFact<Stmt>> result = analyze(ir);
+        assertEquals(Set.of(0, 1, 3, 4, 5), indexes(result.getInFact(ir.getStmt(2))));
+        assertEquals(Set.of(3, 4, 5), indexes(result.getOutFact(ir.getStmt(5))));
+        BlockDataflowAnalysisTest.assertSameResult(MethodBuilder.cfgOf(ir),
+                result, analyze(ir, "node", "block"));
+    }
+
+    /**
+     * The definitions of an IR are cached in it and shared by the
+     * threads which analyze it.
+     */
+    @Test
+    public void testConcurrentAnalyses() {
+        IR expectedIR = MethodBuilder.blockLoop();
+        DataflowResult<Stmt, SetFact<Stmt>> expected = analyze(expectedIR);
+        IR ir = MethodBuilder.blockLoop();
+        IntStream.range(0, 16).parallel()
+                .mapToObj(i -> analyze(ir))
+                .forEach(result -> {
+                    for (Stmt stmt : ir) {
+                        assertEquals(indexes(expected.getInFact(
+                                        expectedIR.getStmt(stmt.getIndex()))),
+                                indexes(result.getInFact(stmt)));
+                    }
+                });
+    }
+
+    /**
+     * The definitions killed by a definition depend on the CFG, thus
+     * the analysis must be bound to the CFG before transferring.
+     */
+    @Test
+    public void testUnboundTransferRejected() {
+        IR ir = buildBranch();
+        ReachingDefinitionAnalysis analysis = new ReachingDefinitionAnalysis(
+                new AnalysisConfig(ReachingDefinitionAnalysis.ID));
+        CFG<Stmt> cfg = MethodBuilder.cfgOf(ir);
+        assertThrows(UnsupportedOperationException.class,
+                () -> analysis.transferNode(ir.getStmt(1),
+                        analysis.newInitialFact(cfg), analysis.newInitialFact(cfg)));
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis.availexp;
+
+import org.junit.Test;
+import pascal.taie.analysis.MethodBuilder;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AvailableExpressionAnalysisTest {
+
+    private static final List<String> FACT_KINDS =
+            List.of("bitset", "hybrid", "persistent");
+
+    /**
+     * Builds a method whose loop computes {@code a + b}, which is thus
+     * available along the back edge but not on entry:
+     * <pre>
+     * 0: if (a >= b) goto 3
+     * 1: y = a + b
+     * 2: goto 0
+     * 3: z = a + b
+     * 4: return z
+     * </pre>
+     */
+    private static IR buildLoop() {
+        MethodBuilder builder = new MethodBuilder("loop");
+        Var a = builder.newParam("a");
+        Var b = builder.newParam("b");
+        Var y = builder.newVar("y");
+        Var z = builder.newVar("z");
+        If head = builder.add(new If(new ConditionExp(ConditionExp.Op.GE, a, b)));
+        builder.add(new Binary(y, new ArithmeticExp(ArithmeticExp.Op.ADD, a, b)));
+        builder.add(new Goto()).setTarget(head);
+        head.setTarget(builder.add(new Binary(z,
+                new ArithmeticExp(ArithmeticExp.Op.ADD, a, b))));
+        builder.add(new Return(z));
+        return builder.build();
+    }
+
+    /**
+     * <pre>
+     * 0: x = a + b
+     * 1: y = a * b
+     * 2: a = 1
+     * 3: b = b * b
+     * 4: return x
+     * </pre>
+     */
+    private static IR buildKills() {
+        MethodBuilder builder = new MethodBuilder("kills");
+        Var a = builder.newParam("a");
+        Var b = builder.newParam("b");
+        Var x = builder.newVar("x");
+        Var y = builder.newVar("y");
+        builder.add(new Binary(x, new ArithmeticExp(ArithmeticExp.Op.ADD, a, b)));
+        builder.add(new Binary(y, new ArithmeticExp(ArithmeticExp.Op.MUL, a, b)));
+        builder.add(new AssignLiteral(a, IntLiteral.get(1)));
+        builder.add(new Binary(b, new ArithmeticExp(ArithmeticExp.Op.MUL, b, b)));
+        builder.add(new Return(x));
+        return builder.build();
+    }
+
+    private static DataflowResult<Stmt, SetFact<NumberedExp>> analyze(
+            IR ir, String kind) {
+        return new AvailableExpressionAnalysis(new AnalysisConfig(
+                AvailableExpressionAnalysis.ID, "fact", kind)).analyze(ir);
+    }
+
+    private static NumberedExp expOf(IR ir, int index) {
+        return ExpNumbering.of(ir).getExpsOf(ir.getStmt(index)).get(0);
+    }
+
+    @Test
+    public void testNotAvailableOnEntry() {
+        for (String kind : FACT_KINDS) {
+            IR ir = buildLoop();
+            CFG<Stmt> cfg = MethodBuilder.cfgOf(ir);
+            DataflowResult<Stmt, SetFact<NumberedExp>> result = analyze(ir, kind);
+            NumberedExp sum = expOf(ir, 1);
+            assertEquals(sum, expOf(ir, 3));
+            assertEquals(kind, 0, result.getInFact(cfg.getEntry()).size());
+            assertEquals(kind, 0, result.getOutFact(cfg.getEntry()).size());
+            assertFalse(kind, result.getInFact(ir.getStmt(0)).contains(sum));
+            assertTrue(kind, result.getOutFact(ir.getStmt(1)).contains(sum));
+            assertTrue(kind, result.getInFact(ir.getStmt(2)).contains(sum));
+            assertFalse(kind, result.getInFact(ir.getStmt(3)).contains(sum));
+            assertTrue(kind, result.getInFact(cfg.getExit()).contains(sum));
+        }
+    }
+
+    /**
+     * Redefining an operand kills an expression, and an expression which
+     * uses the variable its statement defines ({@code b * b} in
+     * {@code b = b * b}) is not generated.
+     */
+    @Test
+    public void testKills() {
+        for (String kind : FACT_KINDS) {
+            IR ir = buildKills();
+            DataflowResult<Stmt, SetFact<NumberedExp>> result = analyze(ir, kind);
+            NumberedExp sum = expOf(ir, 0);
+            NumberedExp product = expOf(ir, 1);
+            NumberedExp square = expOf(ir, 3);
+            SetFact<NumberedExp> out1 = result.getOutFact(ir.getStmt(1));
+            assertTrue(kind, out1.contains(sum));
+            assertTrue(kind, out1.contains(product));
+            assertEquals(kind, 0, result.getOutFact(ir.getStmt(2)).size());
+            assertFalse(kind, result.getOutFact(ir.getStmt(3)).contains(square));
+        }
+    }
+}
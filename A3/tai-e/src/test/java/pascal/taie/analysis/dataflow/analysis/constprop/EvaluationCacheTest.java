@@ -0,0 +1,97 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import org.junit.Test;
+import pascal.taie.analysis.MethodBuilder;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.BinaryExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Stmt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class EvaluationCacheTest {
+
+    private static DataflowResult<Stmt, CPFact> analyze(IR ir, boolean evalCache) {
+        return new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID,
+                "edge-refine", false, "solver", "priority",
+                "eval-cache", evalCache)).analyze(ir);
+    }
+
+    @Test
+    public void testHitsAndMisses() {
+        IR ir = MethodBuilder.invariantLoop();
+        Stmt sum = ir.getStmt(3);
+        BinaryExp exp = ((Binary) sum).getRValue();
+        Var k = ir.getVar(3);
+        EvaluationCache cache = EvaluationCache.of(ir);
+        CPFact in = new CPFact();
+        in.update(k, Value.makeConstant(2));
+        assertEquals(Value.makeConstant(4), cache.evaluate(sum, exp, in));
+        assertEquals(Value.makeConstant(4), cache.evaluate(sum, exp, in.copy()));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        // a changed operand invalidates the entry
+        in.update(k, Value.getNAC());
+        assertEquals(Value.getNAC(), cache.evaluate(sum, exp, in));
+        assertEquals(2, cache.getMisses());
+        // so does another expression of the statement
+        BinaryExp other = new ArithmeticExp(ArithmeticExp.Op.MUL, k, k);
+        assertEquals(Value.getNAC(), cache.evaluate(sum, other, in));
+        assertEquals(1, cache.getHits());
+        assertEquals(3, cache.getMisses());
+    }
+
+    @Test
+    public void testCachedInIR() {
+        IR ir = MethodBuilder.invariantLoop();
+        assertSame(EvaluationCache.of(ir), EvaluationCache.of(ir));
+        assertSame(EvaluationCache.of(ir), ir.getResult(EvaluationCache.ID));
+    }
+
+    /**
+     * The loop is solved with the same result as without the cache.
+     * Each transfer of a binary statement either hits or misses;
+     * {@code k + k} misses once, and {@code i + k} once per value of i.
+     */
+    @Test
+    public void testLoop() {
+        IR ir = MethodBuilder.invariantLoop();
+        DataflowResult<Stmt, CPFact> expected = analyze(ir, false);
+        DataflowResult<Stmt, CPFact> result = analyze(ir, true);
+        for (Stmt stmt : ir) {
+            assertEquals(expected.getOutFact(stmt), result.getOutFact(stmt));
+        }
+        EvaluationCache cache = EvaluationCache.of(ir);
+        assertEquals(3, cache.getMisses());
+        assertTrue(cache.getHits() > 0);
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import org.junit.Test;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.type.PrimitiveType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PackedCPFactTest {
+
+    private static final int N = 64;
+
+    private final List<Var> vars = new ArrayList<>();
+
+    public PackedCPFactTest() {
+        for (int i = 0; i < N; ++i) {
+            vars.add(new Var(null, "v" + i, PrimitiveType.INT, i));
+        }
+    }
+
+    private PackedCPFact newFact() {
+        return new PackedCPFact(vars::get);
+    }
+
+    private static Value randomValue(Random random) {
+        return switch (random.nextInt(4)) {
+            case 0 -> Value.getUndef();
+            case 1 -> Value.getNAC();
+            default -> Value.makeConstant(random.nextInt(5) - 2);
+        };
+    }
+
+    private void assertSameContent(CPFact expected, PackedCPFact actual) {
+        for (Var var : vars) {
+            assertEquals(var.getName(), expected.get(var), actual.get(var));
+        }
+        assertEquals(expected.keySet(), actual.keySet());
+        assertEquals(expected, actual);
+        assertEquals(actual, expected);
+        assertEquals(expected.hashCode(), actual.hashCode());
+    }
+
+    /**
+     * Updates and removes random variables of a packed fact and a plain
+     * {@link CPFact}, so that the table grows, wraps around and removes
+     * entries in the middle of clusters, and checks that both facts
+     * always have the same content.
+     */
+    @Test
+    public void testRandomUpdates() {
+        Random random = new Random(1);
+        for (int round = 0; round < 50; ++round) {
+            CPFact expected = new CPFact();
+            PackedCPFact actual = newFact();
+            for (int op = 0; op < 200; ++op) {
+                Var var = vars.get(random.nextInt(N));
+                if (random.nextInt(3) == 0) {
+                    assertEquals(expected.remove(var), actual.remove(var));
+                } else {
+                    Value value = randomValue(random);
+                    assertEquals(expected.update(var, value),
+                            actual.update(var, value));
+                }
+                assertSameContent(expected, actual);
+            }
+        }
+    }
+
+    @Test
+    public void testRemoveAll() {
+        PackedCPFact fact = newFact();
+        for (Var var : vars) {
+            fact.update(var, Value.makeConstant(var.getIndex()));
+        }
+        // remove every other variable, then check that the others can
+        // still be found after the entries have been shifted back
+        for (int i = 0; i < N; i += 2) {
+            assertEquals(Value.makeConstant(i), fact.remove(vars.get(i)));
+        }
+        for (Var var : vars) {
+            assertEquals(var.getIndex() % 2 == 0 ? Value.getUndef()
+                    : Value.makeConstant(var.getIndex()), fact.get(var));
+        }
+        for (int i = 1; i < N; i += 2) {
+            assertTrue(fact.update(vars.get(i), Value.getUndef()));
+        }
+        assertNull(fact.remove(vars.get(1)));
+        assertEquals(new CPFact(), fact);
+        assertTrue(fact.keySet().isEmpty());
+    }
+
+    @Test
+    public void testCopyFromAndMeet() {
+        PackedCPFact a = newFact();
+        a.update(vars.get(0), Value.makeConstant(1));
+        a.update(vars.get(1), Value.makeConstant(2));
+        PackedCPFact b = newFact();
+        b.update(vars.get(1), Value.makeConstant(3));
+        b.update(vars.get(2), Value.getNAC());
+        PackedCPFact c = a.copy();
+        assertTrue(c.meet(b));
+        assertEquals(Value.makeConstant(1), c.get(vars.get(0)));
+        assertEquals(Value.getNAC(), c.get(vars.get(1)));
+        assertEquals(Value.getNAC(), c.get(vars.get(2)));
+        assertFalse(c.meet(b));
+        assertEquals(Value.makeConstant(2), a.get(vars.get(1)));
+        assertTrue(b.copyFrom(a, vars.get(0)));
+        assertEquals(Value.getUndef(), b.get(vars.get(0)));
+        assertEquals(Value.makeConstant(2), b.get(vars.get(1)));
+    }
+
+    @Test
+    public void testMixedCopyFrom() {
+        PackedCPFact packed = newFact();
+        packed.update(vars.get(3), Value.makeConstant(7));
+        packed.update(vars.get(40), Value.getNAC());
+        CPFact plain = new CPFact();
+        assertTrue(plain.copyFrom(packed));
+        assertEquals(packed, plain);
+        assertFalse(plain.copyFrom(packed));
+        PackedCPFact other = newFact();
+        plain.update(vars.get(5), Value.makeConstant(1));
+        assertTrue(other.copyFrom(plain));
+        assertEquals(plain, other);
+        assertEquals(other, plain);
+        assertFalse(packed.equals(plain));
+        assertFalse(plain.equals(packed));
+    }
+
+    @Test
+    public void testToString() {
+        PackedCPFact fact = newFact();
+        fact.update(vars.get(10), Value.makeConstant(1));
+        fact.update(vars.get(2), Value.getNAC());
+        CPFact plain = new CPFact();
+        plain.copyFrom(fact);
+        assertEquals("{v10=1, v2=NAC}", fact.toString());
+        assertEquals(plain.toString(), fact.toString());
+    }
+}
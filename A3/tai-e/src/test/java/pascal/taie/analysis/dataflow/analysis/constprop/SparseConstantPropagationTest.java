@@ -0,0 +1,148 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import org.junit.Test;
+import pascal.taie.analysis.MethodBuilder;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SparseConstantPropagationTest {
+
+    private static DataflowResult<Stmt, CPFact> analyze(IR ir, boolean sparse) {
+        return new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID,
+                "edge-refine", false, "sparse", sparse)).analyze(ir);
+    }
+
+    private static void assertSameAsDense(IR ir) {
+        DataflowResult<Stmt, CPFact> dense = analyze(ir, false);
+        DataflowResult<Stmt, CPFact> sparse = analyze(ir, true);
+        assertTrue(sparse instanceof SparseCPResult);
+        for (Stmt node : MethodBuilder.cfgOf(ir)) {
+            assertEquals(node.toString(), dense.getInFact(node), sparse.getInFact(node));
+            assertEquals(node.toString(), dense.getOutFact(node), sparse.getOutFact(node));
+        }
+    }
+
+    /**
+     * <pre>
+     * 0: zero = 0
+     * 1: if (p > zero) goto 4
+     * 2: x = 1
+     * 3: goto 5
+     * 4: x = 2
+     * 5: z = 1
+     * 6: y = x + z
+     * 7: return y
+     * </pre>
+     */
+    private static IR buildMerge() {
+        MethodBuilder builder = new MethodBuilder("merge");
+        Var p = builder.newParam("p");
+        Var x = builder.newVar("x");
+        Var y = builder.newVar("y");
+        Var z = builder.newVar("z");
+        Var zero = builder.newVar("zero");
+        builder.add(new AssignLiteral(zero, IntLiteral.get(0)));
+        If ifStmt = builder.add(new If(
+                new ConditionExp(ConditionExp.Op.GT, p, zero)));
+        builder.add(new AssignLiteral(x, IntLiteral.get(1)));
+        Goto gotoStmt = builder.add(new Goto());
+        ifStmt.setTarget(builder.add(new AssignLiteral(x, IntLiteral.get(2))));
+        gotoStmt.setTarget(builder.add(new AssignLiteral(z, IntLiteral.get(1))));
+        builder.add(new Binary(y, new ArithmeticExp(ArithmeticExp.Op.ADD, x, z)));
+        builder.add(new Return(y));
+        return builder.build();
+    }
+
+    /**
+     * <pre>
+     * 0: i = 0
+     * 1: k = 2
+     * 2: if (i >= n) goto 7
+     * 3: j = i + k
+     * 4: k = 2
+     * 5: i = j
+     * 6: goto 2
+     * 7: return i
+     * </pre>
+     */
+    private static IR buildLoop() {
+        MethodBuilder builder = new MethodBuilder("loop");
+        Var n = builder.newParam("n");
+        Var i = builder.newVar("i");
+        Var j = builder.newVar("j");
+        Var k = builder.newVar("k");
+        builder.add(new AssignLiteral(i, IntLiteral.get(0)));
+        builder.add(new AssignLiteral(k, IntLiteral.get(2)));
+        If head = builder.add(new If(
+                new ConditionExp(ConditionExp.Op.GE, i, n)));
+        builder.add(new Binary(j, new ArithmeticExp(ArithmeticExp.Op.ADD, i, k)));
+        builder.add(new AssignLiteral(k, IntLiteral.get(2)));
+        builder.add(new Copy(i, j));
+        builder.add(new Goto()).setTarget(head);
+        head.setTarget(builder.add(new Return(i)));
+        return builder.build();
+    }
+
+    @Test
+    public void testMerge() {
+        IR ir = buildMerge();
+        assertSameAsDense(ir);
+        CPFact out = analyze(ir, true).getOutFact(ir.getStmt(6));
+        assertEquals(Value.getNAC(), out.get(ir.getVar(1)));
+        assertEquals(Value.getNAC(), out.get(ir.getVar(2)));
+        assertEquals(Value.makeConstant(1), out.get(ir.getVar(3)));
+    }
+
+    @Test
+    public void testLoop() {
+        IR ir = buildLoop();
+        assertSameAsDense(ir);
+        CPFact in = analyze(ir, true).getInFact(ir.getStmt(3));
+        assertEquals(Value.getNAC(), in.get(ir.getVar(1)));
+        assertEquals(Value.makeConstant(2), in.get(ir.getVar(3)));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testReadOnly() {
+        IR ir = buildLoop();
+        analyze(ir, true).setOutFact(ir.getStmt(0), new CPFact());
+    }
+}
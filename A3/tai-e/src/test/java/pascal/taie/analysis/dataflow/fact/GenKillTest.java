@@ -0,0 +1,128 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import org.junit.Test;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.type.PrimitiveType;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Checks gen/kill transfer functions against the set formula
+ * {@code gen ∪ (in - kill)} on random sets spanning several words.
+ */
+public class GenKillTest {
+
+    private static final int N = 200;
+
+    private static final int ROUNDS = 200;
+
+    private final List<Var> vars = new ArrayList<>();
+
+    private final Random random = new Random(42);
+
+    public GenKillTest() {
+        for (int i = 0; i < N; ++i) {
+            vars.add(new Var(null, "v" + i, PrimitiveType.INT, i));
+        }
+    }
+
+    /**
+     * @return a random set whose elements are mostly clustered in one
+     * word, as gen and kill sets typically are, or scattered.
+     */
+    private BitSet randomSet() {
+        BitSet set = new BitSet();
+        int size = random.nextInt(8);
+        int base = random.nextBoolean() ? random.nextInt(N - 64) : -1;
+        for (int i = 0; i < size; ++i) {
+            set.set(base >= 0 ? base + random.nextInt(64) : random.nextInt(N));
+        }
+        return set;
+    }
+
+    private static BitSet apply(BitSet gen, BitSet kill, BitSet in) {
+        BitSet out = (BitSet) in.clone();
+        out.andNot(kill);
+        out.or(gen);
+        return out;
+    }
+
+    private BitSetFact<Var> fact(BitSet bits) {
+        BitSetFact<Var> fact = new BitSetFact<>(vars::get, N);
+        bits.stream().forEach(i -> fact.add(vars.get(i)));
+        return fact;
+    }
+
+    @Test
+    public void testTransfer() {
+        for (int r = 0; r < ROUNDS; ++r) {
+            BitSet gen = randomSet(), kill = randomSet(), in = randomSet();
+            in.or(randomSet());
+            BitSetFact<Var> out = fact(randomSet());
+            BitSetFact<Var> expected = fact(apply(gen, kill, in));
+            boolean changed = !out.equals(expected);
+            assertEquals(changed, out.transfer(fact(in), GenKill.of(gen, kill)));
+            assertEquals(expected, out);
+            assertFalse(out.transfer(fact(in), GenKill.of(gen, kill)));
+        }
+    }
+
+    @Test
+    public void testAndThen() {
+        for (int r = 0; r < ROUNDS; ++r) {
+            BitSet gen1 = randomSet(), kill1 = randomSet();
+            BitSet gen2 = randomSet(), kill2 = randomSet();
+            GenKill composed = GenKill.of(gen1, kill1)
+                    .andThen(GenKill.of(gen2, kill2));
+            for (int i = 0; i < 4; ++i) {
+                BitSet in = randomSet();
+                BitSet expected = apply(gen2, kill2, apply(gen1, kill1, in));
+                BitSetFact<Var> out = fact(new BitSet());
+                out.transfer(fact(in), composed);
+                assertEquals(fact(expected), out);
+            }
+        }
+    }
+
+    @Test
+    public void testIdentity() {
+        GenKill identity = GenKill.of(new BitSet(), new BitSet());
+        GenKill genKill = GenKill.of(BitSet.valueOf(new long[]{ 0b101 }),
+                BitSet.valueOf(new long[]{ 0, 0b11 }));
+        assertSame(genKill, identity.andThen(genKill));
+        assertSame(genKill, genKill.andThen(identity));
+        BitSetFact<Var> in = fact(BitSet.valueOf(new long[]{ 0b10, 1 }));
+        BitSetFact<Var> out = fact(new BitSet());
+        out.transfer(in, identity);
+        assertEquals(in, out);
+    }
+}
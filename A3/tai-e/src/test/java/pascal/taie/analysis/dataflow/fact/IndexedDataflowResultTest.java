@@ -0,0 +1,102 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import org.junit.Test;
+import pascal.taie.analysis.MethodBuilder;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+
+public class IndexedDataflowResultTest {
+
+    /**
+     * Sets the facts of each node of given CFG to its name and index.
+     */
+    private static void fill(CFG<Stmt> cfg, DataflowResult<Stmt, String> result) {
+        for (Stmt node : cfg) {
+            result.setInFact(node, "in " + node.getIndex() + ": " + node);
+            result.setOutFact(node, "out " + node.getIndex() + ": " + node);
+        }
+    }
+
+    @Test
+    public void testEntryAndExitSlots() {
+        IR ir = MethodBuilder.straightLine();
+        CFG<Stmt> cfg = MethodBuilder.cfgOf(ir);
+        int size = ir.getStmts().size();
+        IndexedDataflowResult<String> result = new IndexedDataflowResult<>(cfg);
+        fill(cfg, result);
+        assertEquals(size + 2, result.getNumberOfSlots());
+        assertEquals(result.getInFact(cfg.getEntry()), result.getInFact(size));
+        assertEquals(result.getOutFact(cfg.getEntry()), result.getOutFact(size));
+        assertEquals(result.getInFact(cfg.getExit()), result.getInFact(size + 1));
+        assertEquals(result.getOutFact(cfg.getExit()), result.getOutFact(size + 1));
+        result.setInFact(size + 1, "exit");
+        assertEquals("exit", result.getInFact(cfg.getExit()));
+    }
+
+    /**
+     * Statements of another IR are not in the result, although they
+     * have the same indexes as the statements of the CFG.
+     */
+    @Test
+    public void testForeignStatements() {
+        CFG<Stmt> cfg = MethodBuilder.cfgOf(MethodBuilder.straightLine());
+        CFG<Stmt> foreign = MethodBuilder.cfgOf(MethodBuilder.straightLine());
+        IndexedDataflowResult<String> result = new IndexedDataflowResult<>(cfg);
+        fill(cfg, result);
+        for (Stmt node : foreign) {
+            assertNull(node.toString(), result.getInFact(node));
+            assertNull(node.toString(), result.getOutFact(node));
+            assertThrows(IllegalArgumentException.class,
+                    () -> result.setInFact(node, "foreign"));
+            assertThrows(IllegalArgumentException.class,
+                    () -> result.setOutFact(node, "foreign"));
+        }
+    }
+
+    @Test
+    public void testSameAsMapResult() {
+        IR ir = MethodBuilder.blockLoop();
+        CFG<Stmt> cfg = MethodBuilder.cfgOf(ir);
+        CFG<Stmt> foreign = MethodBuilder.cfgOf(MethodBuilder.blockLoop());
+        DataflowResult<Stmt, String> expected = new DataflowResult<>();
+        IndexedDataflowResult<String> result = new IndexedDataflowResult<>(cfg);
+        fill(cfg, expected);
+        fill(cfg, result);
+        for (CFG<Stmt> c : List.of(cfg, foreign)) {
+            for (Stmt node : c) {
+                assertEquals(expected.getInFact(node), result.getInFact(node));
+                assertEquals(expected.getOutFact(node), result.getOutFact(node));
+                assertEquals(expected.getResult(node), result.getResult(node));
+            }
+        }
+    }
+}
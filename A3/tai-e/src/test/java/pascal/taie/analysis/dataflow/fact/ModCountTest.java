@@ -0,0 +1,301 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import org.junit.Test;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.PackedCPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.PersistentCPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.type.PrimitiveType;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that each kind of fact bumps its modification count exactly
+ * when an operation changes its content, which the solvers rely on to
+ * detect changes (see {@link SetFact#getModCount()}).
+ */
+public class ModCountTest {
+
+    private static final int N = 100;
+
+    private final List<Var> vars = new ArrayList<>();
+
+    public ModCountTest() {
+        for (int i = 0; i < N; ++i) {
+            vars.add(new Var(null, "v" + i, PrimitiveType.INT, i));
+        }
+    }
+
+    private List<Supplier<SetFact<Var>>> setKinds() {
+        return List.of(SetFact::new,
+                () -> new BitSetFact<>(vars::get, N),
+                PersistentSetFact::new);
+    }
+
+    private SetFact<Var> setOf(Supplier<SetFact<Var>> kind, int... indexes) {
+        SetFact<Var> fact = kind.get();
+        for (int i : indexes) {
+            fact.add(vars.get(i));
+        }
+        return fact;
+    }
+
+    /**
+     * Applies given operation to given fact, and checks that it changes
+     * the content as expected, and that its result (if any) and the
+     * modification count reflect whether the content changed.
+     */
+    private static <E> void assertSetOp(String message, boolean expected,
+                                        SetFact<E> fact,
+                                        Function<SetFact<E>, Boolean> op) {
+        Set<E> before = fact.stream().collect(Collectors.toSet());
+        int modCount = fact.getModCount();
+        Boolean result = op.apply(fact);
+        boolean changed = !before.equals(fact.stream().collect(Collectors.toSet()));
+        assertEquals(message + ": content", expected, changed);
+        if (result != null) {
+            assertEquals(message + ": result", changed, result);
+        }
+        assertEquals(message + ": mod count", changed, fact.getModCount() != modCount);
+    }
+
+    @Test
+    public void testSetFacts() {
+        for (Supplier<SetFact<Var>> kind : setKinds()) {
+            for (Supplier<SetFact<Var>> otherKind : setKinds()) {
+                SetFact<Var> fact = kind.get();
+                String m = fact.getClass().getSimpleName() + " with "
+                        + otherKind.get().getClass().getSimpleName();
+                Var v1 = vars.get(1), v70 = vars.get(70);
+                assertSetOp(m + " add", true, fact, f -> f.add(v1));
+                assertSetOp(m + " add", false, fact, f -> f.add(v1));
+                assertSetOp(m + " add", true, fact, f -> f.add(v70));
+                assertSetOp(m + " remove", false, fact, f -> f.remove(vars.get(5)));
+                assertSetOp(m + " remove", true, fact, f -> f.remove(v70));
+                assertSetOp(m + " union", false, fact,
+                        f -> f.union(setOf(otherKind, 1)));
+                assertSetOp(m + " union", true, fact,
+                        f -> f.union(setOf(otherKind, 2, 99)));
+                assertSetOp(m + " intersect", false, fact,
+                        f -> f.intersect(setOf(otherKind, 1, 2, 3, 99)));
+                assertSetOp(m + " intersect", true, fact,
+                        f -> f.intersect(setOf(otherKind, 1, 99)));
+                assertSetOp(m + " removeAll", false, fact,
+                        f -> f.removeAll(setOf(otherKind, 5)));
+                assertSetOp(m + " removeAll", true, fact,
+                        f -> f.removeAll(setOf(otherKind, 99)));
+                assertSetOp(m + " removeIf", false, fact,
+                        f -> f.removeIf(v -> v.getIndex() == 7));
+                assertSetOp(m + " removeIf", true, fact,
+                        f -> f.removeIf(v -> v == v1));
+                assertSetOp(m + " set", false, fact, f -> {
+                    f.set(setOf(otherKind));
+                    return null;
+                });
+                assertSetOp(m + " set", true, fact, f -> {
+                    f.set(setOf(otherKind, 3, 64));
+                    return null;
+                });
+                assertSetOp(m + " set", false, fact, f -> {
+                    f.set(setOf(otherKind, 64, 3));
+                    return null;
+                });
+                assertSetOp(m + " clear", true, fact, f -> {
+                    f.clear();
+                    return null;
+                });
+                assertSetOp(m + " clear", false, fact, f -> {
+                    f.clear();
+                    return null;
+                });
+            }
+        }
+    }
+
+    @Test
+    public void testBitSetTransferAndFill() {
+        BitSetFact<Var> fact = new BitSetFact<>(vars::get, N);
+        BitSet gen = new BitSet();
+        gen.set(65);
+        BitSet kill = new BitSet();
+        kill.set(1);
+        GenKill genKill = GenKill.of(gen, kill);
+        BitSetFact<Var> source = new BitSetFact<>(vars::get, N);
+        source.add(vars.get(1));
+        source.add(vars.get(2));
+        assertSetOp("transfer", true, fact, f -> fact.transfer(source, genKill));
+        assertSetOp("transfer", false, fact, f -> fact.transfer(source, genKill));
+        assertSetOp("fill", true, fact, f -> {
+            fact.fill(N);
+            return null;
+        });
+        assertSetOp("fill", false, fact, f -> {
+            fact.fill(70);
+            return null;
+        });
+    }
+
+    private List<Supplier<MapFact<Var, Value>>> mapKinds() {
+        return List.of(() -> new MapFact<>(Map.of()),
+                PersistentMapFact::new,
+                CPFact::new,
+                () -> new PackedCPFact(vars::get),
+                PersistentCPFact::new);
+    }
+
+    private MapFact<Var, Value> mapOf(Supplier<MapFact<Var, Value>> kind,
+                                      Object... entries) {
+        MapFact<Var, Value> fact = kind.get();
+        for (int i = 0; i < entries.length; i += 2) {
+            fact.update(vars.get((Integer) entries[i]), (Value) entries[i + 1]);
+        }
+        return fact;
+    }
+
+    /**
+     * Map counterpart of {@link #assertSetOp}.
+     */
+    private static <K, V> void assertMapOp(String message, boolean expected,
+                                           MapFact<K, V> fact,
+                                           Function<MapFact<K, V>, Boolean> op) {
+        Map<K, V> before = snapshot(fact);
+        int modCount = fact.getModCount();
+        Boolean result = op.apply(fact);
+        boolean changed = !before.equals(snapshot(fact));
+        assertEquals(message + ": content", expected, changed);
+        if (result != null) {
+            assertEquals(message + ": result", changed, result);
+        }
+        assertEquals(message + ": mod count", changed, fact.getModCount() != modCount);
+    }
+
+    private static <K, V> Map<K, V> snapshot(MapFact<K, V> fact) {
+        return fact.entries().collect(Collectors.toMap(
+                Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    @Test
+    public void testMapFacts() {
+        Value one = Value.makeConstant(1);
+        Value two = Value.makeConstant(2);
+        Value nac = Value.getNAC();
+        for (Supplier<MapFact<Var, Value>> kind : mapKinds()) {
+            for (Supplier<MapFact<Var, Value>> otherKind : mapKinds()) {
+                MapFact<Var, Value> fact = kind.get();
+                String m = fact.getClass().getSimpleName() + " with "
+                        + otherKind.get().getClass().getSimpleName();
+                Var x = vars.get(1), y = vars.get(2);
+                assertMapOp(m + " update", true, fact, f -> f.update(x, one));
+                assertMapOp(m + " update", false, fact, f -> f.update(x, one));
+                assertMapOp(m + " update", true, fact, f -> f.update(x, two));
+                assertMapOp(m + " update", true, fact, f -> f.update(y, nac));
+                assertMapOp(m + " remove", false, fact, f -> {
+                    f.remove(vars.get(5));
+                    return null;
+                });
+                assertMapOp(m + " remove", true, fact, f -> {
+                    f.remove(y);
+                    return null;
+                });
+                assertMapOp(m + " copyFrom", false, fact,
+                        f -> f.copyFrom(mapOf(otherKind)));
+                assertMapOp(m + " copyFrom", false, fact,
+                        f -> f.copyFrom(mapOf(otherKind, 1, two)));
+                assertMapOp(m + " copyFrom", true, fact,
+                        f -> f.copyFrom(mapOf(otherKind, 1, two, 70, nac)));
+                assertMapOp(m + " clear", true, fact, f -> {
+                    f.clear();
+                    return null;
+                });
+                assertMapOp(m + " clear", false, fact, f -> {
+                    f.clear();
+                    return null;
+                });
+            }
+        }
+    }
+
+    private List<Supplier<CPFact>> cpKinds() {
+        return List.of(CPFact::new,
+                () -> new PackedCPFact(vars::get),
+                PersistentCPFact::new);
+    }
+
+    /**
+     * CPFacts represent UNDEF by absence, so updating a variable to UNDEF
+     * removes it, and copying except a variable keeps its value.
+     */
+    @Test
+    public void testCPFacts() {
+        Value one = Value.makeConstant(1);
+        Value nac = Value.getNAC();
+        Value undef = Value.getUndef();
+        for (Supplier<CPFact> kind : cpKinds()) {
+            for (Supplier<CPFact> otherKind : cpKinds()) {
+                CPFact fact = kind.get();
+                String m = fact.getClass().getSimpleName() + " with "
+                        + otherKind.get().getClass().getSimpleName();
+                Var x = vars.get(1), y = vars.get(2);
+                assertMapOp(m + " update", false, fact, f -> f.update(x, undef));
+                assertMapOp(m + " update", true, fact, f -> f.update(x, one));
+                assertMapOp(m + " update", true, fact, f -> f.update(x, undef));
+                CPFact other = otherKind.get();
+                other.update(x, nac);
+                other.update(y, one);
+                assertMapOp(m + " copyFrom", true, fact,
+                        f -> fact.copyFrom(other, x));
+                assertMapOp(m + " copyFrom", false, fact,
+                        f -> fact.copyFrom(other, x));
+                assertMapOp(m + " copyFrom", true, fact,
+                        f -> fact.copyFrom(other, null));
+                assertMapOp(m + " copyFrom", false, fact,
+                        f -> fact.copyFrom(other, y));
+            }
+        }
+    }
+
+    @Test
+    public void testPackedCPMeet() {
+        PackedCPFact fact = new PackedCPFact(vars::get);
+        PackedCPFact other = new PackedCPFact(vars::get);
+        other.update(vars.get(1), Value.makeConstant(1));
+        assertMapOp("meet", true, fact, f -> fact.meet(other));
+        assertMapOp("meet", false, fact, f -> fact.meet(other));
+        other.update(vars.get(1), Value.makeConstant(2));
+        assertMapOp("meet", true, fact, f -> fact.meet(other));
+        assertMapOp("meet", false, fact, f -> fact.meet(other));
+        assertEquals(Value.getNAC(), fact.get(vars.get(1)));
+    }
+}
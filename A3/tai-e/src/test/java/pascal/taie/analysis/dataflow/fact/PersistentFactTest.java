@@ -0,0 +1,124 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import org.junit.Test;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.PackedCPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.PersistentCPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.type.PrimitiveType;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PersistentFactTest {
+
+    @Test
+    public void testSetFactCopiesAreIndependent() {
+        PersistentSetFact<String> fact = new PersistentSetFact<>();
+        fact.add("a");
+        PersistentSetFact<String> copy = fact.copy();
+        assertTrue(copy.add("b"));
+        assertFalse(fact.contains("b"));
+        assertTrue(copy.remove("a"));
+        assertTrue(fact.contains("a"));
+    }
+
+    @Test
+    public void testMixedSetFacts() {
+        PersistentSetFact<String> persistent = new PersistentSetFact<>();
+        persistent.add("a");
+        persistent.add("b");
+        SetFact<String> plain = new SetFact<>(List.of("a"));
+        assertTrue(plain.union(persistent));
+        assertEquals(persistent, plain);
+        assertEquals(plain, persistent);
+        assertEquals(plain.hashCode(), persistent.hashCode());
+        assertTrue(plain.removeAll(persistent));
+        assertTrue(plain.isEmpty());
+        assertTrue(persistent.intersect(new SetFact<>(List.of("b", "c"))));
+        assertEquals(new SetFact<>(List.of("b")), persistent);
+        assertEquals(new SetFact<>(List.of("b")).toString(), persistent.toString());
+    }
+
+    @Test
+    public void testMixedMapFacts() {
+        PersistentMapFact<String, Integer> persistent = new PersistentMapFact<>();
+        persistent.update("a", 1);
+        persistent.update("b", 2);
+        MapFact<String, Integer> plain = new MapFact<>(Map.of());
+        assertTrue(plain.copyFrom(persistent));
+        assertEquals(persistent, plain);
+        assertEquals(plain, persistent);
+        assertEquals(plain.hashCode(), persistent.hashCode());
+        assertEquals("{a=1, b=2}", persistent.toString());
+        assertEquals(plain.toString(), persistent.toString());
+        plain.update("b", 3);
+        assertNotEquals(persistent, plain);
+        assertNotEquals(plain, persistent);
+        assertTrue(persistent.copyFrom(plain));
+        assertEquals(Integer.valueOf(3), persistent.get("b"));
+    }
+
+    @Test
+    public void testMixedCPFacts() {
+        Var x = new Var(null, "x", PrimitiveType.INT, 0);
+        Var y = new Var(null, "y", PrimitiveType.INT, 1);
+        PersistentCPFact persistent = new PersistentCPFact();
+        persistent.update(x, Value.makeConstant(1));
+        CPFact plain = new CPFact();
+        assertTrue(plain.copyFrom(persistent));
+        assertEquals(persistent, plain);
+        assertEquals(plain, persistent);
+        assertEquals(plain.hashCode(), persistent.hashCode());
+        plain.update(y, Value.getNAC());
+        assertTrue(persistent.copyFrom(plain));
+        assertEquals(plain, persistent);
+        assertTrue(persistent.update(x, Value.getUndef()));
+        assertEquals(Value.getUndef(), persistent.get(x));
+        assertNotEquals(plain, persistent);
+    }
+
+    /**
+     * Facts which keep their mappings in other forms share the empty
+     * map instead of allocating one at each construction and copy.
+     */
+    @Test
+    public void testNoBackingMap() {
+        PersistentMapFact<String, Integer> map = new PersistentMapFact<>();
+        PersistentCPFact persistent = new PersistentCPFact();
+        PackedCPFact packed = new PackedCPFact(i -> null);
+        for (MapFact<?, ?> fact : List.of(map, map.copy(), persistent,
+                persistent.copy(), packed, packed.copy())) {
+            assertSame(Map.of(), fact.map);
+        }
+    }
+}
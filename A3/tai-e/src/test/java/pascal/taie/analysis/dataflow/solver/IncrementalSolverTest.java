@@ -0,0 +1,174 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.solver;
+
+import org.junit.Test;
+import pascal.taie.analysis.MethodBuilder;
+import pascal.taie.analysis.dataflow.analysis.AbstractDataflowAnalysis;
+import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.AnalysisException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertThrows;
+
+public class IncrementalSolverTest {
+
+    /**
+     * Builds a method with a loop:
+     * <pre>
+     * 0: x = 1
+     * 1: i = 0
+     * 2: if (i >= n) goto 6
+     * 3: x = 2
+     * 4: i = i + x
+     * 5: goto 2
+     * 6: return x
+     * </pre>
+     */
+    private static IR buildLoop() {
+        MethodBuilder builder = new MethodBuilder("loop");
+        Var n = builder.newParam("n");
+        Var x = builder.newVar("x");
+        Var i = builder.newVar("i");
+        builder.add(new AssignLiteral(x, IntLiteral.get(1)));
+        builder.add(new AssignLiteral(i, IntLiteral.get(0)));
+        If head = builder.add(new If(
+                new ConditionExp(ConditionExp.Op.GE, i, n)));
+        builder.add(new AssignLiteral(x, IntLiteral.get(2)));
+        builder.add(new Binary(i, new ArithmeticExp(ArithmeticExp.Op.ADD, i, x)));
+        builder.add(new Goto()).setTarget(head);
+        head.setTarget(builder.add(new Return(x)));
+        return builder.build();
+    }
+
+    /**
+     * Retargets the back edge of the loop (5: goto 2) to the return,
+     * rebuilds the CFG, and returns the sources and the old and new
+     * targets of the changed edges.
+     */
+    private static List<Stmt> removeBackEdge(IR ir) {
+        Goto back = (Goto) ir.getStmt(5);
+        back.setTarget(ir.getStmt(6));
+        MethodBuilder.rebuildCFG(ir);
+        return List.of(back, ir.getStmt(2), ir.getStmt(6));
+    }
+
+    private static List<AbstractDataflowAnalysis<Stmt, ?>> analyses() {
+        List<AbstractDataflowAnalysis<Stmt, ?>> analyses = new ArrayList<>();
+        for (String solver : List.of("worklist", "priority")) {
+            for (String cfg : List.of("default", "compact")) {
+                analyses.add(new ConstantPropagation(new AnalysisConfig(
+                        ConstantPropagation.ID, "edge-refine", false,
+                        "solver", solver, "cfg", cfg, "stats", true)));
+                analyses.add(new LiveVariableAnalysis(new AnalysisConfig(
+                        LiveVariableAnalysis.ID, "strongly", false,
+                        "solver", solver, "cfg", cfg, "stats", true)));
+            }
+        }
+        return analyses;
+    }
+
+    private static <Fact> List<String> snapshot(
+            CFG<Stmt> cfg, DataflowResult<Stmt, Fact> result) {
+        List<String> facts = new ArrayList<>();
+        for (Stmt node : cfg) {
+            facts.add(result.getInFact(node) + " -> " + result.getOutFact(node));
+        }
+        return facts;
+    }
+
+    @Test
+    public void testSameAsFullSolve() {
+        for (AbstractDataflowAnalysis<Stmt, ?> analysis : analyses()) {
+            assertSameAsFullSolve(analysis);
+        }
+    }
+
+    private static <Fact> void assertSameAsFullSolve(
+            AbstractDataflowAnalysis<Stmt, Fact> analysis) {
+        IR ir = buildLoop();
+        CFG<Stmt> oldCFG = MethodBuilder.cfgOf(ir);
+        DataflowResult<Stmt, Fact> previous = analysis.analyze(ir);
+        List<String> before = snapshot(oldCFG, previous);
+        List<Stmt> changed = removeBackEdge(ir);
+        CFG<Stmt> cfg = MethodBuilder.cfgOf(ir);
+        DataflowResult<Stmt, Fact> incremental = analysis.analyze(ir, previous, changed);
+        DataflowResult<Stmt, Fact> full = analysis.analyze(ir);
+        List<String> after = snapshot(cfg, incremental);
+        assertEquals(snapshot(cfg, full), after);
+        // the previous result is not modified, and differs from
+        // the new one, e.g., x is NAC at 2 before the edit
+        assertEquals(before, snapshot(oldCFG, previous));
+        assertNotEquals(before, after);
+    }
+
+    @Test
+    public void testUnaffectedNodesNotTransferred() {
+        IR ir = buildLoop();
+        ConstantPropagation constprop = new ConstantPropagation(new AnalysisConfig(
+                ConstantPropagation.ID, "edge-refine", false, "stats", true));
+        DataflowResult<Stmt, ?> previous = constprop.analyze(ir);
+        // an edit of 1 which does not change its out-fact
+        // only transfers 1 itself
+        constprop.analyze(ir, cast(previous), List.of(ir.getStmt(1)));
+        SolverStats stats = ir.getResult(SolverStats.getKey(ConstantPropagation.ID));
+        assertEquals(1, stats.getTransfers());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <Fact> DataflowResult<Stmt, Fact> cast(DataflowResult<Stmt, ?> result) {
+        return (DataflowResult<Stmt, Fact>) result;
+    }
+
+    @Test
+    public void testStaleCFG() {
+        IR ir = buildLoop();
+        ConstantPropagation constprop = new ConstantPropagation(new AnalysisConfig(
+                ConstantPropagation.ID, "edge-refine", false));
+        DataflowResult<Stmt, ?> previous = constprop.analyze(ir);
+        Goto back = (Goto) ir.getStmt(5);
+        back.setTarget(ir.getStmt(6));
+        assertThrows(AnalysisException.class, () -> constprop.analyze(
+                ir, cast(previous), List.of(back, ir.getStmt(2), ir.getStmt(6))));
+    }
+}
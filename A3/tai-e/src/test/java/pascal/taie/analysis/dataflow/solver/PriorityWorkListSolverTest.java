@@ -0,0 +1,150 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import org.junit.Test;
+import pascal.taie.analysis.MethodBuilder;
+import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PriorityWorkListSolverTest {
+
+    /**
+     * Builds an acyclic method whose statements are not laid out in
+     * the order of control flow:
+     * <pre>
+     * 0: goto 3
+     * 1: y = x + x
+     * 2: goto 5
+     * 3: x = 1
+     * 4: goto 1
+     * 5: z = y + p
+     * 6: return z
+     * </pre>
+     */
+    private static IR buildShuffled() {
+        MethodBuilder builder = new MethodBuilder("shuffled");
+        Var p = builder.newParam("p");
+        Var x = builder.newVar("x");
+        Var y = builder.newVar("y");
+        Var z = builder.newVar("z");
+        Goto toAssign = builder.add(new Goto());
+        Binary useX = builder.add(new Binary(y,
+                new ArithmeticExp(ArithmeticExp.Op.ADD, x, x)));
+        Goto toSum = builder.add(new Goto());
+        toAssign.setTarget(builder.add(new AssignLiteral(x, IntLiteral.get(1))));
+        builder.add(new Goto()).setTarget(useX);
+        toSum.setTarget(builder.add(new Binary(z,
+                new ArithmeticExp(ArithmeticExp.Op.ADD, y, p))));
+        builder.add(new Return(z));
+        return builder.build();
+    }
+
+    private static ConstantPropagation constprop(String solver) {
+        return new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID,
+                "edge-refine", false, "solver", solver, "stats", true));
+    }
+
+    private static LiveVariableAnalysis livevar(String solver) {
+        return new LiveVariableAnalysis(new AnalysisConfig(LiveVariableAnalysis.ID,
+                "strongly", false, "solver", solver, "stats", true));
+    }
+
+    private static SolverStats statsOf(IR ir, String id) {
+        return ir.getResult(SolverStats.getKey(id));
+    }
+
+    private static <Fact> void assertSameResult(
+            CFG<Stmt> cfg, DataflowResult<Stmt, Fact> expected,
+            DataflowResult<Stmt, Fact> actual) {
+        for (Stmt node : cfg) {
+            assertEquals(expected.getInFact(node), actual.getInFact(node));
+            assertEquals(expected.getOutFact(node), actual.getOutFact(node));
+        }
+    }
+
+    @Test
+    public void testAcyclicForwardTransfersEachNodeOnce() {
+        IR ir = buildShuffled();
+        CFG<Stmt> cfg = MethodBuilder.cfgOf(ir);
+        DataflowResult<Stmt, CPFact> fifo = constprop("worklist").analyze(ir);
+        long fifoTransfers = statsOf(ir, ConstantPropagation.ID).getTransfers();
+        DataflowResult<Stmt, CPFact> priority = constprop("priority").analyze(ir);
+        long priorityTransfers = statsOf(ir, ConstantPropagation.ID).getTransfers();
+        assertSameResult(cfg, fifo, priority);
+        assertEquals(cfg.getNumberOfNodes(), priorityTransfers);
+        assertTrue(fifoTransfers > priorityTransfers);
+        assertEquals(1, statsOf(ir, ConstantPropagation.ID).getPasses());
+        assertEquals(0, statsOf(ir, ConstantPropagation.ID).getSavedPops());
+    }
+
+    @Test
+    public void testAcyclicBackwardTransfersEachNodeOnce() {
+        IR ir = buildShuffled();
+        CFG<Stmt> cfg = MethodBuilder.cfgOf(ir);
+        DataflowResult<Stmt, SetFact<Var>> fifo = livevar("worklist").analyze(ir);
+        DataflowResult<Stmt, SetFact<Var>> priority = livevar("priority").analyze(ir);
+        assertSameResult(cfg, fifo, priority);
+        assertEquals(cfg.getNumberOfNodes(),
+                statsOf(ir, LiveVariableAnalysis.ID).getTransfers());
+    }
+
+    @Test
+    public void testLoopSameResult() {
+        IR ir = MethodBuilder.simpleLoop();
+        CFG<Stmt> cfg = MethodBuilder.cfgOf(ir);
+        assertSameResult(cfg, constprop("worklist").analyze(ir),
+                constprop("priority").analyze(ir));
+        assertSameResult(cfg, livevar("worklist").analyze(ir),
+                livevar("priority").analyze(ir));
+    }
+
+    @Test
+    public void testLoopPasses() {
+        IR ir = MethodBuilder.simpleLoop();
+        constprop("worklist").analyze(ir);
+        assertEquals(0, statsOf(ir, ConstantPropagation.ID).getPasses());
+        constprop("priority").analyze(ir);
+        SolverStats stats = statsOf(ir, ConstantPropagation.ID);
+        assertTrue(stats.getPasses() > 1);
+        // the second pass only revisits the loop
+        assertTrue(stats.getSavedPops() > 0);
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.solver;
+
+import org.junit.Test;
+import pascal.taie.analysis.MethodBuilder;
+import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
+import pascal.taie.analysis.dataflow.analysis.ReachingDefinitionAnalysis;
+import pascal.taie.analysis.dataflow.analysis.availexp.AvailableExpressionAnalysis;
+import pascal.taie.analysis.dataflow.analysis.availexp.NumberedExp;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that solvers which run out of budget fall back to the safe
+ * facts of the analyses.
+ */
+public class SolverBudgetTest {
+
+    private static <E> Set<E> toSet(SetFact<E> fact) {
+        return fact.stream().collect(Collectors.toSet());
+    }
+
+    @Test
+    public void testConstantPropagation() {
+        IR ir = MethodBuilder.invariantLoop();
+        DataflowResult<Stmt, CPFact> result = new ConstantPropagation(
+                new AnalysisConfig(ConstantPropagation.ID, "edge-refine", false,
+                        "max-iterations", 1)).analyze(ir);
+        for (Stmt stmt : MethodBuilder.cfgOf(ir)) {
+            for (Var var : ir.getVars()) {
+                assertEquals(Value.getNAC(), result.getInFact(stmt).get(var));
+                assertEquals(Value.getNAC(), result.getOutFact(stmt).get(var));
+            }
+        }
+    }
+
+    private static DataflowResult<Stmt, SetFact<Var>> livevar(
+            IR ir, Object... options) {
+        Object[] args = new Object[options.length + 2];
+        args[0] = "strongly";
+        args[1] = false;
+        System.arraycopy(options, 0, args, 2, options.length);
+        return new LiveVariableAnalysis(
+                new AnalysisConfig(LiveVariableAnalysis.ID, args)).analyze(ir);
+    }
+
+    @Test
+    public void testLiveVariables() {
+        IR ir = MethodBuilder.invariantLoop();
+        DataflowResult<Stmt, SetFact<Var>> result = livevar(ir, "max-iterations", 1);
+        Set<Var> all = Set.copyOf(ir.getVars());
+        for (Stmt stmt : MethodBuilder.cfgOf(ir)) {
+            assertEquals(all, toSet(result.getInFact(stmt)));
+            assertEquals(all, toSet(result.getOutFact(stmt)));
+        }
+    }
+
+    /**
+     * On blocks, all variables are live at the boundaries of blocks,
+     * and the facts of the statements in the blocks are transferred
+     * from them, thus they contain the precise facts.
+     */
+    @Test
+    public void testLiveVariablesOnBlocks() {
+        IR ir = MethodBuilder.invariantLoop();
+        DataflowResult<Stmt, SetFact<Var>> precise = livevar(ir);
+        DataflowResult<Stmt, SetFact<Var>> result = livevar(ir,
+                "node", "block", "max-iterations", 1);
+        for (Stmt stmt : MethodBuilder.cfgOf(ir)) {
+            assertTrue(toSet(result.getInFact(stmt))
+                    .containsAll(toSet(precise.getInFact(stmt))));
+            assertTrue(toSet(result.getOutFact(stmt))
+                    .containsAll(toSet(precise.getOutFact(stmt))));
+        }
+        assertEquals(Set.copyOf(ir.getVars()),
+                toSet(result.getOutFact(ir.getStmt(5))));
+    }
+
+    @Test
+    public void testReachingDefinitions() {
+        IR ir = MethodBuilder.invariantLoop();
+        DataflowResult<Stmt, SetFact<Stmt>> result = new ReachingDefinitionAnalysis(
+                new AnalysisConfig(ReachingDefinitionAnalysis.ID,
+                        "max-iterations", 1)).analyze(ir);
+        Set<Stmt> defs = Set.of(ir.getStmt(0), ir.getStmt(1),
+                ir.getStmt(3), ir.getStmt(4));
+        for (Stmt stmt : MethodBuilder.cfgOf(ir)) {
+            assertEquals(defs, toSet(result.getOutFact(stmt)));
+        }
+    }
+
+    @Test
+    public void testAvailableExpressions() {
+        IR ir = MethodBuilder.invariantLoop();
+        DataflowResult<Stmt, SetFact<NumberedExp>> result = new AvailableExpressionAnalysis(
+                new AnalysisConfig(AvailableExpressionAnalysis.ID,
+                        "max-iterations", 1)).analyze(ir);
+        for (Stmt stmt : MethodBuilder.cfgOf(ir)) {
+            assertTrue(result.getInFact(stmt).isEmpty());
+            assertTrue(result.getOutFact(stmt).isEmpty());
+        }
+    }
+
+    /**
+     * A budget which is not exceeded does not change the result.
+     */
+    @Test
+    public void testLargeBudget() {
+        IR ir = MethodBuilder.invariantLoop();
+        CFG<Stmt> cfg = MethodBuilder.cfgOf(ir);
+        DataflowResult<Stmt, CPFact> expected = new ConstantPropagation(
+                new AnalysisConfig(ConstantPropagation.ID, "edge-refine", false))
+                .analyze(ir);
+        DataflowResult<Stmt, CPFact> result = new ConstantPropagation(
+                new AnalysisConfig(ConstantPropagation.ID, "edge-refine", false,
+                        "max-iterations", 1000, "time-budget", 60000)).analyze(ir);
+        for (Stmt stmt : cfg) {
+            assertEquals(expected.getInFact(stmt), result.getInFact(stmt));
+            assertEquals(expected.getOutFact(stmt), result.getOutFact(stmt));
+        }
+        assertEquals(Value.makeConstant(2), result.getInFact(ir.getStmt(3)).get(ir.getVar(3)));
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.solver;
+
+import org.junit.Test;
+import pascal.taie.analysis.MethodBuilder;
+import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.graph.cfg.BlockCFG;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SolverStatsTest {
+
+    private static LiveVariableAnalysis livevar(Object... options) {
+        Object[] args = new Object[options.length + 2];
+        args[0] = "strongly";
+        args[1] = false;
+        System.arraycopy(options, 0, args, 2, options.length);
+        return new LiveVariableAnalysis(
+                new AnalysisConfig(LiveVariableAnalysis.ID, args));
+    }
+
+    private static SolverStats statsOf(IR ir, String id) {
+        return ir.getResult(SolverStats.getKey(id));
+    }
+
+    private static <N> int numberOfEdges(CFG<N> cfg) {
+        return cfg.getNodes().stream()
+                .mapToInt(cfg::getOutDegreeOf)
+                .sum();
+    }
+
+    /**
+     * The priority solver transfers each node of acyclic code once,
+     * meeting the fact of each of its successors once. The largest
+     * live set is {a, b} (or {a, p}).
+     */
+    @Test
+    public void testAcyclicCounts() {
+        IR ir = MethodBuilder.straightLine();
+        CFG<Stmt> cfg = MethodBuilder.cfgOf(ir);
+        livevar("solver", "priority", "stats", true).analyze(ir);
+        SolverStats stats = statsOf(ir, LiveVariableAnalysis.ID);
+        assertEquals(cfg.getNumberOfNodes(), stats.getPops());
+        assertEquals(cfg.getNumberOfNodes(), stats.getTransfers());
+        assertEquals(numberOfEdges(cfg), stats.getMeets());
+        assertEquals(2, stats.getMaxFactSize());
+        assertTrue(stats.getTime() > 0);
+        assertTrue(stats.toString().startsWith("pops=6, transfers=6, meets=5"));
+    }
+
+    /**
+     * On a loop, the work-list solver pops (and transfers) some nodes
+     * more than once, and each transfer of a node meets the facts of
+     * all its successors.
+     */
+    @Test
+    public void testLoopCounts() {
+        IR ir = MethodBuilder.simpleLoop();
+        CFG<Stmt> cfg = MethodBuilder.cfgOf(ir);
+        livevar("solver", "worklist", "stats", true).analyze(ir);
+        SolverStats stats = statsOf(ir, LiveVariableAnalysis.ID);
+        assertEquals(stats.getPops(), stats.getTransfers());
+        assertTrue(stats.getTransfers() > cfg.getNumberOfNodes());
+        assertTrue(stats.getMeets() >= numberOfEdges(cfg));
+        assertEquals(2, stats.getMaxFactSize());
+    }
+
+    /**
+     * With option {@code node:block}, the solver counts the blocks,
+     * i.e., the entry, the exit and the straight-line code.
+     */
+    @Test
+    public void testBlockCounts() {
+        IR ir = MethodBuilder.straightLine();
+        livevar("solver", "priority", "stats", true, "node", "block").analyze(ir);
+        BlockCFG cfg = BlockCFG.of(ir);
+        SolverStats stats = statsOf(ir, LiveVariableAnalysis.ID);
+        assertEquals(3, cfg.getNumberOfNodes());
+        assertEquals(cfg.getNumberOfNodes(), stats.getTransfers());
+        assertEquals(numberOfEdges(cfg), stats.getMeets());
+    }
+
+    @Test
+    public void testStoredPerAnalysisAndRun() {
+        IR ir = MethodBuilder.straightLine();
+        livevar().analyze(ir);
+        assertNull(statsOf(ir, LiveVariableAnalysis.ID));
+        LiveVariableAnalysis livevar = livevar("stats", true);
+        livevar.analyze(ir);
+        SolverStats first = statsOf(ir, LiveVariableAnalysis.ID);
+        livevar.analyze(ir);
+        assertNotSame(first, statsOf(ir, LiveVariableAnalysis.ID));
+        assertEquals(first.getTransfers(),
+                statsOf(ir, LiveVariableAnalysis.ID).getTransfers());
+        new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID,
+                "edge-refine", false, "solver", "priority", "stats", true)).analyze(ir);
+        assertEquals(MethodBuilder.cfgOf(ir).getNumberOfNodes(),
+                statsOf(ir, ConstantPropagation.ID).getPops());
+    }
+}
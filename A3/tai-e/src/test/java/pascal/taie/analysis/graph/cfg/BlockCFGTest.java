@@ -0,0 +1,137 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.cfg;
+
+import org.junit.Test;
+import pascal.taie.analysis.MethodBuilder;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BlockCFGTest {
+
+    /**
+     * Builds a method with a loop, and an unreachable loop at the end:
+     * <pre>
+     * 0: i = 0
+     * 1: if (i >= n) goto 4
+     * 2: i = i + i
+     * 3: goto 1
+     * 4: return i
+     * 5: i = i + i
+     * 6: goto 5
+     * </pre>
+     */
+    private static IR buildLoops() {
+        MethodBuilder builder = new MethodBuilder("loops");
+        Var n = builder.newParam("n");
+        Var i = builder.newVar("i");
+        builder.add(new AssignLiteral(i, IntLiteral.get(0)));
+        If head = builder.add(new If(
+                new ConditionExp(ConditionExp.Op.GE, i, n)));
+        builder.add(new Binary(i, new ArithmeticExp(ArithmeticExp.Op.ADD, i, i)));
+        builder.add(new Goto()).setTarget(head);
+        head.setTarget(builder.add(new Return(i)));
+        Binary dead = builder.add(new Binary(i,
+                new ArithmeticExp(ArithmeticExp.Op.ADD, i, i)));
+        builder.add(new Goto()).setTarget(dead);
+        return builder.build();
+    }
+
+    @Test
+    public void testBlocks() {
+        IR ir = buildLoops();
+        CFG<Stmt> stmtCFG = MethodBuilder.cfgOf(ir);
+        BlockCFG cfg = new BlockCFG(stmtCFG);
+        List<BasicBlock> blocks = cfg.getBlocks();
+        assertEquals(7, cfg.getNumberOfNodes());
+        assertEquals(List.of(stmtCFG.getEntry()), blocks.get(0).getStmts());
+        assertEquals(List.of(ir.getStmt(0)), blocks.get(1).getStmts());
+        assertEquals(List.of(ir.getStmt(1)), blocks.get(2).getStmts());
+        assertEquals(List.of(ir.getStmt(2), ir.getStmt(3)), blocks.get(3).getStmts());
+        assertEquals(List.of(ir.getStmt(4)), blocks.get(4).getStmts());
+        assertEquals(List.of(stmtCFG.getExit()), blocks.get(5).getStmts());
+        // the unreachable loop has no leader, and forms the last block
+        assertEquals(List.of(ir.getStmt(5), ir.getStmt(6)), blocks.get(6).getStmts());
+        for (int i = 0; i < blocks.size(); ++i) {
+            BasicBlock block = blocks.get(i);
+            assertEquals(i, block.getIndex());
+            List<Stmt> stmts = block.getStmts();
+            for (int pos = 0; pos < stmts.size(); ++pos) {
+                assertSame(block, cfg.getBlockOf(stmts.get(pos)));
+                assertEquals(pos, cfg.getPositionInBlock(stmts.get(pos)));
+            }
+        }
+        assertTrue(cfg.isEntry(blocks.get(0)));
+        assertTrue(cfg.isExit(blocks.get(5)));
+    }
+
+    @Test
+    public void testEdges() {
+        BlockCFG cfg = new BlockCFG(MethodBuilder.cfgOf(buildLoops()));
+        List<BasicBlock> b = cfg.getBlocks();
+        assertEquals(Set.of(b.get(1)), cfg.getSuccsOf(b.get(0)));
+        assertEquals(Set.of(b.get(2)), cfg.getSuccsOf(b.get(1)));
+        assertEquals(Set.of(b.get(3), b.get(4)), cfg.getSuccsOf(b.get(2)));
+        assertEquals(Set.of(b.get(2)), cfg.getSuccsOf(b.get(3)));
+        assertEquals(Set.of(b.get(5)), cfg.getSuccsOf(b.get(4)));
+        assertEquals(Set.of(b.get(6)), cfg.getSuccsOf(b.get(6)));
+        assertEquals(Set.of(b.get(1), b.get(3)), cfg.getPredsOf(b.get(2)));
+        assertTrue(cfg.hasEdge(b.get(3), b.get(2)));
+        assertFalse(cfg.hasEdge(b.get(2), b.get(1)));
+        for (BasicBlock block : cfg) {
+            for (Edge<BasicBlock> edge : cfg.getOutEdgesOf(block)) {
+                Edge<Stmt> stmtEdge = ((BlockEdge) edge).getStmtEdge();
+                assertSame(block.getLastStmt(), stmtEdge.getSource());
+                assertSame(edge.getTarget().getFirstStmt(), stmtEdge.getTarget());
+                assertEquals(stmtEdge.getKind(), edge.getKind());
+                assertTrue(cfg.getInEdgesOf(edge.getTarget()).contains(edge));
+            }
+        }
+    }
+
+    @Test
+    public void testCachedInIR() {
+        IR ir = buildLoops();
+        BlockCFG cfg = BlockCFG.of(ir);
+        assertSame(cfg, BlockCFG.of(ir));
+        assertSame(MethodBuilder.cfgOf(ir), cfg.getStmtCFG());
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.cfg;
+
+import org.junit.Test;
+import pascal.taie.analysis.MethodBuilder;
+import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.LookupSwitch;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class CompactCFGTest {
+
+    /**
+     * Builds a method with a switch and a loop:
+     * <pre>
+     * 0: switch (x) { case 1: goto 1; case 2: goto 3; default: goto 4 }
+     * 1: y = 1
+     * 2: goto 4
+     * 3: y = 2
+     * 4: if (y >= x) goto 0
+     * 5: return y
+     * </pre>
+     */
+    private static IR buildSwitch() {
+        MethodBuilder builder = new MethodBuilder("switch");
+        Var x = builder.newParam("x");
+        Var y = builder.newVar("y");
+        LookupSwitch switchStmt = builder.add(new LookupSwitch(x, List.of(1, 2)));
+        Stmt case1 = builder.add(new AssignLiteral(y, IntLiteral.get(1)));
+        Goto toIf = builder.add(new Goto());
+        Stmt case2 = builder.add(new AssignLiteral(y, IntLiteral.get(2)));
+        If ifStmt = builder.add(new If(
+                new ConditionExp(ConditionExp.Op.GE, y, x)));
+        ifStmt.setTarget(switchStmt);
+        toIf.setTarget(ifStmt);
+        switchStmt.setTargets(List.of(case1, case2));
+        switchStmt.setDefaultTarget(ifStmt);
+        builder.add(new Return(y));
+        return builder.build();
+    }
+
+    @Test
+    public void testSlots() {
+        IR ir = buildSwitch();
+        CFG<Stmt> stmtCFG = MethodBuilder.cfgOf(ir);
+        CompactCFG cfg = new CompactCFG(stmtCFG);
+        assertEquals(ir.getStmts().size() + 2, cfg.getNumberOfSlots());
+        assertEquals(stmtCFG.getNumberOfNodes(), cfg.getNumberOfNodes());
+        assertSame(stmtCFG.getEntry(), cfg.getNode(cfg.getEntrySlot()));
+        assertSame(stmtCFG.getExit(), cfg.getNode(cfg.getExitSlot()));
+        for (Stmt stmt : stmtCFG) {
+            assertSame(stmt, cfg.getNode(cfg.getSlotOf(stmt)));
+        }
+        for (Stmt stmt : ir) {
+            assertEquals(stmt.getIndex(), cfg.getSlotOf(stmt));
+        }
+    }
+
+    @Test
+    public void testEdges() {
+        IR ir = buildSwitch();
+        CFG<Stmt> stmtCFG = MethodBuilder.cfgOf(ir);
+        CompactCFG cfg = new CompactCFG(stmtCFG);
+        int edges = 0;
+        for (Stmt stmt : stmtCFG) {
+            int s = cfg.getSlotOf(stmt);
+            // out-edges in CSR form
+            Set<String> expected = new HashSet<>();
+            stmtCFG.getOutEdgesOf(stmt).forEach(e -> expected.add(
+                    describe(e.getKind(), e.isSwitchCase() ? e.getCaseValue() : 0,
+                            e.getSource(), e.getTarget())));
+            Set<String> actual = new HashSet<>();
+            for (int e = cfg.getOutStart(s); e < cfg.getOutEnd(s); ++e) {
+                assertEquals(s, cfg.getSource(e));
+                Edge.Kind kind = cfg.getKind(e);
+                actual.add(describe(kind,
+                        kind == Edge.Kind.SWITCH_CASE ? cfg.getCaseValue(e) : 0,
+                        stmt, cfg.getNode(cfg.getTarget(e))));
+                ++edges;
+            }
+            assertEquals(expected, actual);
+            // in-edges refer to the same edges
+            Set<Stmt> preds = new HashSet<>();
+            for (int i = cfg.getInStart(s); i < cfg.getInEnd(s); ++i) {
+                int e = cfg.getInEdge(i);
+                assertEquals(s, cfg.getTarget(e));
+                preds.add(cfg.getNode(cfg.getSource(e)));
+            }
+            assertEquals(Set.copyOf(stmtCFG.getPredsOf(stmt)), preds);
+            // CFG view
+            assertEquals(Set.copyOf(stmtCFG.getSuccsOf(stmt)),
+                    Set.copyOf(cfg.getSuccsOf(stmt)));
+            assertEquals(Set.copyOf(stmtCFG.getPredsOf(stmt)),
+                    Set.copyOf(cfg.getPredsOf(stmt)));
+        }
+        assertEquals(edges, cfg.getNumberOfEdges());
+    }
+
+    private static String describe(Edge.Kind kind, int caseValue,
+                                   Stmt source, Stmt target) {
+        return kind + "/" + caseValue + ": " + source + " -> " + target;
+    }
+
+    @Test
+    public void testSolveOnCompactCFG() {
+        IR ir = buildSwitch();
+        CFG<Stmt> cfg = MethodBuilder.cfgOf(ir);
+        for (String solver : List.of("worklist", "priority")) {
+            assertSameResult(cfg,
+                    new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID,
+                            "edge-refine", false, "solver", solver)).analyze(ir),
+                    new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID,
+                            "edge-refine", false, "solver", solver,
+                            "cfg", "compact")).analyze(ir));
+            assertSameResult(cfg,
+                    new LiveVariableAnalysis(new AnalysisConfig(LiveVariableAnalysis.ID,
+                            "strongly", false, "solver", solver)).analyze(ir),
+                    new LiveVariableAnalysis(new AnalysisConfig(LiveVariableAnalysis.ID,
+                            "strongly", false, "solver", solver,
+                            "cfg", "compact")).analyze(ir));
+        }
+    }
+
+    private static <Fact> void assertSameResult(
+            CFG<Stmt> cfg, DataflowResult<Stmt, Fact> expected,
+            DataflowResult<Stmt, Fact> actual) {
+        for (Stmt node : cfg) {
+            assertEquals(expected.getInFact(node), actual.getInFact(node));
+            assertEquals(expected.getOutFact(node), actual.getOutFact(node));
+        }
+    }
+
+    @Test
+    public void testCachedInIR() {
+        IR ir = buildSwitch();
+        assertSame(CompactCFG.of(ir), CompactCFG.of(ir));
+    }
+}
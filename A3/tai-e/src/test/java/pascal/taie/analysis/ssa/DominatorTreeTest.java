@@ -0,0 +1,119 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.ssa;
+
+import org.junit.Test;
+import pascal.taie.analysis.MethodBuilder;
+import pascal.taie.analysis.graph.cfg.BasicBlock;
+import pascal.taie.analysis.graph.cfg.BlockCFG;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.Return;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DominatorTreeTest {
+
+    private static int[] indexes(BasicBlock... blocks) {
+        int[] result = new int[blocks.length];
+        for (int i = 0; i < blocks.length; ++i) {
+            result[i] = blocks[i].getIndex();
+        }
+        return result;
+    }
+
+    @Test
+    public void testDiamond() {
+        IR ir = SSATest.buildDiamond();
+        BlockCFG cfg = BlockCFG.of(ir);
+        DominatorTree domTree = new DominatorTree(cfg);
+        BasicBlock entry = cfg.getEntry();
+        BasicBlock cond = cfg.getBlockOf(ir.getStmt(1));
+        BasicBlock then = cfg.getBlockOf(ir.getStmt(2));
+        BasicBlock other = cfg.getBlockOf(ir.getStmt(4));
+        BasicBlock join = cfg.getBlockOf(ir.getStmt(5));
+        assertEquals(-1, domTree.getImmediateDominator(entry));
+        assertEquals(entry.getIndex(), domTree.getImmediateDominator(cond));
+        assertEquals(cond.getIndex(), domTree.getImmediateDominator(then));
+        assertEquals(cond.getIndex(), domTree.getImmediateDominator(other));
+        assertEquals(cond.getIndex(), domTree.getImmediateDominator(join));
+        assertTrue(domTree.dominates(cond, join));
+        assertTrue(domTree.dominates(join, join));
+        assertFalse(domTree.dominates(then, join));
+        assertFalse(domTree.dominates(join, cond));
+        assertArrayEquals(indexes(join), domTree.getFrontier(then));
+        assertArrayEquals(indexes(join), domTree.getFrontier(other));
+        assertArrayEquals(new int[0], domTree.getFrontier(cond));
+        assertEquals(3, domTree.getChildren(cond).length);
+    }
+
+    /**
+     * The head of a loop is in the dominance frontier of the loop body
+     * and of itself.
+     */
+    @Test
+    public void testLoop() {
+        IR ir = SSATest.buildLoop();
+        BlockCFG cfg = BlockCFG.of(ir);
+        DominatorTree domTree = new DominatorTree(cfg);
+        BasicBlock head = cfg.getBlockOf(ir.getStmt(2));
+        BasicBlock body = cfg.getBlockOf(ir.getStmt(3));
+        BasicBlock exit = cfg.getBlockOf(ir.getStmt(7));
+        assertEquals(head.getIndex(), domTree.getImmediateDominator(body));
+        assertEquals(head.getIndex(), domTree.getImmediateDominator(exit));
+        assertFalse(domTree.dominates(body, head));
+        assertArrayEquals(indexes(head), domTree.getFrontier(body));
+        assertArrayEquals(indexes(head), domTree.getFrontier(head));
+    }
+
+    /**
+     * <pre>
+     * 0: return
+     * 1: x = 1
+     * 2: goto 1
+     * </pre>
+     * The unreachable cycle is dominated by the entry only.
+     */
+    @Test
+    public void testUnreachableBlocks() {
+        MethodBuilder builder = new MethodBuilder("unreachable");
+        Var x = builder.newVar("x");
+        builder.add(new Return());
+        AssignLiteral assign = builder.add(new AssignLiteral(x, IntLiteral.get(1)));
+        builder.add(new Goto()).setTarget(assign);
+        IR ir = builder.build();
+        BlockCFG cfg = BlockCFG.of(ir);
+        DominatorTree domTree = new DominatorTree(cfg);
+        BasicBlock cycle = cfg.getBlockOf(assign);
+        assertEquals(cfg.getEntry().getIndex(), domTree.getImmediateDominator(cycle));
+        assertTrue(domTree.dominates(cfg.getEntry(), cycle));
+        assertFalse(domTree.dominates(cfg.getBlockOf(ir.getStmt(0)), cycle));
+    }
+}
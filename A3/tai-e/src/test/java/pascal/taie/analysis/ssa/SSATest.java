@@ -0,0 +1,187 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.ssa;
+
+import org.junit.Test;
+import pascal.taie.analysis.MethodBuilder;
+import pascal.taie.analysis.graph.cfg.BasicBlock;
+import pascal.taie.analysis.graph.cfg.BlockCFG;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SSATest {
+
+    /**
+     * Builds a method with a diamond:
+     * <pre>
+     * 0: zero = 0
+     * 1: if (p > zero) goto 4
+     * 2: x = 1
+     * 3: goto 5
+     * 4: x = 2
+     * 5: y = x + p
+     * 6: return y
+     * </pre>
+     */
+    static IR buildDiamond() {
+        MethodBuilder builder = new MethodBuilder("diamond");
+        Var p = builder.newParam("p");
+        Var x = builder.newVar("x");
+        Var y = builder.newVar("y");
+        Var zero = builder.newVar("zero");
+        builder.add(new AssignLiteral(zero, IntLiteral.get(0)));
+        If ifStmt = builder.add(new If(
+                new ConditionExp(ConditionExp.Op.GT, p, zero)));
+        builder.add(new AssignLiteral(x, IntLiteral.get(1)));
+        Goto gotoStmt = builder.add(new Goto());
+        ifStmt.setTarget(builder.add(new AssignLiteral(x, IntLiteral.get(2))));
+        gotoStmt.setTarget(builder.add(new Binary(y,
+                new ArithmeticExp(ArithmeticExp.Op.ADD, x, p))));
+        builder.add(new Return(y));
+        return builder.build();
+    }
+
+    /**
+     * Builds a method with a loop:
+     * <pre>
+     * 0: i = 0
+     * 1: k = 2
+     * 2: if (i >= n) goto 7
+     * 3: j = i + k
+     * 4: k = 2
+     * 5: i = j
+     * 6: goto 2
+     * 7: return i
+     * </pre>
+     */
+    static IR buildLoop() {
+        MethodBuilder builder = new MethodBuilder("loop");
+        Var n = builder.newParam("n");
+        Var i = builder.newVar("i");
+        Var j = builder.newVar("j");
+        Var k = builder.newVar("k");
+        builder.add(new AssignLiteral(i, IntLiteral.get(0)));
+        builder.add(new AssignLiteral(k, IntLiteral.get(2)));
+        If head = builder.add(new If(
+                new ConditionExp(ConditionExp.Op.GE, i, n)));
+        builder.add(new Binary(j, new ArithmeticExp(ArithmeticExp.Op.ADD, i, k)));
+        builder.add(new AssignLiteral(k, IntLiteral.get(2)));
+        builder.add(new Copy(i, j));
+        builder.add(new Goto()).setTarget(head);
+        head.setTarget(builder.add(new Return(i)));
+        return builder.build();
+    }
+
+    @Test
+    public void testDiamond() {
+        IR ir = buildDiamond();
+        SSA ssa = SSA.of(ir);
+        Var p = ir.getVar(0), x = ir.getVar(1), y = ir.getVar(2);
+        BasicBlock join = ssa.getCFG().getBlockOf(ir.getStmt(5));
+        List<Phi> phis = ssa.getPhis(join);
+        assertEquals(1, phis.size());
+        Phi phi = phis.get(0);
+        assertSame(x, phi.getVar());
+        assertEquals(Set.of(ssa.getDef(ir.getStmt(2)), ssa.getDef(ir.getStmt(4))),
+                Set.copyOf(phi.getOperands()));
+        assertSame(ssa.getDef(ir.getStmt(2)),
+                phi.getOperand(ssa.getCFG().getBlockOf(ir.getStmt(3))));
+        // uses are renamed to the phi and to the version on entry
+        assertSame(phi.getDef(), ssa.getUse(ir.getStmt(5), x));
+        assertSame(phi, phi.getDef().getPhi());
+        assertTrue(ssa.getUse(ir.getStmt(5), p).isEntryVersion());
+        assertNull(ssa.getUse(ir.getStmt(5), y));
+        SSAVar y1 = ssa.getDef(ir.getStmt(5));
+        assertEquals(1, y1.getVersion());
+        assertEquals(List.of(ir.getStmt(6)), y1.getStmtUsers());
+        assertEquals(List.of(phi), ssa.getDef(ir.getStmt(4)).getPhiUsers());
+        assertNull(ssa.getDef(ir.getStmt(6)));
+    }
+
+    /**
+     * Variables which are defined and used only in one block (j) do not
+     * get phis, while variables used before being redefined in the loop
+     * body (k) do.
+     */
+    @Test
+    public void testLoop() {
+        IR ir = buildLoop();
+        SSA ssa = SSA.of(ir);
+        Var i = ir.getVar(1), j = ir.getVar(2), k = ir.getVar(3);
+        BlockCFG cfg = ssa.getCFG();
+        BasicBlock head = cfg.getBlockOf(ir.getStmt(2));
+        BasicBlock body = cfg.getBlockOf(ir.getStmt(3));
+        BasicBlock preheader = cfg.getBlockOf(ir.getStmt(0));
+        assertEquals(Set.of(i, k), Set.copyOf(
+                ssa.getPhis(head).stream().map(Phi::getVar).toList()));
+        for (Phi phi : ssa.getPhis(head)) {
+            int pre = phi.getVar() == i ? 0 : 1;
+            int back = phi.getVar() == i ? 5 : 4;
+            assertSame(ssa.getDef(ir.getStmt(pre)), phi.getOperand(preheader));
+            assertSame(ssa.getDef(ir.getStmt(back)), phi.getOperand(body));
+            assertSame(phi.getDef(), ssa.getUse(ir.getStmt(3), phi.getVar()));
+        }
+        assertSame(ssa.getDef(ir.getStmt(3)), ssa.getUse(ir.getStmt(5), j));
+        // j: entry and j = i + k
+        assertEquals(2, ssa.getVersions(j).size());
+        // i: entry, i = 0, i = j and the phi
+        assertEquals(4, ssa.getVersions(i).size());
+        for (int v = 0; v < ssa.getVersions(i).size(); ++v) {
+            assertEquals(v, ssa.getVersions(i).get(v).getVersion());
+        }
+        assertSame(ssa.getVersions().get(ssa.getDef(ir.getStmt(5)).getIndex()),
+                ssa.getDef(ir.getStmt(5)));
+    }
+
+    @Test
+    public void testCachedInIR() {
+        IR ir = buildLoop();
+        SSA ssa = SSA.of(ir);
+        assertSame(ssa, SSA.of(ir));
+        assertSame(BlockCFG.of(ir), ssa.getCFG());
+        for (Stmt stmt : ir) {
+            for (SSAVar use : ssa.getUses(stmt)) {
+                assertTrue(use.getStmtUsers().contains(stmt));
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.collection;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PersistentMapTest {
+
+    /**
+     * Key with given hash code, so that tests can make keys
+     * whose hash codes share prefixes, or are equal.
+     */
+    private record Key(String name, int hash) {
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        PersistentMap<Key, Integer> map = PersistentMap.empty();
+        Key a = new Key("a", 1), b = new Key("b", 2);
+        PersistentMap<Key, Integer> m1 = map.put(a, 1);
+        PersistentMap<Key, Integer> m2 = m1.put(b, 2);
+        assertTrue(map.isEmpty());
+        assertEquals(1, m1.size());
+        assertEquals(2, m2.size());
+        assertEquals(Integer.valueOf(2), m2.get(b));
+        assertNull(m1.get(b));
+        assertEquals(m1, m2.remove(b));
+        assertFalse(m2.containsKey(new Key("c", 2)));
+    }
+
+    @Test
+    public void testUnchangedReturnsSameMap() {
+        Key a = new Key("a", 1);
+        PersistentMap<Key, Integer> map = PersistentMap.<Key, Integer>empty().put(a, 1);
+        assertSame(map, map.put(a, 1));
+        assertSame(map, map.put(new Key("a", 1), 1));
+        assertSame(map, map.remove(new Key("b", 1)));
+        assertSame(map, map.remove(new Key("c", 3)));
+    }
+
+    @Test
+    public void testFullHashCollisions() {
+        List<Key> keys = new ArrayList<>();
+        for (int i = 0; i < 5; ++i) {
+            keys.add(new Key("k" + i, 42));
+        }
+        PersistentMap<Key, Integer> map = PersistentMap.empty();
+        for (int i = 0; i < keys.size(); ++i) {
+            map = map.put(keys.get(i), i);
+        }
+        assertEquals(keys.size(), map.size());
+        for (int i = 0; i < keys.size(); ++i) {
+            assertEquals(Integer.valueOf(i), map.get(keys.get(i)));
+        }
+        map = map.put(keys.get(2), 20);
+        assertEquals(Integer.valueOf(20), map.get(keys.get(2)));
+        assertEquals(keys.size(), map.size());
+        for (Key key : keys) {
+            map = map.remove(key);
+            assertNull(map.get(key));
+        }
+        assertTrue(map.isEmpty());
+        assertEquals(PersistentMap.empty(), map);
+    }
+
+    @Test
+    public void testPrefixCollisions() {
+        // hash codes which share their lowest 5, 10 and 15 bits
+        // make the trie several levels deep
+        int[] hashes = {0x1, 0x21, 0x421, 0x8421, 0x18421};
+        PersistentMap<Key, Integer> map = PersistentMap.empty();
+        for (int h : hashes) {
+            map = map.put(new Key("k" + h, h), h);
+        }
+        for (int h : hashes) {
+            assertEquals(Integer.valueOf(h), map.get(new Key("k" + h, h)));
+        }
+        for (int h : hashes) {
+            map = map.remove(new Key("k" + h, h));
+        }
+        assertTrue(map.isEmpty());
+        assertEquals(0, map.size());
+        assertEquals(0, map.hashCode());
+    }
+
+    @Test
+    public void testStructuralEquality() {
+        List<Key> keys = new ArrayList<>();
+        for (int i = 0; i < 100; ++i) {
+            // many keys share their hash codes or their prefixes
+            keys.add(new Key("k" + i, i % 7 == 0 ? 7 : i * 33));
+        }
+        PersistentMap<Key, Integer> forward = PersistentMap.empty();
+        for (Key key : keys) {
+            forward = forward.put(key, key.hash());
+        }
+        List<Key> shuffled = new ArrayList<>(keys);
+        Collections.shuffle(shuffled, new Random(1));
+        PersistentMap<Key, Integer> backward = PersistentMap.empty();
+        for (Key key : shuffled) {
+            backward = backward.put(key, key.hash());
+        }
+        // extra keys which are added and removed again
+        for (int i = 0; i < 10; ++i) {
+            backward = backward.put(new Key("x" + i, i * 33), i);
+        }
+        for (int i = 0; i < 10; ++i) {
+            backward = backward.remove(new Key("x" + i, i * 33));
+        }
+        assertEquals(forward, backward);
+        assertEquals(backward, forward);
+        assertEquals(forward.hashCode(), backward.hashCode());
+        assertNotEquals(forward, backward.put(keys.get(50), -1));
+        assertNotEquals(forward, backward.remove(keys.get(0)));
+    }
+
+    @Test
+    public void testRandomOperations() {
+        Random random = new Random(2);
+        PersistentMap<Key, Integer> map = PersistentMap.empty();
+        Map<Key, Integer> expected = new HashMap<>();
+        for (int op = 0; op < 5000; ++op) {
+            int id = random.nextInt(200);
+            Key key = new Key("k" + id, id % 13);
+            PersistentMap<Key, Integer> old = map;
+            if (random.nextInt(3) == 0) {
+                boolean present = expected.remove(key) != null;
+                map = map.remove(key);
+                assertEquals(present, map != old);
+            } else {
+                int value = random.nextInt(3);
+                Integer previous = expected.put(key, value);
+                map = map.put(key, value);
+                assertEquals(!Integer.valueOf(value).equals(previous), map != old);
+            }
+            assertEquals(expected.size(), map.size());
+            assertEquals(expected.get(key), map.get(key));
+        }
+        Map<Key, Integer> actual = new HashMap<>();
+        map.forEach(actual::put);
+        assertEquals(expected, actual);
+        assertEquals(expected.hashCode(), map.hashCode());
+    }
+}
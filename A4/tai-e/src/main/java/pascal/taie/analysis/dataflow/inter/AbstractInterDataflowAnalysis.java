@@ -26,13 +26,16 @@ import pascal.taie.World;
 import pascal.taie.analysis.ProgramAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
 import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.CompactICFG;
 import pascal.taie.analysis.graph.icfg.ICFG;
 import pascal.taie.analysis.graph.icfg.ICFGBuilder;
 import pascal.taie.analysis.graph.icfg.ICFGEdge;
 import pascal.taie.analysis.graph.icfg.NormalEdge;
 import pascal.taie.analysis.graph.icfg.ReturnEdge;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
 
 /**
  * Provides common functionalities for {@link InterDataflowAnalysis} implementations.
@@ -49,8 +52,43 @@ public abstract class AbstractInterDataflowAnalysis<Method, Node, Fact>
 
     protected InterSolver<Method, Node, Fact> solver;
 
+    /**
+     * Maximum number of contexts of each method for {@link SummarySolver},
+     * or -1 if summaries are disabled.
+     */
+    private final int summaryLimit;
+
+    /**
+     * Whether {@link InterSolver} solves the SCCs of the call graph in parallel.
+     */
+    private final boolean parallel;
+
+    /**
+     * Whether the analysis runs on a {@link CompactICFG} built from
+     * the call graph instead of the ICFG built by {@link ICFGBuilder}.
+     */
+    private final boolean compactICFG;
+
     public AbstractInterDataflowAnalysis(AnalysisConfig config) {
         super(config);
+        boolean summary = getOptions().get("summary") != null
+                && getOptions().getBoolean("summary");
+        summaryLimit = !summary ? -1
+                : getOptions().get("summary-limit") != null
+                ? getOptions().getInt("summary-limit") : 16;
+        if (summary && summaryLimit < 0) {
+            throw new ConfigException("summary-limit must be non-negative");
+        }
+        parallel = getOptions().get("parallel") != null
+                && getOptions().getBoolean("parallel");
+        String icfgKind = getOptions().getString("icfg");
+        if (icfgKind == null || icfgKind.equals("default")) {
+            compactICFG = false;
+        } else if (icfgKind.equals("compact")) {
+            compactICFG = true;
+        } else {
+            throw new ConfigException("Unknown ICFG kind: " + icfgKind);
+        }
     }
 
     /**
@@ -118,11 +156,20 @@ public abstract class AbstractInterDataflowAnalysis<Method, Node, Fact>
     // ----------------------------------------------------------------
 
     @Override
+    @SuppressWarnings("unchecked")
     public Object analyze() {
-        icfg = World.get().getResult(ICFGBuilder.ID);
+        icfg = compactICFG
+                ? (ICFG<Method, Node>) (ICFG<?, ?>) CompactICFG.of(
+                        World.get().getResult(CallGraphBuilder.ID))
+                : World.get().getResult(ICFGBuilder.ID);
         initialize();
-        solver = new InterSolver<>(this, icfg);
-        DataflowResult<Node, Fact> result = solver.solve();
+        DataflowResult<Node, Fact> result;
+        if (summaryLimit >= 0) {
+            result = new SummarySolver<>(this, icfg, summaryLimit).solve();
+        } else {
+            solver = new InterSolver<>(this, icfg, parallel);
+            result = solver.solve();
+        }
         finish();
         return result;
     }
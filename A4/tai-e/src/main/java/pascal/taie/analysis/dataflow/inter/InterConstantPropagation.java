@@ -28,6 +28,7 @@ import pascal.taie.analysis.dataflow.analysis.constprop.Value;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.analysis.graph.icfg.CallEdge;
 import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.CompactICFG;
 import pascal.taie.analysis.graph.icfg.NormalEdge;
 import pascal.taie.analysis.graph.icfg.ReturnEdge;
 import pascal.taie.config.AnalysisConfig;
@@ -98,8 +99,26 @@ public class InterConstantPropagation extends AbstractInterDataflowAnalysis<JMet
     @Override
     protected CPFact transferCallToReturnEdge(CallToReturnEdge<Stmt> edge, CPFact out) {
         // TODO - finish me
+        return transferCallToReturn(edge.getSource(), out);
+    }
+
+    @Override
+    public CPFact transferNormalEdge(CompactICFG icfg, int edge, CPFact out) {
+        return out.copy();
+    }
+
+    @Override
+    public CPFact transferCallToReturnEdge(CompactICFG icfg, int edge, CPFact out) {
+        return transferCallToReturn(icfg.getNode(icfg.getEdgeSource(edge)), out);
+    }
+
+    /**
+     * Kills the variable defined by given call site, whose value
+     * comes from the return edges instead.
+     */
+    private static CPFact transferCallToReturn(Stmt callSite, CPFact out) {
         CPFact transferred_out = out.copy();
-        edge.getSource().getDef().ifPresent(lValue -> {
+        callSite.getDef().ifPresent(lValue -> {
             transferred_out.remove((Var) lValue);
         });
         return transferred_out;
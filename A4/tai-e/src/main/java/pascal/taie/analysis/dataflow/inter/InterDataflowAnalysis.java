@@ -22,7 +22,10 @@
 
 package pascal.taie.analysis.dataflow.inter;
 
+import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.CompactICFG;
 import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.NormalEdge;
 
 /**
  * Template interface for defining inter-procedural data-flow analysis.
@@ -71,4 +74,25 @@ public interface InterDataflowAnalysis<Node, Fact> {
      * @return the result of edge transfer function.
      */
     Fact transferEdge(ICFGEdge<Node> edge, Fact out);
+
+    /**
+     * Edge transfer function for the {@link NormalEdge} of given index
+     * in a {@link CompactICFG}. Solvers on a compact ICFG call it instead of
+     * {@link #transferEdge(ICFGEdge, Object)}, so that analyses which do not
+     * need the edge object can avoid creating it. By default, the edge
+     * object is created and passed to {@link #transferEdge(ICFGEdge, Object)}.
+     */
+    @SuppressWarnings("unchecked")
+    default Fact transferNormalEdge(CompactICFG icfg, int edge, Fact out) {
+        return transferEdge((ICFGEdge<Node>) icfg.getEdge(edge), out);
+    }
+
+    /**
+     * Same as {@link #transferNormalEdge(CompactICFG, int, Object)},
+     * but for {@link CallToReturnEdge}s.
+     */
+    @SuppressWarnings("unchecked")
+    default Fact transferCallToReturnEdge(CompactICFG icfg, int edge, Fact out) {
+        return transferEdge((ICFGEdge<Node>) icfg.getEdge(edge), out);
+    }
 }
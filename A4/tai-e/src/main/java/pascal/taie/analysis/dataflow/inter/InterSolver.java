@@ -24,19 +24,36 @@ package pascal.taie.analysis.dataflow.inter;
 
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.analysis.graph.icfg.CompactICFG;
 import pascal.taie.analysis.graph.icfg.ICFG;
 import pascal.taie.analysis.graph.icfg.ICFGEdge;
 import pascal.taie.util.collection.SetQueue;
+import pascal.taie.util.graph.MergedNode;
+import pascal.taie.util.graph.MergedSCCGraph;
+import pascal.taie.util.graph.SimpleGraph;
+import pascal.taie.util.graph.TopoSorter;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.stream.Collectors;
 
 /**
  * Solver for inter-procedural data-flow analysis.
  * The workload of inter-procedural analysis is heavy, thus we always
  * adopt work-list algorithm for efficiency.
+ * <p>
+ * In parallel mode, the methods are grouped by the strongly connected
+ * components of the call graph, and each component is solved to a local
+ * fixed point by its own task (see {@link #doSolveParallel()}).
+ * On a {@link CompactICFG}, the sequential solver works on node and edge
+ * indexes (see {@link #doSolveCompact(CompactICFG)}), and transfers the
+ * intra-procedural edges without creating their objects.
  */
 class InterSolver<Method, Node, Fact> {
 
@@ -48,15 +65,34 @@ class InterSolver<Method, Node, Fact> {
 
     private Queue<Node> workList;
 
+    private final boolean parallel;
+
+    /**
+     * SCC of each method, used in parallel mode.
+     */
+    private Map<Method, Component> components;
+
     InterSolver(InterDataflowAnalysis<Node, Fact> analysis, ICFG<Method, Node> icfg) {
+        this(analysis, icfg, false);
+    }
+
+    InterSolver(InterDataflowAnalysis<Node, Fact> analysis, ICFG<Method, Node> icfg,
+                boolean parallel) {
         this.analysis = analysis;
         this.icfg = icfg;
+        this.parallel = parallel;
     }
 
     DataflowResult<Node, Fact> solve() {
         result = new DataflowResult<>();
         initialize();
-        doSolve();
+        if (parallel) {
+            doSolveParallel();
+        } else if (icfg instanceof CompactICFG compact) {
+            doSolveCompact(compact);
+        } else {
+            doSolve();
+        }
         return result;
     }
 
@@ -83,16 +119,187 @@ class InterSolver<Method, Node, Fact> {
 
         while (!workList.isEmpty()) {
             Node node = workList.poll();
-            for (ICFGEdge<Node> edge : icfg.getInEdgesOf(node)) {
-                Fact fact = analysis.transferEdge(edge, result.getOutFact(edge.getSource()));
-                Fact target = result.getInFact(node);
-                analysis.meetInto(fact, target);
-            }
-            Fact in = result.getInFact(node);
-            Fact out = result.getOutFact(node);
-            if (analysis.transferNode(node, in, out)) {
+            if (propagate(node)) {
                 workList.addAll(icfg.getSuccsOf(node));
             }
         }
     }
+
+    /**
+     * Same as {@link #doSolve()}, but the facts are kept in arrays indexed
+     * by node indexes, and the work list is a ring buffer of node indexes
+     * which holds each node at most once.
+     */
+    @SuppressWarnings("unchecked")
+    private void doSolveCompact(CompactICFG compact) {
+        int size = compact.getNumberOfNodes();
+        Fact[] inFacts = (Fact[]) new Object[size];
+        Fact[] outFacts = (Fact[]) new Object[size];
+        for (int n = 0; n < size; ++n) {
+            Node node = (Node) compact.getNode(n);
+            inFacts[n] = result.getInFact(node);
+            outFacts[n] = result.getOutFact(node);
+        }
+        int[] queue = new int[size];
+        boolean[] inQueue = new boolean[size];
+        for (int n = 0; n < size; ++n) {
+            queue[n] = n;
+            inQueue[n] = true;
+        }
+        int head = 0, count = size;
+        while (count > 0) {
+            int n = queue[head];
+            head = head + 1 == size ? 0 : head + 1;
+            --count;
+            inQueue[n] = false;
+            Fact in = inFacts[n];
+            for (int i = compact.getInEdgeStart(n); i < compact.getInEdgeEnd(n); ++i) {
+                int edge = compact.getInEdge(i);
+                Fact out = outFacts[compact.getEdgeSource(edge)];
+                // only call and return edges are created as objects
+                Fact fact = switch (compact.getEdgeKind(edge)) {
+                    case CompactICFG.NORMAL ->
+                            analysis.transferNormalEdge(compact, edge, out);
+                    case CompactICFG.CALL_TO_RETURN ->
+                            analysis.transferCallToReturnEdge(compact, edge, out);
+                    default -> analysis.transferEdge(
+                            (ICFGEdge<Node>) compact.getEdge(edge), out);
+                };
+                analysis.meetInto(fact, in);
+            }
+            if (analysis.transferNode((Node) compact.getNode(n), in, outFacts[n])) {
+                for (int e = compact.getOutEdgeStart(n); e < compact.getOutEdgeEnd(n); ++e) {
+                    int succ = compact.getEdgeTarget(e);
+                    if (!inQueue[succ]) {
+                        inQueue[succ] = true;
+                        int tail = head + count;
+                        queue[tail >= size ? tail - size : tail] = succ;
+                        ++count;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Meets the facts from the in edges of given node into its in fact,
+     * and applies the node transfer.
+     *
+     * @return true if the out fact of the node changed, otherwise false.
+     */
+    private boolean propagate(Node node) {
+        for (ICFGEdge<Node> edge : icfg.getInEdgesOf(node)) {
+            Fact fact = analysis.transferEdge(edge, result.getOutFact(edge.getSource()));
+            Fact target = result.getInFact(node);
+            analysis.meetInto(fact, target);
+        }
+        Fact in = result.getInFact(node);
+        Fact out = result.getOutFact(node);
+        return analysis.transferNode(node, in, out);
+    }
+
+    /**
+     * Solves the ICFG in waves over the strongly connected components
+     * (SCCs) of the call graph. The SCCs are leveled so that the callers
+     * of each SCC are on lower levels and its callees on higher levels.
+     * A top-down wave solves the levels in increasing order, and a bottom-up
+     * wave in decreasing order; the SCCs of one level are solved concurrently,
+     * as no ICFG edge connects them. The waves alternate until no SCC has
+     * pending nodes.
+     * <p>
+     * Only call and return edges cross SCCs, and a node reached by such
+     * an edge is handed to the inbox of its SCC. As the facts only descend
+     * during solving, the result is the same fixed point as the one of
+     * {@link #doSolve()}.
+     */
+    private void doSolveParallel() {
+        List<List<Component>> levels = buildComponents();
+        for (Node node : icfg) {
+            componentOf(node).pending.add(node);
+        }
+        boolean topDown = true;
+        while (levels.stream().flatMap(List::stream).anyMatch(Component::hasPending)) {
+            for (int i = 0; i < levels.size(); ++i) {
+                List<Component> level = levels.get(topDown ? i : levels.size() - 1 - i);
+                level.parallelStream()
+                        .filter(Component::hasPending)
+                        .forEach(Component::solve);
+            }
+            topDown = !topDown;
+        }
+    }
+
+    /**
+     * Condenses the call graph into SCCs, and groups them by levels,
+     * i.e., the length of the longest call chain from the entry SCCs.
+     */
+    private List<List<Component>> buildComponents() {
+        SimpleGraph<Method> callGraph = new SimpleGraph<>();
+        for (Node node : icfg) {
+            Method method = icfg.getContainingMethodOf(node);
+            callGraph.addNode(method);
+            if (icfg.isCallSite(node)) {
+                for (Method callee : icfg.getCalleesOf(node)) {
+                    callGraph.addEdge(method, callee);
+                }
+            }
+        }
+        MergedSCCGraph<Method> sccGraph = new MergedSCCGraph<>(callGraph);
+        Map<MergedNode<Method>, Integer> levelOf = new HashMap<>();
+        List<List<Component>> levels = new ArrayList<>();
+        components = new HashMap<>();
+        for (MergedNode<Method> scc : new TopoSorter<>(sccGraph).get()) {
+            int level = 0;
+            for (MergedNode<Method> pred : sccGraph.getPredsOf(scc)) {
+                level = Math.max(level, levelOf.get(pred) + 1);
+            }
+            levelOf.put(scc, level);
+            if (level == levels.size()) {
+                levels.add(new ArrayList<>());
+            }
+            Component component = new Component();
+            levels.get(level).add(component);
+            scc.getNodes().forEach(m -> components.put(m, component));
+        }
+        return levels;
+    }
+
+    private Component componentOf(Node node) {
+        return components.get(icfg.getContainingMethodOf(node));
+    }
+
+    /**
+     * The methods of an SCC of the call graph, solved by one task at a time.
+     */
+    private class Component {
+
+        /**
+         * Nodes to be processed, only accessed by the task solving
+         * this component.
+         */
+        private final Queue<Node> pending = new SetQueue<>();
+
+        /**
+         * Nodes of this component reached by the tasks of other components.
+         */
+        private final Queue<Node> inbox = new ConcurrentLinkedQueue<>();
+
+        private boolean hasPending() {
+            return !pending.isEmpty() || !inbox.isEmpty();
+        }
+
+        private void solve() {
+            for (Node node; (node = inbox.poll()) != null; ) {
+                pending.add(node);
+            }
+            for (Node node; (node = pending.poll()) != null; ) {
+                if (propagate(node)) {
+                    for (Node succ : icfg.getSuccsOf(node)) {
+                        Component component = componentOf(succ);
+                        (component == this ? pending : component.inbox).add(succ);
+                    }
+                }
+            }
+        }
+    }
 }
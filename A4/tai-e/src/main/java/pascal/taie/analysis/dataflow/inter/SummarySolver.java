@@ -0,0 +1,349 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+import pascal.taie.util.collection.SetQueue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Summary-based solver for inter-procedural data-flow analysis.
+ * <p>
+ * Instead of propagating facts into callee bodies along call edges,
+ * this solver analyzes each method once per distinct entry fact
+ * (a <i>context</i>, e.g., the values of the arguments), and reuses
+ * the exit fact of the context (its <i>summary</i>) at every call site
+ * which calls the method with that entry fact. The entry fact of a call
+ * is given by the transfer of the {@link CallEdge}, and the summary is
+ * brought back to the return site by the transfer of the {@link ReturnEdge},
+ * thus the analysis does not need to know about summaries.
+ * <p>
+ * Contexts are keyed by their entry facts, so the facts must implement
+ * value-based {@code equals()} and {@code hashCode()}. To bound the work,
+ * each method has at most {@code limit} contexts; further entry facts
+ * are merged into one extra context of the method. With limit 0, every
+ * method has only the merged context, which gives the same result as
+ * {@link InterSolver}.
+ * <p>
+ * The result of a node is the meet of its facts in all contexts which
+ * are reachable from the entry methods.
+ */
+class SummarySolver<Method, Node, Fact> {
+
+    private static final Logger logger = LogManager.getLogger(SummarySolver.class);
+
+    private final InterDataflowAnalysis<Node, Fact> analysis;
+
+    private final ICFG<Method, Node> icfg;
+
+    /**
+     * Maximum number of contexts of each method, excluding the merged one.
+     */
+    private final int limit;
+
+    private Map<Method, List<Node>> nodesOf;
+
+    private Map<Method, Summaries> summaries;
+
+    private Queue<Context> workList;
+
+    private List<Context> entryContexts;
+
+    SummarySolver(InterDataflowAnalysis<Node, Fact> analysis,
+                  ICFG<Method, Node> icfg, int limit) {
+        this.analysis = analysis;
+        this.icfg = icfg;
+        this.limit = limit;
+    }
+
+    DataflowResult<Node, Fact> solve() {
+        initialize();
+        doSolve();
+        return collectResult();
+    }
+
+    private void initialize() {
+        nodesOf = new LinkedHashMap<>();
+        for (Node node : icfg) {
+            nodesOf.computeIfAbsent(icfg.getContainingMethodOf(node),
+                    m -> new ArrayList<>()).add(node);
+        }
+        summaries = new HashMap<>();
+        workList = new SetQueue<>();
+    }
+
+    private void doSolve() {
+        entryContexts = icfg.entryMethods()
+                .map(m -> getContext(m,
+                        analysis.newBoundaryFact(icfg.getEntryOf(m))))
+                .toList();
+        while (!workList.isEmpty()) {
+            solve(workList.poll());
+        }
+        logger.info("{} contexts of {} methods", summaries.values()
+                .stream()
+                .mapToInt(Summaries::size)
+                .sum(), summaries.size());
+    }
+
+    /**
+     * Propagates the pending nodes of given context to its local fixed
+     * point, and notifies the callers if the summary has changed.
+     */
+    private void solve(Context context) {
+        Node entry = icfg.getEntryOf(context.method);
+        Node exit = icfg.getExitOf(context.method);
+        boolean summaryChanged = !context.solved;
+        context.solved = true;
+        Node node;
+        while ((node = context.pending.poll()) != null) {
+            Fact in = context.result.getInFact(node);
+            if (!node.equals(entry)) {
+                for (ICFGEdge<Node> edge : icfg.getInEdgesOf(node)) {
+                    Fact fact = transferInEdge(context, edge);
+                    if (fact != null) {
+                        analysis.meetInto(fact, in);
+                    }
+                }
+            }
+            Fact out = context.result.getOutFact(node);
+            boolean changed = analysis.transferNode(node, in, out);
+            if (icfg.isCallSite(node)) {
+                bindCallees(context, node);
+            }
+            if (changed) {
+                if (node.equals(exit)) {
+                    summaryChanged = true;
+                }
+                for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(node)) {
+                    if (isLocal(edge)) {
+                        context.pending.add(edge.getTarget());
+                    }
+                }
+            }
+        }
+        if (summaryChanged) {
+            context.callers.forEach((caller, callSites) -> {
+                for (Node callSite : callSites) {
+                    caller.pending.addAll(icfg.getReturnSitesOf(callSite));
+                }
+                workList.add(caller);
+            });
+        }
+    }
+
+    /**
+     * @return the fact flowing along given in edge in given context,
+     * or null if nothing flows along the edge (yet).
+     */
+    private Fact transferInEdge(Context context, ICFGEdge<Node> edge) {
+        if (edge instanceof CallEdge) {
+            // entry facts are given by the contexts
+            return null;
+        } else if (edge instanceof ReturnEdge<Node> returnEdge) {
+            Map<Method, Context> callees = context.callees.get(
+                    returnEdge.getCallSite());
+            Context callee = callees == null ? null
+                    : callees.get(icfg.getContainingMethodOf(edge.getSource()));
+            return callee == null || !callee.solved ? null
+                    : analysis.transferEdge(edge,
+                    callee.result.getOutFact(edge.getSource()));
+        } else {
+            return analysis.transferEdge(edge,
+                    context.result.getOutFact(edge.getSource()));
+        }
+    }
+
+    /**
+     * Looks up the contexts of the callees of given call site by
+     * the facts passed along its call edges. If any of them changes,
+     * the return sites are re-propagated with the new summaries.
+     */
+    private void bindCallees(Context context, Node callSite) {
+        Fact out = context.result.getOutFact(callSite);
+        Map<Method, Context> callees = context.callees
+                .computeIfAbsent(callSite, n -> new HashMap<>());
+        boolean changed = false;
+        for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(callSite)) {
+            if (edge instanceof CallEdge) {
+                Method method = icfg.getContainingMethodOf(edge.getTarget());
+                Context callee = getContext(method,
+                        analysis.transferEdge(edge, out));
+                callee.callers.computeIfAbsent(context, c -> new HashSet<>())
+                        .add(callSite);
+                changed |= callees.put(method, callee) != callee;
+            }
+        }
+        if (changed) {
+            context.pending.addAll(icfg.getReturnSitesOf(callSite));
+        }
+    }
+
+    /**
+     * @return true if given edge connects two nodes of the same method.
+     */
+    private static boolean isLocal(ICFGEdge<?> edge) {
+        return !(edge instanceof CallEdge) && !(edge instanceof ReturnEdge);
+    }
+
+    /**
+     * @return the context of given method for given entry fact. A new context
+     * is created (and scheduled) if the method has fewer than {@link #limit}
+     * contexts, otherwise the entry fact is merged into the merged context.
+     */
+    private Context getContext(Method method, Fact entryFact) {
+        Summaries s = summaries.computeIfAbsent(method, m -> new Summaries());
+        Context context = s.contexts.get(entryFact);
+        if (context != null) {
+            return context;
+        }
+        if (s.contexts.size() < limit) {
+            context = newContext(method, entryFact);
+            s.contexts.put(entryFact, context);
+        } else if (s.merged == null) {
+            context = s.merged = newContext(method, entryFact);
+        } else {
+            context = s.merged;
+            Fact in = context.result.getInFact(icfg.getEntryOf(method));
+            Fact old = copy(in);
+            analysis.meetInto(entryFact, in);
+            if (!in.equals(old)) {
+                context.pending.add(icfg.getEntryOf(method));
+                workList.add(context);
+            }
+        }
+        return context;
+    }
+
+    private Context newContext(Method method, Fact entryFact) {
+        Context context = new Context(method);
+        List<Node> nodes = nodesOf.get(method);
+        for (Node node : nodes) {
+            context.result.setInFact(node, analysis.newInitialFact());
+            context.result.setOutFact(node, analysis.newInitialFact());
+        }
+        analysis.meetInto(entryFact,
+                context.result.getInFact(icfg.getEntryOf(method)));
+        context.pending.addAll(nodes);
+        workList.add(context);
+        return context;
+    }
+
+    private Fact copy(Fact fact) {
+        Fact copy = analysis.newInitialFact();
+        analysis.meetInto(fact, copy);
+        return copy;
+    }
+
+    /**
+     * Meets the facts of all contexts reachable from the entry methods.
+     */
+    private DataflowResult<Node, Fact> collectResult() {
+        DataflowResult<Node, Fact> result = new DataflowResult<>();
+        for (Node node : icfg) {
+            result.setInFact(node, analysis.newInitialFact());
+            result.setOutFact(node, analysis.newInitialFact());
+        }
+        Set<Context> visited = new HashSet<>(entryContexts);
+        Deque<Context> stack = new ArrayDeque<>(visited);
+        while (!stack.isEmpty()) {
+            Context context = stack.pop();
+            for (Node node : nodesOf.get(context.method)) {
+                analysis.meetInto(context.result.getInFact(node),
+                        result.getInFact(node));
+                analysis.meetInto(context.result.getOutFact(node),
+                        result.getOutFact(node));
+            }
+            context.callees.values().forEach(callees ->
+                    callees.values().forEach(callee -> {
+                        if (visited.add(callee)) {
+                            stack.push(callee);
+                        }
+                    }));
+        }
+        return result;
+    }
+
+    /**
+     * Contexts of a method.
+     */
+    private class Summaries {
+
+        private final Map<Fact, Context> contexts = new HashMap<>();
+
+        private Context merged;
+
+        private int size() {
+            return contexts.size() + (merged != null ? 1 : 0);
+        }
+    }
+
+    /**
+     * A method analyzed under one entry fact.
+     */
+    private class Context {
+
+        private final Method method;
+
+        private final DataflowResult<Node, Fact> result = new DataflowResult<>();
+
+        private final Queue<Node> pending = new SetQueue<>();
+
+        /**
+         * Contexts of the callees of each call site in this context.
+         */
+        private final Map<Node, Map<Method, Context>> callees = new HashMap<>();
+
+        /**
+         * Contexts (and their call sites) which use the summary of this
+         * context, i.e., the out fact of the exit.
+         */
+        private final Map<Context, Set<Node>> callers = new HashMap<>();
+
+        /**
+         * Whether this context has been solved once, i.e.,
+         * its summary is available.
+         */
+        private boolean solved;
+
+        private Context(Method method) {
+            this.method = method;
+        }
+    }
+}
@@ -0,0 +1,583 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.icfg;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ClassType;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * ICFG in compressed sparse row (CSR) form.
+ * <p>
+ * The nodes of all methods are numbered by global indexes
+ * {@code [0, getNumberOfNodes())}. The nodes of each method take a range
+ * of the indexes, in which each node is at its {@link Stmt#getIndex()}
+ * (the entry and exit of a CFG are numbered after the statements of
+ * the IR), so the index of a node is the offset of its method plus its
+ * own index, and no map from the nodes to their indexes is kept.
+ * The edges are numbered by indexes
+ * {@code [0, getNumberOfEdges())} and grouped by their sources, so the out
+ * edges of a node are the range {@code [getOutEdgeStart(node), getOutEdgeEnd(node))};
+ * a second CSR array lists the indexes of the in edges of each node.
+ * The kind of each edge is a byte, e.g., {@link #NORMAL}.
+ * <p>
+ * Solvers may work on the indexes directly. The {@link ICFGEdge} objects
+ * required by {@link ICFG} and the edge transfer functions are only
+ * created when asked for by {@link #getEdge(int)}, and then cached.
+ * The edges equal the ones of the default ICFG built by {@link ICFGBuilder}.
+ */
+public class CompactICFG extends AbstractICFG<JMethod, Stmt> {
+
+    private static final Logger logger = LogManager.getLogger(CompactICFG.class);
+
+    /**
+     * Kind of {@link NormalEdge}.
+     */
+    public static final byte NORMAL = 0;
+
+    /**
+     * Kind of {@link CallToReturnEdge}.
+     */
+    public static final byte CALL_TO_RETURN = 1;
+
+    /**
+     * Kind of {@link CallEdge}.
+     */
+    public static final byte CALL = 2;
+
+    /**
+     * Kind of {@link ReturnEdge}.
+     */
+    public static final byte RETURN = 3;
+
+    private final Stmt[] nodes;
+
+    private final List<CFG<Stmt>> cfgs;
+
+    private final Map<JMethod, Integer> methodIndexes;
+
+    /**
+     * The nodes of the i-th method are {@code [methodOffsets[i], methodOffsets[i + 1])}.
+     */
+    private final int[] methodOffsets;
+
+    /**
+     * Open-addressing hash table from the nodes (by identity) to the
+     * indexes of their methods plus one, or 0 for empty slots. The length
+     * is a power of two, and at least twice the number of nodes.
+     */
+    private final int[] methodTable;
+
+    private final int[] outOffsets;
+
+    private final int[] sources;
+
+    private final int[] targets;
+
+    private final byte[] kinds;
+
+    /**
+     * Call site of each return edge, or -1 for other edges.
+     */
+    private final int[] callSites;
+
+    private final int[] inOffsets;
+
+    /**
+     * Indexes of the in edges of each node.
+     */
+    private final int[] inEdges;
+
+    private final ICFGEdge<Stmt>[] edges;
+
+    @SuppressWarnings("unchecked")
+    private CompactICFG(CallGraph<Stmt, JMethod> callGraph) {
+        super(callGraph);
+        // number the nodes method by method
+        cfgs = new ArrayList<>();
+        methodIndexes = new HashMap<>();
+        callGraph.reachableMethods().forEach(method -> {
+            CFG<Stmt> cfg = method.getIR().getResult(CFGBuilder.ID);
+            if (cfg == null) {
+                logger.warn("CFG of {} is absent, try to fix this" +
+                        " by adding option -scope=reachable", method);
+                return;
+            }
+            methodIndexes.put(method, cfgs.size());
+            cfgs.add(cfg);
+        });
+        methodOffsets = new int[cfgs.size() + 1];
+        for (int m = 0; m < cfgs.size(); ++m) {
+            methodOffsets[m + 1] = methodOffsets[m] + cfgs.get(m).getNumberOfNodes();
+        }
+        nodes = new Stmt[methodOffsets[cfgs.size()]];
+        methodTable = new int[Math.max(2, Integer.highestOneBit(
+                Math.max(1, nodes.length)) << 2)];
+        for (int m = 0; m < cfgs.size(); ++m) {
+            for (Stmt node : cfgs.get(m)) {
+                // the nodes of a CFG are numbered by [0, getNumberOfNodes())
+                nodes[methodOffsets[m] + node.getIndex()] = node;
+                int mask = methodTable.length - 1;
+                int h = hash(node) & mask;
+                while (methodTable[h] != 0) {
+                    h = (h + 1) & mask;
+                }
+                methodTable[h] = m + 1;
+            }
+        }
+        // collect the edges, dropping the ones equal to an edge collected
+        // before, as the sets of the default ICFG do
+        EdgeBuffer buffer = new EdgeBuffer();
+        for (int n = 0; n < nodes.length; ++n) {
+            Stmt node = nodes[n];
+            int m = getMethodIndex(n);
+            CFG<Stmt> cfg = cfgs.get(m);
+            byte kind = isCallSite(node) ? CALL_TO_RETURN : NORMAL;
+            for (Edge<Stmt> edge : cfg.getOutEdgesOf(node)) {
+                buffer.add(n, getIndex(m, edge.getTarget()), kind, -1);
+            }
+            if (isCallSite(node)) {
+                for (JMethod callee : getCalleesOf(node)) {
+                    Integer c = methodIndexes.get(callee);
+                    if (c == null) {
+                        logger.warn("CFG of {} is absent, try to fix this" +
+                                " by adding option -scope=reachable", callee);
+                        continue;
+                    }
+                    CFG<Stmt> calleeCFG = cfgs.get(c);
+                    buffer.add(n, getIndex(c, calleeCFG.getEntry()), CALL, -1);
+                    int exit = getIndex(c, calleeCFG.getExit());
+                    for (Stmt retSite : cfg.getSuccsOf(node)) {
+                        buffer.add(exit, getIndex(m, retSite), RETURN, n);
+                    }
+                }
+            }
+        }
+        // group the edges by sources and targets
+        int size = buffer.size;
+        outOffsets = offsets(nodes.length, size, e -> buffer.sources[e]);
+        int[] next = Arrays.copyOf(outOffsets, nodes.length);
+        sources = new int[size];
+        targets = new int[size];
+        kinds = new byte[size];
+        callSites = new int[size];
+        for (int i = 0; i < size; ++i) {
+            int e = next[buffer.sources[i]]++;
+            sources[e] = buffer.sources[i];
+            targets[e] = buffer.targets[i];
+            kinds[e] = buffer.kinds[i];
+            callSites[e] = buffer.callSites[i];
+        }
+        inOffsets = offsets(nodes.length, size, e -> targets[e]);
+        next = Arrays.copyOf(inOffsets, nodes.length);
+        inEdges = new int[size];
+        for (int e = 0; e < size; ++e) {
+            inEdges[next[targets[e]]++] = e;
+        }
+        edges = (ICFGEdge<Stmt>[]) new ICFGEdge<?>[size];
+    }
+
+    /**
+     * @return the compact ICFG of given call graph.
+     */
+    public static CompactICFG of(CallGraph<Stmt, JMethod> callGraph) {
+        return new CompactICFG(callGraph);
+    }
+
+    /**
+     * @return the CSR offsets of the edges grouped by {@code key}.
+     */
+    private static int[] offsets(int nodes, int edges, IntUnaryOperator key) {
+        int[] offsets = new int[nodes + 1];
+        for (int e = 0; e < edges; ++e) {
+            ++offsets[key.applyAsInt(e) + 1];
+        }
+        for (int n = 0; n < nodes; ++n) {
+            offsets[n + 1] += offsets[n];
+        }
+        return offsets;
+    }
+
+    /**
+     * Growable edge arrays used while building the ICFG.
+     */
+    private static class EdgeBuffer {
+
+        private int[] sources = new int[16];
+
+        private int[] targets = new int[16];
+
+        private byte[] kinds = new byte[16];
+
+        private int[] callSites = new int[16];
+
+        private int size;
+
+        private final Set<Long> added = new HashSet<>();
+
+        private void add(int source, int target, byte kind, int callSite) {
+            // ICFGEdges are equal if they have the same class, source
+            // and target, and edges of different kinds never connect
+            // the same nodes
+            long key = (long) source << 32 | target;
+            if (!added.add(key)) {
+                return;
+            }
+            if (size == sources.length) {
+                int capacity = size * 2;
+                sources = Arrays.copyOf(sources, capacity);
+                targets = Arrays.copyOf(targets, capacity);
+                kinds = Arrays.copyOf(kinds, capacity);
+                callSites = Arrays.copyOf(callSites, capacity);
+            }
+            sources[size] = source;
+            targets[size] = target;
+            kinds[size] = kind;
+            callSites[size] = callSite;
+            ++size;
+        }
+    }
+
+    // ---------- integer API ----------
+
+    @Override
+    public int getNumberOfNodes() {
+        return nodes.length;
+    }
+
+    public int getNumberOfEdges() {
+        return targets.length;
+    }
+
+    /**
+     * @return the global index of given node.
+     * @throws IllegalArgumentException if the node is not in this ICFG
+     */
+    public int getIndex(Stmt node) {
+        int m = getMethodIndex(node);
+        if (m < 0) {
+            throw new IllegalArgumentException(node + " is not in the ICFG");
+        }
+        return getIndex(m, node);
+    }
+
+    /**
+     * @return the global index of given node of the m-th method.
+     */
+    private int getIndex(int m, Stmt node) {
+        return methodOffsets[m] + node.getIndex();
+    }
+
+    /**
+     * @return the index of the method containing given node,
+     * or -1 if the node is not in this ICFG.
+     */
+    private int getMethodIndex(Stmt node) {
+        int mask = methodTable.length - 1;
+        for (int h = hash(node) & mask; methodTable[h] != 0; h = (h + 1) & mask) {
+            // the slot may belong to another node, which is checked
+            // by looking up the node at its index in the method
+            int m = methodTable[h] - 1;
+            int n = methodOffsets[m] + node.getIndex();
+            if (n >= methodOffsets[m] && n < methodOffsets[m + 1] && nodes[n] == node) {
+                return m;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the index of the method containing the node of given index.
+     */
+    private int getMethodIndex(int node) {
+        int i = Arrays.binarySearch(methodOffsets, node);
+        // the ranges of the methods are not empty, so the offsets are distinct
+        return i >= 0 ? i : -i - 2;
+    }
+
+    private static int hash(Stmt node) {
+        int h = System.identityHashCode(node);
+        return h ^ (h >>> 16);
+    }
+
+    public Stmt getNode(int index) {
+        return nodes[index];
+    }
+
+    /**
+     * @return the index of the first out edge of given node.
+     */
+    public int getOutEdgeStart(int node) {
+        return outOffsets[node];
+    }
+
+    /**
+     * @return the index after the last out edge of given node.
+     */
+    public int getOutEdgeEnd(int node) {
+        return outOffsets[node + 1];
+    }
+
+    /**
+     * @return the start of the in edges of given node, see {@link #getInEdge(int)}.
+     */
+    public int getInEdgeStart(int node) {
+        return inOffsets[node];
+    }
+
+    /**
+     * @return the end of the in edges of given node, see {@link #getInEdge(int)}.
+     */
+    public int getInEdgeEnd(int node) {
+        return inOffsets[node + 1];
+    }
+
+    /**
+     * @param i a position in {@code [getInEdgeStart(node), getInEdgeEnd(node))}
+     * @return the index of the i-th in edge.
+     */
+    public int getInEdge(int i) {
+        return inEdges[i];
+    }
+
+    public int getEdgeSource(int edge) {
+        return sources[edge];
+    }
+
+    public int getEdgeTarget(int edge) {
+        return targets[edge];
+    }
+
+    /**
+     * @return the kind of given edge, i.e., {@link #NORMAL}, {@link #CALL_TO_RETURN},
+     * {@link #CALL} or {@link #RETURN}.
+     */
+    public byte getEdgeKind(int edge) {
+        return kinds[edge];
+    }
+
+    /**
+     * @return the {@link ICFGEdge} object of given edge.
+     */
+    public ICFGEdge<Stmt> getEdge(int edge) {
+        ICFGEdge<Stmt> e = edges[edge];
+        if (e == null) {
+            // racing threads may create equal edges, which is harmless
+            e = edges[edge] = newEdge(edge);
+        }
+        return e;
+    }
+
+    private ICFGEdge<Stmt> newEdge(int edge) {
+        Stmt source = nodes[sources[edge]];
+        Stmt target = nodes[targets[edge]];
+        return switch (kinds[edge]) {
+            case NORMAL -> new NormalEdge<>(getCFGEdge(source, target));
+            case CALL_TO_RETURN -> new CallToReturnEdge<>(getCFGEdge(source, target));
+            case CALL -> new CallEdge<>(source, target, getContainingMethodOf(target));
+            default -> {
+                Set<Var> retVars = new HashSet<>();
+                Set<ClassType> exceptions = new HashSet<>();
+                CFG<Stmt> cfg = cfgs.get(getMethodIndex(sources[edge]));
+                for (Edge<Stmt> e : cfg.getInEdgesOf(source)) {
+                    if (e.getKind() == Edge.Kind.RETURN) {
+                        Var ret = ((Return) e.getSource()).getValue();
+                        if (ret != null) {
+                            retVars.add(ret);
+                        }
+                    }
+                    if (e.isExceptional()) {
+                        exceptions.addAll(e.getExceptions());
+                    }
+                }
+                yield new ReturnEdge<>(source, target,
+                        nodes[callSites[edge]], retVars, exceptions);
+            }
+        };
+    }
+
+    /**
+     * @return the first CFG edge from source to target,
+     * which is the one kept by the default ICFG.
+     */
+    private Edge<Stmt> getCFGEdge(Stmt source, Stmt target) {
+        for (Edge<Stmt> edge : getCFGOf(source).getOutEdgesOf(source)) {
+            if (edge.getTarget().equals(target)) {
+                return edge;
+            }
+        }
+        throw new NoSuchElementException(source + " -> " + target);
+    }
+
+    private CFG<Stmt> getCFGOf(Stmt node) {
+        int m = getMethodIndex(node);
+        if (m < 0) {
+            throw new IllegalArgumentException(node + " is not in the ICFG");
+        }
+        return cfgs.get(m);
+    }
+
+    // ---------- ICFG API ----------
+
+    @Override
+    public Set<ICFGEdge<Stmt>> getInEdgesOf(Stmt node) {
+        int n = getIndex(node);
+        return new IndexSet<>(inOffsets[n], inOffsets[n + 1],
+                i -> getEdge(inEdges[i]));
+    }
+
+    @Override
+    public Set<ICFGEdge<Stmt>> getOutEdgesOf(Stmt node) {
+        int n = getIndex(node);
+        return new IndexSet<>(outOffsets[n], outOffsets[n + 1], this::getEdge);
+    }
+
+    @Override
+    public Set<Stmt> getPredsOf(Stmt node) {
+        int n = getIndex(node);
+        return new IndexSet<>(inOffsets[n], inOffsets[n + 1],
+                i -> nodes[sources[inEdges[i]]]);
+    }
+
+    @Override
+    public Set<Stmt> getSuccsOf(Stmt node) {
+        int n = getIndex(node);
+        return new IndexSet<>(outOffsets[n], outOffsets[n + 1],
+                e -> nodes[targets[e]]);
+    }
+
+    @Override
+    public Stmt getEntryOf(JMethod method) {
+        return cfgs.get(methodIndexes.get(method)).getEntry();
+    }
+
+    @Override
+    public Stmt getExitOf(JMethod method) {
+        return cfgs.get(methodIndexes.get(method)).getExit();
+    }
+
+    @Override
+    public Set<Stmt> getReturnSitesOf(Stmt callSite) {
+        assert isCallSite(callSite);
+        return getCFGOf(callSite).getSuccsOf(callSite);
+    }
+
+    @Override
+    public JMethod getContainingMethodOf(Stmt node) {
+        return getCFGOf(node).getMethod();
+    }
+
+    @Override
+    public boolean isCallSite(Stmt node) {
+        return node instanceof Invoke;
+    }
+
+    @Override
+    public boolean hasNode(Stmt node) {
+        return getMethodIndex(node) >= 0;
+    }
+
+    @Override
+    public boolean hasEdge(Stmt source, Stmt target) {
+        return hasNode(source) && getSuccsOf(source).contains(target);
+    }
+
+    @Override
+    public Set<Stmt> getNodes() {
+        return new IndexSet<>(0, nodes.length, i -> nodes[i]) {
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof Stmt node && hasNode(node);
+            }
+        };
+    }
+
+    /**
+     * Unmodifiable set view of the elements of an index range. The elements
+     * of the range are distinct, as the edges are, and no two edges have
+     * the same source and target.
+     */
+    private static class IndexSet<E> extends AbstractSet<E> {
+
+        private final int start;
+
+        private final int end;
+
+        private final IntFunction<E> element;
+
+        private IndexSet(int start, int end,
+                         IntFunction<E> element) {
+            this.start = start;
+            this.end = end;
+            this.element = element;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<>() {
+
+                private int i = start;
+
+                @Override
+                public boolean hasNext() {
+                    return i < end;
+                }
+
+                @Override
+                public E next() {
+                    if (i >= end) {
+                        throw new NoSuchElementException();
+                    }
+                    return element.apply(i++);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return end - start;
+        }
+    }
+}
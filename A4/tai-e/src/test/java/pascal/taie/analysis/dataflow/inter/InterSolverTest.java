@@ -0,0 +1,91 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.inter;
+
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGBuilder;
+import pascal.taie.analysis.graph.icfg.SyntheticProgram;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import static org.junit.Assert.assertEquals;
+
+public class InterSolverTest {
+
+    @Test
+    public void testParallel() {
+        SyntheticProgram program = SyntheticProgram.recursion();
+        DataflowResult<Stmt, CPFact> expected = solve();
+        CPFact fact = expected.getInFact(program.getStmt("main", 6));
+        assertEquals(Value.getNAC(), fact.get(program.getVar("main", "r")));
+        assertEquals(Value.makeConstant(9), fact.get(program.getVar("main", "s")));
+        assertEquals(Value.makeConstant(1), fact.get(program.getVar("main", "e")));
+        // the order in which the components are solved varies from run to run
+        for (int i = 0; i < 20; ++i) {
+            assertSameResult(expected, solve("parallel", true));
+        }
+    }
+
+    @Test
+    public void testParallelOnSingleComponent() {
+        SyntheticProgram.identity();
+        assertSameResult(solve(), solve("parallel", true));
+    }
+
+    @Test
+    public void testCompactICFG() {
+        SyntheticProgram.identity();
+        assertSameResult(solve(), solve("icfg", "compact"));
+        SyntheticProgram.recursion();
+        assertSameResult(solve(), solve("icfg", "compact"));
+    }
+
+    /**
+     * Runs inter-procedural constant propagation with given options
+     * on the program in the world.
+     */
+    private static DataflowResult<Stmt, CPFact> solve(Object... options) {
+        InterConstantPropagation cp = new InterConstantPropagation(
+                new AnalysisConfig(InterConstantPropagation.ID, options));
+        @SuppressWarnings("unchecked")
+        DataflowResult<Stmt, CPFact> result =
+                (DataflowResult<Stmt, CPFact>) cp.analyze();
+        return result;
+    }
+
+    private static void assertSameResult(DataflowResult<Stmt, CPFact> expected,
+                                         DataflowResult<Stmt, CPFact> actual) {
+        ICFG<JMethod, Stmt> icfg = World.get().getResult(ICFGBuilder.ID);
+        for (Stmt node : icfg) {
+            assertEquals(expected.getInFact(node), actual.getInFact(node));
+            assertEquals(expected.getOutFact(node), actual.getOutFact(node));
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.inter;
+
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGBuilder;
+import pascal.taie.analysis.graph.icfg.SyntheticProgram;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import static org.junit.Assert.assertEquals;
+
+public class SummarySolverTest {
+
+    @Test
+    public void testContexts() {
+        SyntheticProgram program = SyntheticProgram.identity();
+        CPFact fact = solve("summary", true).getOutFact(program.getStmt("main", 4));
+        assertEquals(Value.makeConstant(1), fact.get(program.getVar("main", "x")));
+        assertEquals(Value.makeConstant(2), fact.get(program.getVar("main", "y")));
+        assertEquals(Value.makeConstant(3), fact.get(program.getVar("main", "z")));
+        fact = solve().getOutFact(program.getStmt("main", 4));
+        assertEquals(Value.getNAC(), fact.get(program.getVar("main", "z")));
+    }
+
+    @Test
+    public void testLimitZero() {
+        SyntheticProgram.identity();
+        assertSameResult(solve(), solve("summary", true, "summary-limit", 0));
+        SyntheticProgram.recursion();
+        assertSameResult(solve(), solve("summary", true, "summary-limit", 0));
+    }
+
+    @Test
+    public void testMergedContext() {
+        SyntheticProgram program = SyntheticProgram.identity();
+        // the second entry fact of id goes to the merged context
+        CPFact fact = solve("summary", true, "summary-limit", 1)
+                .getOutFact(program.getStmt("main", 4));
+        assertEquals(Value.makeConstant(3), fact.get(program.getVar("main", "z")));
+    }
+
+    @Test
+    public void testSoundAndMorePrecise() {
+        SyntheticProgram.identity();
+        assertMorePrecise(solve("summary", true), solve());
+        SyntheticProgram program = SyntheticProgram.recursion();
+        DataflowResult<Stmt, CPFact> result = solve("summary", true);
+        assertMorePrecise(result, solve());
+        CPFact fact = result.getInFact(program.getStmt("main", 6));
+        assertEquals(Value.getNAC(), fact.get(program.getVar("main", "r")));
+        assertEquals(Value.makeConstant(9), fact.get(program.getVar("main", "s")));
+    }
+
+    /**
+     * Runs inter-procedural constant propagation with given options
+     * on the program in the world.
+     */
+    private static DataflowResult<Stmt, CPFact> solve(Object... options) {
+        InterConstantPropagation cp = new InterConstantPropagation(
+                new AnalysisConfig(InterConstantPropagation.ID, options));
+        @SuppressWarnings("unchecked")
+        DataflowResult<Stmt, CPFact> result =
+                (DataflowResult<Stmt, CPFact>) cp.analyze();
+        return result;
+    }
+
+    private static ICFG<JMethod, Stmt> getICFG() {
+        return World.get().getResult(ICFGBuilder.ID);
+    }
+
+    private static void assertSameResult(DataflowResult<Stmt, CPFact> expected,
+                                         DataflowResult<Stmt, CPFact> actual) {
+        for (Stmt node : getICFG()) {
+            assertEquals(expected.getInFact(node), actual.getInFact(node));
+            assertEquals(expected.getOutFact(node), actual.getOutFact(node));
+        }
+    }
+
+    /**
+     * Checks that each fact of {@code precise} is at least as precise as
+     * the one of {@code result}, i.e., meeting it into the latter does
+     * not change the latter.
+     */
+    private static void assertMorePrecise(DataflowResult<Stmt, CPFact> precise,
+                                          DataflowResult<Stmt, CPFact> result) {
+        InterConstantPropagation cp = new InterConstantPropagation(
+                new AnalysisConfig(InterConstantPropagation.ID));
+        for (Stmt node : getICFG()) {
+            CPFact fact = result.getOutFact(node).copy();
+            cp.meetInto(precise.getOutFact(node), fact);
+            assertEquals(result.getOutFact(node), fact);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.icfg;
+
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class CompactICFGTest {
+
+    @Test
+    public void testIdentity() {
+        SyntheticProgram.identity();
+        assertSameAsDefault();
+    }
+
+    @Test
+    public void testRecursion() {
+        SyntheticProgram.recursion();
+        assertSameAsDefault();
+    }
+
+    @Test
+    public void testEdgeIndexes() {
+        SyntheticProgram.recursion();
+        CompactICFG icfg = buildCompactICFG();
+        int edges = 0;
+        for (int n = 0; n < icfg.getNumberOfNodes(); ++n) {
+            assertEquals(n, icfg.getIndex(icfg.getNode(n)));
+            for (int e = icfg.getOutEdgeStart(n); e < icfg.getOutEdgeEnd(n); ++e) {
+                ICFGEdge<Stmt> edge = icfg.getEdge(e);
+                assertSame(edge, icfg.getEdge(e));
+                assertEquals(n, icfg.getEdgeSource(e));
+                assertSame(icfg.getNode(n), edge.getSource());
+                assertSame(icfg.getNode(icfg.getEdgeTarget(e)), edge.getTarget());
+                assertEquals(kindOf(edge), icfg.getEdgeKind(e));
+                ++edges;
+            }
+            for (int i = icfg.getInEdgeStart(n); i < icfg.getInEdgeEnd(n); ++i) {
+                assertEquals(n, icfg.getEdgeTarget(icfg.getInEdge(i)));
+            }
+        }
+        assertEquals(icfg.getNumberOfEdges(), edges);
+    }
+
+    @Test
+    public void testForeignNodes() {
+        SyntheticProgram.recursion();
+        CompactICFG icfg = buildCompactICFG();
+        // same indexes as the nodes of the ICFG, but in another program
+        SyntheticProgram other = SyntheticProgram.recursion();
+        Stmt foreign = other.getStmt("main", 0);
+        assertFalse(icfg.hasNode(foreign));
+        assertFalse(icfg.getNodes().contains(foreign));
+        assertThrows(IllegalArgumentException.class, () -> icfg.getIndex(foreign));
+        for (Stmt node : icfg) {
+            assertTrue(icfg.hasNode(node));
+            assertTrue(icfg.getNodes().contains(node));
+        }
+    }
+
+    /**
+     * Checks that the compact ICFG of the call graph in the world has
+     * the same nodes and edges as the ICFG built by {@link ICFGBuilder}.
+     */
+    private static void assertSameAsDefault() {
+        ICFG<JMethod, Stmt> expected = World.get().getResult(ICFGBuilder.ID);
+        CompactICFG icfg = buildCompactICFG();
+        assertEquals(Set.copyOf(expected.getNodes()), icfg.getNodes());
+        assertEquals(expected.getNodes().size(), icfg.getNumberOfNodes());
+        expected.entryMethods().forEach(method -> {
+            assertSame(expected.getEntryOf(method), icfg.getEntryOf(method));
+            assertSame(expected.getExitOf(method), icfg.getExitOf(method));
+        });
+        for (Stmt node : expected) {
+            assertSame(expected.getContainingMethodOf(node),
+                    icfg.getContainingMethodOf(node));
+            assertEquals(Set.copyOf(expected.getInEdgesOf(node)),
+                    Set.copyOf(icfg.getInEdgesOf(node)));
+            assertEquals(Set.copyOf(expected.getOutEdgesOf(node)),
+                    Set.copyOf(icfg.getOutEdgesOf(node)));
+            assertEquals(Set.copyOf(expected.getPredsOf(node)),
+                    Set.copyOf(icfg.getPredsOf(node)));
+            assertEquals(Set.copyOf(expected.getSuccsOf(node)),
+                    Set.copyOf(icfg.getSuccsOf(node)));
+            assertEquals(expected.isCallSite(node), icfg.isCallSite(node));
+            if (expected.isCallSite(node)) {
+                assertEquals(Set.copyOf(expected.getReturnSitesOf(node)),
+                        Set.copyOf(icfg.getReturnSitesOf(node)));
+                assertEquals(Set.copyOf(expected.getCalleesOf(node)),
+                        Set.copyOf(icfg.getCalleesOf(node)));
+            }
+            Map<ICFGEdge<Stmt>, ICFGEdge<Stmt>> edges = new HashMap<>();
+            icfg.getOutEdgesOf(node).forEach(edge -> edges.put(edge, edge));
+            for (ICFGEdge<Stmt> edge : expected.getOutEdgesOf(node)) {
+                assertSameEdge(edge, edges.get(edge));
+            }
+        }
+    }
+
+    /**
+     * Checks the attributes of two equal edges which are not
+     * considered by {@code equals()}.
+     */
+    private static void assertSameEdge(ICFGEdge<Stmt> expected, ICFGEdge<Stmt> actual) {
+        assertEquals(expected.getClass(), actual.getClass());
+        if (expected instanceof NormalEdge<Stmt> normal) {
+            assertSame(normal.getCFGEdge(), ((NormalEdge<Stmt>) actual).getCFGEdge());
+        } else if (expected instanceof CallEdge<Stmt> call) {
+            assertSame(call.getCallee(), ((CallEdge<Stmt>) actual).getCallee());
+        } else if (expected instanceof ReturnEdge<Stmt> ret) {
+            ReturnEdge<Stmt> actualRet = (ReturnEdge<Stmt>) actual;
+            assertSame(ret.getCallSite(), actualRet.getCallSite());
+            assertEquals(Set.copyOf(ret.getReturnVars()),
+                    Set.copyOf(actualRet.getReturnVars()));
+        }
+    }
+
+    private static CompactICFG buildCompactICFG() {
+        CallGraph<Stmt, JMethod> callGraph = World.get().getResult(CallGraphBuilder.ID);
+        return CompactICFG.of(callGraph);
+    }
+
+    private static byte kindOf(ICFGEdge<Stmt> edge) {
+        if (edge instanceof NormalEdge) {
+            return CompactICFG.NORMAL;
+        } else if (edge instanceof CallToReturnEdge) {
+            return CompactICFG.CALL_TO_RETURN;
+        } else if (edge instanceof CallEdge) {
+            return CompactICFG.CALL;
+        } else {
+            return CompactICFG.RETURN;
+        }
+    }
+}
@@ -0,0 +1,328 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.icfg;
+
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
+import pascal.taie.analysis.graph.callgraph.CallKind;
+import pascal.taie.analysis.graph.callgraph.DefaultCallGraph;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.DefaultIR;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.IRBuilder;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.InvokeStatic;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Modifier;
+import pascal.taie.language.type.PrimitiveType;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntConsumer;
+
+/**
+ * Builds small programs of static methods {@code int m(int p)}, and
+ * stores their call graph and ICFG in a new {@link World}, so that
+ * inter-procedural analyses can be run on them without a class path.
+ */
+public class SyntheticProgram {
+
+    private static final CFGBuilder CFG_BUILDER = new CFGBuilder(
+            new AnalysisConfig(CFGBuilder.ID, "exception", "none", "dump", false));
+
+    private final JClass jclass = new JClass(null, "Synthetic");
+
+    private final Map<String, MethodBuilder> methods = new LinkedHashMap<>();
+
+    private final Map<JMethod, IR> irs = new HashMap<>();
+
+    /**
+     * Callee names of the call sites.
+     */
+    private final Map<Invoke, String> callees = new HashMap<>();
+
+    /**
+     * @return the program
+     * <pre>
+     * int main(int p) { a = 1; x = id(a); b = 2; y = id(b); z = x + y; return z; }
+     * int id(int p) { return p; }
+     * </pre>
+     * whose call sites pass different constants to the same method.
+     */
+    public static SyntheticProgram identity() {
+        SyntheticProgram program = new SyntheticProgram();
+        program.method("main")
+                .assign("a", 1)
+                .call("x", "id", "a")
+                .assign("b", 2)
+                .call("y", "id", "b")
+                .binary("z", "x", ArithmeticExp.Op.ADD, "y")
+                .ret("z");
+        program.method("id")
+                .ret("p");
+        return program.build("main");
+    }
+
+    /**
+     * @return the program
+     * <pre>
+     * int main(int p) {
+     *     n = 10; r = fib(n); c = 3; s = sq(c); e = even(n); sq(c); return r;
+     * }
+     * int fib(int p) {
+     *     one = 1;
+     *     if (p &lt;= one) return p;
+     *     m = p - one; a = fib(m); k = m - one; b = fib(k); r = a + b;
+     *     return r;
+     * }
+     * int sq(int p) { s = p * p; return s; }
+     * int even(int p) {
+     *     zero = 0;
+     *     if (p == zero) { t = 1; return t; }
+     *     one = 1; m = p - one; r = odd(m); return r;
+     * }
+     * int odd(int p) { one = 1; m = p - one; r = even(m); return r; }
+     * </pre>
+     * whose call graph has a recursive method, a cycle of two methods,
+     * a leaf method and a call site without result.
+     */
+    public static SyntheticProgram recursion() {
+        SyntheticProgram program = new SyntheticProgram();
+        program.method("main")
+                .assign("n", 10)
+                .call("r", "fib", "n")
+                .assign("c", 3)
+                .call("s", "sq", "c")
+                .call("e", "even", "n")
+                .call(null, "sq", "c")
+                .ret("r");
+        program.method("fib")
+                .assign("one", 1)
+                .ifGoto("p", ConditionExp.Op.LE, "one", 8)
+                .binary("m", "p", ArithmeticExp.Op.SUB, "one")
+                .call("a", "fib", "m")
+                .binary("k", "m", ArithmeticExp.Op.SUB, "one")
+                .call("b", "fib", "k")
+                .binary("r", "a", ArithmeticExp.Op.ADD, "b")
+                .ret("r")
+                .ret("p");
+        program.method("sq")
+                .binary("s", "p", ArithmeticExp.Op.MUL, "p")
+                .ret("s");
+        program.method("even")
+                .assign("zero", 0)
+                .ifGoto("p", ConditionExp.Op.EQ, "zero", 6)
+                .assign("one", 1)
+                .binary("m", "p", ArithmeticExp.Op.SUB, "one")
+                .call("r", "odd", "m")
+                .ret("r")
+                .assign("t", 1)
+                .ret("t");
+        program.method("odd")
+                .assign("one", 1)
+                .binary("m", "p", ArithmeticExp.Op.SUB, "one")
+                .call("r", "even", "m")
+                .ret("r");
+        return program.build("main");
+    }
+
+    /**
+     * @return the builder of the method of given name,
+     * which is declared on first request.
+     */
+    public MethodBuilder method(String name) {
+        return methods.computeIfAbsent(name, MethodBuilder::new);
+    }
+
+    /**
+     * Builds the IRs and CFGs of the methods, and the call graph and
+     * ICFG of the methods reachable from given entry method.
+     */
+    public SyntheticProgram build(String entry) {
+        World world = new World();
+        world.setIRBuilder(new IRBuilder() {
+            @Override
+            public IR buildIR(JMethod method) {
+                return irs.get(method);
+            }
+
+            @Override
+            public void buildAll(ClassHierarchy hierarchy) {
+            }
+        });
+        World.set(world);
+        methods.values().forEach(MethodBuilder::finish);
+        DefaultCallGraph callGraph = new DefaultCallGraph();
+        JMethod entryMethod = getMethod(entry);
+        callGraph.addEntryMethod(entryMethod);
+        callGraph.addReachableMethod(entryMethod);
+        Deque<JMethod> workList = new ArrayDeque<>(List.of(entryMethod));
+        while (!workList.isEmpty()) {
+            for (Stmt stmt : workList.pop().getIR()) {
+                if (stmt instanceof Invoke invoke) {
+                    JMethod callee = getMethod(callees.get(invoke));
+                    callGraph.addEdge(new Edge<>(CallKind.STATIC, invoke, callee));
+                    if (callGraph.addReachableMethod(callee)) {
+                        workList.push(callee);
+                    }
+                }
+            }
+        }
+        world.storeResult(CallGraphBuilder.ID, callGraph);
+        world.storeResult(ICFGBuilder.ID, new ICFGBuilder(
+                new AnalysisConfig(ICFGBuilder.ID, "dump", false)).analyze());
+        return this;
+    }
+
+    public JMethod getMethod(String name) {
+        return methods.get(name).method;
+    }
+
+    public Var getVar(String method, String var) {
+        return methods.get(method).vars.get(var);
+    }
+
+    public Stmt getStmt(String method, int index) {
+        return getMethod(method).getIR().getStmt(index);
+    }
+
+    /**
+     * Adds the statements of a method. The parameter of the method
+     * is variable {@code p}; other variables are declared on first use.
+     */
+    public class MethodBuilder {
+
+        private final JMethod method;
+
+        private final Map<String, Var> vars = new LinkedHashMap<>();
+
+        private final List<Stmt> stmts = new ArrayList<>();
+
+        /**
+         * Setters of the targets of jumps, applied when the method is
+         * finished, so that the jumps can go forward.
+         */
+        private final Map<IntConsumer, Integer> jumps = new LinkedHashMap<>();
+
+        private final Set<Var> returnVars = new LinkedHashSet<>();
+
+        private MethodBuilder(String name) {
+            method = new JMethod(jclass, name, Set.of(Modifier.STATIC),
+                    List.of(PrimitiveType.INT), PrimitiveType.INT,
+                    List.of(), null, null, null);
+            var("p");
+        }
+
+        private Var var(String name) {
+            return vars.computeIfAbsent(name, n -> new Var(
+                    method, n, PrimitiveType.INT, vars.size()));
+        }
+
+        /**
+         * Adds {@code x = value}.
+         */
+        public MethodBuilder assign(String x, int value) {
+            stmts.add(new AssignLiteral(var(x), IntLiteral.get(value)));
+            return this;
+        }
+
+        /**
+         * Adds {@code x = y op z}.
+         */
+        public MethodBuilder binary(String x, String y,
+                                    ArithmeticExp.Op op, String z) {
+            stmts.add(new Binary(var(x),
+                    new ArithmeticExp(op, var(y), var(z))));
+            return this;
+        }
+
+        /**
+         * Adds {@code if (y op z) goto target}, where {@code target}
+         * is the index of a statement.
+         */
+        public MethodBuilder ifGoto(String y, ConditionExp.Op op, String z,
+                                    int target) {
+            If ifStmt = new If(new ConditionExp(op, var(y), var(z)));
+            stmts.add(ifStmt);
+            jumps.put(i -> ifStmt.setTarget(stmts.get(i)), target);
+            return this;
+        }
+
+        /**
+         * Adds {@code x = callee(arg)}, or {@code callee(arg)} if
+         * {@code x} is null.
+         */
+        public MethodBuilder call(String x, String callee, String arg) {
+            MethodRef ref = MethodRef.get(jclass, callee,
+                    List.of(PrimitiveType.INT), PrimitiveType.INT, true);
+            Invoke invoke = new Invoke(method,
+                    new InvokeStatic(ref, List.of(var(arg))),
+                    x == null ? null : var(x));
+            stmts.add(invoke);
+            callees.put(invoke, callee);
+            return this;
+        }
+
+        /**
+         * Adds {@code return x}.
+         */
+        public MethodBuilder ret(String x) {
+            stmts.add(new Return(var(x)));
+            returnVars.add(var(x));
+            return this;
+        }
+
+        private void finish() {
+            jumps.forEach(IntConsumer::accept);
+            for (int i = 0; i < stmts.size(); ++i) {
+                stmts.get(i).setIndex(i);
+            }
+            IR ir = new DefaultIR(method, null, List.of(vars.get("p")),
+                    returnVars, new ArrayList<>(vars.values()), stmts, List.of());
+            ir.storeResult(CFGBuilder.ID, CFG_BUILDER.analyze(ir));
+            irs.put(method, ir);
+        }
+    }
+}
@@ -120,8 +120,8 @@ public abstract class AbstractInterDataflowAnalysis<Method, Node, Fact>
     @Override
     public Object analyze() {
         icfg = World.get().getResult(ICFGBuilder.ID);
-        initialize();
         solver = new InterSolver<>(this, icfg);
+        initialize();
         DataflowResult<Node, Fact> result = solver.solve();
         finish();
         return result;
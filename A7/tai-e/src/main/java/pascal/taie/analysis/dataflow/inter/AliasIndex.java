@@ -0,0 +1,165 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.JField;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Index from the field and array loads to the stores which may write
+ * the locations they read, according to the result of pointer analysis.
+ * <p>
+ * The stores are first grouped by {@link JField} and base object
+ * (instance fields), by {@link JField} (static fields), and by array
+ * object (arrays). Then the stores of each load are collected from
+ * the groups of the objects pointed to by its base, so that looking up
+ * the aliases of a load (or the loads of a store) takes O(aliases) time.
+ * <p>
+ * Only the loads and stores of the variables accepted by the given filter
+ * (e.g., the ones which can hold int values) are indexed.
+ */
+class AliasIndex {
+
+    private static final Logger logger = LogManager.getLogger(AliasIndex.class);
+
+    private final Map<LoadField, List<StoreField>> fieldStores = new HashMap<>();
+
+    private final Map<LoadArray, List<StoreArray>> arrayStores = new HashMap<>();
+
+    /**
+     * Loads which may read the location written by each store.
+     */
+    private final Map<Stmt, List<Stmt>> loads = new HashMap<>();
+
+    AliasIndex(PointerAnalysisResult pta, Iterable<Stmt> stmts,
+               Predicate<Var> filter) {
+        Map<JField, Map<Obj, List<StoreField>>> instanceStores = new HashMap<>();
+        Map<JField, List<StoreField>> staticStores = new HashMap<>();
+        Map<Obj, List<StoreArray>> objArrayStores = new HashMap<>();
+        for (Stmt stmt : stmts) {
+            if (stmt instanceof StoreField store && filter.test(store.getRValue())) {
+                JField field = store.getFieldRef().resolve();
+                if (store.isStatic()) {
+                    staticStores.computeIfAbsent(field, f -> new ArrayList<>())
+                            .add(store);
+                } else {
+                    Map<Obj, List<StoreField>> stores = instanceStores
+                            .computeIfAbsent(field, f -> new HashMap<>());
+                    Var base = ((InstanceFieldAccess) store.getFieldAccess()).getBase();
+                    for (Obj obj : pta.getPointsToSet(base)) {
+                        stores.computeIfAbsent(obj, o -> new ArrayList<>())
+                                .add(store);
+                    }
+                }
+            } else if (stmt instanceof StoreArray store && filter.test(store.getRValue())) {
+                Var base = store.getArrayAccess().getBase();
+                for (Obj obj : pta.getPointsToSet(base)) {
+                    objArrayStores.computeIfAbsent(obj, o -> new ArrayList<>())
+                            .add(store);
+                }
+            }
+        }
+        for (Stmt stmt : stmts) {
+            if (stmt instanceof LoadField load && filter.test(load.getLValue())) {
+                JField field = load.getFieldRef().resolve();
+                if (load.isStatic()) {
+                    addStores(load, fieldStores,
+                            staticStores.getOrDefault(field, List.of()));
+                } else {
+                    Map<Obj, List<StoreField>> stores =
+                            instanceStores.getOrDefault(field, Map.of());
+                    Var base = ((InstanceFieldAccess) load.getFieldAccess()).getBase();
+                    Set<StoreField> aliases = new LinkedHashSet<>();
+                    for (Obj obj : pta.getPointsToSet(base)) {
+                        aliases.addAll(stores.getOrDefault(obj, List.of()));
+                    }
+                    addStores(load, fieldStores, aliases);
+                }
+            } else if (stmt instanceof LoadArray load && filter.test(load.getLValue())) {
+                Set<StoreArray> aliases = new LinkedHashSet<>();
+                for (Obj obj : pta.getPointsToSet(load.getArrayAccess().getBase())) {
+                    aliases.addAll(objArrayStores.getOrDefault(obj, List.of()));
+                }
+                addStores(load, arrayStores, aliases);
+            }
+        }
+        logger.info("{} field loads, {} array loads, {} stores with aliased loads"
+                        + " in alias index",
+                fieldStores.size(), arrayStores.size(), loads.size());
+    }
+
+    private <L extends Stmt, S extends Stmt> void addStores(
+            L load, Map<L, List<S>> index, Iterable<S> stores) {
+        List<S> list = new ArrayList<>();
+        for (S store : stores) {
+            list.add(store);
+            loads.computeIfAbsent(store, s -> new ArrayList<>()).add(load);
+        }
+        if (!list.isEmpty()) {
+            index.put(load, list);
+        }
+    }
+
+    /**
+     * @return the stores which may write the field read by given load.
+     */
+    List<StoreField> getStoresOf(LoadField load) {
+        return fieldStores.getOrDefault(load, List.of());
+    }
+
+    /**
+     * @return the stores which may write the array read by given load.
+     * The indexes are not considered.
+     */
+    List<StoreArray> getStoresOf(LoadArray load) {
+        return arrayStores.getOrDefault(load, List.of());
+    }
+
+    /**
+     * Applies given action to each pair of a store and a load
+     * which may read the location written by the store.
+     */
+    void forEachStoreLoad(BiConsumer<Stmt, Stmt> action) {
+        loads.forEach((store, storeLoads) ->
+                storeLoads.forEach(load -> action.accept(store, load)));
+    }
+}
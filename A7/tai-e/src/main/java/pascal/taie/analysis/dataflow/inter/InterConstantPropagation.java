@@ -25,6 +25,7 @@ package pascal.taie.analysis.dataflow.inter;
 import pascal.taie.World;
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.analysis.graph.icfg.CallEdge;
@@ -37,9 +38,17 @@ import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.InvokeExp;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
 import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
 import pascal.taie.language.classes.JMethod;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Implementation of interprocedural constant propagation for int values.
  */
@@ -50,6 +59,17 @@ public class InterConstantPropagation extends
 
     private final ConstantPropagation cp;
 
+    /**
+     * Stores aliased with each field and array load,
+     * or null if the analysis is not alias-aware.
+     */
+    private AliasIndex aliases;
+
+    /**
+     * The value (and index) last written by each store in {@link #aliases}.
+     */
+    private final Map<Stmt, StoredValue> storedValues = new HashMap<>();
+
     public InterConstantPropagation(AnalysisConfig config) {
         super(config);
         cp = new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID));
@@ -59,7 +79,11 @@ public class InterConstantPropagation extends
     protected void initialize() {
         String ptaId = getOptions().getString("pta");
         PointerAnalysisResult pta = World.get().getResult(ptaId);
-        // You can do initialization work here
+        if (getOptions().get("alias-aware") != null
+                && getOptions().getBoolean("alias-aware")) {
+            aliases = new AliasIndex(pta, icfg, ConstantPropagation::canHoldInt);
+            aliases.forEachStoreLoad(solver::addDependency);
+        }
     }
 
     @Override
@@ -85,37 +109,128 @@ public class InterConstantPropagation extends
 
     @Override
     protected boolean transferCallNode(Stmt stmt, CPFact in, CPFact out) {
-        // TODO - finish me
-        return false;
+        return out.copyFrom(in);
     }
 
     @Override
     protected boolean transferNonCallNode(Stmt stmt, CPFact in, CPFact out) {
-        // TODO - finish me
-        return false;
+        if (aliases != null) {
+            if (stmt instanceof LoadField load
+                    && ConstantPropagation.canHoldInt(load.getLValue())) {
+                return transferLoad(load.getLValue(), loadField(load), in, out);
+            }
+            if (stmt instanceof LoadArray load
+                    && ConstantPropagation.canHoldInt(load.getLValue())) {
+                return transferLoad(load.getLValue(), loadArray(load, in), in, out);
+            }
+            StoredValue stored = null;
+            if (stmt instanceof StoreField store
+                    && ConstantPropagation.canHoldInt(store.getRValue())) {
+                stored = new StoredValue(null, in.get(store.getRValue()));
+            } else if (stmt instanceof StoreArray store
+                    && ConstantPropagation.canHoldInt(store.getRValue())) {
+                stored = new StoredValue(
+                        in.get(store.getArrayAccess().getIndex()),
+                        in.get(store.getRValue()));
+            }
+            // UNDEF does not affect the loads, whatever the index is
+            if (stored != null && !stored.value().isUndef()
+                    && !stored.equals(storedValues.put(stmt, stored))) {
+                // only the aliased loads are affected by the change
+                solver.notifyDependents(stmt);
+            }
+        }
+        return cp.transferNode(stmt, in, out);
+    }
+
+    /**
+     * Value written by a store, and the index for array stores.
+     */
+    private record StoredValue(Value index, Value value) {
+    }
+
+    private static boolean transferLoad(Var var, Value value, CPFact in, CPFact out) {
+        CPFact result = in.copy();
+        result.update(var, value);
+        return out.copyFrom(result);
+    }
+
+    /**
+     * @return meet of the values stored by the stores aliased with given load.
+     */
+    private Value loadField(LoadField load) {
+        Value value = Value.getUndef();
+        for (StoreField store : aliases.getStoresOf(load)) {
+            value = cp.meetValue(value,
+                    solver.getInFact(store).get(store.getRValue()));
+        }
+        return value;
+    }
+
+    /**
+     * @return meet of the values stored by the stores aliased with given load,
+     * whose indexes may be the same as the one of the load.
+     */
+    private Value loadArray(LoadArray load, CPFact in) {
+        Value index = in.get(load.getArrayAccess().getIndex());
+        Value value = Value.getUndef();
+        for (StoreArray store : aliases.getStoresOf(load)) {
+            CPFact storeIn = solver.getInFact(store);
+            if (mayAlias(index, storeIn.get(store.getArrayAccess().getIndex()))) {
+                value = cp.meetValue(value, storeIn.get(store.getRValue()));
+            }
+        }
+        return value;
+    }
+
+    /**
+     * @return true if two array indexes of given values may be the same.
+     */
+    private static boolean mayAlias(Value i1, Value i2) {
+        if (i1.isUndef() || i2.isUndef()) {
+            return false;
+        }
+        return i1.isNAC() || i2.isNAC() || i1.equals(i2);
     }
 
     @Override
     protected CPFact transferNormalEdge(NormalEdge<Stmt> edge, CPFact out) {
-        // TODO - finish me
-        return null;
+        return out;
     }
 
     @Override
     protected CPFact transferCallToReturnEdge(CallToReturnEdge<Stmt> edge, CPFact out) {
-        // TODO - finish me
-        return null;
+        CPFact fact = out.copy();
+        edge.getSource().getDef().ifPresent(def -> {
+            if (def instanceof Var var) {
+                fact.remove(var);
+            }
+        });
+        return fact;
     }
 
     @Override
     protected CPFact transferCallEdge(CallEdge<Stmt> edge, CPFact callSiteOut) {
-        // TODO - finish me
-        return null;
+        CPFact fact = newInitialFact();
+        InvokeExp invokeExp = ((Invoke) edge.getSource()).getInvokeExp();
+        List<Var> params = edge.getCallee().getIR().getParams();
+        for (int i = 0; i < params.size(); ++i) {
+            fact.update(params.get(i), callSiteOut.get(invokeExp.getArg(i)));
+        }
+        return fact;
     }
 
     @Override
     protected CPFact transferReturnEdge(ReturnEdge<Stmt> edge, CPFact returnOut) {
-        // TODO - finish me
-        return null;
+        CPFact fact = newInitialFact();
+        Var result = ((Invoke) edge.getCallSite()).getResult();
+        if (result != null) {
+            Value value = Value.getUndef();
+            for (Var ret : edge.getReturnVars()) {
+                value = cp.meetValue(value, returnOut.get(ret));
+            }
+            fact.update(result, value);
+        }
+        return fact;
     }
 }
@@ -24,8 +24,12 @@ package pascal.taie.analysis.dataflow.inter;
 
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
 import pascal.taie.util.collection.SetQueue;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -45,6 +49,13 @@ class InterSolver<Method, Node, Fact> {
 
     private Queue<Node> workList;
 
+    /**
+     * Dependency edges besides the ICFG edges: the nodes which read
+     * facts produced at each node, e.g., loads which read the values
+     * written by aliased stores.
+     */
+    private final Map<Node, Set<Node>> dependents = new HashMap<>();
+
     InterSolver(InterDataflowAnalysis<Node, Fact> analysis,
                 ICFG<Method, Node> icfg) {
         this.analysis = analysis;
@@ -59,10 +70,53 @@ class InterSolver<Method, Node, Fact> {
     }
 
     private void initialize() {
-        // TODO - finish me
+        workList = new SetQueue<>();
+        for (Node node : icfg) {
+            result.setInFact(node, analysis.newInitialFact());
+            result.setOutFact(node, analysis.newInitialFact());
+        }
+        icfg.entryMethods().forEach(method -> {
+            Node entry = icfg.getEntryOf(method);
+            result.setInFact(entry, analysis.newBoundaryFact(entry));
+        });
     }
 
     private void doSolve() {
-        // TODO - finish me
+        workList.addAll(icfg.getNodes());
+        while (!workList.isEmpty()) {
+            Node node = workList.poll();
+            Fact in = result.getInFact(node);
+            for (ICFGEdge<Node> edge : icfg.getInEdgesOf(node)) {
+                analysis.meetInto(analysis.transferEdge(edge,
+                        result.getOutFact(edge.getSource())), in);
+            }
+            if (analysis.transferNode(node, in, result.getOutFact(node))) {
+                workList.addAll(icfg.getSuccsOf(node));
+            }
+        }
+    }
+
+    /**
+     * Adds a dependency edge from source to target, i.e., target reads
+     * facts produced at source, and needs to be re-propagated when
+     * {@link #notifyDependents(Node)} is called on source.
+     */
+    void addDependency(Node source, Node target) {
+        dependents.computeIfAbsent(source, n -> new HashSet<>()).add(target);
+    }
+
+    /**
+     * Adds the dependents of given node to the work list. The analysis calls
+     * this method when the facts read by the dependents have changed.
+     */
+    void notifyDependents(Node source) {
+        workList.addAll(dependents.getOrDefault(source, Set.of()));
+    }
+
+    /**
+     * @return the IN fact of given node in the current state of solving.
+     */
+    Fact getInFact(Node node) {
+        return result.getInFact(node);
     }
 }
@@ -0,0 +1,291 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.inter;
+
+import org.junit.Before;
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.pta.core.heap.MockObj;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.ArrayAccess;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.StaticFieldAccess;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.proginfo.FieldRef;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.annotation.AnnotationHolder;
+import pascal.taie.language.classes.ClassHierarchyImpl;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JClassBuilder;
+import pascal.taie.language.classes.JClassLoader;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Modifier;
+import pascal.taie.language.type.ArrayType;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.PrimitiveType;
+import pascal.taie.language.type.Type;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AliasIndexTest {
+
+    private JClass jclass;
+
+    private ArrayType arrayType;
+
+    private final SimplePointerAnalysisResult pta = new SimplePointerAnalysisResult();
+
+    private final List<Stmt> stmts = new ArrayList<>();
+
+    private int vars;
+
+    @Before
+    public void setUp() {
+        jclass = newClass("C", Map.of(
+                "f", PrimitiveType.INT,
+                "g", PrimitiveType.INT,
+                "l", PrimitiveType.LONG,
+                "s", PrimitiveType.INT));
+        arrayType = new ArrayType(PrimitiveType.INT, 1, PrimitiveType.INT);
+    }
+
+    @Test
+    public void testInstanceFields() {
+        Obj o1 = newObj("o1"), o2 = newObj("o2");
+        Var p = newRef("p", o1), q = newRef("q", o2), pq = newRef("pq", o1, o2);
+        Var x = newInt("x"), y = newInt("y"), z = newInt("z");
+        StoreField s1 = add(new StoreField(instance(p, "f"), x));
+        StoreField s2 = add(new StoreField(instance(q, "f"), y));
+        add(new StoreField(instance(p, "g"), x));
+        LoadField l1 = add(new LoadField(z, instance(p, "f")));
+        LoadField l2 = add(new LoadField(z, instance(pq, "f")));
+        LoadField l3 = add(new LoadField(z, instance(q, "g")));
+        AliasIndex index = newIndex();
+        assertEquals(List.of(s1), index.getStoresOf(l1));
+        assertEquals(Set.of(s1, s2), Set.copyOf(index.getStoresOf(l2)));
+        assertTrue(index.getStoresOf(l3).isEmpty());
+    }
+
+    @Test
+    public void testStaticFields() {
+        Var x = newInt("x"), z = newInt("z");
+        StoreField store = add(new StoreField(new StaticFieldAccess(ref("s")), x));
+        LoadField load = add(new LoadField(z, new StaticFieldAccess(ref("s"))));
+        assertEquals(List.of(store), newIndex().getStoresOf(load));
+    }
+
+    @Test
+    public void testArrays() {
+        Obj a1 = newArray("a1"), a2 = newArray("a2");
+        Var p = newArrayRef("p", a1), q = newArrayRef("q", a2);
+        Var i = newInt("i"), x = newInt("x"), z = newInt("z");
+        StoreArray s1 = add(new StoreArray(new ArrayAccess(p, i), x));
+        StoreArray s2 = add(new StoreArray(new ArrayAccess(q, i), x));
+        LoadArray l1 = add(new LoadArray(z, new ArrayAccess(p, i)));
+        LoadArray l2 = add(new LoadArray(z, new ArrayAccess(q, i)));
+        AliasIndex index = newIndex();
+        assertEquals(List.of(s1), index.getStoresOf(l1));
+        assertEquals(List.of(s2), index.getStoresOf(l2));
+    }
+
+    @Test
+    public void testFilter() {
+        Obj o = newObj("o");
+        Var p = newRef("p", o);
+        Var w = new Var(null, "w", PrimitiveType.LONG, vars++);
+        add(new StoreField(instance(p, "l"), w));
+        LoadField load = add(new LoadField(w, instance(p, "l")));
+        AliasIndex index = newIndex();
+        assertTrue(index.getStoresOf(load).isEmpty());
+        index.forEachStoreLoad((s, l) -> {
+            throw new AssertionError("unexpected pair " + s + ", " + l);
+        });
+    }
+
+    @Test
+    public void testForEachStoreLoad() {
+        Obj o1 = newObj("o1"), o2 = newObj("o2");
+        Var p = newRef("p", o1), q = newRef("q", o2), pq = newRef("pq", o1, o2);
+        Var x = newInt("x"), z = newInt("z");
+        StoreField s1 = add(new StoreField(instance(p, "f"), x));
+        StoreField s2 = add(new StoreField(instance(q, "f"), x));
+        StoreField s3 = add(new StoreField(new StaticFieldAccess(ref("s")), x));
+        LoadField l1 = add(new LoadField(z, instance(pq, "f")));
+        LoadField l2 = add(new LoadField(z, instance(q, "f")));
+        LoadField l3 = add(new LoadField(z, new StaticFieldAccess(ref("s"))));
+        Set<List<Stmt>> pairs = new HashSet<>();
+        newIndex().forEachStoreLoad((store, load) ->
+                assertTrue(pairs.add(List.of(store, load))));
+        assertEquals(Set.of(List.of(s1, l1), List.of(s2, l1),
+                List.of(s2, l2), List.of(s3, l3)), pairs);
+    }
+
+    private AliasIndex newIndex() {
+        return new AliasIndex(pta, stmts, ConstantPropagation::canHoldInt);
+    }
+
+    private <S extends Stmt> S add(S stmt) {
+        stmt.setIndex(stmts.size());
+        stmts.add(stmt);
+        return stmt;
+    }
+
+    private Obj newObj(String name) {
+        return new MockObj("test", name, jclass.getType());
+    }
+
+    private Obj newArray(String name) {
+        return new MockObj("test", name, arrayType);
+    }
+
+    private Var newRef(String name, Obj... objs) {
+        Var var = new Var(null, name, jclass.getType(), vars++);
+        pta.setPointsToSet(var, objs);
+        return var;
+    }
+
+    private Var newArrayRef(String name, Obj... objs) {
+        Var var = new Var(null, name, arrayType, vars++);
+        pta.setPointsToSet(var, objs);
+        return var;
+    }
+
+    private Var newInt(String name) {
+        return new Var(null, name, PrimitiveType.INT, vars++);
+    }
+
+    private FieldRef ref(String field) {
+        JField f = jclass.getDeclaredField(field);
+        return FieldRef.get(jclass, field, f.getType(), f.isStatic());
+    }
+
+    private InstanceFieldAccess instance(Var base, String field) {
+        return new InstanceFieldAccess(ref(field), base);
+    }
+
+    /**
+     * Creates a class with given fields, which are static if their names
+     * start with "s", and sets a new {@link World} whose class hierarchy
+     * contains the class, so that references to the fields can be resolved.
+     */
+    static JClass newClass(String name, Map<String, Type> fieldTypes) {
+        List<JClass> classes = new ArrayList<>();
+        JClassLoader loader = new JClassLoader() {
+            @Override
+            public JClass loadClass(String className) {
+                return classes.stream()
+                        .filter(c -> c.getName().equals(className))
+                        .findFirst()
+                        .orElse(null);
+            }
+
+            @Override
+            public Collection<JClass> getLoadedClasses() {
+                return classes;
+            }
+        };
+        JClass jclass = new JClass(loader, name);
+        classes.add(jclass);
+        ClassType classType = new ClassType(loader, name);
+        List<JField> fields = new ArrayList<>();
+        fieldTypes.forEach((field, type) -> fields.add(new JField(jclass, field,
+                field.startsWith("s") ? Set.of(Modifier.STATIC) : Set.of(),
+                type, null)));
+        jclass.build(new JClassBuilder() {
+            @Override
+            public void build(JClass jclass) {
+            }
+
+            @Override
+            public Set<Modifier> getModifiers() {
+                return Set.of();
+            }
+
+            @Override
+            public String getSimpleName() {
+                return name;
+            }
+
+            @Override
+            public ClassType getClassType() {
+                return classType;
+            }
+
+            @Override
+            public JClass getSuperClass() {
+                return null;
+            }
+
+            @Override
+            public Collection<JClass> getInterfaces() {
+                return List.of();
+            }
+
+            @Override
+            public JClass getOuterClass() {
+                return null;
+            }
+
+            @Override
+            public Collection<JField> getDeclaredFields() {
+                return fields;
+            }
+
+            @Override
+            public Collection<JMethod> getDeclaredMethods() {
+                return List.of();
+            }
+
+            @Override
+            public AnnotationHolder getAnnotationHolder() {
+                return null;
+            }
+
+            @Override
+            public boolean isApplication() {
+                return true;
+            }
+        });
+        ClassHierarchyImpl hierarchy = new ClassHierarchyImpl();
+        hierarchy.addClass(jclass);
+        World world = new World();
+        world.setClassHierarchy(hierarchy);
+        World.set(world);
+        return jclass;
+    }
+}
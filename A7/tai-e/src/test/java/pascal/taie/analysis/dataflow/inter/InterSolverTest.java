@@ -0,0 +1,235 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.inter;
+
+import org.junit.Before;
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
+import pascal.taie.analysis.graph.callgraph.DefaultCallGraph;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGBuilder;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.pta.core.heap.MockObj;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.DefaultIR;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.IRBuilder;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.proginfo.FieldRef;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Modifier;
+import pascal.taie.language.type.PrimitiveType;
+import pascal.taie.language.type.Type;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+
+public class InterSolverTest {
+
+    private final SimplePointerAnalysisResult pta = new SimplePointerAnalysisResult();
+
+    private Var x, y;
+
+    private LoadField l1, l2;
+
+    private StoreField s1, s2;
+
+    private Stmt ret;
+
+    /**
+     * Builds the method
+     * <pre>
+     * static int main(int p0) {
+     *     y = q.f;   // l2, q points to o2
+     *     x = p.f;   // l1, p points to o1
+     *     a = 1;
+     *     p.f = a;   // s1
+     *     b = 2;
+     *     q.f = b;   // s2
+     *     return x;
+     * }
+     * </pre>
+     * and sets the call graph, ICFG and {@link #pta} in the world.
+     * The loads come before the stores, thus they are solved correctly
+     * only if the solver re-propagates them when the stores change.
+     */
+    @Before
+    public void setUp() {
+        JClass jclass = AliasIndexTest.newClass("C", Map.of("f", PrimitiveType.INT));
+        JMethod main = new JMethod(jclass, "main", Set.of(Modifier.STATIC),
+                List.of(PrimitiveType.INT), PrimitiveType.INT,
+                List.of(), null, null, null);
+        List<Var> vars = new ArrayList<>();
+        Var p0 = newVar(main, vars, "p0", PrimitiveType.INT);
+        Var p = newVar(main, vars, "p", jclass.getType());
+        Var q = newVar(main, vars, "q", jclass.getType());
+        Var a = newVar(main, vars, "a", PrimitiveType.INT);
+        Var b = newVar(main, vars, "b", PrimitiveType.INT);
+        x = newVar(main, vars, "x", PrimitiveType.INT);
+        y = newVar(main, vars, "y", PrimitiveType.INT);
+        Obj o1 = new MockObj("test", "o1", jclass.getType());
+        Obj o2 = new MockObj("test", "o2", jclass.getType());
+        pta.setPointsToSet(p, o1);
+        pta.setPointsToSet(q, o2);
+        FieldRef f = FieldRef.get(jclass, "f", PrimitiveType.INT, false);
+        l2 = new LoadField(y, new InstanceFieldAccess(f, q));
+        l1 = new LoadField(x, new InstanceFieldAccess(f, p));
+        s1 = new StoreField(new InstanceFieldAccess(f, p), a);
+        s2 = new StoreField(new InstanceFieldAccess(f, q), b);
+        ret = new Return(x);
+        List<Stmt> stmts = List.of(l2, l1,
+                new AssignLiteral(a, IntLiteral.get(1)), s1,
+                new AssignLiteral(b, IntLiteral.get(2)), s2, ret);
+        for (int i = 0; i < stmts.size(); ++i) {
+            stmts.get(i).setIndex(i);
+        }
+        IR ir = new DefaultIR(main, null, List.of(p0), Set.of(x),
+                vars, stmts, List.of());
+        ir.storeResult(CFGBuilder.ID, new CFGBuilder(new AnalysisConfig(
+                CFGBuilder.ID, "exception", "none", "dump", false)).analyze(ir));
+        World world = World.get();
+        world.setIRBuilder(new IRBuilder() {
+            @Override
+            public IR buildIR(JMethod method) {
+                return ir;
+            }
+
+            @Override
+            public void buildAll(ClassHierarchy hierarchy) {
+            }
+        });
+        DefaultCallGraph callGraph = new DefaultCallGraph();
+        callGraph.addEntryMethod(main);
+        callGraph.addReachableMethod(main);
+        world.storeResult(CallGraphBuilder.ID, callGraph);
+        world.storeResult(ICFGBuilder.ID, new ICFGBuilder(
+                new AnalysisConfig(ICFGBuilder.ID, "dump", false)).analyze());
+        world.storeResult("pta", pta);
+    }
+
+    private static Var newVar(JMethod method, List<Var> vars,
+                              String name, Type type) {
+        Var var = new Var(method, name, type, vars.size());
+        vars.add(var);
+        return var;
+    }
+
+    @Test
+    public void testNotifyDependents() {
+        ICFG<JMethod, Stmt> icfg = World.get().getResult(ICFGBuilder.ID);
+        RecordingAnalysis analysis = new RecordingAnalysis();
+        InterSolver<JMethod, Stmt, CPFact> solver = new InterSolver<>(analysis, icfg);
+        new AliasIndex(pta, icfg, ConstantPropagation::canHoldInt)
+                .forEachStoreLoad(solver::addDependency);
+        analysis.solver = solver;
+        solver.solve();
+        // each node is transferred once, as no fact changes,
+        // and l1 once more as s1 notifies its dependents
+        for (Stmt node : icfg) {
+            assertEquals(node.toString(), node == l1 ? 2 : 1,
+                    (int) analysis.transfers.get(node));
+        }
+    }
+
+    @Test
+    public void testLoadsBeforeStores() {
+        InterConstantPropagation cp = new InterConstantPropagation(
+                new AnalysisConfig(InterConstantPropagation.ID,
+                        "alias-aware", true, "pta", "pta"));
+        @SuppressWarnings("unchecked")
+        DataflowResult<Stmt, CPFact> result =
+                (DataflowResult<Stmt, CPFact>) cp.analyze();
+        CPFact fact = result.getInFact(ret);
+        assertEquals(Value.makeConstant(1), fact.get(x));
+        assertEquals(Value.makeConstant(2), fact.get(y));
+        assertEquals(Value.makeConstant(1), result.getInFact(s1).get(s1.getRValue()));
+        assertEquals(Value.makeConstant(2), result.getInFact(s2).get(s2.getRValue()));
+        assertEquals(Value.makeConstant(2), result.getOutFact(l2).get(y));
+    }
+
+    /**
+     * Analysis whose transfers never change facts. It records the number
+     * of transfers of each node, and notifies the dependents of
+     * {@link #s1} on its first transfer.
+     */
+    private class RecordingAnalysis implements InterDataflowAnalysis<Stmt, CPFact> {
+
+        private final Map<Stmt, Integer> transfers = new HashMap<>();
+
+        private InterSolver<JMethod, Stmt, CPFact> solver;
+
+        @Override
+        public boolean isForward() {
+            return true;
+        }
+
+        @Override
+        public CPFact newBoundaryFact(Stmt boundary) {
+            return new CPFact();
+        }
+
+        @Override
+        public CPFact newInitialFact() {
+            return new CPFact();
+        }
+
+        @Override
+        public void meetInto(CPFact fact, CPFact target) {
+        }
+
+        @Override
+        public boolean transferNode(Stmt node, CPFact in, CPFact out) {
+            if (transfers.merge(node, 1, Integer::sum) == 1 && node == s1) {
+                solver.notifyDependents(s1);
+            }
+            return false;
+        }
+
+        @Override
+        public CPFact transferEdge(ICFGEdge<Stmt> edge, CPFact out) {
+            return out;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AbstractResultHolder;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Pointer analysis result given by hand, which only provides
+ * the points-to sets of variables.
+ */
+class SimplePointerAnalysisResult extends AbstractResultHolder
+        implements PointerAnalysisResult {
+
+    private final Map<Var, Set<Obj>> pointsToSets = new HashMap<>();
+
+    void setPointsToSet(Var var, Obj... objs) {
+        pointsToSets.put(var, Set.of(objs));
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(Var var) {
+        return pointsToSets.getOrDefault(var, Set.of());
+    }
+
+    @Override
+    public Collection<Var> getVars() {
+        return pointsToSets.keySet();
+    }
+
+    @Override
+    public Collection<CSVar> getCSVars() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Collection<InstanceField> getInstanceFields() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Collection<ArrayIndex> getArrayIndexes() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Collection<StaticField> getStaticFields() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Collection<CSObj> getCSObjects() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Collection<Obj> getObjects() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Set<CSObj> getPointsToSet(CSVar var) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(Var base, JField field) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(JField field) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public CallGraph<CSCallSite, CSMethod> getCSCallGraph() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public CallGraph<Invoke, JMethod> getCallGraph() {
+        throw new UnsupportedOperationException();
+    }
+}